@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.concurrent;
+
+import org.gradle.internal.Stoppable;
+import org.gradle.internal.UncheckedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs jobs using a {@link StoppableExecutor}, with at most a given number of jobs submitted to it and not yet completed. {@link #execute(Runnable)}
+ * blocks while this number of jobs are queued or running, so that a producer which is faster than the jobs does not get too far ahead of them.
+ */
+public class BoundedExecutor implements Executor, Stoppable {
+    private final StoppableExecutor executor;
+    private final Semaphore permits;
+
+    public BoundedExecutor(StoppableExecutor executor, int maxJobs) {
+        this.executor = executor;
+        this.permits = new Semaphore(Math.max(1, maxJobs));
+    }
+
+    public void execute(final Runnable command) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Blocks until all submitted jobs have completed, then stops the executor. Rethrows the first failure of a job.
+     */
+    public void stop() {
+        executor.stop();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.concurrent
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class BoundedExecutorTest extends Specification {
+    final DefaultExecutorFactory factory = new DefaultExecutorFactory()
+    final BoundedExecutor executor = new BoundedExecutor(factory.create("test"), 2)
+
+    def cleanup() {
+        factory.stop()
+    }
+
+    def "blocks submission while maximum number of jobs have not completed"() {
+        def release = new CountDownLatch(1)
+        def submitted = new CountDownLatch(1)
+
+        given:
+        executor.execute { release.await() }
+        executor.execute { release.await() }
+
+        when:
+        Thread.start {
+            executor.execute {}
+            submitted.countDown()
+        }
+
+        then:
+        !submitted.await(200, TimeUnit.MILLISECONDS)
+
+        when:
+        release.countDown()
+
+        then:
+        submitted.await(20, TimeUnit.SECONDS)
+    }
+
+    def "runs no more than maximum number of jobs at the same time"() {
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def completed = new AtomicInteger()
+
+        when:
+        20.times {
+            executor.execute {
+                int count = running.incrementAndGet()
+                while (true) {
+                    int max = maxRunning.get()
+                    if (count <= max || maxRunning.compareAndSet(max, count)) {
+                        break
+                    }
+                }
+                Thread.sleep(10)
+                running.decrementAndGet()
+                completed.incrementAndGet()
+            }
+        }
+        executor.stop()
+
+        then:
+        maxRunning.get() <= 2
+        completed.get() == 20
+    }
+
+    def "releases permit when job fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        3.times {
+            executor.execute { throw failure }
+        }
+        executor.stop()
+
+        then:
+        RuntimeException e = thrown()
+        e.is(failure)
+    }
+}
@@ -36,9 +36,14 @@ import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
 import org.gradle.api.internal.artifacts.ivyservice.*;
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.ModuleResolutionCache;
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.SingleFileBackedModuleResolutionCache;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.ResolvedGraphCache;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.SingleFileBackedResolvedGraphCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.StartParameterResolutionOverride;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParserRegistry;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ReferencedPomCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleDescriptorCache;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.InMemoryModuleDescriptorCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleDescriptorCache;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.*;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.*;
@@ -48,11 +53,15 @@ import org.gradle.api.internal.artifacts.mvnsettings.*;
 import org.gradle.api.internal.artifacts.repositories.DefaultBaseRepositoryFactory;
 import org.gradle.api.internal.artifacts.repositories.cachemanager.DownloadingRepositoryCacheManager;
 import org.gradle.api.internal.artifacts.repositories.cachemanager.LocalFileRepositoryCacheManager;
+import org.gradle.api.internal.artifacts.repositories.resolver.VersionListingCache;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.api.internal.externalresource.cached.ByUrlCachedExternalResourceIndex;
 import org.gradle.api.internal.externalresource.ivy.ArtifactAtRepositoryCachedArtifactIndex;
+import org.gradle.api.internal.externalresource.local.ChecksumIndex;
 import org.gradle.api.internal.externalresource.local.LocallyAvailableResourceFinder;
+import org.gradle.api.internal.externalresource.local.PersistentChecksumIndex;
 import org.gradle.api.internal.externalresource.local.ivy.LocallyAvailableResourceFinderFactory;
+import org.gradle.api.internal.externalresource.transport.http.HttpConnectionPool;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.IdentityFileResolver;
 import org.gradle.api.internal.file.TmpDirTemporaryFileProvider;
@@ -63,7 +72,10 @@ import org.gradle.api.internal.notations.*;
 import org.gradle.api.internal.notations.api.NotationParser;
 import org.gradle.cache.CacheRepository;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.CompositeStoppable;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
@@ -74,13 +86,26 @@ import org.gradle.util.WrapUtil;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class DefaultDependencyManagementServices extends DefaultServiceRegistry implements DependencyManagementServices {
 
+    private StoppableExecutor repositoryProbeExecutor;
+    private StoppableExecutor metaDataExecutor;
+
     public DefaultDependencyManagementServices(ServiceRegistry parent) {
         super(parent);
     }
 
+    @Override
+    public void close() {
+        try {
+            CompositeStoppable.stoppable(repositoryProbeExecutor, metaDataExecutor).stop();
+        } finally {
+            super.close();
+        }
+    }
+
     public DependencyResolutionServices create(FileResolver resolver, DependencyMetaDataProvider dependencyMetaDataProvider, ProjectFinder projectFinder, DomainObjectContext domainObjectContext) {
         return new DefaultDependencyResolutionServices(this, resolver, dependencyMetaDataProvider, projectFinder, domainObjectContext);
     }
@@ -176,11 +201,23 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
         );
     }
 
+    protected ResolvedGraphCache createResolvedGraphCache() {
+        return new SingleFileBackedResolvedGraphCache(
+                get(ArtifactCacheMetaData.class),
+                get(CacheLockingManager.class)
+        );
+    }
+
+    protected InMemoryModuleDescriptorCache createInMemoryModuleDescriptorCache() {
+        return new InMemoryModuleDescriptorCache(10000);
+    }
+
     protected ModuleDescriptorCache createModuleDescriptorCache() {
         return new DefaultModuleDescriptorCache(
                 get(ArtifactCacheMetaData.class),
                 get(BuildCommencedTimeProvider.class),
-                get(CacheLockingManager.class)
+                get(CacheLockingManager.class),
+                get(InMemoryModuleDescriptorCache.class)
         );
     }
 
@@ -204,7 +241,11 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
     }
 
     protected ArtifactRevisionIdFileStore createArtifactRevisionIdFileStore() {
-        return new ArtifactRevisionIdFileStore(get(PathKeyFileStore.class), new TmpDirTemporaryFileProvider());
+        return new ArtifactRevisionIdFileStore(get(PathKeyFileStore.class), new TmpDirTemporaryFileProvider(), get(ChecksumIndex.class));
+    }
+
+    protected ChecksumIndex createChecksumIndex() {
+        return new PersistentChecksumIndex(get(ArtifactCacheMetaData.class).getCacheDir(), get(CacheLockingManager.class));
     }
 
     protected SettingsConverter createSettingsConverter() {
@@ -229,17 +270,21 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
 
     protected LocallyAvailableResourceFinder<ArtifactRevisionId> createArtifactRevisionIdLocallyAvailableResourceFinder() {
         LocallyAvailableResourceFinderFactory finderFactory = new LocallyAvailableResourceFinderFactory(
-                get(ArtifactCacheMetaData.class), get(LocalMavenRepositoryLocator.class), get(ArtifactRevisionIdFileStore.class)
+                get(ArtifactCacheMetaData.class), get(LocalMavenRepositoryLocator.class), get(ArtifactRevisionIdFileStore.class), get(ChecksumIndex.class)
         );
         return finderFactory.create();
     }
 
+    protected ParserRegistry createParserRegistry() {
+        return new ParserRegistry(new ReferencedPomCache());
+    }
+
     protected LocalFileRepositoryCacheManager createLocalRepositoryCacheManager() {
-        return new LocalFileRepositoryCacheManager("local");
+        return new LocalFileRepositoryCacheManager("local", get(ParserRegistry.class));
     }
 
     protected DownloadingRepositoryCacheManager createDownloadingRepositoryCacheManager() {
-        return new DownloadingRepositoryCacheManager("downloading", get(ArtifactRevisionIdFileStore.class), get(ByUrlCachedExternalResourceIndex.class),
+        return new DownloadingRepositoryCacheManager("downloading", get(ParserRegistry.class), get(ArtifactRevisionIdFileStore.class), get(ByUrlCachedExternalResourceIndex.class),
                 new TmpDirTemporaryFileProvider(), get(CacheLockingManager.class));
     }
 
@@ -249,10 +294,46 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
                 get(LocalFileRepositoryCacheManager.class),
                 get(DownloadingRepositoryCacheManager.class),
                 new TmpDirTemporaryFileProvider(),
-                get(ByUrlCachedExternalResourceIndex.class)
+                get(ByUrlCachedExternalResourceIndex.class),
+                get(HttpConnectionPool.class),
+                get(VersionListingCache.class),
+                Boolean.getBoolean("org.gradle.internal.http.conditionalRequests")
+        );
+    }
+
+    protected VersionListingCache createVersionListingCache() {
+        return new VersionListingCache();
+    }
+
+    protected HttpConnectionPool createHttpConnectionPool() {
+        return new HttpConnectionPool(
+                Integer.getInteger("org.gradle.internal.http.maxConnectionsPerHost", HttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                Integer.getInteger("org.gradle.internal.http.maxConnections", HttpConnectionPool.DEFAULT_MAX_CONNECTIONS),
+                Long.getLong("org.gradle.internal.http.idleConnectionTimeout", HttpConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS)
         );
     }
 
+    /**
+     * Returns the executor used to probe repositories, which is shared by all projects of the build and stopped when the build finishes.
+     */
+    private synchronized Executor getRepositoryProbeExecutor() {
+        if (repositoryProbeExecutor == null) {
+            repositoryProbeExecutor = get(ExecutorFactory.class).create("Probe repositories");
+        }
+        return repositoryProbeExecutor;
+    }
+
+    /**
+     * Returns the executor used to fetch meta-data ahead of the resolve, which is shared by all projects of the build and stopped when the build
+     * finishes.
+     */
+    private synchronized Executor getMetaDataExecutor() {
+        if (metaDataExecutor == null) {
+            metaDataExecutor = get(ExecutorFactory.class).create("Resolve meta-data");
+        }
+        return metaDataExecutor;
+    }
+
     private class DefaultDependencyResolutionServices implements DependencyResolutionServices {
         private final ServiceRegistry parent;
         private final FileResolver fileResolver;
@@ -337,6 +418,11 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
         ArtifactDependencyResolver createDependencyResolver(DefaultRepositoryHandler resolverProvider) {
             StartParameter startParameter = get(StartParameter.class);
             StartParameterResolutionOverride startParameterResolutionOverride = new StartParameterResolutionOverride(startParameter);
+            // Repositories are probed one at a time, unless concurrent probing has been requested
+            Executor repositoryProbeExecutor = null;
+            if (Boolean.getBoolean("org.gradle.internal.resolve.concurrentRepositoryProbing")) {
+                repositoryProbeExecutor = getRepositoryProbeExecutor();
+            }
             ResolveIvyFactory ivyFactory = new ResolveIvyFactory(
                     get(IvyFactory.class),
                     resolverProvider,
@@ -346,19 +432,41 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
                     get(ArtifactAtRepositoryCachedArtifactIndex.class),
                     get(CacheLockingManager.class),
                     startParameterResolutionOverride,
-                    get(BuildCommencedTimeProvider.class));
+                    get(BuildCommencedTimeProvider.class),
+                    repositoryProbeExecutor);
 
+            // By default, use as many downloads as the HTTP client allows connections to a single host
             ResolvedArtifactFactory resolvedArtifactFactory = new ResolvedArtifactFactory(
-                    get(CacheLockingManager.class)
+                    get(CacheLockingManager.class),
+                    get(ExecutorFactory.class),
+                    Integer.getInteger("org.gradle.internal.artifacts.maxParallelDownloads", 5)
             );
 
+            // Meta-data is fetched one module at a time, when it is required, unless concurrent fetching has been requested
+            Executor metaDataExecutor = null;
+            int maxParallelMetaDataFetches = 1;
+            if (Boolean.getBoolean("org.gradle.internal.resolve.concurrentMetaDataFetching")) {
+                metaDataExecutor = getMetaDataExecutor();
+                maxParallelMetaDataFetches = Integer.getInteger("org.gradle.internal.resolve.maxParallelMetaDataFetches", 5);
+            }
+
+            // Dependency graphs are resolved every time, unless caching them has been requested
+            ResolvedGraphCache resolvedGraphCache = null;
+            if (Boolean.getBoolean("org.gradle.internal.resolve.cacheResolvedGraphs") && !startParameter.isRefreshDependencies()) {
+                resolvedGraphCache = get(ResolvedGraphCache.class);
+            }
+
             ArtifactDependencyResolver resolver = new DefaultDependencyResolver(
                     ivyFactory,
                     get(PublishModuleDescriptorConverter.class),
                     resolvedArtifactFactory,
                     new DefaultProjectModuleRegistry(
                             get(PublishModuleDescriptorConverter.class)),
-                    get(ProjectAccessListener.class)
+                    get(ProjectAccessListener.class),
+                    get(CacheLockingManager.class),
+                    metaDataExecutor,
+                    maxParallelMetaDataFetches,
+                    resolvedGraphCache
             );
             return new ErrorHandlingArtifactDependencyResolver(
                     new ShortcircuitEmptyConfigsArtifactDependencyResolver(
@@ -37,7 +37,7 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
     private final String type;
     private final String ext;
     private Factory<File> artifactSource;
-    private File file;
+    private volatile File file;
 
     public DefaultResolvedArtifact(ResolvedDependency resolvedDependency, Artifact artifact, Factory<File> artifactSource) {
         this.resolvedDependency = resolvedDependency;
@@ -114,8 +114,22 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
     public String getClassifier() {
         return extraAttributes.get(Dependency.CLASSIFIER);
     }
+
+    /**
+     * Returns the qualified extra attributes of this artifact, including the classifier.
+     */
+    public Map<String, String> getExtraAttributes() {
+        return extraAttributes;
+    }
     
-    public File getFile() {
+    /**
+     * Returns true if the file of this artifact has already been resolved, so that {@link #getFile()} does not need to resolve it.
+     */
+    public boolean isResolved() {
+        return file != null;
+    }
+
+    public synchronized File getFile() {
         if (file == null) {
             file = artifactSource.create();
             artifactSource = null;
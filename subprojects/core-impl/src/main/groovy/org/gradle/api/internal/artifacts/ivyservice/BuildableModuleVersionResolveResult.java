@@ -26,6 +26,11 @@ public interface BuildableModuleVersionResolveResult extends ModuleVersionResolv
      */
     void resolved(ModuleVersionIdentifier moduleRevisionId, ModuleDescriptor descriptor, ArtifactResolver artifactResolver);
 
+    /**
+     * Marks the module version as resolved, with the given meta-data and artifact resolver, and whether the module version is changing.
+     */
+    void resolved(ModuleVersionIdentifier moduleRevisionId, ModuleDescriptor descriptor, boolean changing, ArtifactResolver artifactResolver);
+
     /**
      * Marks the resolve as failed with the given exception.
      */
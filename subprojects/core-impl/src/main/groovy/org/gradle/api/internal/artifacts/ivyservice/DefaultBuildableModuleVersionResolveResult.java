@@ -26,6 +26,7 @@ public class DefaultBuildableModuleVersionResolveResult implements BuildableModu
     private ModuleDescriptor moduleDescriptor;
     private ModuleVersionResolveException failure;
     private ArtifactResolver artifactResolver;
+    private boolean changing;
 
     public DefaultBuildableModuleVersionResolveResult failed(ModuleVersionResolveException failure) {
         moduleDescriptor = null;
@@ -39,8 +40,13 @@ public class DefaultBuildableModuleVersionResolveResult implements BuildableModu
     }
 
     public void resolved(ModuleVersionIdentifier moduleVersionIdentifier, ModuleDescriptor descriptor, ArtifactResolver artifactResolver) {
+        resolved(moduleVersionIdentifier, descriptor, false, artifactResolver);
+    }
+
+    public void resolved(ModuleVersionIdentifier moduleVersionIdentifier, ModuleDescriptor descriptor, boolean changing, ArtifactResolver artifactResolver) {
         this.moduleVersionIdentifier = moduleVersionIdentifier;
         this.moduleDescriptor = descriptor;
+        this.changing = changing;
         this.artifactResolver = artifactResolver;
     }
 
@@ -65,6 +71,11 @@ public class DefaultBuildableModuleVersionResolveResult implements BuildableModu
         return moduleDescriptor;
     }
 
+    public boolean isChanging() throws ModuleVersionResolveException {
+        assertResolved();
+        return changing;
+    }
+
     public ArtifactResolver getArtifactResolver() throws ModuleVersionResolveException {
         assertResolved();
         return artifactResolver;
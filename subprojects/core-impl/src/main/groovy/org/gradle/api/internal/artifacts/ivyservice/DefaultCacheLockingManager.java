@@ -28,7 +28,7 @@ import java.io.File;
 public class DefaultCacheLockingManager implements CacheLockingManager {
 
     // If you update this, also update DefaultGradleDistribution.getArtifactCacheLayoutVersion() (which is the historical record)
-    public static final int CACHE_LAYOUT_VERSION = 23;
+    public static final int CACHE_LAYOUT_VERSION = 24;
 
     private final PersistentCache cache;
 
@@ -57,6 +57,14 @@ public class DefaultCacheLockingManager implements CacheLockingManager {
         cache.useCache(operationDisplayName, action);
     }
 
+    public <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action) {
+        return cache.useCacheConcurrently(operationDisplayName, action);
+    }
+
+    public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+        cache.useCacheConcurrently(operationDisplayName, action);
+    }
+
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
         return cache.longRunningOperation(operationDisplayName, action);
     }
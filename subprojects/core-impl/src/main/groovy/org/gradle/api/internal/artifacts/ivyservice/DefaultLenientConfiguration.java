@@ -28,15 +28,17 @@ import java.util.*;
 public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder, LenientConfiguration {
     private final ResolvedDependency root;
     private final Configuration configuration;
+    private final ResolvedArtifactFactory artifactFactory;
     private final Map<ModuleDependency, ResolvedDependency> firstLevelDependencies = new LinkedHashMap<ModuleDependency, ResolvedDependency>();
     private final Set<ResolvedArtifact> artifacts = new LinkedHashSet<ResolvedArtifact>();
     private final Set<UnresolvedDependency> unresolvedDependencies = new LinkedHashSet<UnresolvedDependency>();
     private final CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact> walker
             = new CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact>(new ResolvedDependencyArtifactsGraph());
 
-    public DefaultLenientConfiguration(Configuration configuration, ResolvedDependency root) {
+    public DefaultLenientConfiguration(Configuration configuration, ResolvedDependency root, ResolvedArtifactFactory artifactFactory) {
         this.configuration = configuration;
         this.root = root;
+        this.artifactFactory = artifactFactory;
     }
 
     public boolean hasError() {
@@ -98,6 +100,7 @@ public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder
 
     public Set<File> getFilesStrict(Spec<? super Dependency> dependencySpec) {
         Set<ResolvedArtifact> artifacts = getAllArtifacts(dependencySpec);
+        artifactFactory.prefetch(artifacts);
         return getFiles(artifacts);
     }
 
@@ -108,6 +111,7 @@ public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder
      */
     public Set<ResolvedArtifact> getArtifacts(Spec<? super Dependency> dependencySpec) {
         Set<ResolvedArtifact> allArtifacts = getAllArtifacts(dependencySpec);
+        artifactFactory.prefetch(allArtifacts);
         return CollectionUtils.filter(allArtifacts, new Spec<ResolvedArtifact>() {
             public boolean isSatisfiedBy(ResolvedArtifact element) {
                 try {
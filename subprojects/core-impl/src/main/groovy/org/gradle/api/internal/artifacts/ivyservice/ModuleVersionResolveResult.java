@@ -34,6 +34,13 @@ public interface ModuleVersionResolveResult {
      */
     ModuleDescriptor getDescriptor() throws ModuleVersionResolveException;
 
+    /**
+     * Returns true if this module version is changing, that is, its meta-data and artifacts may change over time.
+     *
+     * @throws ModuleVersionResolveException If resolution was unsuccessful.
+     */
+    boolean isChanging() throws ModuleVersionResolveException;
+
     /**
      * Returns the resolve failure, if any.
      */
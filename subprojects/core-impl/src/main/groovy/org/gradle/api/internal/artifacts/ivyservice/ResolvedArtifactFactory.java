@@ -20,14 +20,33 @@ import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.artifacts.ResolvedDependency;
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class ResolvedArtifactFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResolvedArtifactFactory.class);
     private final CacheLockingManager lockingManager;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelDownloads;
 
     public ResolvedArtifactFactory(CacheLockingManager lockingManager) {
+        this(lockingManager, null, 1);
+    }
+
+    /**
+     * @param maxParallelDownloads The maximum number of artifacts to download at the same time. Artifacts are downloaded one at a time when this is 1.
+     */
+    public ResolvedArtifactFactory(CacheLockingManager lockingManager, ExecutorFactory executorFactory, int maxParallelDownloads) {
         this.lockingManager = lockingManager;
+        this.executorFactory = executorFactory;
+        this.maxParallelDownloads = maxParallelDownloads;
     }
 
     public ResolvedArtifact create(ResolvedDependency owner, final Artifact artifact, final ArtifactResolver resolver) {
@@ -43,4 +62,57 @@ public class ResolvedArtifactFactory {
             }
         });
     }
+
+    /**
+     * Downloads the files of the given artifacts concurrently, so that the files are available by the time they are requested. Each download
+     * holds the cache lock only while it is using the cache indexes, not while it is transferring the file. Failures are ignored here, and are
+     * reported when the file of the failed artifact is requested. Artifacts whose file has already been resolved are skipped, so that nothing
+     * is done when the files are requested again.
+     */
+    public void prefetch(Collection<? extends ResolvedArtifact> artifacts) {
+        final Queue<ResolvedArtifact> queue = new ConcurrentLinkedQueue<ResolvedArtifact>();
+        for (ResolvedArtifact artifact : artifacts) {
+            if (!(artifact instanceof DefaultResolvedArtifact) || !((DefaultResolvedArtifact) artifact).isResolved()) {
+                queue.add(artifact);
+            }
+        }
+        final int workers = Math.min(maxParallelDownloads, queue.size());
+        if (workers <= 1) {
+            // Nothing to gain, each file is downloaded when requested
+            return;
+        }
+
+        // Make sure this thread does not hold the cache lock while waiting for the downloads
+        lockingManager.useCache("download artifacts", new Runnable() {
+            public void run() {
+                lockingManager.longRunningOperation("download artifacts", new Runnable() {
+                    public void run() {
+                        downloadAll(queue, workers);
+                    }
+                });
+            }
+        });
+    }
+
+    private void downloadAll(final Queue<ResolvedArtifact> queue, int workers) {
+        StoppableExecutor executor = executorFactory.create("Download artifacts");
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        ResolvedArtifact artifact;
+                        while ((artifact = queue.poll()) != null) {
+                            try {
+                                artifact.getFile();
+                            } catch (Throwable throwable) {
+                                LOGGER.debug(String.format("Could not download %s in advance.", artifact), throwable);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+    }
 }
@@ -45,7 +45,7 @@ public class VersionForcingDependencyToModuleResolver implements DependencyToMod
     }
 
     public ModuleVersionIdResolveResult resolve(DependencyDescriptor dependencyDescriptor) {
-        ModuleVersionSelector module = new DefaultModuleVersionSelector(dependencyDescriptor.getDependencyRevisionId().getOrganisation(), dependencyDescriptor.getDependencyRevisionId().getName(), dependencyDescriptor.getDependencyRevisionId().getRevision());
+        ModuleVersionSelector module = toSelector(dependencyDescriptor);
         DefaultDependencyResolveDetails details = new DefaultDependencyResolveDetails(module);
         try {
             rule.execute(details);
@@ -53,15 +53,43 @@ public class VersionForcingDependencyToModuleResolver implements DependencyToMod
             return new FailedDependencyResolveRuleResult(module, e);
         }
         if (details.isUpdated()) {
-            ModuleId moduleId = new ModuleId(details.getTarget().getGroup(), details.getTarget().getName());
-            ModuleRevisionId revisionId = new ModuleRevisionId(moduleId, details.getTarget().getVersion());
-            DependencyDescriptor descriptor = descriptorFactory.create(dependencyDescriptor, revisionId);
-            ModuleVersionIdResolveResult result = resolver.resolve(descriptor);
+            ModuleVersionIdResolveResult result = resolver.resolve(substitute(dependencyDescriptor, details));
             return new SubstitutedModuleVersionIdResolveResult(result, details.getSelectionReason());
         }
         return resolver.resolve(dependencyDescriptor);
     }
 
+    /**
+     * Returns the dependency that is resolved in place of the given dependency, once the forced modules and the dependency resolve rules have
+     * been applied. Returns the given dependency when it is not replaced.
+     *
+     * @throws ModuleVersionResolveException If the rule fails.
+     */
+    public DependencyDescriptor substitute(DependencyDescriptor dependencyDescriptor) throws ModuleVersionResolveException {
+        ModuleVersionSelector module = toSelector(dependencyDescriptor);
+        DefaultDependencyResolveDetails details = new DefaultDependencyResolveDetails(module);
+        try {
+            rule.execute(details);
+        } catch (Throwable e) {
+            throw new ModuleVersionResolveException(module, e);
+        }
+        if (details.isUpdated()) {
+            return substitute(dependencyDescriptor, details);
+        }
+        return dependencyDescriptor;
+    }
+
+    private DependencyDescriptor substitute(DependencyDescriptor dependencyDescriptor, DefaultDependencyResolveDetails details) {
+        ModuleId moduleId = new ModuleId(details.getTarget().getGroup(), details.getTarget().getName());
+        ModuleRevisionId revisionId = new ModuleRevisionId(moduleId, details.getTarget().getVersion());
+        return descriptorFactory.create(dependencyDescriptor, revisionId);
+    }
+
+    private ModuleVersionSelector toSelector(DependencyDescriptor dependencyDescriptor) {
+        ModuleRevisionId id = dependencyDescriptor.getDependencyRevisionId();
+        return new DefaultModuleVersionSelector(id.getOrganisation(), id.getName(), id.getRevision());
+    }
+
     private class FailedDependencyResolveRuleResult implements ModuleVersionIdResolveResult {
 
         private final ModuleVersionResolveException failure;
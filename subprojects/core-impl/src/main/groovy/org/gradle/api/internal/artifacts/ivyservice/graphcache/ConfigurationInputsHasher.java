@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache;
+
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.version.VersionMatcher;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.Module;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionRepository;
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.StrictConflictResolution;
+import org.gradle.util.hash.HashUtil;
+
+import java.util.List;
+
+/**
+ * Calculates a hash of the inputs that determine the dependency graph of a configuration: the module that owns the configuration, the declared
+ * dependencies and exclude rules of the configuration and its super-configurations, the resolution strategy and the repositories.
+ *
+ * <p>The graph is only determined by these inputs when everything in it has a static version which is not changing, and it does not include
+ * anything which is defined by the build itself. No hash is calculated for configurations which declare such dependencies, which use
+ * dependency resolve rules, or which use local repositories, whose content is not cached.</p>
+ */
+public class ConfigurationInputsHasher {
+    private final VersionMatcher versionMatcher;
+
+    public ConfigurationInputsHasher(VersionMatcher versionMatcher) {
+        this.versionMatcher = versionMatcher;
+    }
+
+    /**
+     * Returns the hash of the inputs of the given configuration, or null when the dependency graph of the configuration is not determined by
+     * them.
+     */
+    @Nullable
+    public String hash(ConfigurationInternal configuration, List<? extends ModuleVersionRepository> repositories) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.hasDependencyResolveRules()) {
+            return null;
+        }
+
+        StringBuilder inputs = new StringBuilder();
+        Module module = configuration.getModule();
+        inputs.append(module.getGroup()).append(':').append(module.getName()).append(':').append(module.getVersion()).append(':').append(module.getStatus()).append('\n');
+        inputs.append(configuration.getName()).append(':').append(configuration.isTransitive()).append('\n');
+        for (Configuration superConfiguration : configuration.getHierarchy()) {
+            inputs.append(superConfiguration.getName()).append('\n');
+            appendExcludeRules(superConfiguration.getExcludeRules(), inputs);
+        }
+
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (!(dependency instanceof ModuleDependency)) {
+                // Files are not part of the graph
+                continue;
+            }
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                // Defined by the build
+                return null;
+            }
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+            if (moduleDependency.isChanging() || isDynamic(moduleDependency.getGroup(), moduleDependency.getName(), moduleDependency.getVersion())) {
+                return null;
+            }
+            inputs.append(moduleDependency.getGroup()).append(':').append(moduleDependency.getName()).append(':').append(moduleDependency.getVersion());
+            inputs.append(':').append(moduleDependency.getConfiguration()).append(':').append(moduleDependency.isTransitive()).append(':').append(moduleDependency.isForce()).append('\n');
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                inputs.append(artifact.getName()).append(':').append(artifact.getType()).append(':').append(artifact.getExtension());
+                inputs.append(':').append(artifact.getClassifier()).append(':').append(artifact.getUrl()).append('\n');
+            }
+            appendExcludeRules(moduleDependency.getExcludeRules(), inputs);
+        }
+
+        inputs.append(resolutionStrategy.getConflictResolution() instanceof StrictConflictResolution ? "strict" : "latest").append('\n');
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            inputs.append(forcedModule.getGroup()).append(':').append(forcedModule.getName()).append(':').append(forcedModule.getVersion()).append('\n');
+        }
+
+        for (ModuleVersionRepository repository : repositories) {
+            if (repository.isLocal()) {
+                return null;
+            }
+            inputs.append(repository.getId()).append('\n');
+        }
+
+        return HashUtil.createHash(inputs.toString(), "SHA1").asCompactString();
+    }
+
+    private void appendExcludeRules(Iterable<ExcludeRule> excludeRules, StringBuilder inputs) {
+        for (ExcludeRule excludeRule : excludeRules) {
+            inputs.append("exclude ").append(excludeRule.getGroup()).append(':').append(excludeRule.getModule()).append('\n');
+        }
+    }
+
+    private boolean isDynamic(String group, String name, String version) {
+        return versionMatcher.isDynamic(ModuleRevisionId.newInstance(group, name, version));
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache;
+
+import org.gradle.api.Nullable;
+
+/**
+ * A persistent cache of resolved dependency graphs, keyed by a hash of the inputs to the resolution.
+ */
+public interface ResolvedGraphCache {
+    /**
+     * Returns the encoded graph that was resolved from the given inputs, or null when no graph has been cached for them.
+     */
+    @Nullable
+    byte[] getResolvedGraph(String inputsHash);
+
+    void cacheResolvedGraph(String inputsHash, byte[] encodedGraph);
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.artifacts.*;
+import org.gradle.api.artifacts.result.*;
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
+import org.gradle.api.internal.artifacts.DefaultResolvedDependency;
+import org.gradle.api.internal.artifacts.ResolverResults;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ArtifactResolveException;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.InternalDependencyResult;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultBuilder;
+import org.gradle.api.specs.Spec;
+
+import java.io.*;
+import java.util.*;
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId;
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector;
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons.*;
+
+/**
+ * Encodes the result of resolving a configuration into a compact binary form, and rebuilds the result from this form. The artifacts of a
+ * rebuilt result are resolved using the meta-data of their module, which is looked up when the file of an artifact is first requested.
+ */
+public class ResolvedGraphSerializer {
+    private static final ModuleVersionSelectionReason[] REASONS = {REQUESTED, ROOT, FORCED, CONFLICT_RESOLUTION, SELECTED_BY_RULE, CONFLICT_RESOLUTION_BY_RULE};
+
+    /**
+     * Encodes the given result of resolving the given configuration. Returns null when the result cannot be encoded, such as when some
+     * dependencies could not be resolved.
+     */
+    @Nullable
+    public byte[] encode(ConfigurationInternal configuration, DefaultLenientConfiguration resolvedConfiguration, ResolutionResult resolutionResult) {
+        if (resolvedConfiguration.hasError()) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Encoder encoder = new Encoder(new DataOutputStream(bytes));
+            if (!encoder.writeResolvedConfiguration(configuration, resolvedConfiguration) || !encoder.writeResolutionResult(resolutionResult)) {
+                return null;
+            }
+            encoder.output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuilds the result of resolving the given configuration from its encoded form.
+     *
+     * @param moduleResolver The resolver to use to look up the meta-data of a module when the file of one of its artifacts is requested.
+     */
+    public ResolverResults decode(byte[] encodedGraph, ConfigurationInternal configuration, ResolvedArtifactFactory artifactFactory, DependencyToModuleResolver moduleResolver) {
+        try {
+            Decoder decoder = new Decoder(new DataInputStream(new ByteArrayInputStream(encodedGraph)));
+            DefaultLenientConfiguration resolvedConfiguration = decoder.readResolvedConfiguration(configuration, artifactFactory, moduleResolver);
+            ResolutionResult resolutionResult = decoder.readResolutionResult();
+            return new ResolverResults(new DefaultResolvedConfiguration(resolvedConfiguration), resolutionResult);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<ModuleDependency> getModuleDependencies(ConfigurationInternal configuration) {
+        return new ArrayList<ModuleDependency>(configuration.getAllDependencies().withType(ModuleDependency.class));
+    }
+
+    private static class Encoder {
+        private final DataOutputStream output;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        private Encoder(DataOutputStream output) {
+            this.output = output;
+        }
+
+        boolean writeResolvedConfiguration(ConfigurationInternal configuration, DefaultLenientConfiguration resolvedConfiguration) throws IOException {
+            List<ResolvedDependency> nodes = new ArrayList<ResolvedDependency>();
+            Map<ResolvedDependency, Integer> nodeIndexes = new HashMap<ResolvedDependency, Integer>();
+            nodes.add(resolvedConfiguration.getRoot());
+            nodeIndexes.put(resolvedConfiguration.getRoot(), 0);
+            for (int i = 0; i < nodes.size(); i++) {
+                for (ResolvedDependency child : nodes.get(i).getChildren()) {
+                    if (!nodeIndexes.containsKey(child)) {
+                        nodeIndexes.put(child, nodes.size());
+                        nodes.add(child);
+                    }
+                }
+            }
+
+            // Each artifact is owned by the node that it is first attached to
+            List<DefaultResolvedArtifact> artifacts = new ArrayList<DefaultResolvedArtifact>();
+            List<Integer> artifactOwners = new ArrayList<Integer>();
+            Map<ResolvedArtifact, Integer> artifactIndexes = new IdentityHashMap<ResolvedArtifact, Integer>();
+            int edgeCount = 0;
+            for (ResolvedDependency parent : nodes) {
+                for (ResolvedDependency child : parent.getChildren()) {
+                    edgeCount++;
+                    for (ResolvedArtifact artifact : child.getParentArtifacts(parent)) {
+                        if (!(artifact instanceof DefaultResolvedArtifact)) {
+                            return false;
+                        }
+                        if (!artifactIndexes.containsKey(artifact)) {
+                            artifactIndexes.put(artifact, artifacts.size());
+                            artifacts.add((DefaultResolvedArtifact) artifact);
+                            artifactOwners.add(nodeIndexes.get(child));
+                        }
+                    }
+                }
+            }
+
+            output.writeInt(nodes.size());
+            for (ResolvedDependency node : nodes) {
+                writeString(node.getModuleGroup());
+                writeString(node.getModuleName());
+                writeString(node.getModuleVersion());
+                writeString(node.getConfiguration());
+            }
+
+            output.writeInt(artifacts.size());
+            for (int i = 0; i < artifacts.size(); i++) {
+                DefaultResolvedArtifact artifact = artifacts.get(i);
+                output.writeInt(artifactOwners.get(i));
+                writeString(artifact.getName());
+                writeString(artifact.getType());
+                writeString(artifact.getExtension());
+                output.writeInt(artifact.getExtraAttributes().size());
+                for (Map.Entry<String, String> entry : artifact.getExtraAttributes().entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue());
+                }
+            }
+
+            output.writeInt(edgeCount);
+            for (ResolvedDependency parent : nodes) {
+                for (ResolvedDependency child : parent.getChildren()) {
+                    output.writeInt(nodeIndexes.get(parent));
+                    output.writeInt(nodeIndexes.get(child));
+                    Set<ResolvedArtifact> parentArtifacts = child.getParentArtifacts(parent);
+                    output.writeInt(parentArtifacts.size());
+                    for (ResolvedArtifact artifact : parentArtifacts) {
+                        output.writeInt(artifactIndexes.get(artifact));
+                    }
+                }
+            }
+
+            Set<ResolvedArtifact> resolvedArtifacts = resolvedConfiguration.getResolvedArtifacts();
+            output.writeInt(resolvedArtifacts.size());
+            for (ResolvedArtifact artifact : resolvedArtifacts) {
+                Integer index = artifactIndexes.get(artifact);
+                if (index == null) {
+                    return false;
+                }
+                output.writeInt(index);
+            }
+
+            List<ModuleDependency> moduleDependencies = getModuleDependencies(configuration);
+            List<Integer> firstLevelDependencies = new ArrayList<Integer>();
+            for (int i = 0; i < moduleDependencies.size(); i++) {
+                final ModuleDependency moduleDependency = moduleDependencies.get(i);
+                Set<ResolvedDependency> matches = resolvedConfiguration.getFirstLevelModuleDependencies(new Spec<Dependency>() {
+                    public boolean isSatisfiedBy(Dependency element) {
+                        return element == moduleDependency;
+                    }
+                });
+                for (ResolvedDependency match : matches) {
+                    firstLevelDependencies.add(i);
+                    firstLevelDependencies.add(nodeIndexes.get(match));
+                }
+            }
+            output.writeInt(firstLevelDependencies.size() / 2);
+            for (Integer index : firstLevelDependencies) {
+                output.writeInt(index);
+            }
+            return true;
+        }
+
+        boolean writeResolutionResult(ResolutionResult resolutionResult) throws IOException {
+            List<ResolvedModuleVersionResult> modules = new ArrayList<ResolvedModuleVersionResult>();
+            Map<ModuleVersionIdentifier, Integer> moduleIndexes = new HashMap<ModuleVersionIdentifier, Integer>();
+            modules.add(resolutionResult.getRoot());
+            moduleIndexes.put(resolutionResult.getRoot().getId(), 0);
+            for (int i = 0; i < modules.size(); i++) {
+                for (DependencyResult dependency : modules.get(i).getDependencies()) {
+                    if (!(dependency instanceof ResolvedDependencyResult)) {
+                        return false;
+                    }
+                    ResolvedModuleVersionResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                    if (!moduleIndexes.containsKey(selected.getId())) {
+                        moduleIndexes.put(selected.getId(), modules.size());
+                        modules.add(selected);
+                    }
+                }
+            }
+
+            output.writeInt(modules.size());
+            for (ResolvedModuleVersionResult module : modules) {
+                int reason = Arrays.asList(REASONS).indexOf(module.getSelectionReason());
+                if (reason < 0) {
+                    return false;
+                }
+                writeString(module.getId().getGroup());
+                writeString(module.getId().getName());
+                writeString(module.getId().getVersion());
+                output.writeByte(reason);
+            }
+            for (ResolvedModuleVersionResult module : modules) {
+                output.writeInt(module.getDependencies().size());
+                for (DependencyResult dependency : module.getDependencies()) {
+                    writeString(dependency.getRequested().getGroup());
+                    writeString(dependency.getRequested().getName());
+                    writeString(dependency.getRequested().getVersion());
+                    output.writeInt(moduleIndexes.get(((ResolvedDependencyResult) dependency).getSelected().getId()));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Writes each distinct string once, and refers back to it afterwards.
+         */
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                output.writeInt(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                output.writeInt(index);
+                return;
+            }
+            strings.put(value, strings.size() + 1);
+            output.writeInt(-1);
+            output.writeUTF(value);
+        }
+    }
+
+    private static class Decoder {
+        private final DataInputStream input;
+        private final List<String> strings = new ArrayList<String>();
+
+        private Decoder(DataInputStream input) {
+            this.input = input;
+        }
+
+        DefaultLenientConfiguration readResolvedConfiguration(ConfigurationInternal configuration, ResolvedArtifactFactory artifactFactory, DependencyToModuleResolver moduleResolver) throws IOException {
+            DefaultResolvedDependency[] nodes = new DefaultResolvedDependency[input.readInt()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new DefaultResolvedDependency(readString(), readString(), readString(), readString());
+            }
+            DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, nodes[0], artifactFactory);
+
+            ResolvedArtifact[] artifacts = new ResolvedArtifact[input.readInt()];
+            Map<ModuleRevisionId, ArtifactResolver> artifactResolvers = new HashMap<ModuleRevisionId, ArtifactResolver>();
+            for (int i = 0; i < artifacts.length; i++) {
+                DefaultResolvedDependency owner = nodes[input.readInt()];
+                String name = readString();
+                String type = readString();
+                String extension = readString();
+                Map<String, String> extraAttributes = new HashMap<String, String>();
+                for (int count = input.readInt(); count > 0; count--) {
+                    extraAttributes.put(readString(), readString());
+                }
+                ModuleRevisionId id = ModuleRevisionId.newInstance(owner.getModuleGroup(), owner.getModuleName(), owner.getModuleVersion());
+                ArtifactResolver artifactResolver = artifactResolvers.get(id);
+                if (artifactResolver == null) {
+                    artifactResolver = new ModuleArtifactResolver(id, moduleResolver);
+                    artifactResolvers.put(id, artifactResolver);
+                }
+                artifacts[i] = artifactFactory.create(owner, new DefaultArtifact(id, null, name, type, extension, extraAttributes), artifactResolver);
+            }
+
+            for (int count = input.readInt(); count > 0; count--) {
+                DefaultResolvedDependency parent = nodes[input.readInt()];
+                DefaultResolvedDependency child = nodes[input.readInt()];
+                Set<ResolvedArtifact> parentArtifacts = new LinkedHashSet<ResolvedArtifact>();
+                for (int artifactCount = input.readInt(); artifactCount > 0; artifactCount--) {
+                    parentArtifacts.add(artifacts[input.readInt()]);
+                }
+                parent.addChild(child);
+                child.addParentSpecificArtifacts(parent, parentArtifacts);
+            }
+
+            for (int count = input.readInt(); count > 0; count--) {
+                result.addArtifact(artifacts[input.readInt()]);
+            }
+
+            List<ModuleDependency> moduleDependencies = getModuleDependencies(configuration);
+            for (int count = input.readInt(); count > 0; count--) {
+                ModuleDependency moduleDependency = moduleDependencies.get(input.readInt());
+                result.addFirstLevelDependency(moduleDependency, nodes[input.readInt()]);
+            }
+            return result;
+        }
+
+        ResolutionResult readResolutionResult() throws IOException {
+            ResolutionResultBuilder builder = new ResolutionResultBuilder();
+            ModuleVersionSelection[] modules = new ModuleVersionSelection[input.readInt()];
+            for (int i = 0; i < modules.length; i++) {
+                modules[i] = new CachedModuleVersionSelection(newId(readString(), readString(), readString()), REASONS[input.readByte()]);
+                if (i == 0) {
+                    builder.start(modules[i].getSelectedId());
+                } else {
+                    builder.resolvedModuleVersion(modules[i]);
+                }
+            }
+            for (ModuleVersionSelection module : modules) {
+                List<InternalDependencyResult> dependencies = new ArrayList<InternalDependencyResult>();
+                for (int count = input.readInt(); count > 0; count--) {
+                    ModuleVersionSelector requested = newSelector(readString(), readString(), readString());
+                    dependencies.add(new CachedDependencyResult(requested, modules[input.readInt()]));
+                }
+                builder.resolvedConfiguration(module.getSelectedId(), dependencies);
+            }
+            return builder.getResult();
+        }
+
+        private String readString() throws IOException {
+            int index = input.readInt();
+            if (index == 0) {
+                return null;
+            }
+            if (index > 0) {
+                return strings.get(index - 1);
+            }
+            String value = input.readUTF();
+            strings.add(value);
+            return value;
+        }
+    }
+
+    private static class CachedModuleVersionSelection implements ModuleVersionSelection {
+        private final ModuleVersionIdentifier id;
+        private final ModuleVersionSelectionReason reason;
+
+        private CachedModuleVersionSelection(ModuleVersionIdentifier id, ModuleVersionSelectionReason reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        public ModuleVersionIdentifier getSelectedId() {
+            return id;
+        }
+
+        public ModuleVersionSelectionReason getSelectionReason() {
+            return reason;
+        }
+    }
+
+    private static class CachedDependencyResult implements InternalDependencyResult {
+        private final ModuleVersionSelector requested;
+        private final ModuleVersionSelection selected;
+
+        private CachedDependencyResult(ModuleVersionSelector requested, ModuleVersionSelection selected) {
+            this.requested = requested;
+            this.selected = selected;
+        }
+
+        public ModuleVersionSelector getRequested() {
+            return requested;
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            return null;
+        }
+
+        public ModuleVersionSelection getSelected() {
+            return selected;
+        }
+
+        public ModuleVersionSelectionReason getReason() {
+            return selected.getSelectionReason();
+        }
+    }
+
+    /**
+     * Resolves the artifacts of a module, looking up the meta-data of the module when the first artifact is resolved. The meta-data may be
+     * looked up more than once when several artifacts are resolved concurrently.
+     */
+    private static class ModuleArtifactResolver implements ArtifactResolver {
+        private final ModuleRevisionId id;
+        private final DependencyToModuleResolver moduleResolver;
+        private volatile ArtifactResolver artifactResolver;
+
+        private ModuleArtifactResolver(ModuleRevisionId id, DependencyToModuleResolver moduleResolver) {
+            this.id = id;
+            this.moduleResolver = moduleResolver;
+        }
+
+        public void resolve(Artifact artifact, BuildableArtifactResolveResult result) {
+            if (artifactResolver == null) {
+                BuildableModuleVersionResolveResult moduleVersion = new DefaultBuildableModuleVersionResolveResult();
+                moduleResolver.resolve(new DefaultDependencyDescriptor(id, false, false), moduleVersion);
+                if (moduleVersion.getFailure() != null) {
+                    result.failed(new ArtifactResolveException(artifact, moduleVersion.getFailure()));
+                    return;
+                }
+                artifactResolver = moduleVersion.getArtifactResolver();
+            }
+            artifactResolver.resolve(artifact, result);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache;
+
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.messaging.serialize.DataStreamBackedSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+public class SingleFileBackedResolvedGraphCache implements ResolvedGraphCache {
+    private final ArtifactCacheMetaData cacheMetadata;
+    private final CacheLockingManager cacheLockingManager;
+    private PersistentIndexedCache<String, byte[]> cache;
+
+    public SingleFileBackedResolvedGraphCache(ArtifactCacheMetaData cacheMetadata, CacheLockingManager cacheLockingManager) {
+        this.cacheMetadata = cacheMetadata;
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private PersistentIndexedCache<String, byte[]> getCache() {
+        if (cache == null) {
+            cache = initCache();
+        }
+        return cache;
+    }
+
+    private PersistentIndexedCache<String, byte[]> initCache() {
+        File resolvedGraphsFile = new File(cacheMetadata.getCacheDir(), "resolved-graphs.bin");
+        return cacheLockingManager.createCache(resolvedGraphsFile, new InputsHashSerializer(), new EncodedGraphSerializer());
+    }
+
+    public byte[] getResolvedGraph(String inputsHash) {
+        return getCache().get(inputsHash);
+    }
+
+    public void cacheResolvedGraph(String inputsHash, byte[] encodedGraph) {
+        getCache().put(inputsHash, encodedGraph);
+    }
+
+    private static class InputsHashSerializer extends DataStreamBackedSerializer<String> {
+        @Override
+        public void write(DataOutput dataOutput, String value) throws IOException {
+            dataOutput.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput dataInput) throws IOException {
+            return dataInput.readUTF();
+        }
+    }
+
+    private static class EncodedGraphSerializer extends DataStreamBackedSerializer<byte[]> {
+        @Override
+        public void write(DataOutput dataOutput, byte[] value) throws IOException {
+            dataOutput.writeInt(value.length);
+            dataOutput.write(value);
+        }
+
+        @Override
+        public byte[] read(DataInput dataInput) throws IOException {
+            byte[] value = new byte[dataInput.readInt()];
+            dataInput.readFully(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache;
+
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.version.VersionMatcher;
+import org.gradle.api.internal.artifacts.ivyservice.BuildableModuleVersionResolveResult;
+import org.gradle.api.internal.artifacts.ivyservice.DependencyToModuleResolver;
+
+/**
+ * A {@link DependencyToModuleResolver} which keeps track of whether every module version that it has been asked to resolve was requested with a
+ * static version, and is not changing. A module version is changing when the dependency is marked as changing, when it is a Maven snapshot, or
+ * when the repository reports it as changing, for example because it matches a changing pattern of the repository. Can be used from multiple threads.
+ */
+public class StaticVersionDetectingResolver implements DependencyToModuleResolver {
+    private final DependencyToModuleResolver resolver;
+    private final VersionMatcher versionMatcher;
+    private volatile boolean allStatic = true;
+
+    public StaticVersionDetectingResolver(DependencyToModuleResolver resolver, VersionMatcher versionMatcher) {
+        this.resolver = resolver;
+        this.versionMatcher = versionMatcher;
+    }
+
+    public boolean isAllStatic() {
+        return allStatic;
+    }
+
+    public void resolve(DependencyDescriptor dependencyDescriptor, BuildableModuleVersionResolveResult result) {
+        ModuleRevisionId requested = dependencyDescriptor.getDependencyRevisionId();
+        // Maven snapshots are changing, even though they have a static version
+        if (dependencyDescriptor.isChanging() || versionMatcher.isDynamic(requested) || requested.getRevision().endsWith("SNAPSHOT")) {
+            allStatic = false;
+        }
+        resolver.resolve(dependencyDescriptor, result);
+        if (result.getFailure() == null && result.isChanging()) {
+            allStatic = false;
+        }
+    }
+}
@@ -18,11 +18,13 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 import org.apache.ivy.core.resolve.ResolveData;
 import org.gradle.api.internal.artifacts.ivyservice.DependencyToModuleResolver;
 
+import java.util.List;
+
 class DefaultIvyAdapter implements IvyAdapter {
     private final ResolveData resolveData;
-    private final DependencyToModuleResolver userResolver;
+    private final UserResolverChain userResolver;
 
-    public DefaultIvyAdapter(ResolveData resolveData, DependencyToModuleResolver userResolverChain) {
+    public DefaultIvyAdapter(ResolveData resolveData, UserResolverChain userResolverChain) {
         this.resolveData = resolveData;
         userResolver = userResolverChain;
     }
@@ -34,4 +36,8 @@ class DefaultIvyAdapter implements IvyAdapter {
     public DependencyToModuleResolver getDependencyToModuleResolver() {
         return userResolver;
     }
+
+    public List<? extends ModuleVersionRepository> getRepositories() {
+        return userResolver.getRepositories();
+    }
 }
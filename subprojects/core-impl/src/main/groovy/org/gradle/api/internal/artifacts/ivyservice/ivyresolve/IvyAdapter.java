@@ -18,8 +18,15 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 import org.apache.ivy.core.resolve.ResolveData;
 import org.gradle.api.internal.artifacts.ivyservice.DependencyToModuleResolver;
 
+import java.util.List;
+
 public interface IvyAdapter {
     ResolveData getResolveData();
 
     DependencyToModuleResolver getDependencyToModuleResolver();
+
+    /**
+     * Returns the repositories that modules are resolved from, in the order they are searched.
+     */
+    List<? extends ModuleVersionRepository> getRepositories();
 }
@@ -46,7 +46,11 @@ public class IvyDependencyResolverAdapter extends AbstractDependencyResolverAdap
     public void getDependency(DependencyDescriptor dependencyDescriptor, BuildableModuleVersionDescriptor result) {
         ResolveData resolveData = IvyContextualiser.getIvyContext().getResolveData();
         try {
-            ResolvedModuleRevision revision = resolver.getDependency(dependencyDescriptor, resolveData);
+            ResolvedModuleRevision revision;
+            // Module versions may be resolved concurrently, and an Ivy resolver is not necessarily safe to use from multiple threads
+            synchronized (resolver) {
+                revision = resolver.getDependency(dependencyDescriptor, resolveData);
+            }
             if (revision == null) {
                 LOGGER.debug("Performed resolved of module '{}' in repository '{}': not found", dependencyDescriptor.getDependencyRevisionId(), getName());
                 result.missing();
@@ -60,7 +64,11 @@ public class IvyDependencyResolverAdapter extends AbstractDependencyResolverAdap
     }
 
     public void resolve(Artifact artifact, BuildableArtifactResolveResult result, ModuleSource moduleSource) {
-        ArtifactDownloadReport artifactDownloadReport = resolver.download(new Artifact[]{artifact}, downloadOptions).getArtifactReport(artifact);
+        ArtifactDownloadReport artifactDownloadReport;
+        // Artifacts may be downloaded concurrently, and an Ivy resolver is not necessarily safe to use from multiple threads
+        synchronized (resolver) {
+            artifactDownloadReport = resolver.download(new Artifact[]{artifact}, downloadOptions).getArtifactReport(artifact);
+        }
         if (downloadFailed(artifactDownloadReport)) {
             if (artifactDownloadReport instanceof EnhancedArtifactDownloadReport) {
                 EnhancedArtifactDownloadReport enhancedReport = (EnhancedArtifactDownloadReport) artifactDownloadReport;
@@ -32,6 +32,8 @@ import org.gradle.internal.Factory;
 
 import java.io.File;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The main entry point for a {@link DependencyResolver} to call back into the dependency resolution mechanism.
@@ -52,6 +54,17 @@ public class LoopbackDependencyResolver extends RestrictedDependencyResolver {
         return name;
     }
 
+    /**
+     * Returns the ids of the repositories which dependencies are resolved from, in the order they are searched.
+     */
+    public List<String> getRepositoryIds() {
+        List<String> ids = new ArrayList<String>();
+        for (LocalAwareModuleVersionRepository repository : userResolverChain.getRepositories()) {
+            ids.add(repository.getId());
+        }
+        return ids;
+    }
+
     @Override
     public void setSettings(ResolverSettings settings) {
         userResolverChain.setSettings(settings);
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ProjectDependencyDescriptor;
+import org.gradle.internal.Factory;
+import org.gradle.internal.Stoppable;
+import org.gradle.internal.UncheckedException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link DependencyToModuleResolver} which can resolve module versions in advance of them being requested, using a number of worker threads.
+ * A module version that has been prefetched is handed to the caller once its resolution has completed.
+ *
+ * <p>The {@link #prefetch(java.util.Collection)}, {@link #resolve(org.apache.ivy.core.module.descriptor.DependencyDescriptor, BuildableModuleVersionResolveResult)}
+ * and {@link #stop()} methods must be called from a single thread.</p>
+ */
+public class PrefetchingDependencyToModuleResolver implements DependencyToModuleResolver, Stoppable {
+    private final DependencyToModuleResolver resolver;
+    private final CacheLockingManager cacheLockingManager;
+    private final Executor executor;
+    private final int maxWorkers;
+    private final Map<ModuleRevisionId, PrefetchedModuleVersion> prefetched = new HashMap<ModuleRevisionId, PrefetchedModuleVersion>();
+    private final Queue<PrefetchedModuleVersion> pending = new ConcurrentLinkedQueue<PrefetchedModuleVersion>();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final Object workersLock = new Object();
+
+    public PrefetchingDependencyToModuleResolver(DependencyToModuleResolver resolver, CacheLockingManager cacheLockingManager, Executor executor, int maxWorkers) {
+        this.resolver = resolver;
+        this.cacheLockingManager = cacheLockingManager;
+        this.executor = executor;
+        this.maxWorkers = maxWorkers;
+    }
+
+    /**
+     * Starts resolving the given dependencies in the background.
+     */
+    public void prefetch(Collection<? extends DependencyDescriptor> dependencies) {
+        for (DependencyDescriptor dependency : dependencies) {
+            if (dependency instanceof ProjectDependencyDescriptor) {
+                // Resolved from the build, not from a repository
+                continue;
+            }
+            ModuleRevisionId id = dependency.getDependencyRevisionId();
+            if (prefetched.containsKey(id)) {
+                continue;
+            }
+            PrefetchedModuleVersion moduleVersion = new PrefetchedModuleVersion(dependency);
+            prefetched.put(id, moduleVersion);
+            pending.add(moduleVersion);
+        }
+        while (!pending.isEmpty() && startWorker()) {
+            try {
+                executor.execute(new Worker());
+            } catch (RuntimeException e) {
+                workerStopped();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Discards those dependencies which have not started resolving yet, and waits for those which have started, so that no worker uses the cache
+     * once the resolve has finished.
+     */
+    public void stop() {
+        pending.clear();
+        prefetched.clear();
+        if (workers.get() == 0) {
+            return;
+        }
+        // Release the cache lock while waiting, so that the workers can use the cache
+        final String operationDisplayName = "Wait for meta-data to be fetched";
+        cacheLockingManager.useCache(operationDisplayName, new Factory<Object>() {
+            public Object create() {
+                return cacheLockingManager.longRunningOperation(operationDisplayName, new Factory<Object>() {
+                    public Object create() {
+                        waitForWorkers();
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+
+    private void waitForWorkers() {
+        synchronized (workersLock) {
+            while (workers.get() > 0) {
+                try {
+                    workersLock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+    }
+
+    private void workerStopped() {
+        synchronized (workersLock) {
+            workers.decrementAndGet();
+            workersLock.notifyAll();
+        }
+    }
+
+    public void resolve(DependencyDescriptor dependencyDescriptor, BuildableModuleVersionResolveResult result) {
+        PrefetchedModuleVersion moduleVersion = prefetched.remove(dependencyDescriptor.getDependencyRevisionId());
+        if (moduleVersion == null || moduleVersion.dependency.isChanging() != dependencyDescriptor.isChanging()) {
+            resolver.resolve(dependencyDescriptor, result);
+            return;
+        }
+
+        // Resolve in this thread, if no worker has started yet
+        moduleVersion.run();
+        moduleVersion.copyTo(result);
+    }
+
+    private boolean startWorker() {
+        while (true) {
+            int current = workers.get();
+            if (current >= maxWorkers) {
+                return false;
+            }
+            if (workers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        public void run() {
+            do {
+                PrefetchedModuleVersion moduleVersion;
+                while ((moduleVersion = pending.poll()) != null) {
+                    moduleVersion.run();
+                }
+                workerStopped();
+                // Pick up anything queued after the queue was found empty but before this worker was stopped
+            } while (!pending.isEmpty() && startWorker());
+        }
+    }
+
+    private class PrefetchedModuleVersion extends FutureTask<BuildableModuleVersionResolveResult> {
+        private final DependencyDescriptor dependency;
+
+        private PrefetchedModuleVersion(final DependencyDescriptor dependency) {
+            super(new Callable<BuildableModuleVersionResolveResult>() {
+                public BuildableModuleVersionResolveResult call() {
+                    return cacheLockingManager.useCache(String.format("Resolve %s", dependency), new Factory<BuildableModuleVersionResolveResult>() {
+                        public BuildableModuleVersionResolveResult create() {
+                            BuildableModuleVersionResolveResult result = new DefaultBuildableModuleVersionResolveResult();
+                            resolver.resolve(dependency, result);
+                            return result;
+                        }
+                    });
+                }
+            });
+            this.dependency = dependency;
+        }
+
+        void copyTo(BuildableModuleVersionResolveResult result) {
+            BuildableModuleVersionResolveResult prefetchedResult = waitForResult();
+            if (prefetchedResult.getFailure() != null) {
+                result.failed(prefetchedResult.getFailure());
+            } else {
+                result.resolved(prefetchedResult.getId(), prefetchedResult.getDescriptor(), prefetchedResult.isChanging(), prefetchedResult.getArtifactResolver());
+            }
+        }
+
+        private BuildableModuleVersionResolveResult waitForResult() {
+            if (isDone()) {
+                return getResult();
+            }
+            // Release the cache lock while waiting, so that the worker can use the cache
+            final String operationDisplayName = String.format("Wait for %s", dependency);
+            return cacheLockingManager.useCache(operationDisplayName, new Factory<BuildableModuleVersionResolveResult>() {
+                public BuildableModuleVersionResolveResult create() {
+                    return cacheLockingManager.longRunningOperation(operationDisplayName, new Factory<BuildableModuleVersionResolveResult>() {
+                        public BuildableModuleVersionResolveResult create() {
+                            return getResult();
+                        }
+                    });
+                }
+            });
+        }
+
+        private BuildableModuleVersionResolveResult getResult() {
+            try {
+                return get();
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.gradle.internal.TimeProvider;
 import org.gradle.util.WrapUtil;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class ResolveIvyFactory {
     private final IvyFactory ivyFactory;
@@ -45,12 +46,13 @@ public class ResolveIvyFactory {
     private final CacheLockingManager cacheLockingManager;
     private final StartParameterResolutionOverride startParameterResolutionOverride;
     private final TimeProvider timeProvider;
+    private final Executor repositoryProbeExecutor;
 
     public ResolveIvyFactory(IvyFactory ivyFactory, ResolverProvider resolverProvider, SettingsConverter settingsConverter,
                              ModuleResolutionCache moduleResolutionCache, ModuleDescriptorCache moduleDescriptorCache,
                              CachedArtifactIndex artifactAtRepositoryCachedResolutionIndex,
                              CacheLockingManager cacheLockingManager, StartParameterResolutionOverride startParameterResolutionOverride,
-                             TimeProvider timeProvider) {
+                             TimeProvider timeProvider, Executor repositoryProbeExecutor) {
         this.ivyFactory = ivyFactory;
         this.resolverProvider = resolverProvider;
         this.settingsConverter = settingsConverter;
@@ -60,10 +62,11 @@ public class ResolveIvyFactory {
         this.cacheLockingManager = cacheLockingManager;
         this.startParameterResolutionOverride = startParameterResolutionOverride;
         this.timeProvider = timeProvider;
+        this.repositoryProbeExecutor = repositoryProbeExecutor;
     }
 
     public IvyAdapter create(ConfigurationInternal configuration) {
-        UserResolverChain userResolverChain = new UserResolverChain();
+        UserResolverChain userResolverChain = new UserResolverChain(cacheLockingManager, repositoryProbeExecutor);
         ResolutionRules resolutionRules = configuration.getResolutionStrategy().getResolutionRules();
         startParameterResolutionOverride.addResolutionRules(resolutionRules);
 
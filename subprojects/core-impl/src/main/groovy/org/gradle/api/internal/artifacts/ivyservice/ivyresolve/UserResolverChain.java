@@ -26,18 +26,36 @@ import org.apache.ivy.plugins.resolver.ResolverSettings;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.internal.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 
 public class UserResolverChain implements DependencyToModuleResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserResolverChain.class);
 
     private final List<LocalAwareModuleVersionRepository> moduleVersionRepositories = new ArrayList<LocalAwareModuleVersionRepository>();
     private final List<String> moduleVersionRepositoryNames = new ArrayList<String>();
+    private final CacheLockingManager cacheLockingManager;
+    private final Executor executor;
     private ResolverSettings settings;
 
+    public UserResolverChain() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a chain which probes its repositories for a module concurrently, using the given executor. The repository that is declared first
+     * still wins when a module is available from several repositories.
+     */
+    public UserResolverChain(CacheLockingManager cacheLockingManager, Executor executor) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.executor = executor;
+    }
+
     public void setSettings(ResolverSettings settings) {
         this.settings = settings;
     }
@@ -47,6 +65,10 @@ public class UserResolverChain implements DependencyToModuleResolver {
         moduleVersionRepositoryNames.add(repository.getName());
     }
 
+    public List<LocalAwareModuleVersionRepository> getRepositories() {
+        return moduleVersionRepositories;
+    }
+
     public void resolve(DependencyDescriptor dependencyDescriptor, BuildableModuleVersionResolveResult result) {
         final ModuleRevisionId dependencyRevisionId = dependencyDescriptor.getDependencyRevisionId();
         LOGGER.debug("Attempting to resolve module '{}' using repositories {}", dependencyRevisionId, moduleVersionRepositoryNames);
@@ -58,7 +80,7 @@ public class UserResolverChain implements DependencyToModuleResolver {
             for (Throwable error : errors) {
                 LOGGER.debug("Discarding resolve failure.", error);
             }
-            result.resolved(latestResolved.getId(), latestResolved.getDescriptor(), new ModuleVersionRepositoryArtifactResolverAdapter(latestResolved.repository, latestResolved.moduleSource));
+            result.resolved(latestResolved.getId(), latestResolved.getDescriptor(), downloadedModule.isChanging(), new ModuleVersionRepositoryArtifactResolverAdapter(latestResolved.repository, latestResolved.moduleSource));
             return;
         }
         if (!errors.isEmpty()) {
@@ -70,6 +92,10 @@ public class UserResolverChain implements DependencyToModuleResolver {
     }
 
     private ModuleResolution findLatestModule(DependencyDescriptor dependencyDescriptor, Collection<Throwable> failures) {
+        if (executor != null && moduleVersionRepositories.size() > 1) {
+            return findLatestModuleConcurrently(dependencyDescriptor, failures);
+        }
+
         LinkedList<RepositoryResolveState> queue = new LinkedList<RepositoryResolveState>();
         for (LocalAwareModuleVersionRepository repository : moduleVersionRepositories) {
             queue.add(new RepositoryResolveState(repository));
@@ -129,6 +155,109 @@ public class UserResolverChain implements DependencyToModuleResolver {
         return best;
     }
 
+    private ModuleResolution findLatestModuleConcurrently(DependencyDescriptor dependencyDescriptor, Collection<Throwable> failures) {
+        boolean isStaticVersion = !settings.getVersionMatcher().isDynamic(dependencyDescriptor.getDependencyRevisionId());
+        List<RepositoryResolveState> requests = new ArrayList<RepositoryResolveState>();
+        List<RepositoryResolveState> unknown = new ArrayList<RepositoryResolveState>();
+        List<RepositoryResolveState> missing = new ArrayList<RepositoryResolveState>();
+
+        // A first pass to do local resolves only. No repository after the first one that is known to contain a static version will be used,
+        // so stop there
+        for (LocalAwareModuleVersionRepository repository : moduleVersionRepositories) {
+            RepositoryResolveState request = new RepositoryResolveState(repository);
+            requests.add(request);
+            request.tryResolve(dependencyDescriptor);
+            if (request.failure != null) {
+                continue;
+            }
+            BuildableModuleVersionDescriptor.State state = request.descriptor.getState();
+            if (state == BuildableModuleVersionDescriptor.State.Unknown) {
+                unknown.add(request);
+            } else if (state == BuildableModuleVersionDescriptor.State.ProbablyMissing) {
+                missing.add(request);
+            } else if (state == BuildableModuleVersionDescriptor.State.Resolved && isStaticVersion && !isGeneratedModuleDescriptor(request)) {
+                break;
+            }
+        }
+
+        // Resolve the unknown modules remotely, all at the same time, then choose in repository order
+        resolveConcurrently(dependencyDescriptor, unknown);
+        ModuleResolution best = chooseBest(requests, isStaticVersion, failures);
+        if (best != null) {
+            return best;
+        }
+
+        // Nothing found - do a second pass
+        resolveConcurrently(dependencyDescriptor, missing);
+        return chooseBest(missing, isStaticVersion, failures);
+    }
+
+    private void resolveConcurrently(final DependencyDescriptor dependencyDescriptor, final List<RepositoryResolveState> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        if (requests.size() == 1) {
+            requests.get(0).tryResolve(dependencyDescriptor);
+            return;
+        }
+
+        // Release the cache lock while waiting, so that the requests can use the cache
+        final String operationDisplayName = String.format("Resolve %s", dependencyDescriptor);
+        cacheLockingManager.useCache(operationDisplayName, new Runnable() {
+            public void run() {
+                cacheLockingManager.longRunningOperation(operationDisplayName, new Runnable() {
+                    public void run() {
+                        final CountDownLatch completed = new CountDownLatch(requests.size());
+                        for (final RepositoryResolveState request : requests) {
+                            executor.execute(new Runnable() {
+                                public void run() {
+                                    try {
+                                        cacheLockingManager.useCache(String.format("Resolve %s using repository %s", dependencyDescriptor, request.repository.getName()), new Runnable() {
+                                            public void run() {
+                                                request.tryResolve(dependencyDescriptor);
+                                            }
+                                        });
+                                    } catch (Throwable t) {
+                                        request.failure = t;
+                                    } finally {
+                                        completed.countDown();
+                                    }
+                                }
+                            });
+                        }
+                        try {
+                            completed.await();
+                        } catch (InterruptedException e) {
+                            throw UncheckedException.throwAsUncheckedException(e);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private ModuleResolution chooseBest(List<RepositoryResolveState> requests, boolean isStaticVersion, Collection<Throwable> failures) {
+        ModuleResolution best = null;
+        for (RepositoryResolveState request : requests) {
+            if (request.failure != null) {
+                failures.add(request.failure);
+                continue;
+            }
+            if (request.descriptor.getState() == BuildableModuleVersionDescriptor.State.Resolved) {
+                ModuleResolution moduleResolution = new ModuleResolution(request.repository, request.descriptor, request.descriptor.getModuleSource());
+                if (isStaticVersion && !moduleResolution.isGeneratedModuleDescriptor()) {
+                    return moduleResolution;
+                }
+                best = chooseBest(best, moduleResolution);
+            }
+        }
+        return best;
+    }
+
+    private boolean isGeneratedModuleDescriptor(RepositoryResolveState request) {
+        return request.descriptor.getDescriptor().isDefault();
+    }
+
     private ModuleResolution chooseBest(ModuleResolution one, ModuleResolution two) {
         if (one == null || two == null) {
             return two == null ? one : two;
@@ -171,6 +300,7 @@ public class UserResolverChain implements DependencyToModuleResolver {
 
         boolean searchedLocally;
         boolean searchedRemotely;
+        Throwable failure;
 
         private RepositoryResolveState(LocalAwareModuleVersionRepository repository) {
             this.repository = repository;
@@ -189,6 +319,17 @@ public class UserResolverChain implements DependencyToModuleResolver {
             }
         }
 
+        /**
+         * Resolves, keeping any failure rather than throwing it.
+         */
+        void tryResolve(DependencyDescriptor dependencyDescriptor) {
+            try {
+                resolve(dependencyDescriptor);
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
         public boolean canMakeFurtherAttempts() {
             return !searchedRemotely;
         }
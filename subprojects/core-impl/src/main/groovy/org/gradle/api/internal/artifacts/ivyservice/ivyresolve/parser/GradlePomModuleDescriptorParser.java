@@ -27,11 +27,11 @@ import org.apache.ivy.plugins.namespace.NameSpaceHelper;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ParserSettings;
 import org.apache.ivy.plugins.parser.m2.PomDependencyMgt;
-import org.apache.ivy.plugins.parser.m2.PomReader;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.util.Message;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.LoopbackDependencyResolver;
 import org.xml.sax.SAXException;
 
 import java.io.File;
@@ -44,10 +44,21 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * This a straight copy of org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser, with one change: we do NOT attempt to retrieve source and javadoc artifacts when parsing the POM. This cuts the
- * number of remote call in half to resolve a module.
+ * This a straight copy of org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser, with a few changes:
+ * <ul>
+ * <li>We do NOT attempt to retrieve source and javadoc artifacts when parsing the POM. This cuts the number of remote call in half to resolve a module.</li>
+ * <li>The POM is read using a streaming {@link PomReader}, rather than Ivy's DOM based reader.</li>
+ * <li>The descriptors of parent, imported and relocated POMs are kept in a {@link ReferencedPomCache} for the duration of the build, so that each
+ * is resolved and parsed only once per build and set of repositories.</li>
+ * </ul>
  */
 public final class GradlePomModuleDescriptorParser implements ModuleDescriptorParser {
+    private final ReferencedPomCache referencedPomCache;
+
+    public GradlePomModuleDescriptorParser(ReferencedPomCache referencedPomCache) {
+        this.referencedPomCache = referencedPomCache;
+    }
+
     public void toIvyFile(InputStream is, Resource res, File destFile, ModuleDescriptor md)
             throws ParseException, IOException {
         throw new UnsupportedOperationException();
@@ -82,32 +93,28 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(this, res, ivySettings);
 
         try {
-            PomReader domReader = new PomReader(descriptorURL, res);
-            domReader.setProperty("parent.version", domReader.getParentVersion());
-            domReader.setProperty("parent.groupId", domReader.getParentGroupId());
-            domReader.setProperty("project.parent.version", domReader.getParentVersion());
-            domReader.setProperty("project.parent.groupId", domReader.getParentGroupId());
-
-            Map pomProperties = domReader.getPomProperties();
-            for (Object o : pomProperties.entrySet()) {
-                Map.Entry prop = (Map.Entry) o;
-                domReader.setProperty((String) prop.getKey(), (String) prop.getValue());
-                mdBuilder.addProperty((String) prop.getKey(), (String) prop.getValue());
+            PomReader pomReader = new PomReader(descriptorURL, res);
+            pomReader.setProperty("parent.version", pomReader.getParentVersion());
+            pomReader.setProperty("parent.groupId", pomReader.getParentGroupId());
+            pomReader.setProperty("project.parent.version", pomReader.getParentVersion());
+            pomReader.setProperty("project.parent.groupId", pomReader.getParentGroupId());
+
+            Map<String, String> pomProperties = pomReader.getPomProperties();
+            for (Map.Entry<String, String> prop : pomProperties.entrySet()) {
+                pomReader.setProperty(prop.getKey(), prop.getValue());
+                mdBuilder.addProperty(prop.getKey(), prop.getValue());
             }
 
             ModuleDescriptor parentDescr = null;
-            if (domReader.hasParent()) {
+            if (pomReader.hasParent()) {
                 //Is there any other parent properties?
 
                 ModuleRevisionId parentModRevID = ModuleRevisionId.newInstance(
-                        domReader.getParentGroupId(),
-                        domReader.getParentArtifactId(),
-                        domReader.getParentVersion());
-                ResolvedModuleRevision parentModule = parseOtherPom(ivySettings,
-                        parentModRevID);
-                if (parentModule != null) {
-                    parentDescr = parentModule.getDescriptor();
-                } else {
+                        pomReader.getParentGroupId(),
+                        pomReader.getParentArtifactId(),
+                        pomReader.getParentVersion());
+                parentDescr = parseOtherPom(ivySettings, parentModRevID);
+                if (parentDescr == null) {
                     throw new IOException("Impossible to load parent for " + res.getName() + "."
                             + " Parent=" + parentModRevID);
                 }
@@ -116,22 +123,22 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                             parentDescr.getExtraInfo());
                     for (Object o : parentPomProps.entrySet()) {
                         Map.Entry prop = (Map.Entry) o;
-                        domReader.setProperty((String) prop.getKey(), (String) prop.getValue());
+                        pomReader.setProperty((String) prop.getKey(), (String) prop.getValue());
                     }
                 }
             }
 
-            String groupId = domReader.getGroupId();
-            String artifactId = domReader.getArtifactId();
-            String version = domReader.getVersion();
+            String groupId = pomReader.getGroupId();
+            String artifactId = pomReader.getArtifactId();
+            String version = pomReader.getVersion();
             ModuleScopedParserSettings scopedSettings = (ModuleScopedParserSettings) ivySettings;
             mdBuilder.setModuleRevId(scopedSettings.getCurrentRevisionId(), groupId, artifactId, version);
 
-            mdBuilder.setHomePage(domReader.getHomePage());
-            mdBuilder.setDescription(domReader.getDescription());
-            mdBuilder.setLicenses(domReader.getLicenses());
+            mdBuilder.setHomePage(pomReader.getHomePage());
+            mdBuilder.setDescription(pomReader.getDescription());
+            mdBuilder.setLicenses(pomReader.getLicenses());
 
-            ModuleRevisionId relocation = domReader.getRelocation();
+            ModuleRevisionId relocation = pomReader.getRelocation();
 
             if (relocation != null) {
                 if (groupId != null && artifactId != null
@@ -143,14 +150,14 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                             + ". Please update your dependency to directly use the right version.");
                     Message.warn("Resolution will only pick dependencies of the relocated element."
                             + "  Artefact and other metadata will be ignored.");
-                    ResolvedModuleRevision relocatedModule = parseOtherPom(ivySettings, relocation);
+                    ModuleDescriptor relocatedModule = parseOtherPom(ivySettings, relocation);
                     if (relocatedModule == null) {
                         throw new ParseException("impossible to load module "
                                 + relocation + " to which "
                                 + mdBuilder.getModuleDescriptor().getModuleRevisionId()
                                 + " has been relocated", 0);
                     }
-                    DependencyDescriptor[] dds = relocatedModule.getDescriptor().getDependencies();
+                    DependencyDescriptor[] dds = relocatedModule.getDependencies();
                     for (DependencyDescriptor dd : dds) {
                         mdBuilder.addDependency(dd);
                     }
@@ -171,15 +178,15 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                     mdBuilder.addDependency(dd);
                 }
             } else {
-                domReader.setProperty("project.groupId", groupId);
-                domReader.setProperty("pom.groupId", groupId);
-                domReader.setProperty("groupId", groupId);
-                domReader.setProperty("project.artifactId", artifactId);
-                domReader.setProperty("pom.artifactId", artifactId);
-                domReader.setProperty("artifactId", artifactId);
-                domReader.setProperty("project.version", version);
-                domReader.setProperty("pom.version", version);
-                domReader.setProperty("version", version);
+                pomReader.setProperty("project.groupId", groupId);
+                pomReader.setProperty("pom.groupId", groupId);
+                pomReader.setProperty("groupId", groupId);
+                pomReader.setProperty("project.artifactId", artifactId);
+                pomReader.setProperty("pom.artifactId", artifactId);
+                pomReader.setProperty("artifactId", artifactId);
+                pomReader.setProperty("project.version", version);
+                pomReader.setProperty("pom.version", version);
+                pomReader.setProperty("version", version);
 
                 if (parentDescr != null) {
                     mdBuilder.addExtraInfos(parentDescr.getExtraInfo());
@@ -198,17 +205,14 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                     }
                 }
 
-                for (Object o : domReader.getDependencyMgt()) {
-                    PomDependencyMgt dep = (PomDependencyMgt) o;
+                for (PomDependencyMgt dep : pomReader.getDependencyMgt()) {
                     if ("import".equals(dep.getScope())) {
                         ModuleRevisionId importModRevID = ModuleRevisionId.newInstance(
                                 dep.getGroupId(),
                                 dep.getArtifactId(),
                                 dep.getVersion());
-                        ResolvedModuleRevision importModule = parseOtherPom(ivySettings,
-                                importModRevID);
-                        if (importModule != null) {
-                            ModuleDescriptor importDescr = importModule.getDescriptor();
+                        ModuleDescriptor importDescr = parseOtherPom(ivySettings, importModRevID);
+                        if (importDescr != null) {
 
                             // add dependency management info from imported module
                             List depMgt = GradlePomModuleDescriptorBuilder.getDependencyManagements(importDescr);
@@ -225,8 +229,7 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                     }
                 }
 
-                for (Object o : domReader.getDependencies()) {
-                    PomReader.PomDependencyData dep = (PomReader.PomDependencyData) o;
+                for (PomReader.PomDependencyData dep : pomReader.getDependencies()) {
                     mdBuilder.addDependency(dep);
                 }
 
@@ -236,12 +239,11 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
                     }
                 }
 
-                for (Object o : domReader.getPlugins()) {
-                    PomReader.PomPluginElement plugin = (PomReader.PomPluginElement) o;
+                for (PomReader.PomPluginElement plugin : pomReader.getPlugins()) {
                     mdBuilder.addPlugin(plugin);
                 }
 
-                mdBuilder.addMainArtifact(artifactId, domReader.getPackaging());
+                mdBuilder.addMainArtifact(artifactId, pomReader.getPackaging());
             }
         } catch (SAXException e) {
             throw newParserException(e);
@@ -250,8 +252,35 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
         return mdBuilder.getModuleDescriptor();
     }
 
-    private ResolvedModuleRevision parseOtherPom(ParserSettings ivySettings,
-                                                 ModuleRevisionId parentModRevID) throws ParseException {
+    private ModuleDescriptor parseOtherPom(ParserSettings ivySettings,
+                                           ModuleRevisionId parentModRevID) throws ParseException {
+        DependencyResolver resolver = ivySettings.getResolver(parentModRevID);
+        if (resolver == null) {
+            // TODO: Throw exception here?
+            return null;
+        }
+
+        if (!(resolver instanceof LoopbackDependencyResolver)) {
+            ResolvedModuleRevision otherModule = resolveOtherPom(ivySettings, resolver, parentModRevID);
+            return otherModule == null ? null : otherModule.getDescriptor();
+        }
+
+        // The same parent or imported POM is usually referenced by many modules
+        List<String> repositoryIds = ((LoopbackDependencyResolver) resolver).getRepositoryIds();
+        ModuleDescriptor descriptor = referencedPomCache.get(repositoryIds, parentModRevID);
+        if (descriptor == null) {
+            ResolvedModuleRevision otherModule = resolveOtherPom(ivySettings, resolver, parentModRevID);
+            if (otherModule == null) {
+                return null;
+            }
+            descriptor = otherModule.getDescriptor();
+            referencedPomCache.put(repositoryIds, parentModRevID, descriptor);
+        }
+        return descriptor;
+    }
+
+    private ResolvedModuleRevision resolveOtherPom(ParserSettings ivySettings, DependencyResolver resolver,
+                                                   ModuleRevisionId parentModRevID) throws ParseException {
         DependencyDescriptor dd = new DefaultDependencyDescriptor(parentModRevID, true);
         ResolveData data = IvyContext.getContext().getResolveData();
         if (data == null) {
@@ -261,15 +290,8 @@ public final class GradlePomModuleDescriptorParser implements ModuleDescriptorPa
             data = new ResolveData(engine, options);
         }
 
-        DependencyResolver resolver = ivySettings.getResolver(parentModRevID);
-        if (resolver == null) {
-            // TODO: Throw exception here?
-            return null;
-        } else {
-            dd = NameSpaceHelper.toSystem(dd, ivySettings.getContextNamespace());
-            ResolvedModuleRevision otherModule = resolver.getDependency(dd, data);
-            return otherModule;
-        }
+        dd = NameSpaceHelper.toSystem(dd, ivySettings.getContextNamespace());
+        return resolver.getDependency(dd, data);
     }
 
     private ParseException newParserException(Exception e) {
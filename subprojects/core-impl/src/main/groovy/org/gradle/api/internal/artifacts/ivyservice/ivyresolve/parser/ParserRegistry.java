@@ -24,8 +24,8 @@ import java.util.List;
 public class ParserRegistry {
     private List<ModuleDescriptorParser> parsers = new ArrayList<ModuleDescriptorParser>();
 
-    public ParserRegistry() {
-        parsers.add(new GradlePomModuleDescriptorParser());
+    public ParserRegistry(ReferencedPomCache referencedPomCache) {
+        parsers.add(new GradlePomModuleDescriptorParser(referencedPomCache));
         parsers.add(new DownloadedIvyModuleDescriptorParser());
     }
 
@@ -0,0 +1,571 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.descriptor.License;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.parser.m2.PomDependencyMgt;
+import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.util.url.URLHandlerRegistry;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the parts of a POM that are used to build a module descriptor. This is a replacement for org.apache.ivy.plugins.parser.m2.PomReader, with
+ * the same behaviour, which parses the POM in a single streaming pass rather than building a DOM for the whole document. Only the elements which
+ * are queried are kept.
+ */
+public class PomReader {
+    private static final String PROJECT = "project";
+    private static final String MODEL = "model";
+    private static final String GROUP_ID = "groupId";
+    private static final String ARTIFACT_ID = "artifactId";
+    private static final String VERSION = "version";
+    private static final String PARENT = "parent";
+    private static final String PROPERTIES = "properties";
+    private static final String LICENSES = "licenses";
+    private static final String DISTRIBUTION_MGT = "distributionManagement";
+    private static final String RELOCATION = "relocation";
+    private static final String DEPENDENCIES = "dependencies";
+    private static final String DEPENDENCY_MGT = "dependencyManagement";
+    private static final String EXCLUSIONS = "exclusions";
+    private static final String BUILD = "build";
+    private static final String PLUGINS = "plugins";
+
+    private static final String DOCTYPE = "<!DOCTYPE project SYSTEM \"m2-entities.ent\">\n";
+    private static final int MAX_PROLOG_LENGTH = 10000;
+    private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    // The elements which are kept, as paths from the project element. The text of the other children of these elements is kept.
+    private static final Set<String> KEPT_ELEMENTS = new HashSet<String>(Arrays.asList(
+            "parent", "properties", "licenses", "licenses/license", "distributionManagement", "distributionManagement/relocation",
+            "dependencies", "dependencies/dependency", "dependencies/dependency/exclusions", "dependencies/dependency/exclusions/exclusion",
+            "dependencyManagement", "dependencyManagement/dependencies", "dependencyManagement/dependencies/dependency",
+            "dependencyManagement/dependencies/dependency/exclusions", "dependencyManagement/dependencies/dependency/exclusions/exclusion",
+            "build", "build/plugins", "build/plugins/plugin"
+    ));
+    // The kept elements for which every occurrence is kept. Only the first occurrence of the other elements is used.
+    private static final Set<String> REPEATED_ELEMENTS = new HashSet<String>(Arrays.asList("license", "dependency", "exclusion", "plugin"));
+    // The elements whose child elements are all kept whatever their name, as Ivy does, mapped to the path the children are kept at
+    private static final Map<String, String> ANY_CHILD_ELEMENTS = new HashMap<String, String>();
+
+    static {
+        ANY_CHILD_ELEMENTS.put(LICENSES, "licenses/license");
+        ANY_CHILD_ELEMENTS.put(DEPENDENCIES, "dependencies/dependency");
+    }
+
+    private static final SAXParserFactory PARSER_FACTORY = SAXParserFactory.newInstance();
+
+    private final Map<String, String> properties = new HashMap<String, String>();
+    private final PomElement projectElement;
+    private final PomElement parentElement;
+
+    public PomReader(URL descriptorURL, Resource res) throws IOException, SAXException {
+        Reader reader = addEntitiesDoctype(URLHandlerRegistry.getDefault().openStream(descriptorURL));
+        try {
+            InputSource source = new InputSource(reader);
+            source.setSystemId(descriptorURL.toExternalForm());
+            PomHandler handler = new PomHandler(res);
+            newParser().parse(source, handler);
+            projectElement = handler.projectElement;
+            parentElement = projectElement.getFirstChild(PARENT);
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static SAXParser newParser() throws SAXException {
+        try {
+            synchronized (PARSER_FACTORY) {
+                return PARSER_FACTORY.newSAXParser();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    public boolean hasParent() {
+        return parentElement != null;
+    }
+
+    public void setProperty(String prop, String val) {
+        if (!properties.containsKey(prop) && val != null) {
+            properties.put(prop, val);
+        }
+    }
+
+    public String getGroupId() {
+        String groupId = getFirstChildText(projectElement, GROUP_ID);
+        if (groupId == null) {
+            groupId = getFirstChildText(parentElement, GROUP_ID);
+        }
+        return replaceProps(groupId);
+    }
+
+    public String getParentGroupId() {
+        String groupId = getFirstChildText(parentElement, GROUP_ID);
+        if (groupId == null) {
+            groupId = getFirstChildText(projectElement, GROUP_ID);
+        }
+        return replaceProps(groupId);
+    }
+
+    public String getArtifactId() {
+        String val = getFirstChildText(projectElement, ARTIFACT_ID);
+        if (val == null) {
+            val = getFirstChildText(parentElement, ARTIFACT_ID);
+        }
+        return replaceProps(val);
+    }
+
+    public String getParentArtifactId() {
+        String val = getFirstChildText(parentElement, ARTIFACT_ID);
+        if (val == null) {
+            val = getFirstChildText(projectElement, ARTIFACT_ID);
+        }
+        return replaceProps(val);
+    }
+
+    public String getVersion() {
+        String val = getFirstChildText(projectElement, VERSION);
+        if (val == null) {
+            val = getFirstChildText(parentElement, VERSION);
+        }
+        return replaceProps(val);
+    }
+
+    public String getParentVersion() {
+        String val = getFirstChildText(parentElement, VERSION);
+        if (val == null) {
+            val = getFirstChildText(projectElement, VERSION);
+        }
+        return replaceProps(val);
+    }
+
+    public String getPackaging() {
+        String val = getFirstChildText(projectElement, "packaging");
+        if (val == null) {
+            val = "jar";
+        }
+        return replaceProps(val);
+    }
+
+    public String getHomePage() {
+        String val = getFirstChildText(projectElement, "url");
+        if (val == null) {
+            val = "";
+        }
+        return val;
+    }
+
+    public String getDescription() {
+        String val = getFirstChildText(projectElement, "description");
+        if (val == null) {
+            val = "";
+        }
+        return val.trim();
+    }
+
+    public License[] getLicenses() {
+        PomElement licenses = projectElement.getFirstChild(LICENSES);
+        if (licenses == null) {
+            return new License[0];
+        }
+        List<License> result = new ArrayList<License>();
+        for (PomElement license : licenses.children) {
+            String name = getFirstChildText(license, "name");
+            String url = getFirstChildText(license, "url");
+            if (name == null && url == null) {
+                // move to next license
+                continue;
+            }
+            if (name == null) {
+                // The license name is required in Ivy but not in a POM!
+                name = "Unknown License";
+            }
+            result.add(new License(name, url));
+        }
+        return result.toArray(new License[result.size()]);
+    }
+
+    public ModuleRevisionId getRelocation() {
+        PomElement distrMgt = projectElement.getFirstChild(DISTRIBUTION_MGT);
+        PomElement relocation = distrMgt == null ? null : distrMgt.getFirstChild(RELOCATION);
+        if (relocation == null) {
+            return null;
+        }
+        String relocGroupId = getFirstChildText(relocation, GROUP_ID);
+        String relocArtId = getFirstChildText(relocation, ARTIFACT_ID);
+        String relocVersion = getFirstChildText(relocation, VERSION);
+        relocGroupId = relocGroupId == null ? getGroupId() : relocGroupId;
+        relocArtId = relocArtId == null ? getArtifactId() : relocArtId;
+        relocVersion = relocVersion == null ? getVersion() : relocVersion;
+        return ModuleRevisionId.newInstance(relocGroupId, relocArtId, relocVersion);
+    }
+
+    public List<PomDependencyData> getDependencies() {
+        PomElement dependencies = projectElement.getFirstChild(DEPENDENCIES);
+        if (dependencies == null) {
+            return Collections.emptyList();
+        }
+        List<PomDependencyData> result = new ArrayList<PomDependencyData>();
+        for (PomElement dependency : dependencies.children) {
+            result.add(new PomDependencyData(dependency));
+        }
+        return result;
+    }
+
+    public List<PomDependencyMgt> getDependencyMgt() {
+        PomElement dependencyManagement = projectElement.getFirstChild(DEPENDENCY_MGT);
+        PomElement dependencies = dependencyManagement == null ? null : dependencyManagement.getFirstChild(DEPENDENCIES);
+        if (dependencies == null) {
+            return Collections.emptyList();
+        }
+        List<PomDependencyMgt> result = new ArrayList<PomDependencyMgt>();
+        for (PomElement dependency : dependencies.children) {
+            result.add(new PomDependencyMgtElement(dependency));
+        }
+        return result;
+    }
+
+    public List<PomPluginElement> getPlugins() {
+        PomElement build = projectElement.getFirstChild(BUILD);
+        PomElement plugins = build == null ? null : build.getFirstChild(PLUGINS);
+        if (plugins == null) {
+            return Collections.emptyList();
+        }
+        List<PomPluginElement> result = new ArrayList<PomPluginElement>();
+        for (PomElement plugin : plugins.children) {
+            result.add(new PomPluginElement(plugin));
+        }
+        return result;
+    }
+
+    public Map<String, String> getPomProperties() {
+        PomElement pomProperties = projectElement.getFirstChild(PROPERTIES);
+        if (pomProperties == null) {
+            return new HashMap<String, String>();
+        }
+        return new HashMap<String, String>(pomProperties.childText);
+    }
+
+    private String replaceProps(String val) {
+        if (val == null) {
+            return null;
+        }
+        return IvyPatternHelper.substituteVariables(val, properties).trim();
+    }
+
+    private static String getFirstChildText(PomElement element, String name) {
+        return element == null ? null : element.childText.get(name);
+    }
+
+    /**
+     * Decodes the POM, and adds a DOCTYPE which declares the HTML entities, which are used in some POMs without being declared, after the XML
+     * declaration, if any.
+     */
+    private static Reader addEntitiesDoctype(InputStream stream) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(stream);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, detectEncoding(input)));
+
+        reader.mark(MAX_PROLOG_LENGTH);
+        StringBuilder firstLine = new StringBuilder();
+        for (int c = reader.read(); c >= 0 && c != '\n' && firstLine.length() < MAX_PROLOG_LENGTH - 1; c = reader.read()) {
+            firstLine.append((char) c);
+        }
+        reader.reset();
+
+        String prefix = DOCTYPE;
+        String line = firstLine.toString();
+        String trimmed = line.trim();
+        int end = line.indexOf("?>");
+        if (trimmed.startsWith("<?xml") && end >= 0) {
+            String declaration = line.substring(0, end + 2);
+            prefix = declaration.trim() + "\n" + DOCTYPE;
+            long toSkip = declaration.length();
+            while (toSkip > 0) {
+                toSkip -= reader.skip(toSkip);
+            }
+        }
+        PushbackReader result = new PushbackReader(reader, prefix.length());
+        result.unread(prefix.toCharArray());
+        return result;
+    }
+
+    /**
+     * Returns the encoding of the POM, as given by its byte order mark or XML declaration, and skips the byte order mark, if any. Defaults to UTF-8,
+     * as the XML parser does.
+     */
+    private static String detectEncoding(BufferedInputStream input) throws IOException {
+        input.mark(MAX_PROLOG_LENGTH);
+        int b0 = input.read();
+        int b1 = input.read();
+        int b2 = input.read();
+        input.reset();
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            skip(input, 3);
+            return "UTF-8";
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            skip(input, 2);
+            return "UTF-16BE";
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            skip(input, 2);
+            return "UTF-16LE";
+        }
+        if (b0 == 0 && b1 == '<') {
+            return "UTF-16BE";
+        }
+        if (b0 == '<' && b1 == 0) {
+            return "UTF-16LE";
+        }
+
+        // An ASCII compatible encoding, so the XML declaration can be read before the encoding is known
+        input.mark(MAX_PROLOG_LENGTH);
+        ByteArrayOutputStream declaration = new ByteArrayOutputStream();
+        for (int b = input.read(); b >= 0 && b != '>' && declaration.size() < MAX_PROLOG_LENGTH - 1; b = input.read()) {
+            declaration.write(b);
+        }
+        input.reset();
+        String text = declaration.toString("ISO-8859-1");
+        Matcher matcher = ENCODING.matcher(text);
+        if (text.trim().startsWith("<?xml") && matcher.find()) {
+            return matcher.group(1);
+        }
+        return "UTF-8";
+    }
+
+    private static void skip(InputStream input, long count) throws IOException {
+        long toSkip = count;
+        while (toSkip > 0) {
+            toSkip -= input.skip(toSkip);
+        }
+    }
+
+    /**
+     * An element of the POM which has been kept, with the direct text of those of its child elements which have not been kept.
+     */
+    private static class PomElement {
+        private final String path;
+        private final boolean replaceText;
+        private final Map<String, String> childText = new HashMap<String, String>();
+        private final List<PomElement> children = new ArrayList<PomElement>(1);
+        private final Set<String> childNames = new HashSet<String>();
+
+        private PomElement(String path) {
+            this.path = path;
+            // Properties are read into a map, so a later occurrence replaces an earlier one
+            this.replaceText = path.equals(PROPERTIES);
+        }
+
+        PomElement getFirstChild(String name) {
+            String childPath = path.length() == 0 ? name : path + "/" + name;
+            for (PomElement child : children) {
+                if (child.path.equals(childPath)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        void addChildText(String name, String text) {
+            if (replaceText || !childText.containsKey(name)) {
+                childText.put(name, text);
+            }
+        }
+    }
+
+    private static class PomHandler extends DefaultHandler {
+        private final Resource resource;
+        private final LinkedList<PomElement> keptElements = new LinkedList<PomElement>();
+        private final StringBuilder text = new StringBuilder();
+        private PomElement projectElement;
+        private int skippedDepth;
+        private String textElementName;
+
+        private PomHandler(Resource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+            if (systemId != null && systemId.endsWith("m2-entities.ent")) {
+                return new InputSource(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+            }
+            return null;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (projectElement == null) {
+                if (!PROJECT.equals(qName) && !MODEL.equals(qName)) {
+                    throw new SAXParseException("project must be the root tag", resource.getName(), resource.getName(), 0, 0);
+                }
+                projectElement = new PomElement("");
+                keptElements.add(projectElement);
+                return;
+            }
+            if (skippedDepth > 0) {
+                skippedDepth++;
+                return;
+            }
+
+            PomElement parent = keptElements.getLast();
+            boolean first = parent.childNames.add(qName);
+            String path = ANY_CHILD_ELEMENTS.get(parent.path);
+            boolean repeated = path != null || REPEATED_ELEMENTS.contains(qName);
+            if (path == null) {
+                path = parent.path.length() == 0 ? qName : parent.path + "/" + qName;
+            }
+            if (KEPT_ELEMENTS.contains(path) && (first || repeated)) {
+                PomElement element = new PomElement(path);
+                parent.children.add(element);
+                keptElements.add(element);
+            } else {
+                skippedDepth = 1;
+                textElementName = qName;
+                text.setLength(0);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (skippedDepth == 1) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (skippedDepth > 0) {
+                if (skippedDepth == 1) {
+                    keptElements.getLast().addChildText(textElementName, text.toString());
+                }
+                skippedDepth--;
+                return;
+            }
+            keptElements.removeLast();
+        }
+    }
+
+    public class PomDependencyMgtElement implements PomDependencyMgt {
+        private final PomElement depElement;
+
+        private PomDependencyMgtElement(PomElement depElement) {
+            this.depElement = depElement;
+        }
+
+        public String getGroupId() {
+            return replaceProps(getFirstChildText(depElement, GROUP_ID));
+        }
+
+        public String getArtifactId() {
+            return replaceProps(getFirstChildText(depElement, ARTIFACT_ID));
+        }
+
+        public String getVersion() {
+            return replaceProps(getFirstChildText(depElement, VERSION));
+        }
+
+        public String getScope() {
+            return replaceProps(getFirstChildText(depElement, "scope"));
+        }
+
+        public List<ModuleId> getExcludedModules() {
+            PomElement exclusions = depElement.getFirstChild(EXCLUSIONS);
+            if (exclusions == null) {
+                return Collections.emptyList();
+            }
+            List<ModuleId> result = new LinkedList<ModuleId>();
+            for (PomElement exclusion : exclusions.children) {
+                String groupId = getFirstChildText(exclusion, GROUP_ID);
+                String artifactId = getFirstChildText(exclusion, ARTIFACT_ID);
+                if (groupId != null && artifactId != null) {
+                    result.add(ModuleId.newInstance(groupId, artifactId));
+                }
+            }
+            return result;
+        }
+    }
+
+    public class PomDependencyData extends PomDependencyMgtElement {
+        private final PomElement depElement;
+
+        private PomDependencyData(PomElement depElement) {
+            super(depElement);
+            this.depElement = depElement;
+        }
+
+        public String getClassifier() {
+            return replaceProps(getFirstChildText(depElement, "classifier"));
+        }
+
+        public String getType() {
+            return replaceProps(getFirstChildText(depElement, "type"));
+        }
+
+        public boolean isOptional() {
+            return Boolean.valueOf(getFirstChildText(depElement, "optional"));
+        }
+    }
+
+    public class PomPluginElement implements PomDependencyMgt {
+        private final PomElement pluginElement;
+
+        private PomPluginElement(PomElement pluginElement) {
+            this.pluginElement = pluginElement;
+        }
+
+        public String getGroupId() {
+            return replaceProps(getFirstChildText(pluginElement, GROUP_ID));
+        }
+
+        public String getArtifactId() {
+            return replaceProps(getFirstChildText(pluginElement, ARTIFACT_ID));
+        }
+
+        public String getVersion() {
+            return replaceProps(getFirstChildText(pluginElement, VERSION));
+        }
+
+        public String getScope() {
+            return null;
+        }
+
+        public List<ModuleId> getExcludedModules() {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import net.jcip.annotations.ThreadSafe;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the descriptors of the parent, imported and relocated POMs which are referenced by the POMs parsed during a build, as the same parent POM
+ * is usually referenced by many modules and by the resolves of many configurations. Entries are keyed by the repositories which the POM was
+ * resolved from, as well as its module revision id.
+ */
+@ThreadSafe
+public class ReferencedPomCache {
+    private final ConcurrentMap<Key, ModuleDescriptor> descriptors = new ConcurrentHashMap<Key, ModuleDescriptor>();
+
+    public ModuleDescriptor get(List<String> repositoryIds, ModuleRevisionId moduleRevisionId) {
+        return descriptors.get(new Key(repositoryIds, moduleRevisionId));
+    }
+
+    public void put(List<String> repositoryIds, ModuleRevisionId moduleRevisionId, ModuleDescriptor descriptor) {
+        descriptors.put(new Key(repositoryIds, moduleRevisionId), descriptor);
+    }
+
+    private static class Key {
+        private final List<String> repositoryIds;
+        private final ModuleRevisionId moduleRevisionId;
+
+        private Key(List<String> repositoryIds, ModuleRevisionId moduleRevisionId) {
+            this.repositoryIds = repositoryIds;
+            this.moduleRevisionId = moduleRevisionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || !(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return repositoryIds.equals(other.repositoryIds) && moduleRevisionId.equals(other.moduleRevisionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return repositoryIds.hashCode() ^ moduleRevisionId.hashCode();
+        }
+    }
+}
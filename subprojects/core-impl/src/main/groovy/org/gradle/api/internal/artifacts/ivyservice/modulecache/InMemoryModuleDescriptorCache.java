@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import net.jcip.annotations.ThreadSafe;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of module descriptors read from the artifact cache, which is kept in memory for the duration of a build. Entries are keyed by
+ * the repository and the hash of the cached descriptor file, so an entry remains valid for as long as the file content is unchanged. Evicts the
+ * least recently used entries first.
+ */
+@ThreadSafe
+public class InMemoryModuleDescriptorCache {
+    private final Map<Key, ModuleDescriptor> entries;
+
+    public InMemoryModuleDescriptorCache(final int maxEntries) {
+        entries = new LinkedHashMap<Key, ModuleDescriptor>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ModuleDescriptor> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized ModuleDescriptor get(String repositoryId, BigInteger descriptorHash) {
+        return entries.get(new Key(repositoryId, descriptorHash));
+    }
+
+    public synchronized void put(String repositoryId, BigInteger descriptorHash, ModuleDescriptor descriptor) {
+        entries.put(new Key(repositoryId, descriptorHash), descriptor);
+    }
+
+    private static class Key {
+        private final String repositoryId;
+        private final BigInteger descriptorHash;
+
+        private Key(String repositoryId, BigInteger descriptorHash) {
+            this.repositoryId = repositoryId;
+            this.descriptorHash = descriptorHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || !(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return repositoryId.equals(other.repositoryId) && descriptorHash.equals(other.descriptorHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return repositoryId.hashCode() ^ descriptorHash.hashCode();
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.descriptor.*;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.MapMatcher;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.namespace.Namespace;
+import org.apache.ivy.plugins.parser.ParserSettings;
+import org.apache.ivy.util.extendable.ExtendableItem;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Writes and reads {@link ModuleDescriptor} instances in a compact binary format, for the module descriptors kept in the artifact cache.
+ * Reading a descriptor in this format is much cheaper than parsing an ivy.xml file.
+ *
+ * <p>Records the same information as {@link org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter}, and builds the
+ * same descriptor as {@link org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser} does when it
+ * parses the ivy.xml written for a descriptor. Each distinct string is written once per descriptor, and later occurrences refer back to it.</p>
+ */
+public class ModuleDescriptorSerializer {
+    private static final byte NULL_STRING = 0;
+    private static final byte NEW_STRING = 1;
+    private static final byte PREVIOUS_STRING = 2;
+
+    public void write(DataOutput output, ModuleDescriptor descriptor) throws IOException {
+        new Writer(output).write(descriptor);
+    }
+
+    public ModuleDescriptor read(DataInput input, ParserSettings settings) throws IOException {
+        return new Reader(input, settings).read();
+    }
+
+    private static class Writer {
+        private final DataOutput output;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+        private ModuleDescriptor md;
+
+        private Writer(DataOutput output) {
+            this.output = output;
+        }
+
+        public void write(ModuleDescriptor md) throws IOException {
+            this.md = md;
+            writeInfo();
+            writeConfigurations();
+            writeArtifacts();
+            writeDependencies();
+            writeAllExcludes();
+            writeAllMediators();
+        }
+
+        private void writeInfo() throws IOException {
+            writeStringMap(md.getExtraAttributesNamespaces());
+            ModuleRevisionId moduleRevisionId = md.getModuleRevisionId();
+            ModuleRevisionId resolvedModuleRevisionId = md.getResolvedModuleRevisionId();
+            writeString(moduleRevisionId.getOrganisation());
+            writeString(moduleRevisionId.getName());
+            writeString(resolvedModuleRevisionId.getBranch());
+            writeString(resolvedModuleRevisionId.getRevision());
+            writeExtraAttributes(md);
+            writeString(md.getStatus());
+            output.writeLong(md.getResolvedPublicationDate().getTime());
+            output.writeBoolean(md.isDefault());
+            String namespace = null;
+            if (md instanceof DefaultModuleDescriptor) {
+                Namespace ns = ((DefaultModuleDescriptor) md).getNamespace();
+                if (ns != null && !ns.getName().equals("system")) {
+                    namespace = ns.getName();
+                }
+            }
+            writeString(namespace);
+
+            ExtendsDescriptor[] parents = md.getInheritedDescriptors();
+            output.writeInt(parents.length);
+            for (ExtendsDescriptor parent : parents) {
+                writeModuleRevisionId(parent.getParentRevisionId());
+                writeModuleRevisionId(parent.getResolvedParentRevisionId());
+                writeString(parent.getLocation());
+                writeStrings(parent.getExtendsTypes());
+            }
+
+            License[] licenses = md.getLicenses();
+            output.writeInt(licenses.length);
+            for (License license : licenses) {
+                writeString(license.getName());
+                writeString(license.getUrl());
+            }
+            writeString(md.getHomePage());
+            writeString(md.getDescription());
+
+            Map<String, String> extraInfo = new LinkedHashMap<String, String>();
+            for (Object o : md.getExtraInfo().entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                String value = (String) entry.getValue();
+                if (value != null && value.length() > 0) {
+                    extraInfo.put(entry.getKey().toString(), value);
+                }
+            }
+            writeStringMap(extraInfo);
+        }
+
+        private void writeConfigurations() throws IOException {
+            Configuration[] configurations = md.getConfigurations();
+            output.writeInt(configurations.length);
+            for (Configuration configuration : configurations) {
+                writeString(configuration.getName());
+                writeString(configuration.getVisibility().toString());
+                writeString(configuration.getDescription());
+                writeStrings(configuration.getExtends());
+                output.writeBoolean(configuration.isTransitive());
+                writeString(configuration.getDeprecated());
+                writeExtraAttributes(configuration);
+            }
+        }
+
+        private void writeArtifacts() throws IOException {
+            Artifact[] artifacts = md.getAllArtifacts();
+            output.writeInt(artifacts.length);
+            for (Artifact artifact : artifacts) {
+                writeString(artifact.getName());
+                writeString(artifact.getType());
+                writeString(artifact.getExt());
+                writeUrl(artifact.getUrl());
+                writeExtraAttributes(artifact);
+                writeStrings(getConfigurations(artifact));
+            }
+        }
+
+        private String[] getConfigurations(Artifact artifact) {
+            List<String> result = new ArrayList<String>();
+            for (String configuration : md.getConfigurationsNames()) {
+                if (Arrays.asList(md.getArtifacts(configuration)).contains(artifact)) {
+                    result.add(configuration);
+                }
+            }
+            return result.toArray(new String[result.size()]);
+        }
+
+        private void writeDependencies() throws IOException {
+            DependencyDescriptor[] dependencies = md.getDependencies();
+            output.writeInt(dependencies.length);
+            for (DependencyDescriptor dependency : dependencies) {
+                writeModuleRevisionId(dependency.getDependencyRevisionId());
+                writeModuleRevisionId(dependency.getDynamicConstraintDependencyRevisionId());
+                output.writeBoolean(dependency.isForce());
+                output.writeBoolean(dependency.isChanging());
+                output.writeBoolean(dependency.isTransitive());
+
+                String[] moduleConfigurations = dependency.getModuleConfigurations();
+                output.writeInt(moduleConfigurations.length);
+                for (String moduleConfiguration : moduleConfigurations) {
+                    writeString(moduleConfiguration);
+                    writeStrings(dependency.getDependencyConfigurations(moduleConfiguration));
+                }
+
+                DependencyArtifactDescriptor[] artifacts = dependency.getAllDependencyArtifacts();
+                output.writeInt(artifacts.length);
+                for (DependencyArtifactDescriptor artifact : artifacts) {
+                    writeString(artifact.getName());
+                    writeString(artifact.getType());
+                    writeString(artifact.getExt());
+                    writeUrl(artifact.getUrl());
+                    writeExtraAttributes(artifact);
+                    writeStrings(artifact.getConfigurations());
+                }
+
+                IncludeRule[] includes = dependency.getAllIncludeRules();
+                output.writeInt(includes.length);
+                for (IncludeRule include : includes) {
+                    writeArtifactRule(include.getId(), include.getMatcher(), include.getConfigurations(), include);
+                }
+
+                writeExcludeRules(dependency.getAllExcludeRules());
+            }
+        }
+
+        private void writeAllExcludes() throws IOException {
+            writeExcludeRules(md.getAllExcludeRules());
+        }
+
+        private void writeExcludeRules(ExcludeRule[] excludes) throws IOException {
+            output.writeInt(excludes.length);
+            for (ExcludeRule exclude : excludes) {
+                writeArtifactRule(exclude.getId(), exclude.getMatcher(), exclude.getConfigurations(), exclude);
+            }
+        }
+
+        private void writeArtifactRule(ArtifactId id, PatternMatcher matcher, String[] configurations, ExtendableItem rule) throws IOException {
+            writeString(id.getModuleId().getOrganisation());
+            writeString(id.getModuleId().getName());
+            writeString(id.getName());
+            writeString(id.getType());
+            writeString(id.getExt());
+            writeString(matcher.getName());
+            writeStrings(configurations);
+            writeExtraAttributes(rule);
+        }
+
+        private void writeAllMediators() throws IOException {
+            List<Map.Entry> overrides = new ArrayList<Map.Entry>();
+            for (Object o : md.getAllDependencyDescriptorMediators().getAllRules().entrySet()) {
+                Map.Entry rule = (Map.Entry) o;
+                if (rule.getValue() instanceof OverrideDependencyDescriptorMediator) {
+                    overrides.add(rule);
+                }
+            }
+            output.writeInt(overrides.size());
+            for (Map.Entry rule : overrides) {
+                MapMatcher matcher = (MapMatcher) rule.getKey();
+                OverrideDependencyDescriptorMediator mediator = (OverrideDependencyDescriptorMediator) rule.getValue();
+                writeString((String) matcher.getAttributes().get(IvyPatternHelper.ORGANISATION_KEY));
+                writeString((String) matcher.getAttributes().get(IvyPatternHelper.MODULE_KEY));
+                writeString(matcher.getPatternMatcher().getName());
+                writeString(mediator.getBranch());
+                writeString(mediator.getVersion());
+            }
+        }
+
+        private void writeModuleRevisionId(ModuleRevisionId id) throws IOException {
+            writeString(id.getOrganisation());
+            writeString(id.getName());
+            writeString(id.getBranch());
+            writeString(id.getRevision());
+            writeExtraAttributes(id);
+        }
+
+        private void writeExtraAttributes(ExtendableItem item) throws IOException {
+            Map<String, String> extraAttributes = new LinkedHashMap<String, String>();
+            for (Object o : item.getQualifiedExtraAttributes().entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                extraAttributes.put(entry.getKey().toString(), entry.getValue().toString());
+            }
+            writeStringMap(extraAttributes);
+        }
+
+        private void writeUrl(URL url) throws IOException {
+            writeString(url == null ? null : url.toExternalForm());
+        }
+
+        private void writeStringMap(Map<?, ?> values) throws IOException {
+            output.writeInt(values.size());
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                writeString((String) entry.getKey());
+                writeString((String) entry.getValue());
+            }
+        }
+
+        private void writeStrings(String[] values) throws IOException {
+            output.writeInt(values.length);
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                output.writeByte(NULL_STRING);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                output.writeByte(PREVIOUS_STRING);
+                output.writeInt(index);
+                return;
+            }
+            strings.put(value, strings.size());
+            output.writeByte(NEW_STRING);
+            byte[] encoded = value.getBytes("UTF-8");
+            output.writeInt(encoded.length);
+            output.write(encoded);
+        }
+    }
+
+    private static class Reader {
+        private final DataInput input;
+        private final ParserSettings settings;
+        private final List<String> strings = new ArrayList<String>();
+        private DefaultModuleDescriptor md;
+
+        private Reader(DataInput input, ParserSettings settings) {
+            this.input = input;
+            this.settings = settings;
+        }
+
+        public ModuleDescriptor read() throws IOException {
+            readInfo();
+            readConfigurations();
+            readArtifacts();
+            readDependencies();
+            readAllExcludes();
+            readAllMediators();
+            return md;
+        }
+
+        private void readInfo() throws IOException {
+            Map<String, String> namespaces = readStringMap();
+            String organisation = readString();
+            String module = readString();
+            String branch = readString();
+            String revision = readString();
+            Map<String, String> extraAttributes = readStringMap();
+            String status = readString();
+            Date publicationDate = new Date(input.readLong());
+            boolean isDefault = input.readBoolean();
+            md = new DefaultModuleDescriptor(ModuleRevisionId.newInstance(organisation, module, branch, revision, extraAttributes), status, publicationDate, isDefault);
+            for (Map.Entry<String, String> entry : namespaces.entrySet()) {
+                md.addExtraAttributeNamespace(entry.getKey(), entry.getValue());
+            }
+            String namespace = readString();
+            if (namespace != null) {
+                Namespace ns = settings.getNamespace(namespace);
+                if (ns != null) {
+                    md.setNamespace(ns);
+                }
+            }
+
+            int parents = input.readInt();
+            for (int i = 0; i < parents; i++) {
+                ModuleRevisionId parentRevisionId = readModuleRevisionId();
+                ModuleRevisionId resolvedParentRevisionId = readModuleRevisionId();
+                String location = readString();
+                String[] extendsTypes = readStrings();
+                md.addInheritedDescriptor(new DefaultExtendsDescriptor(parentRevisionId, resolvedParentRevisionId, location, extendsTypes));
+            }
+
+            int licenses = input.readInt();
+            for (int i = 0; i < licenses; i++) {
+                String name = readString();
+                String url = readString();
+                md.addLicense(new License(name, url));
+            }
+            md.setHomePage(readString());
+            md.setDescription(readString());
+
+            for (Map.Entry<String, String> entry : readStringMap().entrySet()) {
+                md.addExtraInfo(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private void readConfigurations() throws IOException {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = readString();
+                Configuration.Visibility visibility = Configuration.Visibility.getVisibility(readString());
+                String description = readString();
+                String[] extendsFrom = readStrings();
+                boolean transitive = input.readBoolean();
+                String deprecated = readString();
+                Configuration configuration = new Configuration(name, visibility, description, extendsFrom, transitive, deprecated);
+                for (Map.Entry<String, String> entry : readStringMap().entrySet()) {
+                    configuration.setExtraAttribute(entry.getKey(), entry.getValue());
+                }
+                md.addConfiguration(configuration);
+            }
+        }
+
+        private void readArtifacts() throws IOException {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = readString();
+                String type = readString();
+                String ext = readString();
+                URL url = readUrl();
+                Map<String, String> extraAttributes = readStringMap();
+                MDArtifact artifact = new MDArtifact(md, name, type, ext, url, extraAttributes);
+                for (String configuration : readStrings()) {
+                    artifact.addConfiguration(configuration);
+                    md.addArtifact(configuration, artifact);
+                }
+            }
+        }
+
+        private void readDependencies() throws IOException {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                ModuleRevisionId revisionId = readModuleRevisionId();
+                ModuleRevisionId dynamicRevisionId = readModuleRevisionId();
+                boolean force = input.readBoolean();
+                boolean changing = input.readBoolean();
+                boolean transitive = input.readBoolean();
+                DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md, revisionId, dynamicRevisionId, force, changing, transitive);
+                md.addDependency(dd);
+
+                int moduleConfigurations = input.readInt();
+                for (int j = 0; j < moduleConfigurations; j++) {
+                    String moduleConfiguration = readString();
+                    for (String dependencyConfiguration : readStrings()) {
+                        dd.addDependencyConfiguration(moduleConfiguration, dependencyConfiguration);
+                    }
+                }
+
+                int artifacts = input.readInt();
+                for (int j = 0; j < artifacts; j++) {
+                    String name = readString();
+                    String type = readString();
+                    String ext = readString();
+                    URL url = readUrl();
+                    Map<String, String> extraAttributes = readStringMap();
+                    DefaultDependencyArtifactDescriptor artifact = new DefaultDependencyArtifactDescriptor(dd, name, type, ext, url, extraAttributes);
+                    for (String configuration : readStrings()) {
+                        artifact.addConfiguration(configuration);
+                        dd.addDependencyArtifact(configuration, artifact);
+                    }
+                }
+
+                int includes = input.readInt();
+                for (int j = 0; j < includes; j++) {
+                    ArtifactId id = readArtifactId();
+                    PatternMatcher matcher = readMatcher();
+                    String[] configurations = readStrings();
+                    DefaultIncludeRule rule = new DefaultIncludeRule(id, matcher, readStringMap());
+                    for (String configuration : configurations) {
+                        rule.addConfiguration(configuration);
+                        dd.addIncludeRule(configuration, rule);
+                    }
+                }
+
+                int excludes = input.readInt();
+                for (int j = 0; j < excludes; j++) {
+                    DefaultExcludeRule rule = readExcludeRule();
+                    for (String configuration : rule.getConfigurations()) {
+                        dd.addExcludeRule(configuration, rule);
+                    }
+                }
+            }
+        }
+
+        private void readAllExcludes() throws IOException {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                md.addExcludeRule(readExcludeRule());
+            }
+        }
+
+        private DefaultExcludeRule readExcludeRule() throws IOException {
+            ArtifactId id = readArtifactId();
+            PatternMatcher matcher = readMatcher();
+            String[] configurations = readStrings();
+            DefaultExcludeRule rule = new DefaultExcludeRule(id, matcher, readStringMap());
+            for (String configuration : configurations) {
+                rule.addConfiguration(configuration);
+            }
+            return rule;
+        }
+
+        private void readAllMediators() throws IOException {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String organisation = readString();
+                String module = readString();
+                PatternMatcher matcher = readMatcher();
+                String branch = readString();
+                String version = readString();
+                md.addDependencyDescriptorMediator(new ModuleId(organisation, module), matcher, new OverrideDependencyDescriptorMediator(branch, version));
+            }
+        }
+
+        private ArtifactId readArtifactId() throws IOException {
+            String organisation = readString();
+            String module = readString();
+            String name = readString();
+            String type = readString();
+            String ext = readString();
+            return new ArtifactId(new ModuleId(organisation, module), name, type, ext);
+        }
+
+        private PatternMatcher readMatcher() throws IOException {
+            String name = readString();
+            PatternMatcher matcher = settings.getMatcher(name);
+            if (matcher == null) {
+                throw new IllegalArgumentException(String.format("Unknown matcher '%s'.", name));
+            }
+            return matcher;
+        }
+
+        private ModuleRevisionId readModuleRevisionId() throws IOException {
+            String organisation = readString();
+            String name = readString();
+            String branch = readString();
+            String revision = readString();
+            return ModuleRevisionId.newInstance(organisation, name, branch, revision, readStringMap());
+        }
+
+        private URL readUrl() throws IOException {
+            String url = readString();
+            return url == null ? null : new URL(url);
+        }
+
+        private Map<String, String> readStringMap() throws IOException {
+            int count = input.readInt();
+            Map<String, String> values = new LinkedHashMap<String, String>();
+            for (int i = 0; i < count; i++) {
+                String key = readString();
+                values.put(key, readString());
+            }
+            return values;
+        }
+
+        private String[] readStrings() throws IOException {
+            String[] values = new String[input.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        private String readString() throws IOException {
+            byte tag = input.readByte();
+            switch (tag) {
+                case NULL_STRING:
+                    return null;
+                case PREVIOUS_STRING:
+                    return strings.get(input.readInt());
+                case NEW_STRING:
+                    byte[] encoded = new byte[input.readInt()];
+                    input.readFully(encoded);
+                    String value = new String(encoded, "UTF-8");
+                    strings.add(value);
+                    return value;
+                default:
+                    throw new IOException(String.format("Unexpected string tag %s.", tag));
+            }
+        }
+    }
+}
@@ -20,37 +20,44 @@ import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.parser.ParserSettings;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
-import org.gradle.api.internal.artifacts.ivyservice.IvyModuleDescriptorWriter;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.IvyContextualiser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionRepository;
-import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser;
 import org.gradle.api.internal.filestore.FileStoreEntry;
 import org.gradle.api.internal.filestore.PathKeyFileStore;
 import org.gradle.internal.UncheckedException;
 
-import java.io.File;
-import java.net.URL;
+import java.io.*;
+import java.math.BigInteger;
 
 public class ModuleDescriptorStore {
 
-    public static final String FILE_PATH_PATTERN = "module-metadata/%s/%s/%s/%s/ivy.xml";
-    private final IvyXmlModuleDescriptorParser parser;
+    public static final String FILE_PATH_PATTERN = "module-metadata/%s/%s/%s/%s/descriptor.bin";
     private final PathKeyFileStore pathKeyFileStore;
-    private final IvyModuleDescriptorWriter ivyModuleDescriptorWriter;
+    private final ModuleDescriptorSerializer serializer;
+    private final InMemoryModuleDescriptorCache inMemoryCache;
 
-    public ModuleDescriptorStore(PathKeyFileStore pathKeyFileStore, IvyModuleDescriptorWriter ivyModuleDescriptorWriter, IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser) {
+    public ModuleDescriptorStore(PathKeyFileStore pathKeyFileStore, ModuleDescriptorSerializer serializer, InMemoryModuleDescriptorCache inMemoryCache) {
         this.pathKeyFileStore = pathKeyFileStore;
-        this.ivyModuleDescriptorWriter = ivyModuleDescriptorWriter;
-        parser = ivyXmlModuleDescriptorParser;
+        this.serializer = serializer;
+        this.inMemoryCache = inMemoryCache;
     }
 
-    public ModuleDescriptor getModuleDescriptor(ModuleVersionRepository repository, ModuleVersionIdentifier moduleVersionIdentifier) {
+    /**
+     * Returns the cached descriptor for the given module, or null if there is none. Uses the in-memory copy of the descriptor with the given hash
+     * from the given repository, if there is one, rather than reading the descriptor file again.
+     */
+    public ModuleDescriptor getModuleDescriptor(ModuleVersionRepository repository, ModuleVersionIdentifier moduleVersionIdentifier, BigInteger descriptorHash) {
         String filePath = getFilePath(repository, moduleVersionIdentifier);
         final FileStoreEntry fileStoreEntry = pathKeyFileStore.get(filePath);
-        if (fileStoreEntry != null) {
-            return parseModuleDescriptorFile(fileStoreEntry.getFile());
+        if (fileStoreEntry == null) {
+            return null;
         }
-        return null;
+        ModuleDescriptor descriptor = inMemoryCache.get(repository.getId(), descriptorHash);
+        if (descriptor == null) {
+            descriptor = readModuleDescriptorFile(fileStoreEntry.getFile());
+            inMemoryCache.put(repository.getId(), descriptorHash, descriptor);
+        }
+        return descriptor;
     }
 
     public FileStoreEntry putModuleDescriptor(ModuleVersionRepository repository, final ModuleDescriptor moduleDescriptor) {
@@ -58,7 +65,12 @@ public class ModuleDescriptorStore {
         return pathKeyFileStore.add(filePath, new Action<File>() {
             public void execute(File moduleDescriptorFile) {
                 try {
-                    ivyModuleDescriptorWriter.write(moduleDescriptor, moduleDescriptorFile);
+                    DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(moduleDescriptorFile)));
+                    try {
+                        serializer.write(outputStream, moduleDescriptor);
+                    } finally {
+                        outputStream.close();
+                    }
                 } catch (Exception e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
@@ -66,11 +78,15 @@ public class ModuleDescriptorStore {
         });
     }
 
-    private ModuleDescriptor parseModuleDescriptorFile(File moduleDescriptorFile) {
+    private ModuleDescriptor readModuleDescriptorFile(File moduleDescriptorFile) {
         ParserSettings settings = IvyContextualiser.getIvyContext().getSettings();
         try {
-            URL result = moduleDescriptorFile.toURI().toURL();
-            return parser.parseDescriptor(settings, result, false);
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(moduleDescriptorFile)));
+            try {
+                return serializer.read(inputStream, settings);
+            } finally {
+                inputStream.close();
+            }
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -15,14 +15,23 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
 
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.plugins.version.VersionMatcher;
+import org.gradle.api.Transformer;
 import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.ResolverResults;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.ivyservice.*;
 import org.gradle.api.internal.artifacts.ivyservice.clientmodule.ClientModuleResolver;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.ConfigurationInputsHasher;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.ResolvedGraphCache;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.ResolvedGraphSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.graphcache.StaticVersionDetectingResolver;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.IvyAdapter;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.LazyDependencyToModuleResolver;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.PrefetchingDependencyToModuleResolver;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectDependencyResolver;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectModuleRegistry;
@@ -32,6 +41,8 @@ import org.gradle.initialization.ProjectAccessListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
+
 public class DefaultDependencyResolver implements ArtifactDependencyResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultDependencyResolver.class);
     private final ModuleDescriptorConverter moduleDescriptorConverter;
@@ -39,26 +50,66 @@ public class DefaultDependencyResolver implements ArtifactDependencyResolver {
     private final ResolveIvyFactory ivyFactory;
     private final ProjectModuleRegistry projectModuleRegistry;
     private final ProjectAccessListener projectAccessListener;
+    private final CacheLockingManager cacheLockingManager;
+    private final Executor metaDataExecutor;
+    private final int maxParallelMetaDataFetches;
+    private final ResolvedGraphCache resolvedGraphCache;
+    private final ResolvedGraphSerializer resolvedGraphSerializer = new ResolvedGraphSerializer();
 
+    /**
+     * @param maxParallelMetaDataFetches The maximum number of modules to fetch the meta-data for at the same time. Meta-data is fetched one module at a
+     * time, when it is required, when this is 1.
+     * @param resolvedGraphCache The cache to reuse dependency graphs from, when their inputs have not changed. May be null, in which case every graph
+     * is resolved.
+     */
     public DefaultDependencyResolver(ResolveIvyFactory ivyFactory, ModuleDescriptorConverter moduleDescriptorConverter, ResolvedArtifactFactory resolvedArtifactFactory,
-                                     ProjectModuleRegistry projectModuleRegistry, ProjectAccessListener projectAccessListener) {
+                                     ProjectModuleRegistry projectModuleRegistry, ProjectAccessListener projectAccessListener,
+                                     CacheLockingManager cacheLockingManager, Executor metaDataExecutor, int maxParallelMetaDataFetches,
+                                     ResolvedGraphCache resolvedGraphCache) {
         this.ivyFactory = ivyFactory;
         this.moduleDescriptorConverter = moduleDescriptorConverter;
         this.resolvedArtifactFactory = resolvedArtifactFactory;
         this.projectModuleRegistry = projectModuleRegistry;
         this.projectAccessListener = projectAccessListener;
+        this.cacheLockingManager = cacheLockingManager;
+        this.metaDataExecutor = metaDataExecutor;
+        this.maxParallelMetaDataFetches = maxParallelMetaDataFetches;
+        this.resolvedGraphCache = resolvedGraphCache;
     }
 
     public ResolverResults resolve(ConfigurationInternal configuration) throws ResolveException {
         LOGGER.debug("Resolving {}", configuration);
 
         IvyAdapter ivyAdapter = ivyFactory.create(configuration);
+        VersionMatcher versionMatcher = ivyAdapter.getResolveData().getSettings().getVersionMatcher();
+
+        String inputsHash = null;
+        if (resolvedGraphCache != null) {
+            inputsHash = new ConfigurationInputsHasher(versionMatcher).hash(configuration, ivyAdapter.getRepositories());
+            if (inputsHash != null) {
+                byte[] encodedGraph = resolvedGraphCache.getResolvedGraph(inputsHash);
+                if (encodedGraph != null) {
+                    LOGGER.debug("Using cached dependency graph for {}", configuration);
+                    return resolvedGraphSerializer.decode(encodedGraph, configuration, resolvedArtifactFactory, ivyAdapter.getDependencyToModuleResolver());
+                }
+            }
+        }
 
         DependencyToModuleResolver dependencyResolver = ivyAdapter.getDependencyToModuleResolver();
+        StaticVersionDetectingResolver staticVersionDetector = null;
+        if (inputsHash != null) {
+            staticVersionDetector = new StaticVersionDetectingResolver(dependencyResolver, versionMatcher);
+            dependencyResolver = staticVersionDetector;
+        }
+        PrefetchingDependencyToModuleResolver metaDataPrefetcher = null;
+        if (maxParallelMetaDataFetches > 1) {
+            metaDataPrefetcher = new PrefetchingDependencyToModuleResolver(dependencyResolver, cacheLockingManager, metaDataExecutor, maxParallelMetaDataFetches);
+            dependencyResolver = metaDataPrefetcher;
+        }
         dependencyResolver = new ClientModuleResolver(dependencyResolver);
         dependencyResolver = new ProjectDependencyResolver(projectModuleRegistry, dependencyResolver, projectAccessListener);
-        DependencyToModuleVersionIdResolver idResolver = new LazyDependencyToModuleResolver(dependencyResolver, ivyAdapter.getResolveData().getSettings().getVersionMatcher());
-        idResolver = new VersionForcingDependencyToModuleResolver(idResolver, configuration.getResolutionStrategy().getDependencyResolveRule());
+        DependencyToModuleVersionIdResolver lazyResolver = new LazyDependencyToModuleResolver(dependencyResolver, versionMatcher);
+        final VersionForcingDependencyToModuleResolver idResolver = new VersionForcingDependencyToModuleResolver(lazyResolver, configuration.getResolutionStrategy().getDependencyResolveRule());
 
         ModuleConflictResolver conflictResolver;
         if (configuration.getResolutionStrategy().getConflictResolution() instanceof StrictConflictResolution) {
@@ -68,9 +119,31 @@ public class DefaultDependencyResolver implements ArtifactDependencyResolver {
         }
         ModuleConflictResolver actualResolver = new VersionSelectionReasonResolver(conflictResolver);
 
-        DependencyGraphBuilder builder = new DependencyGraphBuilder(moduleDescriptorConverter, resolvedArtifactFactory, idResolver, actualResolver);
+        // Prefetch the modules that forcing and the dependency resolve rules select, rather than those that are declared
+        Transformer<DependencyDescriptor, DependencyDescriptor> dependencySubstitution = new Transformer<DependencyDescriptor, DependencyDescriptor>() {
+            public DependencyDescriptor transform(DependencyDescriptor original) {
+                return idResolver.substitute(original);
+            }
+        };
+        DependencyGraphBuilder builder = new DependencyGraphBuilder(moduleDescriptorConverter, resolvedArtifactFactory, idResolver, actualResolver, metaDataPrefetcher, dependencySubstitution);
         ResolutionResultBuilder resultBuilder = new ResolutionResultBuilder();
-        DefaultLenientConfiguration result = builder.resolve(configuration, ivyAdapter.getResolveData(), resultBuilder);
-        return new ResolverResults(new DefaultResolvedConfiguration(result), resultBuilder.getResult());
+        DefaultLenientConfiguration result;
+        try {
+            result = builder.resolve(configuration, ivyAdapter.getResolveData(), resultBuilder);
+        } finally {
+            if (metaDataPrefetcher != null) {
+                metaDataPrefetcher.stop();
+            }
+        }
+        ResolutionResult resolutionResult = resultBuilder.getResult();
+
+        // The graph is only determined by its inputs when it contains static versions only
+        if (staticVersionDetector != null && staticVersionDetector.isAllStatic()) {
+            byte[] encodedGraph = resolvedGraphSerializer.encode(configuration, result, resolutionResult);
+            if (encodedGraph != null) {
+                resolvedGraphCache.cacheResolvedGraph(inputsHash, encodedGraph);
+            }
+        }
+        return new ResolverResults(new DefaultResolvedConfiguration(result), resolutionResult);
     }
 }
@@ -20,6 +20,7 @@ import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.gradle.api.Transformer;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.ResolveException;
@@ -31,6 +32,7 @@ import org.gradle.api.internal.artifacts.DefaultResolvedDependency;
 import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.PrefetchingDependencyToModuleResolver;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.EnhancedDependencyDescriptor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.InternalDependencyResult;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection;
@@ -49,12 +51,28 @@ public class DependencyGraphBuilder {
     private final ResolvedArtifactFactory resolvedArtifactFactory;
     private final DependencyToModuleVersionIdResolver dependencyResolver;
     private final InternalConflictResolver conflictResolver;
+    private final PrefetchingDependencyToModuleResolver metaDataPrefetcher;
+    private final Transformer<DependencyDescriptor, DependencyDescriptor> dependencySubstitution;
 
     public DependencyGraphBuilder(ModuleDescriptorConverter moduleDescriptorConverter, ResolvedArtifactFactory resolvedArtifactFactory, DependencyToModuleVersionIdResolver dependencyResolver, ModuleConflictResolver conflictResolver) {
+        this(moduleDescriptorConverter, resolvedArtifactFactory, dependencyResolver, conflictResolver, null, null);
+    }
+
+    /**
+     * @param metaDataPrefetcher Used to fetch the meta-data of the dependencies of the configurations waiting to be visited, ahead of the traversal.
+     * May be null, in which case meta-data is fetched when required.
+     * @param dependencySubstitution Returns the dependency that is resolved in place of a given dependency, once forced modules and dependency resolve
+     * rules have been applied. Only the meta-data of the returned dependencies is prefetched. Failures are ignored here, and are reported when the
+     * dependency is resolved.
+     */
+    public DependencyGraphBuilder(ModuleDescriptorConverter moduleDescriptorConverter, ResolvedArtifactFactory resolvedArtifactFactory, DependencyToModuleVersionIdResolver dependencyResolver, ModuleConflictResolver conflictResolver,
+                                  PrefetchingDependencyToModuleResolver metaDataPrefetcher, Transformer<DependencyDescriptor, DependencyDescriptor> dependencySubstitution) {
         this.moduleDescriptorConverter = moduleDescriptorConverter;
         this.resolvedArtifactFactory = resolvedArtifactFactory;
         this.dependencyResolver = dependencyResolver;
         this.conflictResolver = new InternalConflictResolver(conflictResolver);
+        this.metaDataPrefetcher = metaDataPrefetcher;
+        this.dependencySubstitution = dependencySubstitution;
     }
 
     public DefaultLenientConfiguration resolve(ConfigurationInternal configuration, ResolveData resolveData, ResolvedConfigurationListener listener) throws ResolveException {
@@ -63,7 +81,7 @@ public class DependencyGraphBuilder {
         ResolveState resolveState = new ResolveState(moduleDescriptor, configuration.getName(), dependencyResolver, resolveData);
         traverseGraph(resolveState);
 
-        DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, resolveState.root.getResult());
+        DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, resolveState.root.getResult(), resolvedArtifactFactory);
         assembleResult(resolveState, result, listener);
 
         return result;
@@ -80,6 +98,7 @@ public class DependencyGraphBuilder {
         List<DependencyEdge> dependencies = new ArrayList<DependencyEdge>();
         while (resolveState.peek() != null || !conflicts.isEmpty()) {
             if (resolveState.peek() != null) {
+                prefetchMetaData(resolveState);
                 ConfigurationNode node = resolveState.pop();
                 LOGGER.debug("Visiting configuration {}.", node);
 
@@ -142,6 +161,37 @@ public class DependencyGraphBuilder {
         }
     }
 
+    /**
+     * Starts fetching the meta-data for the dependencies of the configurations that have been queued since the last call, as they are after
+     * substitution. The traversal itself does not change, so the graph and the conflict resolution are the same as when the meta-data is fetched
+     * on demand.
+     */
+    private void prefetchMetaData(ResolveState resolveState) {
+        List<ConfigurationNode> queued = resolveState.takeRecentlyQueued();
+        if (metaDataPrefetcher == null) {
+            return;
+        }
+        List<DependencyDescriptor> dependencies = new ArrayList<DependencyDescriptor>();
+        for (ConfigurationNode node : queued) {
+            node.collectOutgoingDependencies(dependencies);
+        }
+        List<DependencyDescriptor> unresolved = new ArrayList<DependencyDescriptor>();
+        for (DependencyDescriptor dependency : dependencies) {
+            if (resolveState.hasSelector(dependency.getDependencyRevisionId())) {
+                continue;
+            }
+            try {
+                unresolved.add(dependencySubstitution.transform(dependency));
+            } catch (ModuleVersionResolveException e) {
+                // Reported when the dependency is resolved
+                LOGGER.debug(String.format("Not prefetching meta-data for %s.", dependency), e);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            metaDataPrefetcher.prefetch(unresolved);
+        }
+    }
+
     /**
      * Populates the result from the graph traversal state.
      */
@@ -435,6 +485,7 @@ public class DependencyGraphBuilder {
         private final ResolveData resolveData;
         private final Set<ConfigurationNode> queued = new HashSet<ConfigurationNode>();
         private final LinkedList<ConfigurationNode> queue = new LinkedList<ConfigurationNode>();
+        private final List<ConfigurationNode> recentlyQueued = new ArrayList<ConfigurationNode>();
 
         public ResolveState(ModuleDescriptor rootModule, String rootConfigurationName, DependencyToModuleVersionIdResolver resolver, ResolveData resolveData) {
             this.resolver = resolver;
@@ -476,6 +527,10 @@ public class DependencyGraphBuilder {
             return configuration;
         }
 
+        public boolean hasSelector(ModuleRevisionId original) {
+            return selectors.containsKey(ModuleRevisionId.newInstance(original.getOrganisation(), original.getName(), original.getRevision()));
+        }
+
         public ModuleVersionSelectorResolveState getSelector(DependencyDescriptor dependencyDescriptor, ModuleRevisionId original) {
             ModuleRevisionId selectorId = ModuleRevisionId.newInstance(original.getOrganisation(), original.getName(), original.getRevision());
             ModuleVersionSelectorResolveState resolveState = selectors.get(selectorId);
@@ -504,6 +559,7 @@ public class DependencyGraphBuilder {
             // possible before attempting to resolve them
             if (queued.add(configuration)) {
                 queue.addLast(configuration);
+                recentlyQueued.add(configuration);
             }
         }
 
@@ -514,8 +570,18 @@ public class DependencyGraphBuilder {
             // Add to the front of the queue, to flush out configurations that are no longer required.
             if (queued.add(configuration)) {
                 queue.addFirst(configuration);
+                recentlyQueued.add(configuration);
             }
         }
+
+        /**
+         * Returns the configuration nodes that have been queued since the last call.
+         */
+        public List<ConfigurationNode> takeRecentlyQueued() {
+            List<ConfigurationNode> result = new ArrayList<ConfigurationNode>(recentlyQueued);
+            recentlyQueued.clear();
+            return result;
+        }
     }
 
     enum ModuleState {
@@ -748,13 +814,7 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
-            for (DependencyEdge edge : incomingEdges) {
-                if (edge.isTransitive()) {
-                    transitiveIncoming.add(edge);
-                }
-            }
-
+            List<DependencyEdge> transitiveIncoming = getTransitiveIncomingEdges();
             if (transitiveIncoming.isEmpty() && this != resolveState.root) {
                 if (previousTraversal != null) {
                     removeOutgoingEdges();
@@ -792,6 +852,35 @@ public class DependencyGraphBuilder {
             previousTraversal = selectorSpec;
         }
 
+        /**
+         * Collects the dependencies that would be traversed if this configuration were visited now, without making any changes to the graph.
+         */
+        public void collectOutgoingDependencies(Collection<DependencyDescriptor> target) {
+            if (moduleRevision.state != ModuleState.Selected) {
+                return;
+            }
+            List<DependencyEdge> transitiveIncoming = getTransitiveIncomingEdges();
+            if (transitiveIncoming.isEmpty() && this != resolveState.root) {
+                return;
+            }
+            ModuleVersionSpec selectorSpec = getSelector(transitiveIncoming);
+            for (DependencyDescriptor dependency : moduleRevision.getDependencies()) {
+                if (!getTargetConfigurations(dependency).isEmpty() && selectorSpec.isSatisfiedBy(dependency.getDependencyRevisionId().getModuleId())) {
+                    target.add(dependency);
+                }
+            }
+        }
+
+        private List<DependencyEdge> getTransitiveIncomingEdges() {
+            List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
+            for (DependencyEdge edge : incomingEdges) {
+                if (edge.isTransitive()) {
+                    transitiveIncoming.add(edge);
+                }
+            }
+            return transitiveIncoming;
+        }
+
         Set<String> getTargetConfigurations(DependencyDescriptor dependencyDescriptor) {
             Set<String> targetConfigurations = new LinkedHashSet<String>();
             for (String moduleConfiguration : dependencyDescriptor.getModuleConfigurations()) {
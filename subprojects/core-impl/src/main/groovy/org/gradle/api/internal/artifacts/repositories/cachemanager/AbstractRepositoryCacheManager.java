@@ -41,10 +41,11 @@ import java.text.ParseException;
 
 abstract class AbstractRepositoryCacheManager implements RepositoryCacheManager {
     protected final String name;
-    private final ParserRegistry parserRegistry = new ParserRegistry();
+    private final ParserRegistry parserRegistry;
 
-    public AbstractRepositoryCacheManager(String name) {
+    public AbstractRepositoryCacheManager(String name, ParserRegistry parserRegistry) {
         this.name = name;
+        this.parserRegistry = parserRegistry;
     }
 
     public String getName() {
@@ -29,6 +29,7 @@ import org.apache.ivy.plugins.repository.ArtifactResourceResolver;
 import org.apache.ivy.plugins.repository.ResourceDownloader;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParserRegistry;
 
 import java.io.File;
 import java.text.ParseException;
@@ -38,8 +39,8 @@ import java.text.ParseException;
  */
 public class LocalFileRepositoryCacheManager extends AbstractRepositoryCacheManager {
 
-    public LocalFileRepositoryCacheManager(String name) {
-        super(name);
+    public LocalFileRepositoryCacheManager(String name, ParserRegistry parserRegistry) {
+        super(name, parserRegistry);
     }
 
     public EnhancedArtifactDownloadReport download(Artifact artifact, ArtifactResourceResolver resourceResolver, ResourceDownloader resourceDownloader, CacheDownloadOptions options) {
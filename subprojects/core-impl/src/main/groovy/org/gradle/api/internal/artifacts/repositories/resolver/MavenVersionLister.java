@@ -21,15 +21,19 @@ import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.gradle.api.internal.externalresource.transport.ExternalResourceRepository;
 import org.gradle.api.internal.resource.ResourceException;
 import org.gradle.api.internal.resource.ResourceNotFoundException;
+import org.gradle.internal.Factory;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class MavenVersionLister implements VersionLister {
     private final MavenMetadataLoader mavenMetadataLoader;
+    private final VersionListingCache listingCache;
 
-    public MavenVersionLister(ExternalResourceRepository repository) {
+    public MavenVersionLister(ExternalResourceRepository repository, VersionListingCache listingCache) {
         this.mavenMetadataLoader = new MavenMetadataLoader(repository);
+        this.listingCache = listingCache;
     }
 
     public VersionList getVersionList(final ModuleRevisionId moduleRevisionId) {
@@ -37,12 +41,16 @@ public class MavenVersionLister implements VersionLister {
             final Set<String> searched = new HashSet<String>();
 
             public void visit(ResourcePattern resourcePattern, Artifact artifact) throws ResourceNotFoundException, ResourceException {
-                String metadataLocation = resourcePattern.toModulePath(artifact) + "/maven-metadata.xml";
+                final String metadataLocation = resourcePattern.toModulePath(artifact) + "/maven-metadata.xml";
                 if (!searched.add(metadataLocation)) {
                     return;
                 }
-                MavenMetadata mavenMetaData = mavenMetadataLoader.load(metadataLocation);
-                add(mavenMetaData.versions);
+                List<String> versions = listingCache.getListing(metadataLocation, new Factory<List<String>>() {
+                    public List<String> create() {
+                        return mavenMetadataLoader.load(metadataLocation).versions;
+                    }
+                });
+                add(versions);
             }
         };
     }
@@ -19,9 +19,11 @@ package org.gradle.api.internal.artifacts.repositories.resolver;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.externalresource.transport.ExternalResourceRepository;
 import org.gradle.api.internal.resource.ResourceException;
 import org.gradle.api.internal.resource.ResourceNotFoundException;
+import org.gradle.internal.Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,10 +38,12 @@ public class ResourceVersionLister implements VersionLister {
     public static final int REV_TOKEN_LENGTH = REVISION_TOKEN.length();
 
     private final ExternalResourceRepository repository;
+    private final VersionListingCache listingCache;
     private final String fileSeparator = "/";
 
-    public ResourceVersionLister(ExternalResourceRepository repository) {
+    public ResourceVersionLister(ExternalResourceRepository repository, VersionListingCache listingCache) {
         this.repository = repository;
+        this.listingCache = listingCache;
     }
 
     public VersionList getVersionList(final ModuleRevisionId moduleRevisionId) {
@@ -76,10 +80,7 @@ public class ResourceVersionLister implements VersionLister {
                     if (!directories.add(revisionParentFolder)) {
                         return Collections.emptyList();
                     }
-                    List<String> all = repository.list(revisionParentFolder);
-                    if (all == null) {
-                        throw new ResourceNotFoundException(String.format("Cannot list versions from %s.", revisionParentFolder));
-                    }
+                    List<String> all = list(revisionParentFolder);
                     LOGGER.debug("found {} urls", all.size());
                     Pattern regexPattern = createRegexPattern(pattern, parentFolderSlashIndex);
                     List<String> ret = filterMatchedValues(all, regexPattern);
@@ -140,14 +141,34 @@ public class ResourceVersionLister implements VersionLister {
                     return Collections.emptyList();
                 }
                 LOGGER.debug("using {} to list all in {}", repository, parent);
-                List<String> fullPaths = repository.list(parent);
-                if (fullPaths == null) {
-                    throw new ResourceNotFoundException(String.format("Cannot list versions from %s.", parent));
-                }
+                List<String> fullPaths = list(parent);
                 LOGGER.debug("found {} resources", fullPaths.size());
                 return extractVersionInfoFromPaths(fullPaths);
             }
 
+            private List<String> list(final String parent) throws IOException {
+                try {
+                    return listingCache.getListing(parent, new Factory<List<String>>() {
+                        public List<String> create() {
+                            try {
+                                List<String> paths = repository.list(parent);
+                                if (paths == null) {
+                                    throw new ResourceNotFoundException(String.format("Cannot list versions from %s.", parent));
+                                }
+                                return paths;
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+
             private List<String> extractVersionInfoFromPaths(List<String> paths) {
                 List<String> ret = new ArrayList<String>(paths.size());
                 for (String fullpath : paths) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.repositories.resolver;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.internal.resource.ResourceNotFoundException;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A cache of the listings used to find the versions of a module, such as the versions of a {@code maven-metadata.xml} file or the entries of
+ * a directory, shared by the remote repositories of a build. A listing is keyed by its location, which includes the root of its repository, and is
+ * fetched at most once per build. Local file repositories do not use this cache, as a module may be published to them earlier in the same build.
+ * Concurrent requests for the same listing wait for a single fetch, while different listings can be fetched at the same time.
+ *
+ * <p>A listing which is missing or fails is discarded, so that it is fetched again when next requested. A missing listing may be created by
+ * publishing to the repository later in the same build.</p>
+ *
+ * <p>Listings are not kept between builds. The versions selected for a dynamic version are already cached between builds, and a listing is only
+ * fetched once these have expired.</p>
+ */
+@ThreadSafe
+public class VersionListingCache {
+    private final ConcurrentMap<String, Listing> listings = new ConcurrentHashMap<String, Listing>();
+
+    /**
+     * Returns the listing at the given location, using the given loader to fetch it if it has not been fetched already.
+     *
+     * @throws ResourceNotFoundException When the listing does not exist.
+     */
+    public List<String> getListing(String location, Factory<? extends List<String>> loader) throws ResourceNotFoundException {
+        Listing listing = listings.get(location);
+        if (listing == null) {
+            Listing newListing = new Listing(loader);
+            listing = listings.putIfAbsent(location, newListing);
+            if (listing == null) {
+                listing = newListing;
+            }
+        }
+        try {
+            return listing.getEntries();
+        } catch (RuntimeException e) {
+            listings.remove(location, listing);
+            throw e;
+        }
+    }
+
+    private static class Listing extends FutureTask<List<String>> {
+        private Listing(final Factory<? extends List<String>> loader) {
+            super(new Callable<List<String>>() {
+                public List<String> call() {
+                    List<String> entries = loader.create();
+                    return Collections.unmodifiableList(new ArrayList<String>(entries));
+                }
+            });
+        }
+
+        List<String> getEntries() {
+            // Fetch in this thread, unless another thread has already started
+            run();
+            try {
+                return get();
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.repositories.transport;
 
 import org.gradle.api.internal.artifacts.repositories.resolver.ExternalResourceResolver;
+import org.gradle.api.internal.artifacts.repositories.resolver.VersionListingCache;
 import org.gradle.api.internal.externalresource.transport.ExternalResourceRepository;
 
 import java.net.URI;
@@ -23,6 +24,8 @@ import java.net.URI;
 public interface RepositoryTransport {
     ExternalResourceRepository getRepository();
 
+    VersionListingCache getVersionListingCache();
+
     void configureCacheManager(ExternalResourceResolver resolver);
 
     String convertToPath(URI uri);
@@ -17,8 +17,10 @@ package org.gradle.api.internal.artifacts.repositories.transport;
 
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.gradle.api.artifacts.repositories.PasswordCredentials;
+import org.gradle.api.internal.artifacts.repositories.resolver.VersionListingCache;
 import org.gradle.api.internal.externalresource.cached.CachedExternalResourceIndex;
 import org.gradle.api.internal.externalresource.transport.file.FileTransport;
+import org.gradle.api.internal.externalresource.transport.http.HttpConnectionPool;
 import org.gradle.api.internal.externalresource.transport.http.HttpTransport;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.logging.ProgressLoggerFactory;
@@ -29,21 +31,30 @@ public class RepositoryTransportFactory {
     private final CachedExternalResourceIndex<String> cachedExternalResourceIndex;
     private final RepositoryCacheManager localCacheManager;
     private final ProgressLoggerFactory progressLoggerFactory;
+    private final HttpConnectionPool httpConnectionPool;
+    private final VersionListingCache versionListingCache;
+    private final boolean useConditionalRequests;
 
     public RepositoryTransportFactory(ProgressLoggerFactory progressLoggerFactory,
                                       RepositoryCacheManager localCacheManager,
                                       RepositoryCacheManager downloadingCacheManager,
                                       TemporaryFileProvider temporaryFileProvider,
-                                      CachedExternalResourceIndex<String> cachedExternalResourceIndex) {
+                                      CachedExternalResourceIndex<String> cachedExternalResourceIndex,
+                                      HttpConnectionPool httpConnectionPool,
+                                      VersionListingCache versionListingCache,
+                                      boolean useConditionalRequests) {
         this.progressLoggerFactory = progressLoggerFactory;
         this.localCacheManager = localCacheManager;
         this.downloadingCacheManager = downloadingCacheManager;
         this.temporaryFileProvider = temporaryFileProvider;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
+        this.httpConnectionPool = httpConnectionPool;
+        this.versionListingCache = versionListingCache;
+        this.useConditionalRequests = useConditionalRequests;
     }
 
     public RepositoryTransport createHttpTransport(String name, PasswordCredentials credentials) {
-        return new HttpTransport(name, credentials, downloadingCacheManager, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex);
+        return new HttpTransport(name, credentials, downloadingCacheManager, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, httpConnectionPool, versionListingCache, useConditionalRequests);
     }
 
     public RepositoryTransport createFileTransport(String name) {
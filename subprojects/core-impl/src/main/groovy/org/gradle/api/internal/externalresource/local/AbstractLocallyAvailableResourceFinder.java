@@ -25,13 +25,15 @@ import java.util.List;
 public class AbstractLocallyAvailableResourceFinder<C> implements LocallyAvailableResourceFinder<C> {
 
     private final Transformer<Factory<List<File>>, C> producer;
+    private final ChecksumIndex checksumIndex;
 
-    public AbstractLocallyAvailableResourceFinder(Transformer<Factory<List<File>>, C> producer) {
+    public AbstractLocallyAvailableResourceFinder(Transformer<Factory<List<File>>, C> producer, ChecksumIndex checksumIndex) {
         this.producer = producer;
+        this.checksumIndex = checksumIndex;
     }
 
     public LocallyAvailableResourceCandidates findCandidates(C criterion) {
-        return new LazyLocallyAvailableResourceCandidates(producer.transform(criterion));
+        return new LazyLocallyAvailableResourceCandidates(producer.transform(criterion), checksumIndex);
     }
 
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.local;
+
+import org.gradle.api.Nullable;
+import org.gradle.util.hash.HashValue;
+
+import java.io.File;
+
+/**
+ * An index of the SHA1 checksums of local files, which can be used to find a local file with given content without searching for and hashing
+ * candidate files. An entry is only used while its file has the same length and modification time as when it was indexed.
+ */
+public interface ChecksumIndex {
+    /**
+     * Returns a local file with the given SHA1 checksum, or null if no such file is known.
+     */
+    @Nullable
+    File lookup(HashValue sha1);
+
+    /**
+     * Returns true if no file has been indexed yet.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the SHA1 checksum of the given file, calculating and indexing it when the file has not been indexed or has changed since.
+     */
+    HashValue getSha1(File file);
+
+    /**
+     * Records that the given file has the given SHA1 checksum.
+     */
+    void add(File file, HashValue sha1);
+}
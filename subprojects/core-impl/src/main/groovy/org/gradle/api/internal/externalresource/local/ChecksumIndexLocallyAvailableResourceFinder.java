@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.local;
+
+import org.gradle.util.hash.HashValue;
+
+import java.io.File;
+
+/**
+ * Finds locally available resources using a {@link ChecksumIndex}, regardless of the criterion. As it cannot tell whether there is a match without
+ * the checksum of the resource, the candidates it provides report that they may contain a resource whenever the index has entries, so that the
+ * checksum of the resource is requested. They should be combined with other candidates, and searched first.
+ *
+ * @param <C> The type of the criterion object used to find candidates
+ */
+public class ChecksumIndexLocallyAvailableResourceFinder<C> implements LocallyAvailableResourceFinder<C> {
+    private final ChecksumIndex checksumIndex;
+    private final LocallyAvailableResourceCandidates candidates = new LocallyAvailableResourceCandidates() {
+        public boolean isNone() {
+            return checksumIndex.isEmpty();
+        }
+
+        public LocallyAvailableResource findByHashValue(HashValue hashValue) {
+            File file = checksumIndex.lookup(hashValue);
+            return file == null ? null : new DefaultLocallyAvailableResource(file, hashValue);
+        }
+    };
+
+    public ChecksumIndexLocallyAvailableResourceFinder(ChecksumIndex checksumIndex) {
+        this.checksumIndex = checksumIndex;
+    }
+
+    public LocallyAvailableResourceCandidates findCandidates(C criterion) {
+        return candidates;
+    }
+}
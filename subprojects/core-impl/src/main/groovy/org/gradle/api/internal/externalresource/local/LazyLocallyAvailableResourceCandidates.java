@@ -17,7 +17,6 @@
 package org.gradle.api.internal.externalresource.local;
 
 import org.gradle.internal.Factory;
-import org.gradle.util.hash.HashUtil;
 import org.gradle.util.hash.HashValue;
 
 import java.io.File;
@@ -26,10 +25,12 @@ import java.util.List;
 public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableResourceCandidates {
 
     private final Factory<List<File>> filesFactory;
+    private final ChecksumIndex checksumIndex;
     private List<File> files;
 
-    public LazyLocallyAvailableResourceCandidates(Factory<List<File>> filesFactory) {
-        this.filesFactory = filesFactory;        
+    public LazyLocallyAvailableResourceCandidates(Factory<List<File>> filesFactory, ChecksumIndex checksumIndex) {
+        this.filesFactory = filesFactory;
+        this.checksumIndex = checksumIndex;
     }
 
     protected List<File> getFiles() {
@@ -46,7 +47,7 @@ public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableR
     public LocallyAvailableResource findByHashValue(HashValue targetHash) {
         HashValue thisHash;
         for (File file : getFiles()) {
-            thisHash = HashUtil.sha1(file);
+            thisHash = checksumIndex.getSha1(file);
             if (thisHash.equals(targetHash)) {
                 return new DefaultLocallyAvailableResource(file, thisHash);
             }
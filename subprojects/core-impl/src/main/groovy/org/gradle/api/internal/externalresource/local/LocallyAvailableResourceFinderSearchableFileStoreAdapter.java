@@ -33,7 +33,7 @@ import java.util.Set;
  */
 public class LocallyAvailableResourceFinderSearchableFileStoreAdapter<C> extends AbstractLocallyAvailableResourceFinder<C> {
 
-    public LocallyAvailableResourceFinderSearchableFileStoreAdapter(final FileStoreSearcher<C> fileStore) {
+    public LocallyAvailableResourceFinderSearchableFileStoreAdapter(final FileStoreSearcher<C> fileStore, ChecksumIndex checksumIndex) {
         super(new Transformer<Factory<List<File>>, C>() {
             public Factory<List<File>> transform(final C criterion) {
                 return new Factory<List<File>>() {
@@ -47,7 +47,7 @@ public class LocallyAvailableResourceFinderSearchableFileStoreAdapter<C> extends
                     }
                 };
             }
-        });
+        }, checksumIndex);
     }
 
     
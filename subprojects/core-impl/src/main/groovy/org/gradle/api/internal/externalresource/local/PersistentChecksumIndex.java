@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.local;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.messaging.serialize.DataStreamBackedSerializer;
+import org.gradle.messaging.serialize.DefaultSerializer;
+import org.gradle.util.hash.HashUtil;
+import org.gradle.util.hash.HashValue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link ChecksumIndex} which is kept in the artifact cache, so that it can be used by later builds. Files are indexed by their absolute path,
+ * and the path of a file is indexed by its checksum.
+ */
+public class PersistentChecksumIndex implements ChecksumIndex {
+    private final File cacheDir;
+    private final CacheLockingManager cacheLockingManager;
+    private PersistentIndexedCache<String, IndexedFile> filesByPath;
+    private PersistentIndexedCache<String, String> pathsByChecksum;
+    private volatile boolean added;
+
+    public PersistentChecksumIndex(File cacheDir, CacheLockingManager cacheLockingManager) {
+        this.cacheDir = cacheDir;
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private PersistentIndexedCache<String, IndexedFile> getFilesByPath() {
+        if (filesByPath == null) {
+            filesByPath = cacheLockingManager.createCache(new File(cacheDir, "file-checksums.bin"), new DefaultSerializer<String>(), new IndexedFileSerializer());
+        }
+        return filesByPath;
+    }
+
+    private PersistentIndexedCache<String, String> getPathsByChecksum() {
+        if (pathsByChecksum == null) {
+            pathsByChecksum = cacheLockingManager.createCache(getPathsByChecksumFile(), new DefaultSerializer<String>(), new DefaultSerializer<String>());
+        }
+        return pathsByChecksum;
+    }
+
+    private File getPathsByChecksumFile() {
+        return new File(cacheDir, "files-by-checksum.bin");
+    }
+
+    public boolean isEmpty() {
+        return !added && !getPathsByChecksumFile().isFile();
+    }
+
+    public File lookup(final HashValue sha1) {
+        return cacheLockingManager.useCache("lookup from checksum index", new Factory<File>() {
+            public File create() {
+                String path = getPathsByChecksum().get(sha1.asHexString());
+                if (path == null) {
+                    return null;
+                }
+                File file = new File(path);
+                IndexedFile indexedFile = getFilesByPath().get(path);
+                if (indexedFile != null && indexedFile.sha1.equals(sha1) && indexedFile.isUpToDate(file)) {
+                    return file;
+                }
+                getPathsByChecksum().remove(sha1.asHexString());
+                return null;
+            }
+        });
+    }
+
+    public HashValue getSha1(final File file) {
+        IndexedFile indexedFile = cacheLockingManager.useCache("lookup from checksum index", new Factory<IndexedFile>() {
+            public IndexedFile create() {
+                return getFilesByPath().get(file.getAbsolutePath());
+            }
+        });
+        if (indexedFile != null && indexedFile.isUpToDate(file)) {
+            return indexedFile.sha1;
+        }
+
+        // Calculate outside of the cache lock
+        HashValue sha1 = HashUtil.sha1(file);
+        add(file, sha1);
+        return sha1;
+    }
+
+    public void add(File file, final HashValue sha1) {
+        final String path = file.getAbsolutePath();
+        final IndexedFile indexedFile = new IndexedFile(sha1, file.length(), file.lastModified());
+        cacheLockingManager.useCache("store into checksum index", new Runnable() {
+            public void run() {
+                getFilesByPath().put(path, indexedFile);
+                getPathsByChecksum().put(sha1.asHexString(), path);
+            }
+        });
+        added = true;
+    }
+
+    private static class IndexedFile {
+        private final HashValue sha1;
+        private final long length;
+        private final long lastModified;
+
+        private IndexedFile(HashValue sha1, long length, long lastModified) {
+            this.sha1 = sha1;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        boolean isUpToDate(File file) {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    private static class IndexedFileSerializer extends DataStreamBackedSerializer<IndexedFile> {
+        @Override
+        public void write(DataOutput dataOutput, IndexedFile value) throws IOException {
+            byte[] sha1 = value.sha1.asByteArray();
+            dataOutput.writeInt(sha1.length);
+            dataOutput.write(sha1);
+            dataOutput.writeLong(value.length);
+            dataOutput.writeLong(value.lastModified);
+        }
+
+        @Override
+        public IndexedFile read(DataInput dataInput) throws IOException {
+            byte[] sha1 = new byte[dataInput.readInt()];
+            dataInput.readFully(sha1);
+            long length = dataInput.readLong();
+            long lastModified = dataInput.readLong();
+            return new IndexedFile(new HashValue(sha1), length, lastModified);
+        }
+    }
+}
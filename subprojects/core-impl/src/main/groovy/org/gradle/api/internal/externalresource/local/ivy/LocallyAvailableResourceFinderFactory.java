@@ -39,12 +39,15 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
     private final File rootCachesDirectory;
     private final LocalMavenRepositoryLocator localMavenRepositoryLocator;
     private final FileStoreSearcher<ArtifactRevisionId> fileStore;
+    private final ChecksumIndex checksumIndex;
 
     public LocallyAvailableResourceFinderFactory(
-            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ArtifactRevisionId> fileStore) {
+            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ArtifactRevisionId> fileStore,
+            ChecksumIndex checksumIndex) {
         this.rootCachesDirectory = artifactCacheMetaData.getCacheDir().getParentFile();
         this.localMavenRepositoryLocator = localMavenRepositoryLocator;
         this.fileStore = fileStore;
+        this.checksumIndex = checksumIndex;
     }
 
     public LocallyAvailableResourceFinder<ArtifactRevisionId> create() {
@@ -52,8 +55,11 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
 
         // Order is important here, because they will be searched in that order
 
+        // Any file seen before, by checksum
+        finders.add(new ChecksumIndexLocallyAvailableResourceFinder<ArtifactRevisionId>(checksumIndex));
+
         // The current filestore
-        finders.add(new LocallyAvailableResourceFinderSearchableFileStoreAdapter<ArtifactRevisionId>(fileStore));
+        finders.add(new LocallyAvailableResourceFinderSearchableFileStoreAdapter<ArtifactRevisionId>(fileStore, checksumIndex));
 
         // 1.3
         addForPattern(finders, "artifacts-15", "filestore/[organisation]/[module](/[branch])/[revision]/[type]/*/[artifact]-[revision](-[classifier])(.[ext])");
@@ -95,7 +101,7 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
 
     private void addForPattern(List<LocallyAvailableResourceFinder<ArtifactRevisionId>> finders, File baseDir, ResourcePattern pattern) {
         if (baseDir.exists()) {
-            finders.add(new PatternBasedLocallyAvailableResourceFinder(baseDir, pattern));
+            finders.add(new PatternBasedLocallyAvailableResourceFinder(baseDir, pattern, checksumIndex));
         }
     }
 
@@ -39,10 +39,20 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
     private final ExternalResourceAccessor delegate;
     private final CachedExternalResourceIndex<String> cachedExternalResourceIndex;
+    private final boolean useConditionalRequests;
 
     public DefaultCacheAwareExternalResourceAccessor(ExternalResourceAccessor delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex) {
+        this(delegate, cachedExternalResourceIndex, false);
+    }
+
+    /**
+     * @param useConditionalRequests When true, a cached resource is checked and, if it has changed, obtained using a single conditional request,
+     * rather than by fetching the metadata of the resource first.
+     */
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceAccessor delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, boolean useConditionalRequests) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
+        this.useConditionalRequests = useConditionalRequests;
     }
 
     public ExternalResource getResource(final String location, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException {
@@ -56,6 +66,11 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
         // We might be able to use a cached/locally available version
 
+        // If we can ask for the resource only if it has changed, do that: checking the cached version costs a single request
+        if (useConditionalRequests && cached != null && canRevalidate(cached.getExternalResourceMetaData())) {
+            return getResourceIfModified(location, cached);
+        }
+
         // Get the metadata first to see if it's there
         final ExternalResourceMetaData remoteMetaData = delegate.getMetaData(location);
         if (remoteMetaData == null) {
@@ -103,4 +118,18 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         return delegate.getResource(location);
     }
 
+    private boolean canRevalidate(@Nullable ExternalResourceMetaData cachedMetaData) {
+        return cachedMetaData != null && (cachedMetaData.getEtag() != null || cachedMetaData.getLastModified() != null);
+    }
+
+    private ExternalResource getResourceIfModified(final String location, final CachedExternalResource cached) throws IOException {
+        final ExternalResourceMetaData cachedMetaData = cached.getExternalResourceMetaData();
+        return delegate.getResourceIfModified(location, cachedMetaData, new Factory<ExternalResource>() {
+            public ExternalResource create() {
+                LOGGER.info("Cached resource is up-to-date (etag: {}, lastModified: {}). [HTTP: {}]", new Object[]{cachedMetaData.getEtag(), cached.getExternalLastModified(), location});
+                return new CachedExternalResourceAdapter(location, cached, delegate, cachedMetaData);
+            }
+        });
+    }
+
 }
@@ -19,6 +19,7 @@ package org.gradle.api.internal.externalresource.transfer;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.externalresource.ExternalResource;
 import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.Factory;
 import org.gradle.util.hash.HashValue;
 
 import java.io.IOException;
@@ -40,6 +41,22 @@ public interface ExternalResourceAccessor {
     @Nullable
     ExternalResource getResource(String location) throws IOException;
 
+    /**
+     * Obtain the resource at the given location, unless it has not changed since a copy with the given metadata was obtained.
+     *
+     * Implementations should determine whether the resource has changed and obtain it in a single operation where possible,
+     * for example using a conditional request. If it is not possible to determine whether the resource has changed, implementations
+     * should return the resource.
+     *
+     * @param location The address of the resource to obtain
+     * @param cachedMetaData The metadata of the copy of the resource that has been obtained previously
+     * @param unchanged Creates the resource to return when the resource has not changed
+     * @return The resource if it has changed, the resource created by {@code unchanged} if it has not changed, or null if it does not exist
+     * @throws IOException If the resource may exist, but not could be obtained for some reason
+     */
+    @Nullable
+    ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cachedMetaData, Factory<? extends ExternalResource> unchanged) throws IOException;
+
     /**
      * Obtain the SHA-1 checksum for the resource at the given location.
      *
@@ -20,6 +20,7 @@ import org.apache.ivy.plugins.repository.Resource;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.externalresource.ExternalResource;
 import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.Factory;
 import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.util.hash.HashValue;
 
@@ -42,6 +43,16 @@ public class ProgressLoggingExternalResourceAccessor extends AbstractProgressLog
         }
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cachedMetaData, Factory<? extends ExternalResource> unchanged) throws IOException {
+        ExternalResource resource = delegate.getResourceIfModified(location, cachedMetaData, unchanged);
+        // An unchanged resource is a local copy, so there is no download to log
+        if (resource != null && !resource.isLocal()) {
+            return new ProgressLoggingExternalResource(resource);
+        } else {
+            return resource;
+        }
+    }
+
     @Nullable
     public HashValue getResourceSha1(String location) {
         return delegate.getResourceSha1(location);
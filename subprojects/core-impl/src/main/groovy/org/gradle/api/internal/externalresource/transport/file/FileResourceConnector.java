@@ -84,6 +84,11 @@ public class FileResourceConnector implements ExternalResourceLister, ExternalRe
         return new LocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(localFile));
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cachedMetaData, Factory<? extends ExternalResource> unchanged) throws IOException {
+        // Checking whether a local file has changed is no cheaper than using it
+        return getResource(location);
+    }
+
     public ExternalResourceMetaData getMetaData(String location) throws IOException {
         ExternalResource resource = getResource(location);
         return resource == null ? null : resource.getMetaData();
@@ -18,6 +18,7 @@ package org.gradle.api.internal.externalresource.transport.file;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.artifacts.repositories.resolver.ExternalResourceResolver;
+import org.gradle.api.internal.artifacts.repositories.resolver.VersionListingCache;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport;
 import org.gradle.api.internal.externalresource.ExternalResource;
 import org.gradle.api.internal.externalresource.local.LocallyAvailableResourceCandidates;
@@ -25,15 +26,19 @@ import org.gradle.api.internal.externalresource.transfer.CacheAwareExternalResou
 import org.gradle.api.internal.externalresource.transport.DefaultExternalResourceRepository;
 import org.gradle.api.internal.externalresource.transport.ExternalResourceRepository;
 import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.resource.ResourceNotFoundException;
+import org.gradle.internal.Factory;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 
 public class FileTransport implements RepositoryTransport {
     private final String name;
     private final RepositoryCacheManager repositoryCacheManager;
     private final ExternalResourceRepository repository;
+    private final VersionListingCache versionListingCache = new NoOpVersionListingCache();
 
     public FileTransport(String name, RepositoryCacheManager repositoryCacheManager, TemporaryFileProvider temporaryFileProvider) {
         this.name = name;
@@ -45,6 +50,10 @@ public class FileTransport implements RepositoryTransport {
         return repository;
     }
 
+    public VersionListingCache getVersionListingCache() {
+        return versionListingCache;
+    }
+
     public ExternalResourceRepository createRepository(TemporaryFileProvider temporaryFileProvider) {
         FileResourceConnector connector = new FileResourceConnector();
         return new DefaultExternalResourceRepository(name, connector, connector, connector, temporaryFileProvider, new NoOpCacheAwareExternalResourceAccessor(connector));
@@ -76,4 +85,14 @@ public class FileTransport implements RepositoryTransport {
             return connector.getResource(source);
         }
     }
+
+    /**
+     * Lists the local file system each time, so that versions published to a local repository earlier in the build are seen.
+     */
+    private static class NoOpVersionListingCache extends VersionListingCache {
+        @Override
+        public List<String> getListing(String location, Factory<? extends List<String>> loader) throws ResourceNotFoundException {
+            return loader.create();
+        }
+    }
 }
@@ -16,19 +16,25 @@
 
 package org.gradle.api.internal.externalresource.transport.http;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.*;
+import org.apache.http.impl.cookie.DateUtils;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Date;
 
 /**
  * Provides some convenience and unified logging.
@@ -37,12 +43,37 @@ public class HttpClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private final HttpClient client;
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    private final HttpConnectionPool connectionPool;
+    // Each thread uses its own context, as the context holds per-request state and may be used to download several resources at the same time
+    private final ThreadLocal<BasicHttpContext> httpContext = new ThreadLocal<BasicHttpContext>() {
+        @Override
+        protected BasicHttpContext initialValue() {
+            return new BasicHttpContext();
+        }
+    };
 
     public HttpClientHelper(HttpSettings settings) {
-        alwaysUseKeepAliveConnections();
+        this(settings, new HttpConnectionPool());
+    }
 
-        DefaultHttpClient client = new SystemDefaultHttpClient();
+    /**
+     * Creates a client which uses connections from the given pool. The pool may be shared with other clients.
+     */
+    public HttpClientHelper(HttpSettings settings, final HttpConnectionPool connectionPool) {
+        alwaysUseKeepAliveConnections();
+        this.connectionPool = connectionPool;
+
+        DefaultHttpClient client = new SystemDefaultHttpClient() {
+            @Override
+            protected ClientConnectionManager createClientConnectionManager() {
+                return connectionPool.getConnectionManager();
+            }
+
+            @Override
+            protected ConnectionKeepAliveStrategy createConnectionKeepAliveStrategy() {
+                return connectionPool.getKeepAliveStrategy();
+            }
+        };
         new HttpClientConfigurer(settings).configure(client);
         this.client = new DecompressingHttpClient(client);
     }
@@ -70,6 +101,25 @@ public class HttpClientHelper {
         return processResponse(source, "GET", performRawGet(source));
     }
 
+    /**
+     * Performs a GET which returns a 304 (not modified) response when the resource still has the given entity tag or has not been
+     * modified since the given date.
+     */
+    public HttpResponse performConditionalGet(String source, @Nullable String etag, @Nullable Date lastModified) {
+        HttpGet request = new HttpGet(source);
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified));
+        }
+        HttpResponse response = performRequest(request);
+        if (wasNotModified(response)) {
+            return response;
+        }
+        return processResponse(source, "GET", response);
+    }
+
     public HttpResponse performRequest(HttpRequestBase request) {
         String method = request.getMethod();
 
@@ -98,6 +148,11 @@ public class HttpClientHelper {
         return statusCode == 404;
     }
 
+    public boolean wasNotModified(HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode == 304;
+    }
+
     public boolean wasSuccessful(HttpResponse response) {
         int statusCode = response.getStatusLine().getStatusCode();
         return statusCode >= 200 && statusCode < 300;
@@ -105,10 +160,14 @@ public class HttpClientHelper {
 
     public HttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
         // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
+        BasicHttpContext context = httpContext.get();
+        context.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
 
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return client.execute(request, httpContext);
+        connectionPool.beforeRequest();
+        HttpResponse response = client.execute(request, context);
+        connectionPool.afterRequest();
+        return response;
     }
 
     private HttpResponse processResponse(String source, String method, HttpResponse response) {
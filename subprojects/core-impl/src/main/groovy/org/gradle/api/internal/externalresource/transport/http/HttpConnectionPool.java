@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.transport.http;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.gradle.internal.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of HTTP connections which can be shared by the HTTP repositories of a build. Connections are kept alive between requests, and several
+ * connections can be open to the same host at the same time, so that resolution and downloads can use the same host concurrently. Connections
+ * which have been idle for longer than the idle timeout are closed. Safe for concurrent use.
+ */
+public class HttpConnectionPool implements Stoppable {
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+    private final PoolingClientConnectionManager connectionManager;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final long idleTimeoutMillis;
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger maxLeased = new AtomicInteger();
+
+    public HttpConnectionPool() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_MAX_CONNECTIONS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param maxConnectionsPerRoute The maximum number of connections to open to a single host.
+     * @param maxConnections The maximum number of connections to open in total.
+     * @param idleTimeoutMillis The time after which an idle connection is closed. Connections are also closed after the keep-alive timeout the
+     * server asks for, if that is shorter.
+     */
+    public HttpConnectionPool(int maxConnectionsPerRoute, int maxConnections, final long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createSystemDefault());
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(Math.max(maxConnections, maxConnectionsPerRoute));
+        keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = super.getKeepAliveDuration(response, context);
+                return duration < 0 ? idleTimeoutMillis : Math.min(duration, idleTimeoutMillis);
+            }
+        };
+    }
+
+    public ClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    public ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return keepAliveStrategy;
+    }
+
+    /**
+     * Called before a request is made using a connection from this pool. Closes the connections which have been idle for too long, at most
+     * once per half of the idle timeout.
+     */
+    public void beforeRequest() {
+        requests.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long previous = lastEviction.get();
+        if (now - previous >= idleTimeoutMillis / 2 && lastEviction.compareAndSet(previous, now)) {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Called once a request has received its response, while the connection of the request is still in use.
+     */
+    public void afterRequest() {
+        int leased = connectionManager.getTotalStats().getLeased();
+        while (true) {
+            int current = maxLeased.get();
+            if (leased <= current || maxLeased.compareAndSet(current, leased)) {
+                return;
+            }
+        }
+    }
+
+    public void stop() {
+        if (requests.get() > 0) {
+            PoolStats stats = connectionManager.getTotalStats();
+            LOGGER.info("HTTP connection pool: {} requests, at most {} connections in use at the same time, {} idle connections at end of build.",
+                    new Object[]{requests.get(), maxLeased.get(), stats.getAvailable()});
+        }
+        connectionManager.shutdown();
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.http.util.EntityUtils;
 import org.gradle.api.internal.externalresource.ExternalResource;
 import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
 import org.gradle.api.internal.externalresource.transfer.ExternalResourceAccessor;
+import org.gradle.internal.Factory;
 import org.gradle.util.hash.HashValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,7 +35,13 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpResourceAccessor.class);
     private final HttpClientHelper http;
 
-    private final List<ExternalResource> openResources = new ArrayList<ExternalResource>();
+    // Resources are tracked per thread, so that concurrent downloads do not abort each other's resources
+    private final ThreadLocal<List<ExternalResource>> openResources = new ThreadLocal<List<ExternalResource>>() {
+        @Override
+        protected List<ExternalResource> initialValue() {
+            return new ArrayList<ExternalResource>();
+        }
+    };
 
     public HttpResourceAccessor(HttpClientHelper http) {
         this.http = http;
@@ -45,20 +52,25 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         LOGGER.debug("Constructing external resource: {}", location);
         HttpResponse response = http.performGet(location);
         if (response != null) {
-            HttpResponseResource resource = new HttpResponseResource("GET", location, response) {
-                @Override
-                public void close() throws IOException {
-                    super.close();
-                    HttpResourceAccessor.this.openResources.remove(this);
-                }
-            };
-
-            return recordOpenGetResource(resource);
+            return recordOpenGetResource(location, response);
         } else {
             return null;
         }
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cachedMetaData, Factory<? extends ExternalResource> unchanged) throws IOException {
+        abortOpenResources();
+        LOGGER.debug("Constructing external resource if modified: {}", location);
+        HttpResponse response = http.performConditionalGet(location, cachedMetaData.getEtag(), cachedMetaData.getLastModified());
+        if (response == null) {
+            return null;
+        }
+        if (http.wasNotModified(response)) {
+            return unchanged.create();
+        }
+        return recordOpenGetResource(location, response);
+    }
+
     public ExternalResourceMetaData getMetaData(String location) {
         abortOpenResources();
         LOGGER.debug("Constructing external resource metadata: {}", location);
@@ -66,12 +78,21 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         return response == null ? null : new HttpResponseResource("HEAD", location, response).getMetaData();
     }
 
-    private HttpResponseResource recordOpenGetResource(HttpResponseResource httpResource) {
-        openResources.add(httpResource);
-        return httpResource;
+    private HttpResponseResource recordOpenGetResource(String location, HttpResponse response) {
+        final List<ExternalResource> openResources = this.openResources.get();
+        HttpResponseResource resource = new HttpResponseResource("GET", location, response) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                openResources.remove(this);
+            }
+        };
+        openResources.add(resource);
+        return resource;
     }
 
     private void abortOpenResources() {
+        List<ExternalResource> openResources = this.openResources.get();
         for (ExternalResource openResource : openResources) {
             LOGGER.warn("Forcing close on abandoned resource: " + openResource);
             try {
@@ -18,6 +18,7 @@ package org.gradle.api.internal.externalresource.transport.http;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.gradle.api.artifacts.repositories.PasswordCredentials;
 import org.gradle.api.internal.artifacts.repositories.resolver.ExternalResourceResolver;
+import org.gradle.api.internal.artifacts.repositories.resolver.VersionListingCache;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport;
 import org.gradle.api.internal.externalresource.cached.CachedExternalResourceIndex;
 import org.gradle.api.internal.externalresource.transfer.DefaultCacheAwareExternalResourceAccessor;
@@ -34,22 +35,30 @@ public class HttpTransport implements RepositoryTransport {
     private final String name;
     private final RepositoryCacheManager repositoryCacheManager;
     private final ExternalResourceRepository repository;
+    private final VersionListingCache versionListingCache;
 
     public HttpTransport(String name, PasswordCredentials credentials, RepositoryCacheManager repositoryCacheManager,
                          ProgressLoggerFactory progressLoggerFactory, TemporaryFileProvider temporaryFileProvider,
-                         CachedExternalResourceIndex<String> cachedExternalResourceIndex) {
+                         CachedExternalResourceIndex<String> cachedExternalResourceIndex, HttpConnectionPool connectionPool,
+                         VersionListingCache versionListingCache, boolean useConditionalRequests) {
         this.name = name;
         this.repositoryCacheManager = repositoryCacheManager;
-        repository = createRepository(credentials, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex);
+        this.versionListingCache = versionListingCache;
+        repository = createRepository(credentials, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, connectionPool, useConditionalRequests);
     }
 
     public ExternalResourceRepository getRepository() {
         return repository;
     }
 
+    public VersionListingCache getVersionListingCache() {
+        return versionListingCache;
+    }
+
     private ExternalResourceRepository createRepository(PasswordCredentials credentials, ProgressLoggerFactory progressLoggerFactory,
-                                                        TemporaryFileProvider temporaryFileProvider, CachedExternalResourceIndex<String> cachedExternalResourceIndex) {
-        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(credentials));
+                                                        TemporaryFileProvider temporaryFileProvider, CachedExternalResourceIndex<String> cachedExternalResourceIndex,
+                                                        HttpConnectionPool connectionPool, boolean useConditionalRequests) {
+        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(credentials), connectionPool);
         HttpResourceAccessor accessor = new HttpResourceAccessor(http);
         HttpResourceUploader uploader = new HttpResourceUploader(http);
         ProgressLoggingExternalResourceAccessor loggingAccessor = new ProgressLoggingExternalResourceAccessor(accessor, progressLoggerFactory);
@@ -59,7 +68,7 @@ public class HttpTransport implements RepositoryTransport {
                 new ProgressLoggingExternalResourceUploader(uploader, progressLoggerFactory),
                 new HttpResourceLister(accessor),
                 temporaryFileProvider,
-                new DefaultCacheAwareExternalResourceAccessor(loggingAccessor, cachedExternalResourceIndex)
+                new DefaultCacheAwareExternalResourceAccessor(loggingAccessor, cachedExternalResourceIndex, useConditionalRequests)
         );
     }
 
@@ -19,18 +19,46 @@ package org.gradle.api.internal.filestore.ivy;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.id.ArtifactRevisionId;
+import org.gradle.api.Action;
 import org.gradle.api.Transformer;
+import org.gradle.api.internal.externalresource.local.ChecksumIndex;
 import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.filestore.FileStoreEntry;
 import org.gradle.api.internal.filestore.GroupedAndNamedUniqueFileStore;
 import org.gradle.api.internal.filestore.PathKeyFileStore;
 
+import java.io.File;
+
 public class ArtifactRevisionIdFileStore extends GroupedAndNamedUniqueFileStore<ArtifactRevisionId> {
 
     private static final String GROUP_PATTERN = "[organisation]/[module](/[branch])/[revision]/[type]";
     private static final String NAME_PATTERN = "[artifact]-[revision](-[classifier])(.[ext])";
 
-    public ArtifactRevisionIdFileStore(PathKeyFileStore pathKeyFileStore, TemporaryFileProvider temporaryFileProvider) {
+    private final ChecksumIndex checksumIndex;
+
+    public ArtifactRevisionIdFileStore(PathKeyFileStore pathKeyFileStore, TemporaryFileProvider temporaryFileProvider, ChecksumIndex checksumIndex) {
         super(pathKeyFileStore, temporaryFileProvider, toTransformer(GROUP_PATTERN), toTransformer(NAME_PATTERN));
+        this.checksumIndex = checksumIndex;
+    }
+
+    @Override
+    public FileStoreEntry move(ArtifactRevisionId key, File source) {
+        return index(super.move(key, source));
+    }
+
+    @Override
+    public FileStoreEntry copy(ArtifactRevisionId key, File source) {
+        return index(super.copy(key, source));
+    }
+
+    @Override
+    public FileStoreEntry add(ArtifactRevisionId key, Action<File> addAction) {
+        return index(super.add(key, addAction));
+    }
+
+    private FileStoreEntry index(FileStoreEntry entry) {
+        checksumIndex.add(entry.getFile(), entry.getSha1());
+        return entry;
     }
 
     private static Transformer<String, ArtifactRevisionId> toTransformer(final String pattern) {
@@ -23,6 +23,7 @@ import org.gradle.api.internal.artifacts.configurations.DefaultConfigurationCont
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider
 import org.gradle.api.internal.artifacts.dsl.DefaultRepositoryHandler
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.InMemoryModuleDescriptorCache
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultResolutionStrategy
 import org.gradle.api.internal.file.FileResolver
 import org.gradle.api.internal.file.TemporaryFileProvider
@@ -33,14 +34,19 @@ import org.gradle.cache.internal.FileLockManager
 import org.gradle.initialization.ProjectAccessListener
 import org.gradle.internal.Factory
 import org.gradle.internal.TimeProvider
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.listener.ListenerManager
 import org.gradle.logging.LoggingManagerInternal
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultDependencyManagementServicesTest extends Specification {
+    @Rule SetSystemProperties sysProp = new SetSystemProperties()
     final ServiceRegistry parent = Mock()
     final FileResolver fileResolver = Mock()
     final DependencyMetaDataProvider dependencyMetaDataProvider = Mock()
@@ -51,6 +57,7 @@ class DefaultDependencyManagementServicesTest extends Specification {
     final ConfigurationContainerInternal configurationContainer = Mock()
     final StartParameter startParameter = Mock()
     final ListenerManager listenerManager = Mock()
+    final ExecutorFactory executorFactory = Mock()
     final DefaultDependencyManagementServices services = new DefaultDependencyManagementServices(parent)
 
     def setup() {
@@ -67,6 +74,7 @@ class DefaultDependencyManagementServicesTest extends Specification {
         _ * parent.get(TimeProvider) >> Mock(TimeProvider)
         _ * parent.get(TemporaryFileProvider) >> Mock(TemporaryFileProvider)
         _ * parent.get(ProjectAccessListener) >> Mock(ProjectAccessListener)
+        _ * parent.get(ExecutorFactory) >> executorFactory
     }
 
     private CacheRepository initCacheRepository() {
@@ -126,4 +134,72 @@ class DefaultDependencyManagementServicesTest extends Specification {
         then:
         ivyService != null
     }
+
+    def "projects share a repository probe executor which is stopped when closed"() {
+        StoppableExecutor executor = Mock()
+
+        given:
+        System.setProperty("org.gradle.internal.resolve.concurrentRepositoryProbing", "true")
+        _ * parent.get(Instantiator) >> instantiator
+        _ * parent.get(StartParameter) >> startParameter
+        _ * instantiator.newInstance(DefaultRepositoryHandler, _, _) >> repositoryHandler
+        _ * instantiator.newInstance(DefaultConfigurationContainer, _, _, _, _, _) >> configurationContainer
+
+        when:
+        services.create(fileResolver, dependencyMetaDataProvider, projectFinder, domainObjectContext).configurationContainer
+        services.create(fileResolver, dependencyMetaDataProvider, projectFinder, domainObjectContext).configurationContainer
+
+        then:
+        1 * executorFactory.create("Probe repositories") >> executor
+
+        when:
+        services.close()
+
+        then:
+        1 * executor.stop()
+    }
+
+    def "projects share a meta-data executor which is stopped when closed"() {
+        StoppableExecutor executor = Mock()
+
+        given:
+        System.setProperty("org.gradle.internal.resolve.concurrentMetaDataFetching", "true")
+        _ * parent.get(Instantiator) >> instantiator
+        _ * parent.get(StartParameter) >> startParameter
+        _ * instantiator.newInstance(DefaultRepositoryHandler, _, _) >> repositoryHandler
+        _ * instantiator.newInstance(DefaultConfigurationContainer, _, _, _, _, _) >> configurationContainer
+
+        when:
+        services.create(fileResolver, dependencyMetaDataProvider, projectFinder, domainObjectContext).configurationContainer
+        services.create(fileResolver, dependencyMetaDataProvider, projectFinder, domainObjectContext).configurationContainer
+
+        then:
+        1 * executorFactory.create("Resolve meta-data") >> executor
+
+        when:
+        services.close()
+
+        then:
+        1 * executor.stop()
+    }
+
+    def "each build has its own in-memory module descriptor cache"() {
+        expect:
+        services.get(InMemoryModuleDescriptorCache) != null
+        !services.get(InMemoryModuleDescriptorCache).is(new DefaultDependencyManagementServices(parent).get(InMemoryModuleDescriptorCache))
+    }
+
+    def "does not fetch meta-data concurrently unless requested"() {
+        given:
+        _ * parent.get(Instantiator) >> instantiator
+        _ * parent.get(StartParameter) >> startParameter
+        _ * instantiator.newInstance(DefaultRepositoryHandler, _, _) >> repositoryHandler
+        _ * instantiator.newInstance(DefaultConfigurationContainer, _, _, _, _, _) >> configurationContainer
+
+        when:
+        services.create(fileResolver, dependencyMetaDataProvider, projectFinder, domainObjectContext).configurationContainer
+
+        then:
+        0 * executorFactory.create("Resolve meta-data")
+    }
 }
@@ -104,6 +104,32 @@ class DefaultBuildableModuleVersionResolveResultTest extends Specification {
         result.failure == null
     }
 
+    def "is not changing unless resolved as changing"() {
+        when:
+        result.resolved(Mock(ModuleVersionIdentifier), Mock(ModuleDescriptor), Mock(ArtifactResolver))
+
+        then:
+        !result.changing
+
+        when:
+        result.resolved(Mock(ModuleVersionIdentifier), Mock(ModuleDescriptor), true, Mock(ArtifactResolver))
+
+        then:
+        result.changing
+    }
+
+    def "cannot get changing flag when resolve failed"() {
+        def failure = new ModuleVersionResolveException(newSelector("a", "b", "c"), "broken")
+
+        when:
+        result.failed(failure)
+        result.changing
+
+        then:
+        ModuleVersionResolveException e = thrown()
+        e == failure
+    }
+
     def "fails with a not found exception when not found"() {
         when:
         result.notFound(Mock(ModuleVersionIdentifier))
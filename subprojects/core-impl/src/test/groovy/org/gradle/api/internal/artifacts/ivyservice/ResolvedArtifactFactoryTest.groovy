@@ -20,6 +20,8 @@ import org.gradle.api.artifacts.ResolvedArtifact
 import org.gradle.api.artifacts.ResolvedDependency
 import org.gradle.internal.Factory
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
 import spock.lang.Specification
 
 class ResolvedArtifactFactoryTest extends Specification {
@@ -51,4 +53,89 @@ class ResolvedArtifactFactoryTest extends Specification {
         1 * artifactResolver.resolve(artifact, _) >> { args -> args[1].resolved(file) }
         0 * _._
     }
+
+    def "downloads artifacts concurrently when prefetched"() {
+        def parallelFactory = new ResolvedArtifactFactory(lockingManager, new DefaultExecutorFactory(), 2)
+        ArtifactResolver artifactResolver = Mock()
+        ResolvedDependency resolvedDependency = Mock()
+        Artifact artifact1 = Mock()
+        Artifact artifact2 = Mock()
+        File file1 = new File("one.jar")
+        File file2 = new File("two.jar")
+
+        given:
+        artifact1.qualifiedExtraAttributes >> [:]
+        artifact2.qualifiedExtraAttributes >> [:]
+        _ * lockingManager.useCache(!null, !null) >> { String displayName, action ->
+            action instanceof Factory ? action.create() : action.run()
+        }
+        _ * lockingManager.longRunningOperation(!null, !null) >> { String displayName, Runnable action ->
+            action.run()
+        }
+        def resolvedArtifact1 = parallelFactory.create(resolvedDependency, artifact1, artifactResolver)
+        def resolvedArtifact2 = parallelFactory.create(resolvedDependency, artifact2, artifactResolver)
+
+        when:
+        parallelFactory.prefetch([resolvedArtifact1, resolvedArtifact2])
+
+        then:
+        1 * artifactResolver.resolve(artifact1, _) >> { args -> args[1].resolved(file1) }
+        1 * artifactResolver.resolve(artifact2, _) >> { args -> args[1].resolved(file2) }
+
+        when:
+        def files = [resolvedArtifact1.file, resolvedArtifact2.file]
+
+        then:
+        files == [file1, file2]
+        0 * artifactResolver._
+    }
+
+    def "does nothing when prefetching artifacts whose files have already been resolved"() {
+        ExecutorFactory executorFactory = Mock()
+        def parallelFactory = new ResolvedArtifactFactory(lockingManager, executorFactory, 2)
+        ArtifactResolver artifactResolver = Mock()
+        ResolvedDependency resolvedDependency = Mock()
+        Artifact artifact1 = Mock()
+        Artifact artifact2 = Mock()
+
+        given:
+        artifact1.qualifiedExtraAttributes >> [:]
+        artifact2.qualifiedExtraAttributes >> [:]
+        _ * lockingManager.useCache(!null, !null) >> { String displayName, action ->
+            action instanceof Factory ? action.create() : action.run()
+        }
+        _ * lockingManager.longRunningOperation(!null, !null) >> { String displayName, Runnable action ->
+            action.run()
+        }
+        _ * executorFactory.create(!null) >> { new DefaultExecutorFactory().create("test") }
+        _ * artifactResolver.resolve(artifact1, _) >> { args -> args[1].resolved(new File("one.jar")) }
+        _ * artifactResolver.resolve(artifact2, _) >> { args -> args[1].resolved(new File("two.jar")) }
+        def resolvedArtifact1 = parallelFactory.create(resolvedDependency, artifact1, artifactResolver)
+        def resolvedArtifact2 = parallelFactory.create(resolvedDependency, artifact2, artifactResolver)
+        parallelFactory.prefetch([resolvedArtifact1, resolvedArtifact2])
+
+        when:
+        parallelFactory.prefetch([resolvedArtifact1, resolvedArtifact2])
+
+        then:
+        0 * lockingManager._
+        0 * executorFactory._
+        0 * artifactResolver._
+    }
+
+    def "does not download artifacts in advance when downloads are not concurrent"() {
+        Artifact artifact = Mock()
+        ArtifactResolver artifactResolver = Mock()
+        ResolvedDependency resolvedDependency = Mock()
+
+        given:
+        artifact.qualifiedExtraAttributes >> [:]
+        def resolvedArtifact = factory.create(resolvedDependency, artifact, artifactResolver)
+
+        when:
+        factory.prefetch([resolvedArtifact])
+
+        then:
+        0 * _._
+    }
 }
@@ -101,6 +101,45 @@ class VersionForcingDependencyToModuleResolverSpec extends Specification {
         ex2 == result.failure
     }
 
+    def "substitutes dependency by rule without resolving it"() {
+        def factory = Mock(ReflectiveDependencyDescriptorFactory)
+        def dep = dependency('org', 'module', '0.5')
+        def modified = dependency('org', 'module', '1.0')
+        def force = { it.useVersion("1.0") } as Action
+        def resolver = new VersionForcingDependencyToModuleResolver(target, force, factory)
+
+        when:
+        def result = resolver.substitute(dep)
+
+        then:
+        result == modified
+
+        and:
+        1 * factory.create(dep, ModuleRevisionId.newInstance("org", "module", "1.0")) >> modified
+        0 * target._
+    }
+
+    def "substitutes dependency with itself when it does not match any rule"() {
+        def dep = dependency('org', 'module', '1.0')
+        def resolver = new VersionForcingDependencyToModuleResolver(target, Mock(Action))
+
+        expect:
+        resolver.substitute(dep) == dep
+    }
+
+    def "substitute fails with context when rule fails"() {
+        def force = { throw new Error("Boo!") } as Action
+        def resolver = new VersionForcingDependencyToModuleResolver(target, force)
+
+        when:
+        resolver.substitute(dependency('org', 'module', '0.5'))
+
+        then:
+        def ex = thrown(ModuleVersionResolveException)
+        ex.message == "Could not resolve org:module:0.5."
+        ex.cause.message == 'Boo!'
+    }
+
     def dependency(String group, String module, String version) {
         Mock(DependencyDescriptor) { getDependencyRevisionId() >> new ModuleRevisionId(new ModuleId(group, module), version) }
     }
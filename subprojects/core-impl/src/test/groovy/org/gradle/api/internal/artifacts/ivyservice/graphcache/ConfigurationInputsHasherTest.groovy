@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache
+
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.apache.ivy.plugins.version.VersionMatcher
+import org.gradle.api.artifacts.*
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionRepository
+import spock.lang.Specification
+
+class ConfigurationInputsHasherTest extends Specification {
+    final VersionMatcher versionMatcher = Stub()
+    final ResolutionStrategyInternal resolutionStrategy = Stub()
+    final ModuleVersionRepository repository = Stub()
+    final dependencies = []
+    final forcedModules = [] as Set
+    final ConfigurationInputsHasher hasher = new ConfigurationInputsHasher(versionMatcher)
+
+    def setup() {
+        _ * versionMatcher.isDynamic(_) >> { ModuleRevisionId id -> id.revision.endsWith("+") }
+        _ * resolutionStrategy.forcedModules >> forcedModules
+        _ * repository.id >> "repo"
+    }
+
+    def "calculates same hash for same inputs"() {
+        given:
+        dependencies << dependency("a", "1.0")
+
+        expect:
+        hash() != null
+        hash() == hash()
+    }
+
+    def "calculates different hash when declared dependencies change"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        def original = hash()
+
+        when:
+        dependencies[0] = dependency("a", "1.1")
+
+        then:
+        hash() != original
+    }
+
+    def "calculates different hash when forced modules change"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        def original = hash()
+
+        when:
+        forcedModules << DefaultModuleVersionSelector.newSelector("group", "b", "2.0")
+
+        then:
+        hash() != original
+    }
+
+    def "calculates different hash when repositories change"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        ModuleVersionRepository other = Stub()
+        _ * other.id >> "other"
+
+        expect:
+        hash() != hasher.hash(configuration(), [other])
+    }
+
+    def "does not calculate hash for dynamic or changing dependency"() {
+        given:
+        dependencies << dependency("a", "1.+")
+
+        expect:
+        hash() == null
+
+        when:
+        dependencies[0] = dependency("a", "1.0", true)
+
+        then:
+        hash() == null
+    }
+
+    def "does not calculate hash for project dependency"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        dependencies << Stub(ProjectDependency)
+
+        expect:
+        hash() == null
+    }
+
+    def "does not calculate hash when dependency resolve rules are used"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        _ * resolutionStrategy.hasDependencyResolveRules() >> true
+
+        expect:
+        hash() == null
+    }
+
+    def "does not calculate hash when a local repository is used"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        ModuleVersionRepository local = Stub()
+        _ * local.local >> true
+
+        expect:
+        hasher.hash(configuration(), [repository, local]) == null
+    }
+
+    def "ignores file dependencies"() {
+        given:
+        dependencies << dependency("a", "1.0")
+        def original = hash()
+
+        when:
+        dependencies << Stub(SelfResolvingDependency)
+
+        then:
+        hash() == original
+    }
+
+    def hash() {
+        return hasher.hash(configuration(), [repository])
+    }
+
+    def configuration() {
+        ConfigurationInternal configuration = Stub()
+        _ * configuration.name >> "compile"
+        _ * configuration.module >> Stub(Module) {
+            getGroup() >> "group"
+            getName() >> "root"
+            getVersion() >> "1.0"
+        }
+        _ * configuration.hierarchy >> ([configuration] as Set)
+        _ * configuration.allDependencies >> Stub(DependencySet) {
+            iterator() >> { dependencies.iterator() }
+        }
+        _ * configuration.resolutionStrategy >> resolutionStrategy
+        return configuration
+    }
+
+    def dependency(String name, String version, boolean changing = false) {
+        ExternalModuleDependency dependency = Stub()
+        _ * dependency.group >> "group"
+        _ * dependency.name >> name
+        _ * dependency.version >> version
+        _ * dependency.changing >> changing
+        return dependency
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache
+
+import org.apache.ivy.core.module.descriptor.DefaultArtifact
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ModuleDependency
+import org.gradle.api.artifacts.ResolvedDependency
+import org.gradle.api.artifacts.UnresolvedDependency
+import org.gradle.api.internal.DefaultDomainObjectSet
+import org.gradle.api.internal.artifacts.DefaultResolvedDependency
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.ivyservice.*
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.InternalDependencyResult
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultBuilder
+import org.gradle.api.specs.Spec
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons.CONFLICT_RESOLUTION
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons.REQUESTED
+
+class ResolvedGraphSerializerTest extends Specification {
+    final CacheLockingManager lockingManager = Stub()
+    final ResolvedArtifactFactory artifactFactory = new ResolvedArtifactFactory(lockingManager)
+    final DependencyToModuleResolver moduleResolver = Mock()
+    final ArtifactResolver originalArtifactResolver = Mock()
+    final ModuleDependency dependency = Stub()
+    final ConfigurationInternal configuration = Stub()
+    final ResolvedGraphSerializer serializer = new ResolvedGraphSerializer()
+
+    final root = new DefaultResolvedDependency("group", "root", "1.0", "default")
+    final a = new DefaultResolvedDependency("group", "a", "1.0", "default")
+    final b = new DefaultResolvedDependency("group", "b", "2.0", "runtime")
+    final resolvedConfiguration = new DefaultLenientConfiguration(configuration, root, artifactFactory)
+    final resultBuilder = new ResolutionResultBuilder()
+
+    def setup() {
+        _ * lockingManager.useCache(_, _) >> { String displayName, Factory action -> action.create() }
+        _ * configuration.allDependencies >> Stub(DependencySet) {
+            withType(ModuleDependency) >> new DefaultDomainObjectSet<ModuleDependency>(ModuleDependency, [dependency])
+        }
+
+        def artifactA = artifact(a, "a", [:])
+        def artifactB = artifact(b, "b", ["m:classifier": "sources"])
+        root.addChild(a)
+        a.addParentSpecificArtifacts(root, [artifactA] as Set)
+        a.addChild(b)
+        b.addParentSpecificArtifacts(a, [artifactB] as Set)
+        resolvedConfiguration.addArtifact(artifactA)
+        resolvedConfiguration.addArtifact(artifactB)
+        resolvedConfiguration.addFirstLevelDependency(dependency, a)
+
+        def selectedA = selection("a", "1.0", REQUESTED)
+        def selectedB = selection("b", "2.0", CONFLICT_RESOLUTION)
+        resultBuilder.start(newId("group", "root", "1.0"))
+        resultBuilder.resolvedModuleVersion(selectedA)
+        resultBuilder.resolvedModuleVersion(selectedB)
+        resultBuilder.resolvedConfiguration(newId("group", "root", "1.0"), [dependencyResult("a", "1.0", selectedA)])
+        resultBuilder.resolvedConfiguration(newId("group", "a", "1.0"), [dependencyResult("b", "1.5", selectedB)])
+    }
+
+    def "rebuilds resolved configuration from encoded graph"() {
+        when:
+        def rebuilt = roundTrip().resolvedConfiguration
+        def rebuiltA = rebuilt.firstLevelModuleDependencies.iterator().next()
+        def rebuiltB = rebuiltA.children.iterator().next()
+
+        then:
+        rebuilt.firstLevelModuleDependencies*.name == ["group:a:1.0"]
+        rebuiltA.configuration == "default"
+        rebuiltA.moduleArtifacts*.name == ["a"]
+        rebuiltA.children*.name == ["group:b:2.0"]
+
+        and:
+        rebuiltB.configuration == "runtime"
+        rebuiltB.getParentArtifacts(rebuiltA)*.name == ["b"]
+        rebuiltB.getParentArtifacts(rebuiltA)*.classifier == ["sources"]
+
+        and:
+        rebuilt.resolvedArtifacts*.name == ["a", "b"]
+        rebuilt.getFirstLevelModuleDependencies({ it == dependency } as Spec) == [rebuiltA] as Set
+    }
+
+    def "rebuilds resolution result from encoded graph"() {
+        when:
+        def result = roundTrip().resolutionResult
+        def moduleA = result.root.dependencies.iterator().next().selected
+        def moduleB = moduleA.dependencies.iterator().next().selected
+
+        then:
+        result.root.id == newId("group", "root", "1.0")
+        result.root.dependencies*.requested == [newSelector("group", "a", "1.0")]
+
+        and:
+        moduleA.id == newId("group", "a", "1.0")
+        moduleA.selectionReason == REQUESTED
+        moduleA.dependencies*.requested == [newSelector("group", "b", "1.5")]
+
+        and:
+        moduleB.id == newId("group", "b", "2.0")
+        moduleB.selectionReason == CONFLICT_RESOLUTION
+        moduleB.dependents*.from == [moduleA]
+    }
+
+    def "resolves artifacts of rebuilt graph using meta-data of their module"() {
+        def file = new File("b-sources.jar")
+
+        when:
+        def rebuilt = roundTrip().resolvedConfiguration
+        def artifact = rebuilt.resolvedArtifacts.find { it.name == "b" }
+
+        then:
+        0 * moduleResolver._
+
+        when:
+        def result = artifact.file
+
+        then:
+        result == file
+        1 * moduleResolver.resolve({ it.dependencyRevisionId == ModuleRevisionId.newInstance("group", "b", "2.0") }, _) >> { dependency, BuildableModuleVersionResolveResult moduleVersion ->
+            moduleVersion.resolved(newId("group", "b", "2.0"), Stub(ModuleDescriptor), originalArtifactResolver)
+        }
+        1 * originalArtifactResolver.resolve({ it.name == "b" && it.moduleRevisionId.name == "b" && it.qualifiedExtraAttributes == ["m:classifier": "sources"] }, _) >> { artifactToResolve, BuildableArtifactResolveResult artifactResult ->
+            artifactResult.resolved(file)
+        }
+    }
+
+    def "does not encode result with unresolved dependencies"() {
+        given:
+        resolvedConfiguration.addUnresolvedDependency(Stub(UnresolvedDependency))
+
+        expect:
+        serializer.encode(configuration, resolvedConfiguration, resultBuilder.result) == null
+    }
+
+    def roundTrip() {
+        def encoded = serializer.encode(configuration, resolvedConfiguration, resultBuilder.result)
+        assert encoded != null
+        return serializer.decode(encoded, configuration, artifactFactory, moduleResolver)
+    }
+
+    def artifact(ResolvedDependency owner, String name, Map<String, String> extraAttributes) {
+        def artifact = new DefaultArtifact(ModuleRevisionId.newInstance(owner.moduleGroup, owner.moduleName, owner.moduleVersion), null, name, "jar", "jar", extraAttributes)
+        return artifactFactory.create(owner, artifact, originalArtifactResolver)
+    }
+
+    def selection(String name, String version, reason) {
+        ModuleVersionSelection selection = Stub()
+        _ * selection.selectedId >> newId("group", name, version)
+        _ * selection.selectionReason >> reason
+        return selection
+    }
+
+    def dependencyResult(String name, String requestedVersion, ModuleVersionSelection selected) {
+        InternalDependencyResult dependency = Stub()
+        _ * dependency.requested >> newSelector("group", name, requestedVersion)
+        _ * dependency.selected >> selected
+        _ * dependency.reason >> selected.selectionReason
+        return dependency
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.graphcache
+
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.apache.ivy.plugins.version.VersionMatcher
+import org.gradle.api.internal.artifacts.ivyservice.BuildableModuleVersionResolveResult
+import org.gradle.api.internal.artifacts.ivyservice.DefaultBuildableModuleVersionResolveResult
+import org.gradle.api.internal.artifacts.ivyservice.DependencyToModuleResolver
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class StaticVersionDetectingResolverTest extends Specification {
+    final ModuleDescriptor descriptor = Stub()
+    final changingModules = [] as Set
+    final missingModules = [] as Set
+    final DependencyToModuleResolver target = { DependencyDescriptor dependency, BuildableModuleVersionResolveResult result ->
+        def id = dependency.dependencyRevisionId
+        if (missingModules.contains(id.revision)) {
+            result.notFound(newId(id.organisation, id.name, id.revision))
+        } else {
+            result.resolved(newId(id.organisation, id.name, id.revision), descriptor, changingModules.contains(id.revision), null)
+        }
+    } as DependencyToModuleResolver
+    final VersionMatcher versionMatcher = Stub()
+    final StaticVersionDetectingResolver resolver = new StaticVersionDetectingResolver(target, versionMatcher)
+
+    def setup() {
+        _ * versionMatcher.isDynamic(_) >> { ModuleRevisionId id -> id.revision.endsWith("+") }
+    }
+
+    def "is static when all module versions are requested with a static version and are not changing"() {
+        when:
+        resolve(dependency("1.0"))
+        resolve(dependency("2.0"))
+
+        then:
+        resolver.allStatic
+    }
+
+    def "is not static when a module version is requested with a dynamic version"() {
+        when:
+        resolve(dependency("1.0"))
+        resolve(dependency("1.+"))
+
+        then:
+        !resolver.allStatic
+    }
+
+    def "is not static when a dependency is changing"() {
+        when:
+        resolve(dependency("1.0", true))
+
+        then:
+        !resolver.allStatic
+    }
+
+    def "is not static when a module version is a snapshot"() {
+        when:
+        resolve(dependency("1.0-SNAPSHOT"))
+
+        then:
+        !resolver.allStatic
+    }
+
+    def "is not static when the resolved module version is changing"() {
+        given:
+        changingModules << "2.0"
+
+        when:
+        resolve(dependency("1.0"))
+        resolve(dependency("2.0"))
+
+        then:
+        !resolver.allStatic
+    }
+
+    def "is static when a module version cannot be resolved"() {
+        given:
+        missingModules << "2.0"
+
+        when:
+        def result = resolve(dependency("2.0"))
+
+        then:
+        result.failure != null
+        resolver.allStatic
+    }
+
+    def resolve(DependencyDescriptor dependency) {
+        def result = new DefaultBuildableModuleVersionResolveResult()
+        resolver.resolve(dependency, result)
+        return result
+    }
+
+    def dependency(String version, boolean changing = false) {
+        DependencyDescriptor dependency = Stub()
+        _ * dependency.dependencyRevisionId >> ModuleRevisionId.newInstance("group", "module", version)
+        _ * dependency.changing >> changing
+        return dependency
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.gradle.api.internal.artifacts.ivyservice.*
+import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ProjectDependencyDescriptor
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class PrefetchingDependencyToModuleResolverTest extends Specification {
+    final DependencyToModuleResolver target = Mock()
+    final CacheLockingManager lockingManager = Stub()
+    final executor = Executors.newCachedThreadPool()
+    final PrefetchingDependencyToModuleResolver resolver = new PrefetchingDependencyToModuleResolver(target, lockingManager, executor, 2)
+
+    def setup() {
+        _ * lockingManager.useCache(_, _) >> { String displayName, Factory action -> action.create() }
+        _ * lockingManager.longRunningOperation(_, _) >> { String displayName, Factory action -> action.create() }
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "resolves prefetched dependencies concurrently and hands out the results"() {
+        def started = new CountDownLatch(2)
+        def dependency1 = dependency("a")
+        def dependency2 = dependency("b")
+        def descriptor1 = Stub(ModuleDescriptor)
+        def descriptor2 = Stub(ModuleDescriptor)
+        def result1 = new DefaultBuildableModuleVersionResolveResult()
+        def result2 = new DefaultBuildableModuleVersionResolveResult()
+
+        when:
+        resolver.prefetch([dependency1, dependency2])
+        resolver.resolve(dependency1, result1)
+        resolver.resolve(dependency2, result2)
+
+        then:
+        1 * target.resolve(dependency1, _) >> { dependency, result ->
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            result.resolved(newId("group", "a", "1.0"), descriptor1, null)
+        }
+        1 * target.resolve(dependency2, _) >> { dependency, result ->
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            result.resolved(newId("group", "b", "1.0"), descriptor2, null)
+        }
+        0 * target._
+
+        and:
+        result1.id == newId("group", "a", "1.0")
+        result1.descriptor == descriptor1
+        result2.id == newId("group", "b", "1.0")
+        result2.descriptor == descriptor2
+    }
+
+    def "resolves dependency directly when it has not been prefetched"() {
+        def dependency = dependency("a")
+        def result = new DefaultBuildableModuleVersionResolveResult()
+
+        when:
+        resolver.resolve(dependency, result)
+
+        then:
+        1 * target.resolve(dependency, result)
+        0 * target._
+    }
+
+    def "does not prefetch project dependencies"() {
+        def dependency = Mock(ProjectDependencyDescriptor)
+
+        when:
+        resolver.prefetch([dependency])
+
+        then:
+        0 * target._
+    }
+
+    def "hands out failure to resolve prefetched dependency"() {
+        def dependency = dependency("a")
+        def failure = new ModuleVersionResolveException(ModuleRevisionId.newInstance("group", "a", "1.0"), "broken")
+        def result = new DefaultBuildableModuleVersionResolveResult()
+
+        when:
+        resolver.prefetch([dependency])
+        resolver.resolve(dependency, result)
+
+        then:
+        1 * target.resolve(dependency, _) >> { dep, prefetchedResult -> prefetchedResult.failed(failure) }
+
+        and:
+        result.failure == failure
+    }
+
+    def "rethrows exception thrown while resolving prefetched dependency"() {
+        def dependency = dependency("a")
+        def failure = new RuntimeException("broken")
+
+        when:
+        resolver.prefetch([dependency])
+        resolver.resolve(dependency, new DefaultBuildableModuleVersionResolveResult())
+
+        then:
+        1 * target.resolve(dependency, _) >> { throw failure }
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "waits for dependencies which are being resolved when stopped"() {
+        def started = new CountDownLatch(1)
+        def finished = false
+        def dependency = dependency("a")
+
+        given:
+        _ * target.resolve(dependency, _) >> {
+            started.countDown()
+            Thread.sleep(200)
+            finished = true
+        }
+
+        when:
+        resolver.prefetch([dependency])
+        assert started.await(20, TimeUnit.SECONDS)
+        resolver.stop()
+
+        then:
+        finished
+    }
+
+    def dependency(String name) {
+        DependencyDescriptor dependency = Stub()
+        _ * dependency.dependencyRevisionId >> ModuleRevisionId.newInstance("group", name, "1.0")
+        return dependency
+    }
+}
@@ -25,8 +25,13 @@ import org.apache.ivy.plugins.version.VersionMatcher
 import org.gradle.api.artifacts.ModuleVersionIdentifier
 import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
 import org.gradle.api.internal.artifacts.ivyservice.BuildableModuleVersionResolveResult
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 class UserResolverChainTest extends Specification {
     final UserResolverChain resolver = new UserResolverChain()
     final ModuleRevisionId dependencyId = Stub()
@@ -42,6 +47,9 @@ class UserResolverChainTest extends Specification {
     final BuildableModuleVersionResolveResult result = Mock()
     final VersionMatcher matcher = Stub()
     final ModuleSource moduleSource = Mock()
+    final CacheLockingManager lockingManager = Stub()
+    final executor = Executors.newCachedThreadPool()
+    final UserResolverChain concurrentResolver = new UserResolverChain(lockingManager, executor)
 
     def setup() {
         _ * dependencyId.organisation >> "group"
@@ -52,6 +60,13 @@ class UserResolverChainTest extends Specification {
         _ * settings.versionMatcher >> matcher
         _ * settings.defaultLatestStrategy >> new LatestRevisionStrategy();
         resolver.settings = settings
+        concurrentResolver.settings = settings
+        _ * lockingManager.useCache(_, _) >> { String displayName, Runnable action -> action.run() }
+        _ * lockingManager.longRunningOperation(_, _) >> { String displayName, Runnable action -> action.run() }
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
     }
 
     def "uses local dependency when available"() {
@@ -66,7 +81,7 @@ class UserResolverChainTest extends Specification {
         1 * repo.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, rep ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, rep ->
             assert rep.delegate == repo
             assert rep.moduleSource == moduleSource
         }
@@ -77,6 +92,26 @@ class UserResolverChainTest extends Specification {
         0 * result._
     }
 
+    def "marks the module version as not changing when the repository does not report it as changing"() {
+        given:
+        def repo = Mock(LocalAwareModuleVersionRepository)
+        resolver.add(repo)
+
+        when:
+        resolver.resolve(dependency, result)
+
+        then:
+        1 * repo.getLocalDependency(dependency, _) >> { dep, result ->
+            result.resolved(descriptor, false, moduleSource)
+        }
+        1 * result.resolved(resolvedId, descriptor, false, _)
+
+        and:
+        _ * repo.name >> "repo"
+        0 * repo._
+        0 * result._
+    }
+
     def "attempts to find remote dependency when local dependency is unknown"() {
         given:
         def repo = Mock(LocalAwareModuleVersionRepository)
@@ -90,7 +125,7 @@ class UserResolverChainTest extends Specification {
         1 * repo.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, rep ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, rep ->
             assert rep.delegate == repo
             assert rep.moduleSource == moduleSource
         }
@@ -115,7 +150,7 @@ class UserResolverChainTest extends Specification {
         1 * repo.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, rep ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, rep ->
             assert rep.delegate == repo
             assert rep.moduleSource == moduleSource
         }
@@ -202,7 +237,7 @@ class UserResolverChainTest extends Specification {
         1 * repo3.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor("1.0"), true, null)
         }
-        1 * result.resolved(moduleVersionIdentifier(version2), version2, _) >> { revision, descriptor, repo ->
+        1 * result.resolved(moduleVersionIdentifier(version2), version2, true, _) >> { revision, descriptor, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -234,7 +269,7 @@ class UserResolverChainTest extends Specification {
         1 * repo1.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { revisionId, descriptor, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { revisionId, descriptor, changing, repo ->
             assert repo.delegate == repo1
             assert repo.moduleSource == moduleSource
         }
@@ -266,7 +301,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -296,7 +331,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -326,7 +361,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -361,7 +396,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -393,7 +428,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -427,7 +462,7 @@ class UserResolverChainTest extends Specification {
         1 * repo1.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo1
             assert repo.moduleSource == moduleSource
         }
@@ -456,7 +491,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getLocalDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -488,7 +523,7 @@ class UserResolverChainTest extends Specification {
         1 * repo2.getDependency(dependency, _) >> { dep, result ->
             result.resolved(descriptor, true, moduleSource)
         }
-        1 * result.resolved(resolvedId, descriptor, _) >> { resolvedId, descr, repo ->
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
             assert repo.delegate == repo2
             assert repo.moduleSource == moduleSource
         }
@@ -559,6 +594,120 @@ class UserResolverChainTest extends Specification {
         0 * result._
     }
 
+    def "probes remote repositories concurrently and uses the first repository that contains the module"() {
+        given:
+        def started = new CountDownLatch(2)
+        def repo1 = Mock(LocalAwareModuleVersionRepository)
+        def repo2 = Mock(LocalAwareModuleVersionRepository)
+        concurrentResolver.add(repo1)
+        concurrentResolver.add(repo2)
+
+        when:
+        concurrentResolver.resolve(dependency, result)
+
+        then:
+        1 * repo1.getLocalDependency(dependency, _)
+        1 * repo1.getDependency(dependency, _) >> { dep, result ->
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            result.resolved(descriptor, true, moduleSource)
+        }
+        1 * repo2.getLocalDependency(dependency, _)
+        1 * repo2.getDependency(dependency, _) >> { dep, result ->
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            result.resolved(descriptor("1.2"), true, null)
+        }
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
+            assert repo.delegate == repo1
+            assert repo.moduleSource == moduleSource
+        }
+
+        and:
+        _ * repo1.name >> "repo1"
+        _ * repo2.name >> "repo2"
+        0 * repo1._
+        0 * repo2._
+        0 * result._
+    }
+
+    def "does not probe repositories after the first one that contains a static version when probing concurrently"() {
+        given:
+        _ * matcher.isDynamic(_) >> false
+        def repo1 = Mock(LocalAwareModuleVersionRepository)
+        def repo2 = Mock(LocalAwareModuleVersionRepository)
+        def repo3 = Mock(LocalAwareModuleVersionRepository)
+        concurrentResolver.add(repo1)
+        concurrentResolver.add(repo2)
+        concurrentResolver.add(repo3)
+
+        when:
+        concurrentResolver.resolve(dependency, result)
+
+        then:
+        1 * repo1.getLocalDependency(dependency, _)
+        1 * repo1.getDependency(dependency, _) >> { dep, result ->
+            result.missing()
+        }
+        1 * repo2.getLocalDependency(dependency, _) >> { dep, result ->
+            result.resolved(descriptor, true, moduleSource)
+        }
+        1 * result.resolved(resolvedId, descriptor, true, _) >> { resolvedId, descr, changing, repo ->
+            assert repo.delegate == repo2
+            assert repo.moduleSource == moduleSource
+        }
+
+        and:
+        _ * repo1.name >> "repo1"
+        _ * repo2.name >> "repo2"
+        _ * repo3.name >> "repo3"
+        0 * repo1._
+        0 * repo2._
+        0 * repo3._
+        0 * result._
+    }
+
+    def "rethrows failures in repository order when not available in any repository when probing concurrently"() {
+        given:
+        def failure1 = new RuntimeException("broken 1")
+        def failure2 = new RuntimeException("broken 2")
+        def repo1 = Mock(LocalAwareModuleVersionRepository)
+        def repo2 = Mock(LocalAwareModuleVersionRepository)
+        def repo3 = Mock(LocalAwareModuleVersionRepository)
+        concurrentResolver.add(repo1)
+        concurrentResolver.add(repo2)
+        concurrentResolver.add(repo3)
+
+        when:
+        concurrentResolver.resolve(dependency, result)
+
+        then:
+        1 * repo1.getLocalDependency(dependency, _)
+        1 * repo1.getDependency(dependency, _) >> { dep, result ->
+            throw failure1
+        }
+        1 * repo2.getLocalDependency(dependency, _) >> { dep, result ->
+            result.probablyMissing()
+        }
+        1 * repo2.getDependency(dependency, _) >> { dep, result ->
+            result.missing()
+        }
+        1 * repo3.getLocalDependency(dependency, _)
+        1 * repo3.getDependency(dependency, _) >> { dep, result ->
+            throw failure2
+        }
+        1 * result.failed({ it.causes == [failure1, failure2] })
+
+        and:
+        _ * repo1.name >> "repo1"
+        _ * repo2.name >> "repo2"
+        _ * repo3.name >> "repo3"
+        0 * repo1._
+        0 * repo2._
+        0 * repo3._
+        0 * result._
+    }
+
     def descriptor(def version) {
         def descriptor = Stub(ModuleDescriptor)
         descriptor.resolvedModuleRevisionId >> ModuleRevisionId.newInstance("org", "module", version)
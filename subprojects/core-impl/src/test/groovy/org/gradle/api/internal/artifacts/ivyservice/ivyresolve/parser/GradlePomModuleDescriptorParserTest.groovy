@@ -15,11 +15,18 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
 
+import org.apache.ivy.core.IvyContext
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor
 import org.apache.ivy.core.module.id.ArtifactRevisionId
 import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.apache.ivy.core.resolve.ResolveData
+import org.apache.ivy.core.resolve.ResolveEngine
+import org.apache.ivy.core.resolve.ResolveOptions
+import org.apache.ivy.core.resolve.ResolvedModuleRevision
+import org.apache.ivy.plugins.namespace.Namespace
 import org.apache.ivy.plugins.parser.ParserSettings
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.LoopbackDependencyResolver
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -28,7 +35,7 @@ import spock.lang.Specification
 
 class GradlePomModuleDescriptorParserTest extends Specification {
     @Rule public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    final GradlePomModuleDescriptorParser parser = new GradlePomModuleDescriptorParser()
+    final GradlePomModuleDescriptorParser parser = new GradlePomModuleDescriptorParser(new ReferencedPomCache())
     final ModuleScopedParserSettings ivySettings = Mock()
     TestFile pomFile
 
@@ -161,6 +168,77 @@ class GradlePomModuleDescriptorParserTest extends Specification {
         descriptor.dependencies.length == 0
     }
 
+    def "resolves parent pom once for each set of repositories"() {
+        given:
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent-one</artifactId>
+        <version>version-one</version>
+    </parent>
+    <artifactId>artifact-one</artifactId>
+</project>
+"""
+        and:
+        LoopbackDependencyResolver resolver = Mock()
+        LoopbackDependencyResolver sameRepositories = Mock()
+        LoopbackDependencyResolver otherRepositories = Mock()
+        def currentResolver = resolver
+        resolver.repositoryIds >> ['repo1', 'repo2']
+        sameRepositories.repositoryIds >> ['repo1', 'repo2']
+        otherRepositories.repositoryIds >> ['repo2', 'repo1']
+        ResolvedModuleRevision parent = Mock()
+        ModuleDescriptor parentDescriptor = Mock()
+        def parentId = moduleId('group-one', 'parent-one', 'version-one')
+        ivySettings.currentRevisionId >> moduleId('group-one', 'artifact-one', 'version-one')
+        ivySettings.contextNamespace >> Namespace.SYSTEM_NAMESPACE
+        ivySettings.getResolver(parentId) >> { currentResolver }
+        parent.descriptor >> parentDescriptor
+        parentDescriptor.extraInfo >> [:]
+        parentDescriptor.dependencies >> ([] as DependencyDescriptor[])
+
+        when:
+        def descriptor
+        withResolve {
+            parsePom()
+            descriptor = parsePom()
+        }
+
+        then:
+        descriptor.moduleRevisionId == moduleId('group-one', 'artifact-one', 'version-one')
+        1 * resolver.getDependency({ it.dependencyRevisionId == parentId }, _) >> parent
+
+        when:
+        currentResolver = sameRepositories
+        withResolve {
+            parsePom()
+        }
+
+        then:
+        0 * sameRepositories.getDependency(_, _)
+
+        when:
+        currentResolver = otherRepositories
+        withResolve {
+            parsePom()
+        }
+
+        then:
+        1 * otherRepositories.getDependency({ it.dependencyRevisionId == parentId }, _) >> parent
+    }
+
+    private void withResolve(Closure action) {
+        IvyContext context = IvyContext.pushNewContext()
+        try {
+            context.resolveData = new ResolveData(null as ResolveEngine, new ResolveOptions())
+            action.call()
+        } finally {
+            IvyContext.popContext()
+        }
+    }
+
     private ModuleDescriptor parsePom() {
         parser.parseDescriptor(ivySettings, pomFile.toURI().toURL(), false)
     }
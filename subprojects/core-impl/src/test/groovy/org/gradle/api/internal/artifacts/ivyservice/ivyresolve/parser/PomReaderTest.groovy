@@ -0,0 +1,394 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.apache.ivy.core.module.id.ModuleId
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.apache.ivy.plugins.repository.Resource
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.xml.sax.SAXParseException
+import spock.lang.Specification
+
+class PomReaderTest extends Specification {
+    @Rule public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final Resource resource = Stub()
+    TestFile pomFile
+
+    def setup() {
+        pomFile = tmpDir.file('foo.pom')
+        resource.name >> 'foo.pom'
+    }
+
+    def "reads coordinates and inherits missing ones from parent"() {
+        given:
+        pomFile << """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+    <parent>
+        <groupId>parent-group</groupId>
+        <artifactId>parent-artifact</artifactId>
+        <version>parent-version</version>
+    </parent>
+    <artifactId>artifact-one</artifactId>
+    <packaging>pom</packaging>
+    <url>http://example.com</url>
+    <description>  The first test artifact  </description>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.hasParent()
+        reader.groupId == 'parent-group'
+        reader.artifactId == 'artifact-one'
+        reader.version == 'parent-version'
+        reader.parentGroupId == 'parent-group'
+        reader.parentArtifactId == 'parent-artifact'
+        reader.parentVersion == 'parent-version'
+        reader.packaging == 'pom'
+        reader.homePage == 'http://example.com'
+        reader.description == 'The first test artifact'
+        reader.relocation == null
+    }
+
+    def "uses defaults for missing elements"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        !reader.hasParent()
+        reader.packaging == 'jar'
+        reader.homePage == ''
+        reader.description == ''
+        reader.licenses.length == 0
+        reader.pomProperties.isEmpty()
+        reader.dependencies.isEmpty()
+        reader.dependencyMgt.isEmpty()
+        reader.plugins.isEmpty()
+    }
+
+    def "reads dependencies, dependency management and plugins"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>version-two</version>
+            <scope>test</scope>
+            <classifier>classifier-two</classifier>
+            <type>test-jar</type>
+            <optional>true</optional>
+            <exclusions>
+                <exclusion>
+                    <groupId>excluded-group</groupId>
+                    <artifactId>excluded-artifact</artifactId>
+                </exclusion>
+                <exclusion>
+                    <groupId>incomplete-exclusion</groupId>
+                </exclusion>
+            </exclusions>
+        </dependency>
+        <dependency>
+            <groupId>group-three</groupId>
+            <artifactId>artifact-three</artifactId>
+        </dependency>
+    </dependencies>
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-four</groupId>
+                <artifactId>artifact-four</artifactId>
+                <version>version-four</version>
+                <scope>import</scope>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+    <build>
+        <plugins>
+            <plugin>
+                <groupId>plugin-group</groupId>
+                <artifactId>plugin-artifact</artifactId>
+                <version>plugin-version</version>
+            </plugin>
+        </plugins>
+    </build>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.dependencies.size() == 2
+        def dependency = reader.dependencies[0]
+        dependency.groupId == 'group-two'
+        dependency.artifactId == 'artifact-two'
+        dependency.version == 'version-two'
+        dependency.scope == 'test'
+        dependency.classifier == 'classifier-two'
+        dependency.type == 'test-jar'
+        dependency.optional
+        dependency.excludedModules == [ModuleId.newInstance('excluded-group', 'excluded-artifact')]
+        def other = reader.dependencies[1]
+        other.version == null
+        other.scope == null
+        !other.optional
+        other.excludedModules.isEmpty()
+
+        and:
+        reader.dependencyMgt.size() == 1
+        reader.dependencyMgt[0].groupId == 'group-four'
+        reader.dependencyMgt[0].version == 'version-four'
+        reader.dependencyMgt[0].scope == 'import'
+
+        and:
+        reader.plugins.size() == 1
+        reader.plugins[0].groupId == 'plugin-group'
+        reader.plugins[0].artifactId == 'plugin-artifact'
+        reader.plugins[0].version == 'plugin-version'
+    }
+
+    def "uses first occurrence of an element"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <groupId>group-ignored</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>version-two</version>
+            <version>version-ignored</version>
+        </dependency>
+    </dependencies>
+    <dependencies>
+        <dependency>
+            <groupId>group-ignored</groupId>
+            <artifactId>artifact-ignored</artifactId>
+        </dependency>
+    </dependencies>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.groupId == 'group-one'
+        reader.dependencies.size() == 1
+        reader.dependencies[0].version == 'version-two'
+    }
+
+    def "replaces properties in values"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>\${project.version}</version>
+    <properties>
+        <some.version>1.2</some.version>
+        <other>ignored</other>
+        <other>value</other>
+    </properties>
+    <dependencies>
+        <dependency>
+            <groupId>\${project.groupId}</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>\${some.version}</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+        reader.pomProperties.each { key, value -> reader.setProperty(key, value) }
+        reader.setProperty('project.groupId', 'group-one')
+        reader.setProperty('project.version', 'version-one')
+        reader.setProperty('some.version', 'not-used')
+
+        then:
+        reader.pomProperties == ['some.version': '1.2', 'other': 'value']
+        reader.version == 'version-one'
+        reader.dependencies[0].groupId == 'group-one'
+        reader.dependencies[0].version == '1.2'
+    }
+
+    def "reads licenses and relocation"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <licenses>
+        <license>
+            <name>Some License</name>
+            <url>http://license</url>
+        </license>
+        <license>
+            <url>http://unnamed</url>
+        </license>
+        <license/>
+    </licenses>
+    <distributionManagement>
+        <relocation>
+            <groupId>group-two</groupId>
+        </relocation>
+    </distributionManagement>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.licenses.collect { [it.name, it.url] } == [['Some License', 'http://license'], ['Unknown License', 'http://unnamed']]
+        reader.relocation == ModuleRevisionId.newInstance('group-two', 'artifact-one', 'version-one')
+    }
+
+    def "accepts undeclared HTML entities"() {
+        given:
+        pomFile << """<?xml version="1.0" encoding="UTF-8"?>
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <description>Copyright &copy; someone</description>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.description == 'Copyright © someone'
+    }
+
+    def "keeps licenses and dependencies whatever their element name"() {
+        given:
+        pomFile << """
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <licenses>
+        <license>
+            <name>Some License</name>
+        </license>
+        <licence>
+            <name>Other License</name>
+        </licence>
+    </licenses>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+        </dependency>
+        <dependancy>
+            <groupId>group-three</groupId>
+            <artifactId>artifact-three</artifactId>
+            <exclusions>
+                <exclusion>
+                    <groupId>group-four</groupId>
+                    <artifactId>artifact-four</artifactId>
+                </exclusion>
+            </exclusions>
+        </dependancy>
+    </dependencies>
+</project>
+"""
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.licenses.collect { it.name } == ['Some License', 'Other License']
+        reader.dependencies.collect { it.artifactId } == ['artifact-two', 'artifact-three']
+        reader.dependencies[1].excludedModules == [ModuleId.newInstance('group-four', 'artifact-four')]
+    }
+
+    def "decodes POM using the encoding in the XML declaration"() {
+        given:
+        pomFile.setText("""<?xml version="1.0" encoding="ISO-8859-1"?>
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <description>Caf\u00e9 &copy; someone</description>
+</project>
+""", "ISO-8859-1")
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.description == 'Caf\u00e9 \u00a9 someone'
+    }
+
+    def "decodes POM using the encoding given by the byte order mark"() {
+        given:
+        pomFile.bytes = [0xFF, 0xFE] as byte[]
+        pomFile.append("""<?xml version="1.0" encoding="UTF-16"?>
+<project>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <description>Caf\u00e9</description>
+</project>
+""".getBytes("UTF-16LE"))
+
+        when:
+        def reader = new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        reader.groupId == 'group-one'
+        reader.description == 'Caf\u00e9'
+    }
+
+    def "fails when root element is not project"() {
+        given:
+        pomFile << "<something/>"
+
+        when:
+        new PomReader(pomFile.toURI().toURL(), resource)
+
+        then:
+        SAXParseException e = thrown()
+        e.message == 'project must be the root tag'
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import spock.lang.Specification
+
+class InMemoryModuleDescriptorCacheTest extends Specification {
+    final InMemoryModuleDescriptorCache cache = new InMemoryModuleDescriptorCache(2)
+
+    def "returns descriptor with matching repository and hash"() {
+        ModuleDescriptor descriptor = Mock()
+
+        when:
+        cache.put("repo", BigInteger.ONE, descriptor)
+
+        then:
+        cache.get("repo", BigInteger.ONE) == descriptor
+        cache.get("repo", BigInteger.TEN) == null
+        cache.get("other", BigInteger.ONE) == null
+    }
+
+    def "evicts least recently used descriptor"() {
+        ModuleDescriptor descriptor1 = Mock()
+        ModuleDescriptor descriptor2 = Mock()
+        ModuleDescriptor descriptor3 = Mock()
+
+        when:
+        cache.put("repo", BigInteger.ONE, descriptor1)
+        cache.put("repo", BigInteger.TEN, descriptor2)
+        cache.get("repo", BigInteger.ONE)
+        cache.put("repo", BigInteger.ZERO, descriptor3)
+
+        then:
+        cache.get("repo", BigInteger.ONE) == descriptor1
+        cache.get("repo", BigInteger.TEN) == null
+        cache.get("repo", BigInteger.ZERO) == descriptor3
+    }
+}
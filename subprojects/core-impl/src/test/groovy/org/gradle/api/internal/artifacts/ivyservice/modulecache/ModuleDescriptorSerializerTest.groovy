@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.apache.ivy.core.settings.IvySettings
+import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Resources
+import org.junit.Rule
+import spock.lang.Specification
+
+class ModuleDescriptorSerializerTest extends Specification {
+    @Rule public final Resources resources = new Resources()
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    final IvySettings settings = new IvySettings()
+    final ModuleDescriptorSerializer serializer = new ModuleDescriptorSerializer()
+
+    def setup() {
+        settings.setDefaultCache(temporaryFolder.createDir("ivy/cache"))
+    }
+
+    def "reads descriptor which is the same as the descriptor that was written"() {
+        given:
+        def descriptor = parse("test-full.xml")
+
+        when:
+        def result = roundTrip(descriptor)
+
+        then:
+        result.moduleRevisionId == descriptor.moduleRevisionId
+        result.dependencies.length == descriptor.dependencies.length
+        result.configurationsNames == descriptor.configurationsNames
+        toIvyXml(result) == toIvyXml(descriptor)
+    }
+
+    def "reads descriptor with no dependencies"() {
+        given:
+        def descriptor = parse("test-empty-dependencies.xml")
+
+        when:
+        def result = roundTrip(descriptor)
+
+        then:
+        result.dependencies.length == 0
+        toIvyXml(result) == toIvyXml(descriptor)
+    }
+
+    def parse(String name) {
+        def resource = resources.getResource("/org/gradle/api/internal/artifacts/ivyservice/ivyresolve/parser/$name")
+        return new IvyXmlModuleDescriptorParser().parseDescriptor(settings, resource.toURI().toURL(), false)
+    }
+
+    byte[] serialize(ModuleDescriptor descriptor) {
+        def bytes = new ByteArrayOutputStream()
+        def output = new DataOutputStream(bytes)
+        serializer.write(output, descriptor)
+        output.flush()
+        return bytes.toByteArray()
+    }
+
+    ModuleDescriptor roundTrip(ModuleDescriptor descriptor) {
+        return serializer.read(new DataInputStream(new ByteArrayInputStream(serialize(descriptor))), settings)
+    }
+
+    String toIvyXml(ModuleDescriptor descriptor) {
+        def file = temporaryFolder.file("ivy-${System.identityHashCode(descriptor)}.xml")
+        new IvyXmlModuleDescriptorWriter().write(descriptor, file)
+        return file.text
+    }
+}
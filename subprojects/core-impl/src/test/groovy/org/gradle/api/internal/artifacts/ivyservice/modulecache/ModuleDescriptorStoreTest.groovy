@@ -19,9 +19,7 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor
 import org.apache.ivy.core.module.id.ModuleRevisionId
 import org.gradle.api.artifacts.ModuleVersionIdentifier
-import org.gradle.api.internal.artifacts.ivyservice.IvyModuleDescriptorWriter
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionRepository
-import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
 import org.gradle.api.internal.filestore.FileStoreEntry
 import org.gradle.api.internal.filestore.PathKeyFileStore
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -37,12 +35,12 @@ class ModuleDescriptorStoreTest extends Specification {
     ModuleVersionRepository repository = Mock()
     FileStoreEntry fileStoreEntry = Mock()
     ModuleDescriptor moduleDescriptor = Mock()
-    IvyModuleDescriptorWriter ivyModuleDescriptorWriter = Mock()
-    IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser = Mock()
+    ModuleDescriptorSerializer serializer = Mock()
+    InMemoryModuleDescriptorCache inMemoryCache = Mock()
     ModuleVersionIdentifier moduleVersionIdentifier = Mock()
 
     def setup() {
-        store = new ModuleDescriptorStore(pathKeyFileStore, ivyModuleDescriptorWriter, ivyXmlModuleDescriptorParser);
+        store = new ModuleDescriptorStore(pathKeyFileStore, serializer, inMemoryCache);
         _ * repository.getId() >> "repositoryId"
         _ * moduleVersionIdentifier.group >> "org.test"
         _ * moduleVersionIdentifier.name >> "testArtifact"
@@ -52,16 +50,16 @@ class ModuleDescriptorStoreTest extends Specification {
 
     def "getModuleDescriptorFile returns null for not cached descriptors"() {
         when:
-        pathKeyFileStore.get("module-metadata/org.test/testArtifact/1.0/repositoryId/ivy.xml") >> null
+        pathKeyFileStore.get("module-metadata/org.test/testArtifact/1.0/repositoryId/descriptor.bin") >> null
         then:
-        null == store.getModuleDescriptor(repository, moduleVersionIdentifier)
+        null == store.getModuleDescriptor(repository, moduleVersionIdentifier, BigInteger.ONE)
     }
 
     def "getModuleDescriptorFile uses PathKeyFileStore to get file"() {
         when:
-        store.getModuleDescriptor(repository, moduleVersionIdentifier);
+        store.getModuleDescriptor(repository, moduleVersionIdentifier, BigInteger.ONE);
         then:
-        1 * pathKeyFileStore.get("module-metadata/org.test/testArtifact/1.0/repositoryId/ivy.xml") >> null
+        1 * pathKeyFileStore.get("module-metadata/org.test/testArtifact/1.0/repositoryId/descriptor.bin") >> null
     }
 
     def "putModuleDescriptor uses PathKeyFileStore to write file"() {
@@ -73,9 +71,20 @@ class ModuleDescriptorStoreTest extends Specification {
         when:
         store.putModuleDescriptor(repository, moduleDescriptor);
         then:
-        1 * pathKeyFileStore.add("module-metadata/org.test/testArtifact/1.0/repositoryId/ivy.xml", _) >> { path, action ->
+        1 * pathKeyFileStore.add("module-metadata/org.test/testArtifact/1.0/repositoryId/descriptor.bin", _) >> { path, action ->
             action.execute(descriptorFile); fileStoreEntry
         };
-        1 * ivyModuleDescriptorWriter.write(moduleDescriptor, descriptorFile)
+        1 * serializer.write(_, moduleDescriptor)
+    }
+
+    def "getModuleDescriptor uses in-memory descriptor with matching hash"() {
+        when:
+        def result = store.getModuleDescriptor(repository, moduleVersionIdentifier, BigInteger.ONE)
+
+        then:
+        result == moduleDescriptor
+        1 * pathKeyFileStore.get("module-metadata/org.test/testArtifact/1.0/repositoryId/descriptor.bin") >> fileStoreEntry
+        1 * inMemoryCache.get("repositoryId", BigInteger.ONE) >> moduleDescriptor
+        0 * serializer._
     }
 }
\ No newline at end of file
@@ -24,12 +24,14 @@ import org.apache.ivy.core.resolve.ResolveEngine
 import org.apache.ivy.core.resolve.ResolveOptions
 import org.apache.ivy.plugins.matcher.ExactPatternMatcher
 import org.apache.ivy.plugins.matcher.PatternMatcher
+import org.gradle.api.Transformer
 import org.gradle.api.artifacts.*
 import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
 import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
 import org.gradle.api.internal.artifacts.ivyservice.*
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.PrefetchingDependencyToModuleResolver
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.EnhancedDependencyDescriptor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolvedConfigurationListener
 import org.gradle.api.specs.Spec
@@ -820,6 +822,64 @@ class DependencyGraphBuilderTest extends Specification {
         modules(result) == ids(forced, b)
     }
 
+    def "prefetches the meta-data of the dependencies of each queued configuration before it is traversed"() {
+        given:
+        PrefetchingDependencyToModuleResolver prefetcher = Mock()
+        def prefetchingBuilder = new DependencyGraphBuilder(moduleDescriptorConverter, resolvedArtifactFactory, dependencyResolver, conflictResolver, prefetcher, { it } as Transformer)
+        def a = revision("a")
+        def b = revision("b")
+        def c = revision("c")
+        def d = revision("d")
+        traverses root, a
+        traverses root, b
+        traverses a, c
+        doesNotResolve a, b
+        traverses b, d
+
+        when:
+        def result = prefetchingBuilder.resolve(configuration, resolveData, listener)
+        result.rethrowFailure()
+
+        then:
+        1 * prefetcher.prefetch({ it*.dependencyRevisionId*.name == ['a', 'b'] })
+
+        then:
+        1 * prefetcher.prefetch({ it*.dependencyRevisionId*.name == ['c', 'd'] })
+        0 * prefetcher._
+
+        and:
+        modules(result) == ids(a, b, c, d)
+    }
+
+    def "prefetches the meta-data of the dependencies as they are once substituted"() {
+        given:
+        PrefetchingDependencyToModuleResolver prefetcher = Mock()
+        DependencyDescriptor substituted = Stub()
+        _ * substituted.dependencyRevisionId >> ModuleRevisionId.newInstance("group", "forced-b", "2.0")
+        def substitution = { DependencyDescriptor dependency ->
+            if (dependency.dependencyRevisionId.name == 'a') {
+                throw new ModuleVersionResolveException(newSelector("group", "a", "1.0"), "broken rule")
+            }
+            return substituted
+        } as Transformer
+        def prefetchingBuilder = new DependencyGraphBuilder(moduleDescriptorConverter, resolvedArtifactFactory, dependencyResolver, conflictResolver, prefetcher, substitution)
+        def a = revision("a")
+        def b = revision("b")
+        traverses root, a
+        traverses root, b
+
+        when:
+        def result = prefetchingBuilder.resolve(configuration, resolveData, listener)
+        result.rethrowFailure()
+
+        then:
+        1 * prefetcher.prefetch({ it*.dependencyRevisionId*.name == ['forced-b'] })
+        0 * prefetcher._
+
+        and:
+        modules(result) == ids(a, b)
+    }
+
     def revision(String name, String revision = '1.0') {
         DefaultModuleDescriptor descriptor = new DefaultModuleDescriptor(new ModuleRevisionId(new ModuleId("group", name), revision), "release", new Date())
         config(descriptor, 'default')
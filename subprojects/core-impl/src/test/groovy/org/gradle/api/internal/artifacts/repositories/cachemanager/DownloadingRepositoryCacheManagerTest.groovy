@@ -22,6 +22,8 @@ import org.apache.ivy.plugins.repository.Resource
 import org.apache.ivy.plugins.repository.ResourceDownloader
 import org.apache.ivy.plugins.resolver.util.ResolvedResource
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParserRegistry
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ReferencedPomCache
 import org.gradle.api.internal.externalresource.cached.CachedExternalResourceIndex
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.api.internal.filestore.FileStore
@@ -41,7 +43,7 @@ class DownloadingRepositoryCacheManagerTest extends Specification {
     ResolvedResource artifactRef = Mock()
     Resource resource = Mock();
     FileStoreEntry fileStoreEntry = Mock()
-    DownloadingRepositoryCacheManager downloadingRepositoryCacheManager = new DownloadingRepositoryCacheManager("TestCacheManager", fileStore, artifactUrlCachedResolutionIndex, tmpFileProvider, lockingManager)
+    DownloadingRepositoryCacheManager downloadingRepositoryCacheManager = new DownloadingRepositoryCacheManager("TestCacheManager", new ParserRegistry(new ReferencedPomCache()), fileStore, artifactUrlCachedResolutionIndex, tmpFileProvider, lockingManager)
 
     @Rule TestNameTestDirectoryProvider temporaryFolder;
 
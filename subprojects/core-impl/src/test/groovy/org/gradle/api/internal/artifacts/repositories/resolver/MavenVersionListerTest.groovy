@@ -34,7 +34,7 @@ class MavenVersionListerTest extends Specification {
     def pattern = pattern("localhost:8081/testRepo/" + MavenPattern.M2_PATTERN)
     String metaDataResource = 'localhost:8081/testRepo/org/acme/testproject/maven-metadata.xml'
 
-    final org.gradle.api.internal.artifacts.repositories.resolver.MavenVersionLister lister = new org.gradle.api.internal.artifacts.repositories.resolver.MavenVersionLister(repository)
+    final org.gradle.api.internal.artifacts.repositories.resolver.MavenVersionLister lister = new org.gradle.api.internal.artifacts.repositories.resolver.MavenVersionLister(repository, new VersionListingCache())
 
     def "visit parses maven-metadata.xml"() {
         ExternalResource resource = Mock()
@@ -124,6 +124,35 @@ class MavenVersionListerTest extends Specification {
         0 * resource._
     }
 
+    def "reuses maven-metadata.xml loaded for another version list"() {
+        ExternalResource resource = Mock()
+
+        when:
+        def versionList1 = lister.getVersionList(moduleRevisionId)
+        versionList1.visit(pattern, artifact)
+        def versionList2 = lister.getVersionList(ModuleRevisionId.newInstance("org.acme", "testproject", "latest.integration"))
+        versionList2.visit(pattern, artifact)
+
+        then:
+        versionList1.versionStrings == ['1.1', '1.2'] as Set
+        versionList2.versionStrings == ['1.1', '1.2'] as Set
+
+        and:
+        1 * repository.getResource(metaDataResource) >> resource
+        1 * resource.openStream() >> new ByteArrayInputStream("""
+<metadata>
+    <versioning>
+        <versions>
+            <version>1.1</version>
+            <version>1.2</version>
+        </versions>
+    </versioning>
+</metadata>""".bytes)
+        1 * resource.close()
+        0 * repository._
+        0 * resource._
+    }
+
     def "visit throws ResourceNotFoundException when maven-metadata not available"() {
         when:
         def versionList = lister.getVersionList(moduleRevisionId)
@@ -33,7 +33,7 @@ class ResourceVersionListerTest extends Specification {
     def org.gradle.api.internal.artifacts.repositories.resolver.ResourceVersionLister lister;
 
     def setup() {
-        lister = new org.gradle.api.internal.artifacts.repositories.resolver.ResourceVersionLister(repo)
+        lister = new org.gradle.api.internal.artifacts.repositories.resolver.ResourceVersionLister(repo, new VersionListingCache())
     }
 
     def "visit propagates Exceptions as ResourceException"() {
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.repositories.resolver
+
+import org.gradle.api.internal.resource.ResourceException
+import org.gradle.api.internal.resource.ResourceNotFoundException
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class VersionListingCacheTest extends Specification {
+    final Factory<List<String>> loader = Mock()
+    final cache = new VersionListingCache()
+
+    def "fetches listing once and reuses it"() {
+        when:
+        def first = cache.getListing("repo/a/", loader)
+        def second = cache.getListing("repo/a/", loader)
+
+        then:
+        1 * loader.create() >> ["1.0", "1.1"]
+        0 * loader._
+
+        and:
+        first == ["1.0", "1.1"]
+        second == ["1.0", "1.1"]
+    }
+
+    def "fetches each location separately"() {
+        when:
+        def a = cache.getListing("repo/a/", loader)
+        def b = cache.getListing("repo/b/", loader)
+
+        then:
+        1 * loader.create() >> ["1.0"]
+        1 * loader.create() >> ["2.0"]
+
+        and:
+        a == ["1.0"]
+        b == ["2.0"]
+    }
+
+    def "fetches missing listing again"() {
+        def failure = new ResourceNotFoundException("not found")
+
+        when:
+        cache.getListing("repo/a/", loader)
+
+        then:
+        1 * loader.create() >> { throw failure }
+        ResourceNotFoundException e = thrown()
+        e == failure
+
+        when:
+        def result = cache.getListing("repo/a/", loader)
+
+        then:
+        1 * loader.create() >> ["1.0"]
+        result == ["1.0"]
+    }
+
+    def "fetches listing again after failure"() {
+        def failure = new ResourceException("broken")
+
+        when:
+        cache.getListing("repo/a/", loader)
+
+        then:
+        1 * loader.create() >> { throw failure }
+        ResourceException e = thrown()
+        e == failure
+
+        when:
+        def result = cache.getListing("repo/a/", loader)
+
+        then:
+        1 * loader.create() >> ["1.0"]
+        result == ["1.0"]
+    }
+
+    def "concurrent requests for the same listing share a single fetch"() {
+        def executor = Executors.newFixedThreadPool(2)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def fetches = 0
+        def slowLoader = {
+            fetches++
+            started.countDown()
+            assert release.await(20, TimeUnit.SECONDS)
+            return ["1.0"]
+        } as Factory
+
+        when:
+        def first = executor.submit({ cache.getListing("repo/a/", slowLoader) } as Callable)
+        assert started.await(20, TimeUnit.SECONDS)
+        def second = executor.submit({ cache.getListing("repo/a/", slowLoader) } as Callable)
+        release.countDown()
+
+        then:
+        first.get(20, TimeUnit.SECONDS) == ["1.0"]
+        second.get(20, TimeUnit.SECONDS) == ["1.0"]
+        fetches == 1
+
+        cleanup:
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.local
+
+import org.gradle.util.hash.HashUtil
+import spock.lang.Specification
+
+class ChecksumIndexLocallyAvailableResourceFinderTest extends Specification {
+    final ChecksumIndex checksumIndex = Mock()
+    final finder = new ChecksumIndexLocallyAvailableResourceFinder<String>(checksumIndex)
+
+    def "looks up resource in checksum index"() {
+        def hash = HashUtil.sha1("abc".bytes)
+        def file = new File("abc.jar")
+
+        when:
+        def candidates = finder.findCandidates("criterion")
+        def match = candidates.findByHashValue(hash)
+
+        then:
+        1 * checksumIndex.lookup(hash) >> file
+
+        and:
+        match.file == file
+        match.sha1 == hash
+    }
+
+    def "provides no resource when checksum is not indexed"() {
+        def hash = HashUtil.sha1("abc".bytes)
+
+        when:
+        def match = finder.findCandidates("criterion").findByHashValue(hash)
+
+        then:
+        1 * checksumIndex.lookup(hash) >> null
+        match == null
+    }
+
+    def "candidates report no resource when checksum index is empty"() {
+        when:
+        def isNone = finder.findCandidates("criterion").none
+
+        then:
+        1 * checksumIndex.isEmpty() >> true
+        0 * checksumIndex._
+
+        and:
+        isNone
+    }
+
+    def "candidates may contain a resource when checksum index has entries"() {
+        when:
+        def isNone = finder.findCandidates("criterion").none
+
+        then:
+        1 * checksumIndex.isEmpty() >> false
+        0 * checksumIndex._
+
+        and:
+        !isNone
+    }
+}
@@ -25,13 +25,16 @@ import spock.lang.Specification
 class LazyLocallyAvailableResourceCandidatesTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider tmp
+    def checksumIndex = Stub(ChecksumIndex) {
+        getSha1(_) >> { File file -> HashUtil.sha1(file) }
+    }
     
     def "does not query factory until necessary"() {
         given:
         def factory = Mock(Factory)
 
         when:
-        def candidates = new LazyLocallyAvailableResourceCandidates(factory)
+        def candidates = new LazyLocallyAvailableResourceCandidates(factory, checksumIndex)
 
         then:
         0 * factory.create()
@@ -51,6 +54,27 @@ class LazyLocallyAvailableResourceCandidatesTest extends Specification {
         0 * factory.create()
     }
     
+    def "uses checksum index to hash candidates"() {
+        given:
+        def factory = Mock(Factory)
+        def checksumIndex = Mock(ChecksumIndex)
+        def abc = file("abc")
+        def def_ = file("def")
+        def candidates = new LazyLocallyAvailableResourceCandidates(factory, checksumIndex)
+
+        when:
+        def candidate = candidates.findByHashValue(HashUtil.sha1("def".bytes))
+
+        then:
+        1 * factory.create() >> [abc, def_]
+        1 * checksumIndex.getSha1(abc) >> HashUtil.sha1("abc".bytes)
+        1 * checksumIndex.getSha1(def_) >> HashUtil.sha1("def".bytes)
+
+        and:
+        candidate.file == def_
+        candidate.sha1 == HashUtil.sha1("def".bytes)
+    }
+
     File file(path) {
         tmp.createFile(path) << path
     }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.local
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.hash.HashUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class PersistentChecksumIndexTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp
+    final CacheLockingManager cacheLockingManager = Stub()
+    PersistentChecksumIndex index
+
+    def setup() {
+        _ * cacheLockingManager.createCache(_, _, _) >> { new InMemoryIndexedCache() }
+        _ * cacheLockingManager.useCache(_, _ as Factory) >> { String displayName, Factory action -> action.create() }
+        _ * cacheLockingManager.useCache(_, _ as Runnable) >> { String displayName, Runnable action -> action.run() }
+        index = new PersistentChecksumIndex(tmp.testDirectory, cacheLockingManager)
+    }
+
+    def "finds file by checksum"() {
+        def file = tmp.createFile("a.jar") << "content"
+        def sha1 = HashUtil.sha1(file)
+
+        when:
+        index.add(file, sha1)
+
+        then:
+        index.lookup(sha1) == file
+        index.lookup(HashUtil.sha1("other".bytes)) == null
+    }
+
+    def "is empty until a file is indexed"() {
+        def file = tmp.createFile("a.jar") << "content"
+
+        expect:
+        index.empty
+
+        when:
+        index.add(file, HashUtil.sha1(file))
+
+        then:
+        !index.empty
+    }
+
+    def "is not empty when index was written by an earlier build"() {
+        when:
+        tmp.createFile("files-by-checksum.bin")
+
+        then:
+        !index.empty
+    }
+
+    def "does not find file which has changed or been removed since it was indexed"() {
+        def changed = tmp.createFile("changed.jar") << "content"
+        def removed = tmp.createFile("removed.jar") << "other content"
+        def changedSha1 = HashUtil.sha1(changed)
+        def removedSha1 = HashUtil.sha1(removed)
+        index.add(changed, changedSha1)
+        index.add(removed, removedSha1)
+
+        when:
+        changed << "more content"
+        removed.delete()
+
+        then:
+        index.lookup(changedSha1) == null
+        index.lookup(removedSha1) == null
+    }
+
+    def "indexes the checksum of a file when it is first calculated"() {
+        def file = tmp.createFile("a.jar") << "content"
+
+        expect:
+        index.lookup(HashUtil.sha1(file)) == null
+        index.getSha1(file) == HashUtil.sha1(file)
+        index.lookup(HashUtil.sha1(file)) == file
+    }
+
+    def "reuses indexed checksum of unchanged file"() {
+        def file = tmp.createFile("a.jar") << "content"
+        def indexed = HashUtil.sha1("not the content".bytes)
+
+        when:
+        index.add(file, indexed)
+
+        then:
+        index.getSha1(file) == indexed
+    }
+
+    def "calculates checksum again when file has changed"() {
+        def file = tmp.createFile("a.jar") << "content"
+        index.add(file, HashUtil.sha1(file))
+
+        when:
+        file << "more content"
+        file.setLastModified(file.lastModified() + 2000)
+
+        then:
+        index.getSha1(file) == HashUtil.sha1("contentmore content".bytes)
+    }
+
+    private static class InMemoryIndexedCache implements PersistentIndexedCache<Object, Object> {
+        private final Map<Object, Object> entries = [:]
+
+        Object get(Object key) {
+            return entries[key]
+        }
+
+        void put(Object key, Object value) {
+            entries[key] = value
+        }
+
+        void remove(Object key) {
+            entries.remove(key)
+        }
+    }
+}
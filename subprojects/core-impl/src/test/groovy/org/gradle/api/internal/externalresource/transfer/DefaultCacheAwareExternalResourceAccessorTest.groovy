@@ -24,11 +24,15 @@ import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaDat
 import org.gradle.util.hash.HashValue
 import org.gradle.api.internal.externalresource.local.LocallyAvailableResource
 import org.gradle.api.internal.externalresource.LocallyAvailableExternalResource
+import org.gradle.api.internal.externalresource.ExternalResource
+import org.gradle.api.internal.externalresource.cached.CachedExternalResourceAdapter
+import org.gradle.internal.Factory
 
 class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
     final accessor = Mock(ExternalResourceAccessor)
     final index = Mock(CachedExternalResourceIndex)
     final cache = new DefaultCacheAwareExternalResourceAccessor(accessor, index)
+    final conditionalCache = new DefaultCacheAwareExternalResourceAccessor(accessor, index, true)
 
     def "will use sha1 from metadata for finding candidates if available"() {
         given:
@@ -56,4 +60,93 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         and:
         foundResource instanceof LocallyAvailableExternalResource
     }
+
+    def "asks for resource only if modified when cached resource has an etag"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+
+        and:
+        index.lookup("location") >> cached
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "abc"
+
+        when:
+        def foundResource = conditionalCache.getResource("location", localCandidates)
+
+        then:
+        1 * accessor.getResourceIfModified("location", cachedMetaData, _) >> remoteResource
+        0 * accessor._
+
+        and:
+        foundResource == remoteResource
+    }
+
+    def "uses cached resource when resource has not been modified"() {
+        given:
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+
+        and:
+        index.lookup("location") >> cached
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cached.cachedFile >> new File("cached")
+        cachedMetaData.lastModified >> new Date()
+
+        when:
+        def foundResource = conditionalCache.getResource("location", null)
+
+        then:
+        1 * accessor.getResourceIfModified("location", cachedMetaData, _) >> { String location, ExternalResourceMetaData metaData, Factory<ExternalResource> unchanged -> unchanged.create() }
+        0 * accessor._
+
+        and:
+        foundResource instanceof CachedExternalResourceAdapter
+    }
+
+    def "returns null when resource no longer exists"() {
+        given:
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+
+        and:
+        index.lookup("location") >> cached
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "abc"
+
+        when:
+        def foundResource = conditionalCache.getResource("location", null)
+
+        then:
+        1 * accessor.getResourceIfModified("location", cachedMetaData, _) >> null
+        0 * accessor._
+
+        and:
+        foundResource == null
+    }
+
+    def "fetches metadata first when conditional requests are not used"() {
+        given:
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+
+        and:
+        index.lookup("location") >> cached
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "abc"
+
+        when:
+        def foundResource = cache.getResource("location", null)
+
+        then:
+        1 * accessor.getMetaData("location") >> Mock(ExternalResourceMetaData)
+        1 * accessor.getResource("location") >> remoteResource
+        0 * accessor._
+
+        and:
+        foundResource == remoteResource
+    }
 }
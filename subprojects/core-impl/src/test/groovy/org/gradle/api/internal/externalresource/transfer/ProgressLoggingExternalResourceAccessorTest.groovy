@@ -17,6 +17,8 @@
 package org.gradle.api.internal.externalresource.transfer
 
 import org.gradle.api.internal.externalresource.ExternalResource
+import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData
+import org.gradle.internal.Factory
 import org.gradle.logging.ProgressLogger
 import org.gradle.logging.ProgressLoggerFactory
 import spock.lang.Specification
@@ -59,6 +61,30 @@ class ProgressLoggingExternalResourceAccessorTest extends Specification {
         loadedResource instanceof ProgressLoggingExternalResourceAccessor.ProgressLoggingExternalResource
     }
 
+    def "getResourceIfModified wraps modified Resource from delegate in ProgressLoggingExternalResource"() {
+        setup:
+        def metaData = Mock(ExternalResourceMetaData)
+        def unchanged = Mock(Factory)
+        accessor.getResourceIfModified("location", metaData, unchanged) >> externalResource
+        externalResource.isLocal() >> false
+        when:
+        def loadedResource = progressLoggerAccessor.getResourceIfModified("location", metaData, unchanged)
+        then:
+        loadedResource instanceof ProgressLoggingExternalResourceAccessor.ProgressLoggingExternalResource
+    }
+
+    def "getResourceIfModified does not wrap unchanged local Resource"() {
+        setup:
+        def metaData = Mock(ExternalResourceMetaData)
+        def unchanged = Mock(Factory)
+        accessor.getResourceIfModified("location", metaData, unchanged) >> externalResource
+        externalResource.isLocal() >> true
+        when:
+        def loadedResource = progressLoggerAccessor.getResourceIfModified("location", metaData, unchanged)
+        then:
+        loadedResource == externalResource
+    }
+
     def "ProgressLoggingExternalResource.writeTo wraps delegate call in progress logger"() {
         setup:
         accessor.getResource("location") >> externalResource
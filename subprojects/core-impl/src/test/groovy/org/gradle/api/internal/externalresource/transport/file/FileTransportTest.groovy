@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.transport.file
+
+import org.apache.ivy.core.cache.RepositoryCacheManager
+import org.gradle.api.internal.file.TemporaryFileProvider
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class FileTransportTest extends Specification {
+    final FileTransport transport = new FileTransport("repo", Mock(RepositoryCacheManager), Mock(TemporaryFileProvider))
+
+    def "fetches version listing each time it is requested"() {
+        Factory<List<String>> loader = Mock()
+
+        when:
+        def first = transport.versionListingCache.getListing("location", loader)
+        def second = transport.versionListingCache.getListing("location", loader)
+
+        then:
+        2 * loader.create() >>> [["1.0"], ["1.0", "1.1"]]
+        first == ["1.0"]
+        second == ["1.0", "1.1"]
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.externalresource.transport.http
+
+import org.apache.http.HttpVersion
+import org.apache.http.message.BasicHttpResponse
+import org.apache.http.protocol.BasicHttpContext
+import spock.lang.Specification
+
+class HttpConnectionPoolTest extends Specification {
+    def "applies connection limits"() {
+        def pool = new HttpConnectionPool(3, 10, 1000)
+
+        expect:
+        pool.connectionManager.defaultMaxPerRoute == 3
+        pool.connectionManager.maxTotal == 10
+
+        cleanup:
+        pool.stop()
+    }
+
+    def "total connection limit is at least the per host limit"() {
+        def pool = new HttpConnectionPool(8, 4, 1000)
+
+        expect:
+        pool.connectionManager.maxTotal == 8
+
+        cleanup:
+        pool.stop()
+    }
+
+    def "keeps connection alive for at most the idle timeout"() {
+        def pool = new HttpConnectionPool(3, 10, 1000)
+        def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK")
+
+        expect:
+        pool.keepAliveStrategy.getKeepAliveDuration(response, new BasicHttpContext()) == 1000
+
+        when:
+        response.setHeader("Keep-Alive", "timeout=60")
+
+        then:
+        pool.keepAliveStrategy.getKeepAliveDuration(response, new BasicHttpContext()) == 1000
+
+        when:
+        response.setHeader("Keep-Alive", "timeout=0")
+
+        then:
+        pool.keepAliveStrategy.getKeepAliveDuration(response, new BasicHttpContext()) == 0
+
+        cleanup:
+        pool.stop()
+    }
+}
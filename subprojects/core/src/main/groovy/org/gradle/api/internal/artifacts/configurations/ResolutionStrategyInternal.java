@@ -49,6 +49,11 @@ public interface ResolutionStrategyInternal extends ResolutionStrategy {
      */
     Action<DependencyResolveDetailsInternal> getDependencyResolveRule();
 
+    /**
+     * @return whether any dependency resolve rules have been added, apart from the rule which forces modules
+     */
+    boolean hasDependencyResolveRules();
+
     /**
      * @return copy of this resolution strategy. See the contract of {@link org.gradle.api.artifacts.Configuration#copy()}.
      */
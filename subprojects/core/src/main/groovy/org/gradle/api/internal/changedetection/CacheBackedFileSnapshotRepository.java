@@ -24,7 +24,7 @@ public class CacheBackedFileSnapshotRepository implements FileSnapshotRepository
         cache = cacheAccess.createCache("fileSnapshots", Object.class, Object.class);
     }
 
-    public Long add(FileCollectionSnapshot snapshot) {
+    public synchronized Long add(FileCollectionSnapshot snapshot) {
         Long id = (Long) cache.get("nextId");
         if (id == null) {
             id = 1L;
@@ -16,34 +16,108 @@
 package org.gradle.api.internal.changedetection;
 
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.UnitOfWorkParticipant;
 import org.gradle.messaging.serialize.DataStreamBackedSerializer;
 
 import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-public class CachingHasher implements Hasher {
+/**
+ * A {@link Hasher} which caches the hashes of files, keyed by the length and timestamp of each file. Hashes are looked up in an in-memory cache,
+ * which is shared by all builds in this process and separated by hash algorithm, before the persistent cache. New hashes are written to the persistent cache in a batch at the
+ * end of each unit of work.
+ */
+public class CachingHasher implements Hasher, UnitOfWorkParticipant {
     private final PersistentIndexedCache<File, FileInfo> cache;
+    private final InMemoryFileHashCache inMemoryCache;
+    private final Map<File, FileInfo> dirty = new LinkedHashMap<File, FileInfo>();
     private final Hasher hasher;
-    private long timestamp;
+    private final String algorithm;
 
-    public CachingHasher(Hasher hasher, TaskArtifactStateCacheAccess cacheAccess) {
+    /**
+     * @param algorithm The name of the hash algorithm used by the given hasher.
+     */
+    public CachingHasher(Hasher hasher, String algorithm, TaskArtifactStateCacheAccess cacheAccess, InMemoryFileHashCache inMemoryCache) {
         this.hasher = hasher;
+        this.algorithm = algorithm;
+        this.inMemoryCache = inMemoryCache;
         cache = cacheAccess.createCache("fileHashes", File.class, FileInfo.class, new FileInfoSerializer());
+        cacheAccess.addUnitOfWorkParticipant(this);
     }
 
     public byte[] hash(File file) {
-        FileInfo info = cache.get(file);
-
-        long length = file.length();
-        timestamp = file.lastModified();
-        if (info != null && length == info.length && timestamp == info.timestamp) {
+        FileInfo info = lookup(file);
+        if (info.hash != null) {
             return info.hash;
         }
 
         byte[] hash = hasher.hash(file);
-        cache.put(file, new FileInfo(hash, length, timestamp));
+        update(file, info, hash);
         return hash;
     }
 
+    /**
+     * Looks up the cached details of the given file. The returned details have no hash when the file has changed since it was last hashed.
+     * Must be called from within a unit of work against the cache.
+     */
+    FileInfo lookup(File file) {
+        FileInfo info = inMemoryCache.get(algorithm, file);
+        if (info == null) {
+            synchronized (dirty) {
+                info = dirty.get(file);
+            }
+        }
+        if (info == null) {
+            info = cache.get(file);
+            if (info != null) {
+                inMemoryCache.put(algorithm, file, info);
+            }
+        }
+
+        long length = file.length();
+        long timestamp = file.lastModified();
+        if (info != null && length == info.length && timestamp == info.timestamp) {
+            return info;
+        }
+        return new FileInfo(null, length, timestamp);
+    }
+
+    /**
+     * Calculates the hash of the content of the given file, bypassing the cache. Can be called from any thread.
+     */
+    byte[] hashContent(File file) {
+        return hasher.hash(file);
+    }
+
+    /**
+     * Records the hash of the given file. The hash is written to the persistent cache at the end of the current unit of work. Must be called from
+     * within a unit of work against the cache.
+     *
+     * @param info The details returned by {@link #lookup(java.io.File)} before the file was hashed.
+     */
+    void update(File file, FileInfo info, byte[] hash) {
+        FileInfo newInfo = new FileInfo(hash, info.length, info.timestamp);
+        inMemoryCache.put(algorithm, file, newInfo);
+        synchronized (dirty) {
+            dirty.put(file, newInfo);
+        }
+    }
+
+    public void onStartWork(String operationDisplayName) {
+    }
+
+    public void onEndWork() {
+        Map<File, FileInfo> toWrite;
+        synchronized (dirty) {
+            toWrite = new LinkedHashMap<File, FileInfo>(dirty);
+            dirty.clear();
+        }
+        for (Map.Entry<File, FileInfo> entry : toWrite.entrySet()) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
     public static class FileInfo implements Serializable {
         private final byte[] hash;
         private final long timestamp;
@@ -54,6 +128,10 @@ public class CachingHasher implements Hasher {
             this.length = length;
             this.timestamp = timestamp;
         }
+
+        byte[] getHash() {
+            return hash;
+        }
     }
 
     private static class FileInfoSerializer extends DataStreamBackedSerializer<FileInfo> {
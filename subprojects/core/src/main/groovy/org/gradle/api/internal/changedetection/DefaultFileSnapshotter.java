@@ -17,142 +17,149 @@
 package org.gradle.api.internal.changedetection;
 
 import org.gradle.api.file.FileCollection;
-import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.util.ChangeListener;
-import org.gradle.util.NoOpChangeListener;
 
 import java.io.File;
-import java.io.Serializable;
-import java.math.BigInteger;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DefaultFileSnapshotter implements FileSnapshotter {
     private final Hasher hasher;
+    private final CachingHasher cachingHasher;
+    private final ExecutorFactory executorFactory;
+    private final int maxHashWorkers;
 
     public DefaultFileSnapshotter(Hasher hasher) {
         this.hasher = hasher;
+        this.cachingHasher = null;
+        this.executorFactory = null;
+        this.maxHashWorkers = 1;
+    }
+
+    /**
+     * Creates a snapshotter which looks up cached hashes on the calling thread, and calculates the hashes of new and changed files using
+     * up to the given number of worker threads.
+     */
+    public DefaultFileSnapshotter(CachingHasher hasher, ExecutorFactory executorFactory, int maxHashWorkers) {
+        this.hasher = hasher;
+        this.cachingHasher = hasher;
+        this.executorFactory = executorFactory;
+        this.maxHashWorkers = maxHashWorkers;
     }
 
     public FileCollectionSnapshot emptySnapshot() {
-        return new FileCollectionSnapshotImpl(new HashMap<String, FileSnapshot>());
+        return new SortedFileCollectionSnapshot.Builder().build();
     }
 
     public FileCollectionSnapshot snapshot(FileCollection sourceFiles) {
-        Map<String, FileSnapshot> snapshots = new HashMap<String, FileSnapshot>();
+        SortedFileCollectionSnapshot.Builder builder = new SortedFileCollectionSnapshot.Builder();
+        List<File> regularFiles = new ArrayList<File>();
         for (File file : sourceFiles.getAsFileTree()) {
             if (file.isFile()) {
-                snapshots.put(file.getAbsolutePath(), new FileHashSnapshot(hasher.hash(file)));
+                regularFiles.add(file);
             } else if (file.isDirectory()) {
-                snapshots.put(file.getAbsolutePath(), new DirSnapshot());
+                builder.add(file.getAbsolutePath(), SortedFileCollectionSnapshot.DIR, null);
             } else {
-                snapshots.put(file.getAbsolutePath(), new MissingFileSnapshot());
+                builder.add(file.getAbsolutePath(), SortedFileCollectionSnapshot.MISSING, null);
             }
         }
-        return new FileCollectionSnapshotImpl(snapshots);
-    }
-
-    private interface FileSnapshot extends Serializable {
-        boolean isUpToDate(FileSnapshot snapshot);
-    }
-
-    private static class FileHashSnapshot implements FileSnapshot {
-        private final byte[] hash;
-
-        public FileHashSnapshot(byte[] hash) {
-            this.hash = hash;
-        }
 
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            if (!(snapshot instanceof FileHashSnapshot)) {
-                return false;
-            }
-
-            FileHashSnapshot other = (FileHashSnapshot) snapshot;
-            return Arrays.equals(hash, other.hash);
-        }
-
-        @Override
-        public String toString() {
-            return new BigInteger(1, hash).toString(16);
+        List<byte[]> hashes = hash(regularFiles);
+        for (int i = 0; i < regularFiles.size(); i++) {
+            builder.add(regularFiles.get(i).getAbsolutePath(), SortedFileCollectionSnapshot.FILE, hashes.get(i));
         }
+        return builder.build();
     }
 
-    private static class DirSnapshot implements FileSnapshot {
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            return snapshot instanceof DirSnapshot;
+    public void findFirstChange(FileCollection files, FileCollectionSnapshot oldSnapshot, ChangeListener<File> listener) {
+        SortedMap<String, File> currentFiles = new TreeMap<String, File>();
+        for (File file : files.getAsFileTree()) {
+            currentFiles.put(file.getAbsolutePath(), file);
         }
-    }
-
-    private static class MissingFileSnapshot implements FileSnapshot {
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            return snapshot instanceof MissingFileSnapshot;
+        SortedFileCollectionSnapshot snapshot = (SortedFileCollectionSnapshot) oldSnapshot;
+        List<File> regularFiles = snapshot.findFirstStructuralChange(currentFiles, listener);
+        if (regularFiles == null) {
+            return;
         }
+        // Only the content can have changed. Hash the files in the same way as for a snapshot
+        snapshot.findFirstContentChange(regularFiles, hash(regularFiles), listener);
     }
 
-    private static class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
-        private final Map<String, FileSnapshot> snapshots;
-
-        public FileCollectionSnapshotImpl(Map<String, FileSnapshot> snapshots) {
-            this.snapshots = snapshots;
+    /**
+     * Returns the hashes of the given files, in the same order. Cached hashes are looked up on the calling thread, and the hashes of new and
+     * changed files are calculated using the worker threads.
+     */
+    private List<byte[]> hash(List<File> files) {
+        List<byte[]> hashes = new ArrayList<byte[]>(files.size());
+        if (cachingHasher == null) {
+            for (File file : files) {
+                hashes.add(hasher.hash(file));
+            }
+            return hashes;
         }
 
-        public FileCollection getFiles() {
-            List<File> files = new ArrayList<File>();
-            for (Map.Entry<String, FileSnapshot> entry : snapshots.entrySet()) {
-                if (entry.getValue() instanceof FileHashSnapshot) {
-                    files.add(new File(entry.getKey()));
-                }
+        List<PendingHash> pending = new ArrayList<PendingHash>();
+        for (File file : files) {
+            CachingHasher.FileInfo info = cachingHasher.lookup(file);
+            if (info.getHash() == null) {
+                pending.add(new PendingHash(hashes.size(), file, info));
             }
-            return new SimpleFileCollection(files);
+            hashes.add(info.getHash());
         }
 
-        public void changesSince(FileCollectionSnapshot oldSnapshot, final ChangeListener<File> listener) {
-            FileCollectionSnapshotImpl other = (FileCollectionSnapshotImpl) oldSnapshot;
-            diff(snapshots, other.snapshots, new ChangeListener<Map.Entry<String, FileSnapshot>>() {
-                public void added(Map.Entry<String, FileSnapshot> element) {
-                    listener.added(new File(element.getKey()));
-                }
-
-                public void removed(Map.Entry<String, FileSnapshot> element) {
-                    listener.removed(new File(element.getKey()));
-                }
-
-                public void changed(Map.Entry<String, FileSnapshot> element) {
-                    listener.changed(new File(element.getKey()));
-                }
-            });
+        if (!pending.isEmpty()) {
+            hashContent(pending);
+            for (PendingHash pendingHash : pending) {
+                cachingHasher.update(pendingHash.file, pendingHash.info, pendingHash.hash);
+                hashes.set(pendingHash.index, pendingHash.hash);
+            }
         }
+        return hashes;
+    }
 
-        private void diff(Map<String, FileSnapshot> snapshots, Map<String, FileSnapshot> oldSnapshots,
-                          ChangeListener<Map.Entry<String, FileSnapshot>> listener) {
-            Map<String, FileSnapshot> otherSnapshots = new HashMap<String, FileSnapshot>(oldSnapshots);
-            for (Map.Entry<String, FileSnapshot> entry : snapshots.entrySet()) {
-                FileSnapshot otherFile = otherSnapshots.remove(entry.getKey());
-                if (otherFile == null) {
-                    listener.added(entry);
-                } else if (!entry.getValue().isUpToDate(otherFile)) {
-                    listener.changed(entry);
-                }
+    private void hashContent(final List<PendingHash> pending) {
+        int workerCount = Math.min(maxHashWorkers, pending.size());
+        if (workerCount <= 1) {
+            for (PendingHash pendingHash : pending) {
+                pendingHash.hash = cachingHasher.hashContent(pendingHash.file);
             }
-            for (Map.Entry<String, FileSnapshot> entry : otherSnapshots.entrySet()) {
-                listener.removed(entry);
+            return;
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        StoppableExecutor executor = executorFactory.create("File hasher");
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        for (int index = next.getAndIncrement(); index < pending.size(); index = next.getAndIncrement()) {
+                            PendingHash pendingHash = pending.get(index);
+                            pendingHash.hash = cachingHasher.hashContent(pendingHash.file);
+                        }
+                    }
+                });
             }
+        } finally {
+            // Waits for the workers to finish, and rethrows the first failure
+            executor.stop();
         }
+    }
+
+    private static class PendingHash {
+        final int index;
+        final File file;
+        final CachingHasher.FileInfo info;
+        byte[] hash;
 
-        public Diff changesSince(final FileCollectionSnapshot oldSnapshot) {
-            final FileCollectionSnapshotImpl other = (FileCollectionSnapshotImpl) oldSnapshot;
-            return new Diff() {
-                public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot) {
-                    return applyTo(snapshot, new NoOpChangeListener<Merge>());
-                }
-
-                public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot, final ChangeListener<Merge> listener) {
-                    FileCollectionSnapshotImpl target = (FileCollectionSnapshotImpl) snapshot;
-                    final Map<String, FileSnapshot> newSnapshots = new HashMap<String, FileSnapshot>(target.snapshots);
-                    diff(snapshots, other.snapshots, new MapMergeChangeListener<String, FileSnapshot>(listener, newSnapshots));
-                    return new FileCollectionSnapshotImpl(newSnapshots);
-                }
-            };
+        private PendingHash(int index, File file, CachingHasher.FileInfo info) {
+            this.index = index;
+            this.file = file;
+            this.info = info;
         }
     }
 }
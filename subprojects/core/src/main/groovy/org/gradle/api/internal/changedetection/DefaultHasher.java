@@ -15,12 +15,23 @@
  */
 package org.gradle.api.internal.changedetection;
 
-import org.gradle.util.hash.HashUtil;
+import org.gradle.util.hash.ContentHasher;
+import org.gradle.util.hash.ContentHashers;
 
 import java.io.File;
 
 public class DefaultHasher implements Hasher {
+    private final ContentHasher contentHasher;
+
+    public DefaultHasher() {
+        this(ContentHashers.forAlgorithm("MD5"));
+    }
+
+    public DefaultHasher(ContentHasher contentHasher) {
+        this.contentHasher = contentHasher;
+    }
+
     public byte[] hash(File file) {
-        return HashUtil.createHash(file, "MD5").asByteArray();
+        return contentHasher.hash(file).asByteArray();
     }
 }
\ No newline at end of file
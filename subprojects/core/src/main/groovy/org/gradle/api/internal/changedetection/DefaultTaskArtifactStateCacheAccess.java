@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.changedetection;
 
+import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
@@ -22,26 +23,41 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.messaging.serialize.Serializer;
 import org.gradle.cache.internal.FileLockManager;
+import org.gradle.cache.internal.UnitOfWorkParticipant;
 import org.gradle.listener.LazyCreationProxy;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCacheAccess {
     private final Gradle gradle;
     private final CacheRepository cacheRepository;
+    private final String fileHashAlgorithm;
+    private final List<UnitOfWorkParticipant> participants = new CopyOnWriteArrayList<UnitOfWorkParticipant>();
     private PersistentCache cache;
 
     public DefaultTaskArtifactStateCacheAccess(Gradle gradle, CacheRepository cacheRepository) {
+        this(gradle, cacheRepository, "MD5");
+    }
+
+    /**
+     * @param fileHashAlgorithm The algorithm used to hash file content. The cache is discarded when this changes, as the stored hashes can no longer be compared.
+     */
+    public DefaultTaskArtifactStateCacheAccess(Gradle gradle, CacheRepository cacheRepository, String fileHashAlgorithm) {
         this.gradle = gradle;
         this.cacheRepository = cacheRepository;
+        this.fileHashAlgorithm = fileHashAlgorithm;
     }
 
-    private PersistentCache getCache() {
+    private synchronized PersistentCache getCache() {
         if (cache == null) {
             cache = cacheRepository
                     .cache("taskArtifacts")
                     .forObject(gradle)
                     .withDisplayName("task artifact state cache")
+                    .withProperties(Collections.singletonMap("fileHashAlgorithm", fileHashAlgorithm))
                     .withLockMode(FileLockManager.LockMode.Exclusive)
                     .open();
         }
@@ -71,15 +87,62 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
         return new File(getCache().getBaseDir(), cacheName + ".bin");
     }
 
-    public <T> T useCache(String operationDisplayName, Factory<? extends T> action) {
-        return getCache().useCache(operationDisplayName, action);
+    public <T> T useCache(final String operationDisplayName, final Factory<? extends T> action) {
+        return getCache().useCache(operationDisplayName, new Factory<T>() {
+            public T create() {
+                onStartWork(operationDisplayName);
+                try {
+                    return action.create();
+                } finally {
+                    onEndWork();
+                }
+            }
+        });
     }
 
     public void useCache(String operationDisplayName, Runnable action) {
-        getCache().useCache(operationDisplayName, action);
+        useCache(operationDisplayName, Factories.toFactory(action));
+    }
+
+    public <T> T useCacheConcurrently(final String operationDisplayName, final Factory<? extends T> action) {
+        return getCache().useCacheConcurrently(operationDisplayName, new Factory<T>() {
+            public T create() {
+                onStartWork(operationDisplayName);
+                try {
+                    return action.create();
+                } finally {
+                    onEndWork();
+                }
+            }
+        });
+    }
+
+    public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+        useCacheConcurrently(operationDisplayName, Factories.toFactory(action));
     }
 
     public void longRunningOperation(String operationDisplayName, Runnable action) {
-        getCache().longRunningOperation(operationDisplayName, action);
+        onEndWork();
+        try {
+            getCache().longRunningOperation(operationDisplayName, action);
+        } finally {
+            onStartWork(operationDisplayName);
+        }
+    }
+
+    public void addUnitOfWorkParticipant(UnitOfWorkParticipant participant) {
+        participants.add(participant);
+    }
+
+    private void onStartWork(String operationDisplayName) {
+        for (UnitOfWorkParticipant participant : participants) {
+            participant.onStartWork(operationDisplayName);
+        }
+    }
+
+    private void onEndWork() {
+        for (UnitOfWorkParticipant participant : participants) {
+            participant.onEndWork();
+        }
     }
 }
\ No newline at end of file
@@ -51,6 +51,8 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
     private interface TaskExecutionState {
         List<String> isUpToDate();
 
+        void beforeTask();
+
         boolean snapshot();
 
         FileCollection getPreviousOutputFiles();
@@ -101,6 +103,16 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             return messages;
         }
 
+        public void beforeTask() {
+            calcCurrentState();
+
+            if (upToDate) {
+                return;
+            }
+
+            upToDateState.snapshotBeforeTask();
+        }
+
         public boolean snapshot() {
             calcCurrentState();
             
@@ -164,6 +176,7 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         }
 
         public void beforeTask() {
+            execution.beforeTask();
         }
 
         public void finished() {
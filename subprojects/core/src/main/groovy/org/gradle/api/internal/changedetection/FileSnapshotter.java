@@ -16,6 +16,9 @@
 package org.gradle.api.internal.changedetection;
 
 import org.gradle.api.file.FileCollection;
+import org.gradle.util.ChangeListener;
+
+import java.io.File;
 
 public interface FileSnapshotter {
     /**
@@ -32,4 +35,14 @@ public interface FileSnapshotter {
      * @return The snapshot.
      */
     FileCollectionSnapshot snapshot(FileCollection files);
+
+    /**
+     * Compares the current contents of the given collection with the given snapshot. Notifies the listener of the first change found, if any,
+     * and stops comparing. This can be cheaper than creating a new snapshot and comparing it with the old one.
+     *
+     * @param files The files to compare.
+     * @param oldSnapshot The snapshot to compare with.
+     * @param listener The listener to notify of the first change.
+     */
+    void findFirstChange(FileCollection files, FileCollectionSnapshot oldSnapshot, ChangeListener<File> listener);
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of file hashes which is kept in memory, so that it can be shared by all builds which run in the current process. Evicts the
+ * least recently used entries first.
+ *
+ * <p>An entry remains valid for as long as the length and timestamp of the file are unchanged, regardless of which build calculated it. Entries
+ * are kept separately for each hash algorithm, as builds in the same process may use different algorithms.</p>
+ */
+@ThreadSafe
+public class InMemoryFileHashCache {
+    private final Map<Key, CachingHasher.FileInfo> entries;
+
+    public InMemoryFileHashCache(final int maxEntries) {
+        entries = new LinkedHashMap<Key, CachingHasher.FileInfo>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachingHasher.FileInfo> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized CachingHasher.FileInfo get(String algorithm, File file) {
+        return entries.get(new Key(algorithm, file));
+    }
+
+    public synchronized void put(String algorithm, File file, CachingHasher.FileInfo info) {
+        entries.put(new Key(algorithm, file), info);
+    }
+
+    private static class Key {
+        private final String algorithm;
+        private final File file;
+
+        private Key(String algorithm, File file) {
+            this.algorithm = algorithm;
+            this.file = file;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return algorithm.equals(other.algorithm) && file.equals(other.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return algorithm.hashCode() ^ file.hashCode();
+        }
+    }
+}
@@ -32,15 +32,16 @@ public class InputFilesChangedUpToDateRule implements UpToDateRule {
     }
 
     public TaskUpToDateState create(final TaskInternal task, final TaskExecution previousExecution, final TaskExecution currentExecution) {
-        final FileCollectionSnapshot inputFilesSnapshot = inputFilesSnapshotter.snapshot(task.getInputs().getFiles());
-
         return new TaskUpToDateState() {
+            private FileCollectionSnapshot inputFilesSnapshot;
+
             public void checkUpToDate(final Collection<String> messages) {
                 if (previousExecution.getInputFilesSnapshot() == null) {
                     messages.add(String.format("Input file history is not available for %s.", task));
                     return;
                 }
-                inputFilesSnapshot.changesSince(previousExecution.getInputFilesSnapshot(), new ChangeListener<File>() {
+                // Only need to know whether the inputs have changed, so compare without building a new snapshot
+                inputFilesSnapshotter.findFirstChange(task.getInputs().getFiles(), previousExecution.getInputFilesSnapshot(), new ChangeListener<File>() {
                     public void added(File file) {
                         messages.add(String.format("Input file %s for %s added.", file, task));
                     }
@@ -55,8 +56,16 @@ public class InputFilesChangedUpToDateRule implements UpToDateRule {
                 });
             }
 
+            public void snapshotBeforeTask() {
+                inputFilesSnapshot = inputFilesSnapshotter.snapshot(task.getInputs().getFiles());
+            }
+
             public void snapshotAfterTask() {
-                currentExecution.setInputFilesSnapshot(inputFilesSnapshot);
+                // The task may have changed its inputs, so do not snapshot them now. Without input file history, the task will be out of date
+                // next time
+                if (inputFilesSnapshot != null) {
+                    currentExecution.setInputFilesSnapshot(inputFilesSnapshot);
+                }
             }
         };
     }
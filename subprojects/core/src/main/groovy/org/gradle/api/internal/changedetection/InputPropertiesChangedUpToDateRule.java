@@ -48,6 +48,9 @@ public class InputPropertiesChangedUpToDateRule implements UpToDateRule {
                 });
             }
 
+            public void snapshotBeforeTask() {
+            }
+
             public void snapshotAfterTask() {
             }
         };
@@ -55,6 +55,9 @@ public class OutputFilesChangedUpToDateRule implements UpToDateRule {
                 });
             }
 
+            public void snapshotBeforeTask() {
+            }
+
             public void snapshotAfterTask() {
                 FileCollectionSnapshot lastExecutionOutputFiles;
                 if (previousExecution == null || previousExecution.getOutputFilesSnapshot() == null) {
@@ -57,22 +57,53 @@ public class OutputFilesSnapshotter implements FileSnapshotter {
     public FileCollectionSnapshot snapshot(FileCollection files) {
         Map<String, Long> snapshotDirIds = new HashMap<String, Long>();
         for (File file : files) {
-            Long dirId;
-            if (file.exists()) {
-                dirId = dirIdentiferCache.get(file.getAbsolutePath());
-                if (dirId == null) {
-                    dirId = idGenerator.generateId();
-                    dirIdentiferCache.put(file.getAbsolutePath(), dirId);
-                }
-            } else {
-                dirIdentiferCache.remove(file.getAbsolutePath());
-                dirId = null;
-            }
-            snapshotDirIds.put(file.getAbsolutePath(), dirId);
+            snapshotDirIds.put(file.getAbsolutePath(), getDirId(file));
         }
         return new OutputFilesSnapshot(snapshotDirIds, snapshotter.snapshot(files));
     }
 
+    // Tasks of different projects can share an output directory and be snapshotted at the same time
+    private synchronized Long getDirId(File file) {
+        if (!file.exists()) {
+            dirIdentiferCache.remove(file.getAbsolutePath());
+            return null;
+        }
+        Long dirId = dirIdentiferCache.get(file.getAbsolutePath());
+        if (dirId == null) {
+            dirId = idGenerator.generateId();
+            dirIdentiferCache.put(file.getAbsolutePath(), dirId);
+        }
+        return dirId;
+    }
+
+    public void findFirstChange(FileCollection files, FileCollectionSnapshot oldSnapshot, final ChangeListener<File> listener) {
+        // Output snapshots carry root file ids, which are updated as a side effect of snapshotting, so always snapshot in full
+        snapshot(files).changesSince(oldSnapshot, new ChangeListener<File>() {
+            private boolean found;
+
+            public void added(File element) {
+                if (!found) {
+                    found = true;
+                    listener.added(element);
+                }
+            }
+
+            public void removed(File element) {
+                if (!found) {
+                    found = true;
+                    listener.removed(element);
+                }
+            }
+
+            public void changed(File element) {
+                if (!found) {
+                    found = true;
+                    listener.changed(element);
+                }
+            }
+        });
+    }
+
     private static class OutputFilesSnapshot implements FileCollectionSnapshot {
         private final Map<String, Long> rootFileIds;
         private final FileCollectionSnapshot filesSnapshot;
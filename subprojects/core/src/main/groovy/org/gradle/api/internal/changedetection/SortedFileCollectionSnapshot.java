@@ -0,0 +1,506 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection;
+
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.util.ChangeListener;
+import org.gradle.util.NoOpChangeListener;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A compact snapshot of a collection of files, where the entries are sorted by path.
+ *
+ * <p>Each path is stored as the length of the prefix it shares with the previous path, followed by the remaining characters. The hashes of
+ * all entries are stored in a single array, using the same number of bytes for each entry. Hashes are right-aligned and padded with zeros.
+ * Two snapshots are compared by walking both of them in order.</p>
+ */
+class SortedFileCollectionSnapshot implements FileCollectionSnapshot {
+    static final byte FILE = 1;
+    static final byte DIR = 2;
+    static final byte MISSING = 3;
+
+    private transient int size;
+    private transient int[] prefixLengths;
+    private transient int[] suffixEnds;
+    private transient char[] suffixChars;
+    private transient byte[] types;
+    private transient int hashWidth;
+    private transient byte[] hashes;
+
+    private SortedFileCollectionSnapshot(int size, int[] prefixLengths, int[] suffixEnds, char[] suffixChars, byte[] types, int hashWidth, byte[] hashes) {
+        this.size = size;
+        this.prefixLengths = prefixLengths;
+        this.suffixEnds = suffixEnds;
+        this.suffixChars = suffixChars;
+        this.types = types;
+        this.hashWidth = hashWidth;
+        this.hashes = hashes;
+    }
+
+    public FileCollection getFiles() {
+        List<File> files = new ArrayList<File>();
+        Cursor cursor = new Cursor(this);
+        while (cursor.next()) {
+            if (cursor.getType() == FILE) {
+                files.add(new File(cursor.getPath()));
+            }
+        }
+        return new SimpleFileCollection(files);
+    }
+
+    public void changesSince(FileCollectionSnapshot oldSnapshot, final ChangeListener<File> listener) {
+        diff((SortedFileCollectionSnapshot) oldSnapshot, new ChangeListener<Cursor>() {
+            public void added(Cursor element) {
+                listener.added(new File(element.getPath()));
+            }
+
+            public void removed(Cursor element) {
+                listener.removed(new File(element.getPath()));
+            }
+
+            public void changed(Cursor element) {
+                listener.changed(new File(element.getPath()));
+            }
+        });
+    }
+
+    public Diff changesSince(FileCollectionSnapshot oldSnapshot) {
+        final SortedFileCollectionSnapshot other = (SortedFileCollectionSnapshot) oldSnapshot;
+        return new Diff() {
+            public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot) {
+                return applyTo(snapshot, new NoOpChangeListener<Merge>());
+            }
+
+            public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot, ChangeListener<Merge> listener) {
+                SortedFileCollectionSnapshot target = (SortedFileCollectionSnapshot) snapshot;
+                MergeChangeListener changes = new MergeChangeListener(listener);
+                diff(other, changes);
+                return target.merge(changes.entries);
+            }
+        };
+    }
+
+    /**
+     * Compares the paths and types of the given current files with this snapshot, walking both in order. Notifies the listener of the first
+     * change only.
+     *
+     * @param currentFiles The current files, keyed and sorted by absolute path.
+     * @return The current regular files, in order, when no change has been found. Their content should be compared using {@link
+     * #findFirstContentChange(java.util.List, java.util.List, org.gradle.util.ChangeListener)}. Returns null when a change has been found.
+     */
+    List<File> findFirstStructuralChange(SortedMap<String, File> currentFiles, ChangeListener<File> listener) {
+        List<File> regularFiles = new ArrayList<File>();
+        Cursor cursor = new Cursor(this);
+        boolean hasOld = cursor.next();
+        Iterator<Map.Entry<String, File>> current = currentFiles.entrySet().iterator();
+        Map.Entry<String, File> entry = current.hasNext() ? current.next() : null;
+        while (entry != null || hasOld) {
+            int comparison = entry == null ? -1 : !hasOld ? 1 : cursor.comparePathTo(entry.getKey());
+            if (comparison < 0) {
+                listener.removed(new File(cursor.getPath()));
+                return null;
+            }
+            if (comparison > 0) {
+                listener.added(entry.getValue());
+                return null;
+            }
+            if (cursor.getType() != typeOf(entry.getValue())) {
+                listener.changed(entry.getValue());
+                return null;
+            }
+            if (cursor.getType() == FILE) {
+                regularFiles.add(entry.getValue());
+            }
+            hasOld = cursor.next();
+            entry = current.hasNext() ? current.next() : null;
+        }
+        return regularFiles;
+    }
+
+    /**
+     * Compares the hashes of the given regular files with this snapshot. Notifies the listener of the first change only.
+     *
+     * @param regularFiles The regular files returned by {@link #findFirstStructuralChange(java.util.SortedMap, org.gradle.util.ChangeListener)}.
+     * @param hashes The current hashes of the files, in the same order.
+     */
+    void findFirstContentChange(List<File> regularFiles, List<byte[]> hashes, ChangeListener<File> listener) {
+        Cursor cursor = new Cursor(this);
+        int index = 0;
+        while (cursor.next()) {
+            if (cursor.getType() != FILE) {
+                continue;
+            }
+            if (!cursor.hasHash(hashes.get(index))) {
+                listener.changed(regularFiles.get(index));
+                return;
+            }
+            index++;
+        }
+    }
+
+    private static byte typeOf(File file) {
+        if (file.isFile()) {
+            return FILE;
+        }
+        if (file.isDirectory()) {
+            return DIR;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Walks this snapshot and the given old snapshot in order, notifying the listener of each entry which has been added, removed or
+     * changed. The cursor passed to the listener is only valid for the duration of the call.
+     */
+    private void diff(SortedFileCollectionSnapshot oldSnapshot, ChangeListener<Cursor> listener) {
+        Cursor current = new Cursor(this);
+        Cursor old = new Cursor(oldSnapshot);
+        boolean hasCurrent = current.next();
+        boolean hasOld = old.next();
+        while (hasCurrent || hasOld) {
+            int comparison = !hasOld ? -1 : !hasCurrent ? 1 : current.comparePathTo(old);
+            if (comparison < 0) {
+                listener.added(current);
+                hasCurrent = current.next();
+            } else if (comparison > 0) {
+                listener.removed(old);
+                hasOld = old.next();
+            } else {
+                if (!current.isUpToDate(old)) {
+                    listener.changed(current);
+                }
+                hasCurrent = current.next();
+                hasOld = old.next();
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this snapshot with the given sorted changes merged in.
+     */
+    private SortedFileCollectionSnapshot merge(List<Entry> changes) {
+        Builder builder = new Builder();
+        Cursor cursor = new Cursor(this);
+        boolean hasCurrent = cursor.next();
+        int index = 0;
+        while (hasCurrent || index < changes.size()) {
+            Entry change = index < changes.size() ? changes.get(index) : null;
+            int comparison = change == null ? -1 : !hasCurrent ? 1 : cursor.comparePathTo(change.path);
+            if (comparison < 0) {
+                builder.add(cursor.getPath(), cursor.getType(), cursor.getHash());
+                hasCurrent = cursor.next();
+            } else {
+                if (change.type != 0) {
+                    builder.add(change.path, change.type, change.hash);
+                }
+                if (comparison == 0) {
+                    hasCurrent = cursor.next();
+                }
+                index++;
+            }
+        }
+        return builder.build();
+    }
+
+    private void writeObject(ObjectOutputStream outstr) throws IOException {
+        outstr.defaultWriteObject();
+        writeInt(outstr, size);
+        writeInt(outstr, hashWidth);
+        outstr.write(types, 0, size);
+        outstr.write(hashes, 0, size * hashWidth);
+        int suffixStart = 0;
+        for (int i = 0; i < size; i++) {
+            writeInt(outstr, prefixLengths[i]);
+            outstr.writeUTF(new String(suffixChars, suffixStart, suffixEnds[i] - suffixStart));
+            suffixStart = suffixEnds[i];
+        }
+    }
+
+    private void readObject(ObjectInputStream instr) throws IOException, ClassNotFoundException {
+        instr.defaultReadObject();
+        size = readInt(instr);
+        hashWidth = readInt(instr);
+        types = new byte[size];
+        instr.readFully(types);
+        hashes = new byte[size * hashWidth];
+        instr.readFully(hashes);
+        prefixLengths = new int[size];
+        suffixEnds = new int[size];
+        StringBuilder suffixes = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            prefixLengths[i] = readInt(instr);
+            suffixes.append(instr.readUTF());
+            suffixEnds[i] = suffixes.length();
+        }
+        suffixChars = new char[suffixes.length()];
+        suffixes.getChars(0, suffixChars.length, suffixChars, 0);
+    }
+
+    private static void writeInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static boolean hashEquals(byte[] hashes, int offset, int width, byte[] otherHashes, int otherOffset, int otherWidth) {
+        int maxWidth = Math.max(width, otherWidth);
+        for (int i = 0; i < maxWidth; i++) {
+            int index = i - (maxWidth - width);
+            int otherIndex = i - (maxWidth - otherWidth);
+            byte value = index < 0 ? 0 : hashes[offset + index];
+            byte otherValue = otherIndex < 0 ? 0 : otherHashes[otherOffset + otherIndex];
+            if (value != otherValue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Iterates over the entries of a snapshot in order, decoding each path into a reusable buffer.
+     */
+    private static class Cursor {
+        private final SortedFileCollectionSnapshot snapshot;
+        private int index = -1;
+        private char[] path = new char[128];
+        private int pathLength;
+
+        Cursor(SortedFileCollectionSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        boolean next() {
+            index++;
+            if (index >= snapshot.size) {
+                return false;
+            }
+            int prefixLength = snapshot.prefixLengths[index];
+            int suffixStart = index == 0 ? 0 : snapshot.suffixEnds[index - 1];
+            int suffixLength = snapshot.suffixEnds[index] - suffixStart;
+            pathLength = prefixLength + suffixLength;
+            if (pathLength > path.length) {
+                char[] newPath = new char[Math.max(pathLength, path.length * 2)];
+                System.arraycopy(path, 0, newPath, 0, prefixLength);
+                path = newPath;
+            }
+            System.arraycopy(snapshot.suffixChars, suffixStart, path, prefixLength, suffixLength);
+            return true;
+        }
+
+        String getPath() {
+            return new String(path, 0, pathLength);
+        }
+
+        byte getType() {
+            return snapshot.types[index];
+        }
+
+        byte[] getHash() {
+            byte[] hash = new byte[snapshot.hashWidth];
+            System.arraycopy(snapshot.hashes, index * snapshot.hashWidth, hash, 0, snapshot.hashWidth);
+            return hash;
+        }
+
+        boolean isUpToDate(Cursor other) {
+            if (getType() != other.getType()) {
+                return false;
+            }
+            return getType() != FILE || hashEquals(snapshot.hashes, index * snapshot.hashWidth, snapshot.hashWidth,
+                    other.snapshot.hashes, other.index * other.snapshot.hashWidth, other.snapshot.hashWidth);
+        }
+
+        boolean hasHash(byte[] hash) {
+            return hashEquals(snapshot.hashes, index * snapshot.hashWidth, snapshot.hashWidth, hash, 0, hash.length);
+        }
+
+        int comparePathTo(Cursor other) {
+            return compare(path, pathLength, other.path, other.pathLength);
+        }
+
+        int comparePathTo(String other) {
+            int length = Math.min(pathLength, other.length());
+            for (int i = 0; i < length; i++) {
+                char c1 = path[i];
+                char c2 = other.charAt(i);
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return pathLength - other.length();
+        }
+
+        private static int compare(char[] path, int pathLength, char[] other, int otherLength) {
+            int length = Math.min(pathLength, otherLength);
+            for (int i = 0; i < length; i++) {
+                if (path[i] != other[i]) {
+                    return path[i] - other[i];
+                }
+            }
+            return pathLength - otherLength;
+        }
+    }
+
+    private static class Entry {
+        final String path;
+        final byte type;
+        final byte[] hash;
+
+        private Entry(String path, byte type, byte[] hash) {
+            this.path = path;
+            this.type = type;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Collects the changes to merge into a snapshot. A change with type 0 removes the entry.
+     */
+    private static class MergeChangeListener implements ChangeListener<Cursor> {
+        private final ChangeListener<Merge> listener;
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        private MergeChangeListener(ChangeListener<Merge> listener) {
+            this.listener = listener;
+        }
+
+        public void added(Cursor element) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.added(merge);
+            if (!merge.ignore) {
+                entries.add(new Entry(element.getPath(), element.getType(), element.getHash()));
+            }
+        }
+
+        public void removed(Cursor element) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.removed(merge);
+            if (!merge.ignore) {
+                entries.add(new Entry(element.getPath(), (byte) 0, null));
+            }
+        }
+
+        public void changed(Cursor element) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.changed(merge);
+            if (!merge.ignore) {
+                entries.add(new Entry(element.getPath(), element.getType(), element.getHash()));
+            }
+        }
+    }
+
+    private static class DefaultMerge implements Merge {
+        private boolean ignore;
+
+        public void ignore() {
+            ignore = true;
+        }
+    }
+
+    /**
+     * Builds a snapshot from entries added in any order. When the same path is added more than once, the last entry wins.
+     */
+    static class Builder {
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        void add(String path, byte type, byte[] hash) {
+            entries.add(new Entry(path, type, hash));
+        }
+
+        SortedFileCollectionSnapshot build() {
+            // Sort is stable, so the last entry for a given path remains the last after sorting
+            Collections.sort(entries, new Comparator<Entry>() {
+                public int compare(Entry entry1, Entry entry2) {
+                    return entry1.path.compareTo(entry2.path);
+                }
+            });
+
+            List<Entry> unique = new ArrayList<Entry>(entries.size());
+            int hashWidth = 0;
+            int suffixLength = 0;
+            String previous = "";
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (i + 1 < entries.size() && entries.get(i + 1).path.equals(entry.path)) {
+                    continue;
+                }
+                unique.add(entry);
+                if (entry.type == FILE) {
+                    hashWidth = Math.max(hashWidth, significantBytes(entry.hash));
+                }
+                suffixLength += entry.path.length() - commonPrefix(previous, entry.path);
+                previous = entry.path;
+            }
+
+            int size = unique.size();
+            int[] prefixLengths = new int[size];
+            int[] suffixEnds = new int[size];
+            char[] suffixChars = new char[suffixLength];
+            byte[] types = new byte[size];
+            byte[] hashes = new byte[size * hashWidth];
+            int suffixEnd = 0;
+            previous = "";
+            for (int i = 0; i < size; i++) {
+                Entry entry = unique.get(i);
+                int prefixLength = commonPrefix(previous, entry.path);
+                entry.path.getChars(prefixLength, entry.path.length(), suffixChars, suffixEnd);
+                suffixEnd += entry.path.length() - prefixLength;
+                prefixLengths[i] = prefixLength;
+                suffixEnds[i] = suffixEnd;
+                types[i] = entry.type;
+                if (entry.type == FILE) {
+                    int significant = significantBytes(entry.hash);
+                    System.arraycopy(entry.hash, entry.hash.length - significant, hashes, (i + 1) * hashWidth - significant, significant);
+                }
+                previous = entry.path;
+            }
+            return new SortedFileCollectionSnapshot(size, prefixLengths, suffixEnds, suffixChars, types, hashWidth, hashes);
+        }
+
+        private static int significantBytes(byte[] hash) {
+            int start = 0;
+            while (start < hash.length && hash[start] == 0) {
+                start++;
+            }
+            return hash.length - start;
+        }
+
+        private static int commonPrefix(String path1, String path2) {
+            int length = Math.min(path1.length(), path2.length());
+            int i = 0;
+            while (i < length && path1.charAt(i) == path2.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.gradle.api.internal.changedetection;
 
 import org.gradle.internal.Factory;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.UnitOfWorkParticipant;
 import org.gradle.messaging.serialize.Serializer;
 
 public interface TaskArtifactStateCacheAccess {
@@ -36,6 +37,22 @@ public interface TaskArtifactStateCacheAccess {
      */
     void useCache(String operationDisplayName, Runnable action);
 
+    /**
+     * Performs some work against the cache, allowing other threads of this process to use the cache at the same time. Acquires exclusive locks
+     * on the appropriate resources, so that no other process can access the cache while the action is running.
+     *
+     * <p>This method is re-entrant, so that an action can call back into this method.</p>
+     */
+    <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action);
+
+    /**
+     * Performs some work against the cache, allowing other threads of this process to use the cache at the same time. Acquires exclusive locks
+     * on the appropriate resources, so that no other process can access the cache while the action is running.
+     *
+     * <p>This method is re-entrant, so that an action can call back into this method.</p>
+     */
+    void useCacheConcurrently(String operationDisplayName, Runnable action);
+
     /**
      * Performs some long running operation. Releases all locks while the operation is running, and reacquires the locks at the end of
      * the long running operation.
@@ -44,6 +61,13 @@ public interface TaskArtifactStateCacheAccess {
      */
     void longRunningOperation(String operationDisplayName, Runnable action);
 
+    /**
+     * Adds a participant which is notified at the start and at the end of each unit of work against this cache. The participant is notified
+     * while the cache is locked, so it may use the caches created by this object. Participants must be thread-safe, as units of work started by
+     * {@link #useCacheConcurrently(String, Runnable)} may run at the same time.
+     */
+    void addUnitOfWorkParticipant(UnitOfWorkParticipant participant);
+
     <K, V> PersistentIndexedCache createCache(String cacheName, Class<K> keyType, Class<V> valueType);
 
     <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Class<K> keyType, Class<V> valueType, Serializer<V> valueSerializer);
@@ -35,6 +35,9 @@ public class TaskTypeChangedUpToDateRule implements UpToDateRule {
                 }
             }
 
+            public void snapshotBeforeTask() {
+            }
+
             public void snapshotAfterTask() {
             }
         };
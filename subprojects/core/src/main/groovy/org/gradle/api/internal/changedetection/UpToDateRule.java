@@ -39,6 +39,11 @@ public interface UpToDateRule {
          */
         void checkUpToDate(Collection<String> messages);
 
+        /**
+         * Snapshot any state before the task has executed. This method is executed only if the task is to be executed, and may not be called for a given execution.
+         */
+        void snapshotBeforeTask();
+
         /**
          * Snapshot any final state after the task has executed. This method is executed only if the task is to be executed. Any persistent state should be added to the {@link TaskExecution} object
          * passed to {@link UpToDateRule#create}.
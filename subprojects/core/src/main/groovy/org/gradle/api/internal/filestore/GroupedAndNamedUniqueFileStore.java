@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.util.hash.HashUtil;
+import org.gradle.util.hash.HashValue;
 
 import java.io.File;
 import java.util.Set;
@@ -39,11 +40,13 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
     }
 
     public FileStoreEntry move(K key, File source) {
-        return delegate.move(toPath(key, getChecksum(source)), source);
+        HashValue checksum = getChecksum(source);
+        return withChecksum(delegate.move(toPath(key, checksum.asHexString()), source), checksum);
     }
 
     public FileStoreEntry copy(K key, File source) {
-        return delegate.copy(toPath(key, getChecksum(source)), source);
+        HashValue checksum = getChecksum(source);
+        return withChecksum(delegate.copy(toPath(key, checksum.asHexString()), source), checksum);
     }
 
     public Set<? extends FileStoreEntry> search(K key) {
@@ -57,8 +60,21 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         return String.format("%s/%s/%s", group, checksumPart, name);
     }
 
-    private String getChecksum(File contentFile) {
-        return HashUtil.createHash(contentFile, "SHA1").asHexString();
+    private HashValue getChecksum(File contentFile) {
+        return HashUtil.createHash(contentFile, "SHA1");
+    }
+
+    private FileStoreEntry withChecksum(final FileStoreEntry entry, final HashValue checksum) {
+        // The checksum is already known, so don't calculate it again when asked
+        return new FileStoreEntry() {
+            public File getFile() {
+                return entry.getFile();
+            }
+
+            public HashValue getSha1() {
+                return checksum;
+            }
+        };
     }
 
     public File getTempFile() {
@@ -74,7 +90,8 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         //and reexecuting the action isn't acceptable
         final File tempFile = getTempFile();
         addAction.execute(tempFile);
-        final String groupedAndNamedKey = toPath(key, getChecksum(tempFile));
-        return delegate.move(groupedAndNamedKey, tempFile);
+        HashValue checksum = getChecksum(tempFile);
+        final String groupedAndNamedKey = toPath(key, checksum.asHexString());
+        return withChecksum(delegate.move(groupedAndNamedKey, tempFile), checksum);
     }
 }
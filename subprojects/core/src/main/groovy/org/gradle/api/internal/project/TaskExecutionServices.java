@@ -25,10 +25,14 @@ import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
 import org.gradle.execution.taskgraph.TaskPlanExecutor;
 import org.gradle.execution.taskgraph.TaskPlanExecutorFactory;
+import org.gradle.execution.taskgraph.TaskSchedulingListener;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.RandomLongIdGenerator;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.listener.ListenerManager;
+import org.gradle.util.hash.ContentHasher;
+import org.gradle.util.hash.ContentHashers;
 
 public class TaskExecutionServices extends DefaultServiceRegistry {
     private final Gradle gradle;
@@ -53,8 +57,12 @@ public class TaskExecutionServices extends DefaultServiceRegistry {
                                                         get(TaskArtifactStateRepository.class)))))));
     }
 
+    protected ContentHasher createContentHasher() {
+        return ContentHashers.forAlgorithm(System.getProperty("org.gradle.internal.changedetection.hashAlgorithm", "MD5"));
+    }
+
     protected TaskArtifactStateCacheAccess createCacheAccess() {
-        return new DefaultTaskArtifactStateCacheAccess(gradle, get(CacheRepository.class));
+        return new DefaultTaskArtifactStateCacheAccess(gradle, get(CacheRepository.class), get(ContentHasher.class).getAlgorithm());
     }
 
     protected TaskArtifactStateRepository createTaskArtifactStateRepository() {
@@ -62,8 +70,12 @@ public class TaskExecutionServices extends DefaultServiceRegistry {
 
         FileSnapshotter fileSnapshotter = new DefaultFileSnapshotter(
                 new CachingHasher(
-                        new DefaultHasher(),
-                        cacheAccess));
+                        new DefaultHasher(get(ContentHasher.class)),
+                        get(ContentHasher.class).getAlgorithm(),
+                        cacheAccess,
+                        get(InMemoryFileHashCache.class)),
+                get(ExecutorFactory.class),
+                Runtime.getRuntime().availableProcessors());
 
         FileSnapshotter outputFilesSnapshotter = new OutputFilesSnapshotter(fileSnapshotter, new RandomLongIdGenerator(), cacheAccess);
 
@@ -82,6 +94,7 @@ public class TaskExecutionServices extends DefaultServiceRegistry {
     protected TaskPlanExecutor createTaskExecutorFactory() {
         StartParameter startParameter = gradle.getStartParameter();
         TaskArtifactStateCacheAccess cacheAccess = get(TaskArtifactStateCacheAccess.class);
-        return new TaskPlanExecutorFactory(cacheAccess, startParameter.getParallelThreadCount(), get(DocumentationRegistry.class)).create();
+        TaskSchedulingListener schedulingListener = get(ListenerManager.class).getBroadcaster(TaskSchedulingListener.class);
+        return new TaskPlanExecutorFactory(cacheAccess, get(ExecutorFactory.class), startParameter.getParallelThreadCount(), get(DocumentationRegistry.class), schedulingListener).create();
     }
 }
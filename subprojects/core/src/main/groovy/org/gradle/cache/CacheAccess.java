@@ -37,6 +37,25 @@ public interface CacheAccess {
      */
     void useCache(String operationDisplayName, Runnable action);
 
+    /**
+     * Performs some work against the cache, allowing other threads of this process to use the cache at the same time. Acquires exclusive
+     * locks on the appropriate resources, so that no other process can access the cache while the action is running. Each operation on an
+     * indexed cache is atomic, but the action must provide its own synchronisation for any compound operation.
+     *
+     * <p>An action invoked by {@link #useCache(String, org.gradle.internal.Factory)} waits until all concurrent actions have completed, and
+     * waiting actions take preference over new concurrent actions.</p>
+     *
+     * <p>This method is re-entrant, so that an action can call back into this method. A call to {@link #useCache(String,
+     * org.gradle.internal.Factory)} from inside a concurrent action is also run concurrently.</p>
+     */
+    <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action);
+
+    /**
+     * Performs some work against the cache, allowing other threads of this process to use the cache at the same time. See {@link
+     * #useCacheConcurrently(String, org.gradle.internal.Factory)}.
+     */
+    void useCacheConcurrently(String operationDisplayName, Runnable action);
+
     /**
      * Performs some long running operation within an action invoked by {@link #useCache(String, org.gradle.internal.Factory)}. Releases all
      * locks while the operation is running, and reacquires the locks at the end of the long running operation.
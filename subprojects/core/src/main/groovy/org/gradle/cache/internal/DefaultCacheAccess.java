@@ -20,6 +20,9 @@ import org.gradle.cache.CacheAccess;
 import org.gradle.messaging.serialize.DefaultSerializer;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.cache.internal.btree.BlockStore;
+import org.gradle.cache.internal.btree.FileBackedBlockStore;
+import org.gradle.cache.internal.btree.MemoryMappedBlockStore;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
@@ -32,12 +35,19 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.gradle.cache.internal.FileLockManager.LockMode.Exclusive;
 
 @ThreadSafe
 public class DefaultCacheAccess implements CacheAccess {
+    /**
+     * The system property which, when set to true, makes indexed caches access their files through a {@link MemoryMappedBlockStore}.
+     */
+    public static final String MEMORY_MAPPED_PROPERTY = "org.gradle.internal.cache.memoryMapped";
+
     private final String cacheDiplayName;
     private final File lockFile;
     private final FileLockManager lockManager;
@@ -45,7 +55,12 @@ public class DefaultCacheAccess implements CacheAccess {
     private final Set<MultiProcessSafePersistentIndexedCache<?, ?>> caches = new HashSet<MultiProcessSafePersistentIndexedCache<?, ?>>();
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
+    // Serialises access to the file lock, which tracks the integrity of the cache files and is not thread-safe
+    private final ReadWriteLock fileAccessLock = new ReentrantReadWriteLock();
     private Thread owner;
+    private int sharedUsers;
+    private int ownershipWaiters;
+    private boolean sharedUsersStartedWork;
     private FileLockManager.LockMode lockMode;
     private FileLock fileLock;
     private final ThreadLocal<CacheOperationStack> operationStack = new ThreadLocal<CacheOperationStack>() {
@@ -69,7 +84,7 @@ public class DefaultCacheAccess implements CacheAccess {
     public void open(FileLockManager.LockMode lockMode) {
         lock.lock();
         try {
-            if (owner != null) {
+            if (owner != null || sharedUsers > 0) {
                 throw new IllegalStateException(String.format("Cannot open the %s, as it is already in use.", cacheDiplayName));
             }
             this.lockMode = lockMode;
@@ -92,6 +107,8 @@ public class DefaultCacheAccess implements CacheAccess {
             operationStack.remove();
             lockMode = null;
             owner = null;
+            sharedUsers = 0;
+            sharedUsersStartedWork = false;
             if (fileLock != null) {
                 try {
                     fileLock.close();
@@ -117,41 +134,71 @@ public class DefaultCacheAccess implements CacheAccess {
             throw new UnsupportedOperationException("Not implemented yet.");
         }
 
-        takeOwnership(operationDisplayName);
+        if (operationStack.get().isInSharedCacheAction()) {
+            // Already sharing the cache with other threads, so continue to do so
+            return useCacheConcurrently(operationDisplayName, factory);
+        }
+
+        boolean wasStarted = takeOwnership(operationDisplayName);
         try {
-            boolean wasStarted = onStartWork();
+            return factory.create();
+        } finally {
+            releaseOwnership(operationDisplayName, wasStarted);
+        }
+    }
+
+    public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+        useCacheConcurrently(operationDisplayName, Factories.toFactory(action));
+    }
+
+    public <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> factory) {
+        if (lockMode == FileLockManager.LockMode.Shared) {
+            throw new UnsupportedOperationException("Not implemented yet.");
+        }
+
+        if (operationStack.get().isInCacheAction()) {
+            // Already using the cache, either exclusively or shared
+            operationStack.get().pushCacheAction(operationDisplayName, operationStack.get().isInSharedCacheAction());
             try {
                 return factory.create();
             } finally {
-                if (wasStarted) {
-                    onEndWork();
-                }
+                operationStack.get().popCacheAction(operationDisplayName);
             }
+        }
+
+        joinSharedUsers(operationDisplayName);
+        try {
+            return factory.create();
         } finally {
-            releaseOwnership(operationDisplayName);
+            leaveSharedUsers(operationDisplayName);
         }
     }
 
-    private void takeOwnership(String operationDisplayName) {
+    private boolean takeOwnership(String operationDisplayName) {
         lock.lock();
         try {
-            while (owner != null && owner != Thread.currentThread()) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
+            ownershipWaiters++;
+            try {
+                while ((owner != null && owner != Thread.currentThread()) || sharedUsers > 0) {
+                    await();
                 }
+            } finally {
+                ownershipWaiters--;
             }
             owner = Thread.currentThread();
-            operationStack.get().pushCacheAction(operationDisplayName);
+            operationStack.get().pushCacheAction(operationDisplayName, false);
+            return onStartWork();
         } finally {
             lock.unlock();
         }
     }
 
-    private void releaseOwnership(String operationDisplayName) {
+    private void releaseOwnership(String operationDisplayName, boolean wasStarted) {
         lock.lock();
         try {
+            if (wasStarted) {
+                onEndWork();
+            }
             operationStack.get().popCacheAction(operationDisplayName);
             if (!operationStack.get().isInCacheAction()) {
                 owner = null;
@@ -162,6 +209,85 @@ public class DefaultCacheAccess implements CacheAccess {
         }
     }
 
+    private void joinSharedUsers(String operationDisplayName) {
+        lock.lock();
+        try {
+            awaitSharedAccess();
+            operationStack.get().pushCacheAction(operationDisplayName, true);
+            addSharedUser();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void leaveSharedUsers(String operationDisplayName) {
+        lock.lock();
+        try {
+            removeSharedUser();
+            operationStack.get().popCacheAction(operationDisplayName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void parkSharedUser(String operationDisplayName) {
+        lock.lock();
+        try {
+            removeSharedUser();
+            operationStack.get().pushLongRunningOperation(operationDisplayName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void restoreSharedUser(String operationDisplayName) {
+        lock.lock();
+        try {
+            awaitSharedAccess();
+            operationStack.get().popLongRunningOperation(operationDisplayName);
+            addSharedUser();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called while holding the lock
+    private void awaitSharedAccess() {
+        // Threads waiting for ownership go first, so that they are not starved by a steady stream of shared users
+        while (owner != null || ownershipWaiters > 0) {
+            await();
+        }
+    }
+
+    // Called while holding the lock
+    private void addSharedUser() {
+        sharedUsers++;
+        if (onStartWork()) {
+            sharedUsersStartedWork = true;
+        }
+    }
+
+    // Called while holding the lock
+    private void removeSharedUser() {
+        sharedUsers--;
+        if (sharedUsers == 0) {
+            // The last shared user releases the file lock, if the shared users acquired it
+            if (sharedUsersStartedWork) {
+                sharedUsersStartedWork = false;
+                onEndWork();
+            }
+            condition.signalAll();
+        }
+    }
+
+    private void await() {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
         if (operationStack.get().isInLongRunningOperation()) {
             operationStack.get().pushLongRunningOperation(operationDisplayName);
@@ -172,57 +298,56 @@ public class DefaultCacheAccess implements CacheAccess {
             }
         }
 
-        checkThreadIsOwner();
-        boolean wasEnded = onEndWork();
-        parkOwner(operationDisplayName);
-        try {
-            return action.create();
-        } finally {
-            restoreOwner(operationDisplayName);
-            if (wasEnded) {
-                onStartWork();
+        if (operationStack.get().isInSharedCacheAction()) {
+            parkSharedUser(operationDisplayName);
+            try {
+                return action.create();
+            } finally {
+                restoreSharedUser(operationDisplayName);
             }
         }
-    }
 
-    private void checkThreadIsOwner() {
-        lock.lock();
+        boolean wasEnded = parkOwner(operationDisplayName);
         try {
-            if (owner != Thread.currentThread()) {
-                throw new IllegalStateException(String.format("Cannot start long running operation, as the %s has not been locked.", cacheDiplayName));
-            }
+            return action.create();
         } finally {
-            lock.unlock();
+            restoreOwner(operationDisplayName, wasEnded);
         }
     }
 
-    private void parkOwner(String operationDisplayName) {
+    private boolean parkOwner(String operationDisplayName) {
         lock.lock();
         try {
             if (owner != Thread.currentThread()) {
                 throw new IllegalStateException(String.format("Cannot start long running operation, as the %s has not been locked.", cacheDiplayName));
             }
+            boolean wasEnded = onEndWork();
             owner = null;
             condition.signalAll();
 
             operationStack.get().pushLongRunningOperation(operationDisplayName);
+            return wasEnded;
         } finally {
             lock.unlock();
         }
     }
 
-    private void restoreOwner(String description) {
+    private void restoreOwner(String description, boolean wasEnded) {
         lock.lock();
         try {
-            while (owner != null) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
+            ownershipWaiters++;
+            try {
+                while (owner != null || sharedUsers > 0) {
+                    await();
                 }
+            } finally {
+                ownershipWaiters--;
             }
             owner = Thread.currentThread();
             operationStack.get().popLongRunningOperation(description);
+            if (wasEnded) {
+                onStartWork();
+            }
         } finally {
             lock.unlock();
         }
@@ -260,9 +385,17 @@ public class DefaultCacheAccess implements CacheAccess {
     }
 
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(final File cacheFile, final Serializer<K> keySerializer, final Serializer<V> valueSerializer) {
-        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, createBlockStore(cacheFile), keySerializer, valueSerializer);
     }
 
+    BlockStore createBlockStore(File cacheFile) {
+        if (Boolean.getBoolean(MEMORY_MAPPED_PROPERTY)) {
+            return new MemoryMappedBlockStore(cacheFile);
+        }
+        return new FileBackedBlockStore(cacheFile);
+    }
+
+    // Called while holding the lock
     private boolean onStartWork() {
         if (fileLock != null) {
             return false;
@@ -275,6 +408,7 @@ public class DefaultCacheAccess implements CacheAccess {
         return true;
     }
 
+    // Called while holding the lock
     private boolean onEndWork() {
         if (fileLock == null) {
             return false;
@@ -294,7 +428,7 @@ public class DefaultCacheAccess implements CacheAccess {
     private FileLock getLock() {
         lock.lock();
         try {
-            if (Thread.currentThread() != owner || fileLock == null) {
+            if ((Thread.currentThread() != owner && !operationStack.get().isInSharedCacheAction()) || fileLock == null) {
                 throw new IllegalStateException(String.format("The %s has not been locked.", cacheDiplayName));
             }
         } finally {
@@ -305,15 +439,33 @@ public class DefaultCacheAccess implements CacheAccess {
 
     private class UnitOfWorkFileAccess extends AbstractFileAccess {
         public <T> T readFile(Factory<? extends T> action) throws LockTimeoutException {
-            return getLock().readFile(action);
+            FileLock fileLock = getLock();
+            fileAccessLock.readLock().lock();
+            try {
+                return fileLock.readFile(action);
+            } finally {
+                fileAccessLock.readLock().unlock();
+            }
         }
 
         public void updateFile(Runnable action) throws LockTimeoutException {
-            getLock().updateFile(action);
+            FileLock fileLock = getLock();
+            fileAccessLock.writeLock().lock();
+            try {
+                fileLock.updateFile(action);
+            } finally {
+                fileAccessLock.writeLock().unlock();
+            }
         }
 
         public void writeFile(Runnable action) throws LockTimeoutException {
-            getLock().writeFile(action);
+            FileLock fileLock = getLock();
+            fileAccessLock.writeLock().lock();
+            try {
+                fileLock.writeFile(action);
+            } finally {
+                fileAccessLock.writeLock().unlock();
+            }
         }
     }
 
@@ -330,7 +482,7 @@ public class DefaultCacheAccess implements CacheAccess {
         }
 
         public void pushLongRunningOperation(String description) {
-            operations.add(0, new CacheOperation(description, true));
+            operations.add(0, new CacheOperation(description, true, false));
         }
 
         public void popLongRunningOperation(String description) {
@@ -341,8 +493,12 @@ public class DefaultCacheAccess implements CacheAccess {
             return !operations.isEmpty() && !operations.get(0).longRunningOperation;
         }
 
-        public void pushCacheAction(String description) {
-            operations.add(0, new CacheOperation(description, false));
+        public boolean isInSharedCacheAction() {
+            return isInCacheAction() && operations.get(0).shared;
+        }
+
+        public void pushCacheAction(String description, boolean shared) {
+            operations.add(0, new CacheOperation(description, false, shared));
         }
 
         public void popCacheAction(String description) {
@@ -368,10 +524,12 @@ public class DefaultCacheAccess implements CacheAccess {
     private class CacheOperation {
         final String description;
         final boolean longRunningOperation;
+        final boolean shared;
 
-        private CacheOperation(String description, boolean longRunningOperation) {
+        private CacheOperation(String description, boolean longRunningOperation, boolean shared) {
             this.description = description;
             this.longRunningOperation = longRunningOperation;
+            this.shared = shared;
         }
     }
 }
@@ -62,6 +62,23 @@ public class DelegateOnDemandPersistentDirectoryCache implements ReferencablePer
         });
     }
 
+    public <T> T useCacheConcurrently(final String operationDisplayName, final Factory<? extends T> action) {
+        return runWithOpenedCache(new Factory<T>() {
+            public T create() {
+                return delegateCache.useCacheConcurrently(operationDisplayName, action);
+            }
+        });
+    }
+
+    public void useCacheConcurrently(final String operationDisplayName, final Runnable action) {
+        runWithOpenedCache(new Factory<Void>() {
+            public Void create() {
+                delegateCache.useCacheConcurrently(operationDisplayName, action);
+                return null;
+            }
+        });
+    }
+
     public <T> T longRunningOperation(final String operationDisplayName, final Factory<? extends T> action) {
         return runWithOpenedCache(new Factory<T>() {
             public T create() {
@@ -53,14 +53,26 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         this(cacheFile, keySerializer, valueSerializer, (short) 512, 512);
     }
 
+    public BTreePersistentIndexedCache(File cacheFile, BlockStore backingStore, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(cacheFile, backingStore, keySerializer, valueSerializer, (short) 512, 512);
+    }
+
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, new FileBackedBlockStore(cacheFile), keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries);
+    }
+
+    /**
+     * @param backingStore The store which holds the blocks of the cache file.
+     */
+    public BTreePersistentIndexedCache(File cacheFile, BlockStore backingStore, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                       short maxChildIndexEntries, int maxFreeListEntries) {
         this.cacheFile = cacheFile;
         this.keySerializer = keySerializer;
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), IndexBlock.class, FreeListBlockStore.FreeListBlock.class);
+        BlockStore cachingStore = new CachingBlockStore(backingStore, IndexBlock.class, FreeListBlockStore.FreeListBlock.class);
         store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
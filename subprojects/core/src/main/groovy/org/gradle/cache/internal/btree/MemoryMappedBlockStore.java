@@ -0,0 +1,368 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal.btree;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link BlockStore} which maps the cache file into memory, and reads and writes blocks directly in the mapped region. Uses the same file
+ * format as {@link FileBackedBlockStore}.
+ *
+ * <p>The mapped region grows in steps ahead of the content, and the file is truncated to the length of the content when the store is closed.
+ * The region is unmapped before the file is truncated. Where the region cannot be unmapped explicitly, it is left for the garbage collector,
+ * and the file cannot be truncated while it is mapped on some platforms, such as Windows, so this store should only be used where this is
+ * supported.</p>
+ */
+public class MemoryMappedBlockStore implements BlockStore {
+    private static final int MIN_REGION_SIZE = 64 * 1024;
+    private final File cacheFile;
+    private final byte[] checksumBuffer = new byte[8192];
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long length;
+    private long nextBlock;
+    private Factory factory;
+
+    public MemoryMappedBlockStore(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache '%s'", cacheFile);
+    }
+
+    public void open(Runnable runnable, Factory factory) {
+        this.factory = factory;
+        try {
+            file = new RandomAccessFile(cacheFile, "rw");
+            channel = file.getChannel();
+            length = channel.size();
+            nextBlock = length;
+            map(length);
+            if (length == 0) {
+                runnable.run();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void close() {
+        try {
+            try {
+                // Discard the mapping before truncating away the unused end of the region
+                unmap();
+                channel.truncate(length);
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void clear() {
+        length = 0;
+        nextBlock = 0;
+        try {
+            // The region is mapped again when the next block is written
+            unmap();
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void attach(BlockPayload block) {
+        if (block.getBlock() == null) {
+            block.setBlock(new BlockImpl(block));
+        }
+    }
+
+    public void remove(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        blockImpl.detach();
+    }
+
+    public void flush() {
+    }
+
+    public <T extends BlockPayload> T readFirst(Class<T> payloadType) {
+        return read(new BlockPointer(0), payloadType);
+    }
+
+    public <T extends BlockPayload> T read(BlockPointer pos, Class<T> payloadType) {
+        assert !pos.isNull();
+        try {
+            T payload = payloadType.cast(factory.create(payloadType));
+            BlockImpl block = new BlockImpl(payload, pos);
+            block.read();
+            return payload;
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        try {
+            blockImpl.write();
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long alloc(long length) {
+        long pos = nextBlock;
+        nextBlock += length;
+        return pos;
+    }
+
+    private void map(long minSize) throws IOException {
+        long size = Math.max(MIN_REGION_SIZE, minSize);
+        if (region != null) {
+            size = Math.max(size, Math.min(2L * region.capacity(), Integer.MAX_VALUE));
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new UncheckedIOException(String.format("Cannot map %s, as it is too large.", this));
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void unmap() {
+        MappedByteBuffer mapped = region;
+        region = null;
+        if (mapped == null) {
+            return;
+        }
+        // There is no public API to release a mapping, so use the cleaner of the buffer where it is available
+        try {
+            Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(mapped);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // Not supported by this JVM. The mapping is released when the buffer is garbage collected
+        }
+    }
+
+    private ByteBuffer buffer(long start, long end) throws IOException {
+        if (region == null || end > region.capacity()) {
+            map(end);
+        }
+        ByteBuffer buffer = region.duplicate();
+        buffer.limit((int) end);
+        buffer.position((int) start);
+        return buffer;
+    }
+
+    private long checksum(ByteBuffer buffer, int start, int end) {
+        CRC32 checksum = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(end);
+        content.position(start);
+        while (content.hasRemaining()) {
+            int count = Math.min(content.remaining(), checksumBuffer.length);
+            content.get(checksumBuffer, 0, count);
+            checksum.update(checksumBuffer, 0, count);
+        }
+        return checksum.getValue();
+    }
+
+    private final class BlockImpl extends Block {
+        private static final int HEADER_SIZE = 2 + INT_SIZE;
+        private static final int TAIL_SIZE = LONG_SIZE;
+        static final int BLOCK_MARKER = 0xCC;
+
+        private BlockPointer pos;
+        private int payloadSize;
+
+        private BlockImpl(BlockPayload payload, BlockPointer pos) {
+            this(payload);
+            setPos(pos);
+        }
+
+        public BlockImpl(BlockPayload payload) {
+            super(payload);
+            pos = null;
+            payloadSize = -1;
+        }
+
+        @Override
+        public boolean hasPos() {
+            return pos != null;
+        }
+
+        @Override
+        public BlockPointer getPos() {
+            if (pos == null) {
+                pos = new BlockPointer(alloc(getSize()));
+            }
+            return pos;
+        }
+
+        @Override
+        public void setPos(BlockPointer pos) {
+            assert this.pos == null && !pos.isNull();
+            this.pos = pos;
+        }
+
+        public int getSize() {
+            if (payloadSize < 0) {
+                payloadSize = getPayload().getSize();
+            }
+            return payloadSize + HEADER_SIZE + TAIL_SIZE;
+        }
+
+        @Override
+        public void setSize(int size) {
+            int newPayloadSize = size - HEADER_SIZE - TAIL_SIZE;
+            assert newPayloadSize >= payloadSize;
+            payloadSize = newPayloadSize;
+        }
+
+        public void write() throws Exception {
+            long pos = getPos().getPos();
+            long finalSize = pos + HEADER_SIZE + TAIL_SIZE + payloadSize;
+            ByteBuffer buffer = buffer(pos, finalSize);
+
+            BlockPayload payload = getPayload();
+
+            // Write header
+            buffer.put((byte) BLOCK_MARKER);
+            buffer.put((byte) payload.getType());
+            buffer.putInt(payloadSize);
+
+            // Write body
+            DataOutputStream outputStream = new DataOutputStream(new ByteBufferOutputStream(buffer));
+            payload.write(outputStream);
+            outputStream.flush();
+
+            // Write checksum
+            buffer.putLong(checksum(buffer, (int) pos, buffer.position()));
+
+            // Pad
+            if (length < finalSize) {
+                length = finalSize;
+            }
+        }
+
+        public void read() throws Exception {
+            long pos = getPos().getPos();
+            assert pos >= 0;
+            if (pos + HEADER_SIZE >= length) {
+                throw blockCorruptedException();
+            }
+            ByteBuffer buffer = buffer(pos, length);
+
+            BlockPayload payload = getPayload();
+
+            // Read header
+            byte type = buffer.get();
+            if (type != (byte) BLOCK_MARKER) {
+                throw blockCorruptedException();
+            }
+            type = buffer.get();
+            if (type != (byte) payload.getType()) {
+                throw blockCorruptedException();
+            }
+
+            // Read body
+            payloadSize = buffer.getInt();
+            if (pos + HEADER_SIZE + TAIL_SIZE + payloadSize > length) {
+                throw blockCorruptedException();
+            }
+            payload.read(new DataInputStream(new ByteBufferInputStream(buffer)));
+
+            // Read and verify checksum
+            long actualChecksum = checksum(buffer, (int) pos, buffer.position());
+            if (buffer.remaining() < LONG_SIZE) {
+                throw blockCorruptedException();
+            }
+            long checksum = buffer.getLong();
+            if (actualChecksum != checksum) {
+                throw blockCorruptedException();
+            }
+        }
+
+        public RuntimeException blockCorruptedException() {
+            return new CorruptedCacheException(String.format("Corrupted %s found in %s.", this,
+                    MemoryMappedBlockStore.this));
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+
+    private static class ByteBufferOutputStream extends OutputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            buffer.put(bytes, offset, count);
+        }
+    }
+}
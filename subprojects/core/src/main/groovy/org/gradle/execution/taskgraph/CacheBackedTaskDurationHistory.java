@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Task;
+import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess;
+import org.gradle.cache.PersistentIndexedCache;
+
+/**
+ * Keeps task durations in the task artifact state cache. Must be used while holding the lock on that cache.
+ */
+class CacheBackedTaskDurationHistory implements TaskDurationHistory {
+    private final PersistentIndexedCache<String, Long> durations;
+
+    public CacheBackedTaskDurationHistory(TaskArtifactStateCacheAccess cacheAccess) {
+        durations = cacheAccess.createCache("taskDurations", String.class, Long.class);
+    }
+
+    public Long getPreviousDuration(Task task) {
+        return durations.get(task.getPath());
+    }
+
+    public void recordDuration(Task task, long duration) {
+        durations.put(task.getPath(), duration);
+    }
+}
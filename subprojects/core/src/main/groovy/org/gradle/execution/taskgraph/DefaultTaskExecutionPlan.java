@@ -17,6 +17,7 @@
 package org.gradle.execution.taskgraph;
 
 import org.gradle.api.CircularReferenceException;
+import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
@@ -37,9 +38,19 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     private final Lock lock = new ReentrantLock();
-    private final Condition condition = lock.newCondition();
+    private final Condition allTasksComplete = lock.newCondition();
     private final LinkedHashMap<Task, TaskInfo> executionPlan = new LinkedHashMap<Task, TaskInfo>();
+    // Tasks whose dependencies have all completed successfully, in priority order
+    private final SortedSet<TaskInfo> startableTasks = new TreeSet<TaskInfo>(new PriorityOrder());
+    // Tasks whose dependencies have all completed successfully but whose project is busy. Offered again once the project is available
+    private final Map<Project, List<TaskInfo>> tasksWaitingForProject = new HashMap<Project, List<TaskInfo>>();
+    // Tasks which cannot be started until their dependencies have completed
+    private final Set<TaskInfo> tasksWaitingForDependencies = new LinkedHashSet<TaskInfo>();
+    // Projects with a task currently executing. Only one task of a project executes at a time
+    private final Set<Project> busyProjects = new HashSet<Project>();
+    private final List<Waiter> waiters = new LinkedList<Waiter>();
     private final List<Throwable> failures = new ArrayList<Throwable>();
+    private int completeTaskCount;
     private Spec<? super Task> filter = Specs.satisfyAll();
 
     private TaskFailureHandler failureHandler = new RethrowingFailureHandler();
@@ -88,7 +99,13 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                     }
                     // else - the dependency has been filtered, so ignore it
                 }
-                executionPlan.put(task, new TaskInfo((TaskInternal) task, dependencies));
+                TaskInfo taskInfo = new TaskInfo((TaskInternal) task, dependencies, executionPlan.size());
+                executionPlan.put(task, taskInfo);
+                if (taskInfo.allDependenciesComplete()) {
+                    dependenciesComplete(taskInfo);
+                } else {
+                    tasksWaitingForDependencies.add(taskInfo);
+                }
             }
         }
     }
@@ -97,6 +114,11 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         lock.lock();
         try {
             executionPlan.clear();
+            startableTasks.clear();
+            tasksWaitingForProject.clear();
+            tasksWaitingForDependencies.clear();
+            busyProjects.clear();
+            completeTaskCount = 0;
             failures.clear();
         } finally {
             lock.unlock();
@@ -115,51 +137,118 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         this.failureHandler = handler;
     }
 
-    public TaskInfo getTaskToExecute(Spec<TaskInfo> criteria) {
+    public void prioritiseCriticalPath(TaskDurationHistory durations) {
         lock.lock();
         try {
-
-            TaskInfo nextMatching;
-            while ((nextMatching = getNextReadyAndMatching(criteria)) != null) {
-                while (!nextMatching.allDependenciesComplete()) {
-                    try {
-                        condition.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
+            // Changing the priority of a task changes its position in the queue, so take the tasks out while updating
+            List<TaskInfo> startable = new ArrayList<TaskInfo>(startableTasks);
+            startableTasks.clear();
+
+            // A task always follows its dependencies in the plan, so visit the dependents of a task before the task itself
+            List<TaskInfo> tasks = new ArrayList<TaskInfo>(executionPlan.values());
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                TaskInfo taskInfo = tasks.get(i);
+                long longestDependentPath = 0;
+                for (TaskInfo dependent : taskInfo.getDependents()) {
+                    longestDependentPath = Math.max(longestDependentPath, dependent.getEstimatedCriticalPath());
                 }
+                // Count a task without history as 1ms, so that the depth of the graph decides between such tasks
+                Long duration = durations.getPreviousDuration(taskInfo.getTask());
+                long estimatedDuration = duration == null ? 1 : Math.max(1, duration);
+                taskInfo.setEstimatedCriticalPath(estimatedDuration + longestDependentPath);
+            }
 
-                // The task state could have been modified while we waited for dependency completion. Check that it is still 'ready'.
-                if (!nextMatching.isReady()) {
-                    continue;
-                }
+            startableTasks.addAll(startable);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                if (nextMatching.allDependenciesSuccessful()) {
-                    nextMatching.startExecution();
-                    return nextMatching;
-                } else {
-                    nextMatching.skipExecution();
-                    condition.signalAll();
+    public TaskInfo getTaskToExecute(Spec<TaskInfo> criteria) {
+        lock.lock();
+        try {
+            Waiter waiter = null;
+            try {
+                while (true) {
+                    TaskInfo nextMatching = takeStartableAndMatching(criteria);
+                    if (nextMatching != null) {
+                        nextMatching.startExecution();
+                        busyProjects.add(nextMatching.getTask().getProject());
+                        return nextMatching;
+                    }
+                    if (!anyRemainingAndMatching(criteria)) {
+                        return null;
+                    }
+                    if (waiter == null) {
+                        waiter = new Waiter(criteria);
+                        waiters.add(waiter);
+                    }
+                    waiter.await();
+                }
+            } finally {
+                if (waiter != null) {
+                    waiters.remove(waiter);
                 }
             }
-
-            return null;
-
         } finally {
             lock.unlock();
         }
-
     }
 
-    private TaskInfo getNextReadyAndMatching(Spec<TaskInfo> criteria) {
-        for (TaskInfo taskInfo : executionPlan.values()) {
-            if (taskInfo.isReady() && criteria.isSatisfiedBy(taskInfo)) {
+    private TaskInfo takeStartableAndMatching(Spec<TaskInfo> criteria) {
+        for (Iterator<TaskInfo> iterator = startableTasks.iterator(); iterator.hasNext();) {
+            TaskInfo taskInfo = iterator.next();
+            if (isProjectBusy(taskInfo)) {
+                // Another task of the project started after this one became startable - park it until the project is available
+                iterator.remove();
+                waitForProject(taskInfo);
+                continue;
+            }
+            if (criteria.isSatisfiedBy(taskInfo)) {
+                iterator.remove();
+                signalWaitersIfNoTasksRemain();
                 return taskInfo;
             }
         }
         return null;
     }
 
+    private void waitForProject(TaskInfo taskInfo) {
+        Project project = taskInfo.getTask().getProject();
+        List<TaskInfo> tasks = tasksWaitingForProject.get(project);
+        if (tasks == null) {
+            tasks = new ArrayList<TaskInfo>();
+            tasksWaitingForProject.put(project, tasks);
+        }
+        tasks.add(taskInfo);
+    }
+
+    private boolean isProjectBusy(TaskInfo taskInfo) {
+        return busyProjects.contains(taskInfo.getTask().getProject());
+    }
+
+    private boolean anyRemainingAndMatching(Spec<TaskInfo> criteria) {
+        // Only called when the worker has nothing to do, so a scan of the remaining tasks is acceptable here
+        for (TaskInfo taskInfo : startableTasks) {
+            if (criteria.isSatisfiedBy(taskInfo)) {
+                return true;
+            }
+        }
+        for (List<TaskInfo> tasks : tasksWaitingForProject.values()) {
+            for (TaskInfo taskInfo : tasks) {
+                if (criteria.isSatisfiedBy(taskInfo)) {
+                    return true;
+                }
+            }
+        }
+        for (TaskInfo taskInfo : tasksWaitingForDependencies) {
+            if (criteria.isSatisfiedBy(taskInfo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void taskComplete(TaskInfo taskInfo) {
         lock.lock();
         try {
@@ -168,12 +257,78 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             }
 
             taskInfo.finishExecution();
-            condition.signalAll();
+            projectAvailable(taskInfo.getTask().getProject());
+            taskFinished(taskInfo);
         } finally {
             lock.unlock();
         }
     }
 
+    private void taskFinished(TaskInfo taskInfo) {
+        completeTaskCount++;
+        for (TaskInfo dependent : taskInfo.getDependents()) {
+            if (dependent.dependencyComplete() && dependent.isReady()) {
+                tasksWaitingForDependencies.remove(dependent);
+                dependenciesComplete(dependent);
+            }
+        }
+        if (completeTaskCount == executionPlan.size()) {
+            allTasksComplete.signalAll();
+        }
+    }
+
+    private void projectAvailable(Project project) {
+        busyProjects.remove(project);
+        List<TaskInfo> tasks = tasksWaitingForProject.remove(project);
+        if (tasks == null) {
+            return;
+        }
+        startableTasks.addAll(tasks);
+        signalWaiterFor(Collections.min(tasks, startableTasks.comparator()));
+    }
+
+    private void dependenciesComplete(TaskInfo taskInfo) {
+        if (taskInfo.allDependenciesSuccessful()) {
+            if (isProjectBusy(taskInfo)) {
+                waitForProject(taskInfo);
+            } else {
+                startableTasks.add(taskInfo);
+                signalWaiterFor(taskInfo);
+            }
+        } else {
+            skip(taskInfo);
+        }
+    }
+
+    private void skip(TaskInfo taskInfo) {
+        taskInfo.skipExecution();
+        signalWaitersIfNoTasksRemain();
+        taskFinished(taskInfo);
+    }
+
+    /**
+     * Wakes a single waiting worker which can execute the given task.
+     */
+    private void signalWaiterFor(TaskInfo taskInfo) {
+        for (Waiter waiter : waiters) {
+            if (!waiter.signalled && waiter.criteria.isSatisfiedBy(taskInfo)) {
+                waiter.signal();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wakes all waiting workers once every task has been started or skipped, so that they can finish.
+     */
+    private void signalWaitersIfNoTasksRemain() {
+        if (startableTasks.isEmpty() && tasksWaitingForProject.isEmpty() && tasksWaitingForDependencies.isEmpty()) {
+            for (Waiter waiter : waiters) {
+                waiter.signal();
+            }
+        }
+    }
+
     private void handleFailure(TaskInfo taskInfo) {
         Throwable executionFailure = taskInfo.getExecutionFailure();
         if (executionFailure != null) {
@@ -196,9 +351,12 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
     private void abortExecution() {
         // Allow currently executing tasks to complete, but skip everything else.
+        tasksWaitingForProject.clear();
         for (TaskInfo taskInfo : executionPlan.values()) {
             if (taskInfo.isReady()) {
-                taskInfo.skipExecution();
+                startableTasks.remove(taskInfo);
+                tasksWaitingForDependencies.remove(taskInfo);
+                skip(taskInfo);
             }
         }
     }
@@ -206,9 +364,9 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     public void awaitCompletion() {
         lock.lock();
         try {
-            while (!allTasksComplete()) {
+            while (completeTaskCount < executionPlan.size()) {
                 try {
-                    condition.await();
+                    allTasksComplete.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
@@ -231,18 +389,45 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         throw UncheckedException.throwAsUncheckedException(failures.get(0));
     }
 
-    private boolean allTasksComplete() {
-        for (TaskInfo taskInfo : executionPlan.values()) {
-            if (!taskInfo.isComplete()) {
-                return false;
+    private static class RethrowingFailureHandler implements TaskFailureHandler {
+        public void onTaskFailure(Task task) {
+            task.getState().rethrowFailure();
+        }
+    }
+
+    private static class PriorityOrder implements Comparator<TaskInfo> {
+        public int compare(TaskInfo taskInfo1, TaskInfo taskInfo2) {
+            if (taskInfo1.getEstimatedCriticalPath() != taskInfo2.getEstimatedCriticalPath()) {
+                return taskInfo1.getEstimatedCriticalPath() > taskInfo2.getEstimatedCriticalPath() ? -1 : 1;
             }
+            return taskInfo1.getOrdinal() - taskInfo2.getOrdinal();
         }
-        return true;
     }
 
-    private static class RethrowingFailureHandler implements TaskFailureHandler {
-        public void onTaskFailure(Task task) {
-            task.getState().rethrowFailure();
+    /**
+     * A worker which is blocked in {@link #getTaskToExecute(Spec)}. Each worker waits on its own condition, so that completing a task wakes only a worker which can execute what became startable.
+     */
+    private class Waiter {
+        private final Spec<TaskInfo> criteria;
+        private final Condition condition = lock.newCondition();
+        private boolean signalled;
+
+        private Waiter(Spec<TaskInfo> criteria) {
+            this.criteria = criteria;
+        }
+
+        void await() {
+            signalled = false;
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void signal() {
+            signalled = true;
+            condition.signal();
         }
     }
 }
@@ -21,22 +21,32 @@ import org.gradle.api.Task;
 import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.util.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Executes tasks using a fixed number of workers. Any idle worker takes the next task which is ready to execute, provided no other task of the same
+ * project is executing. This means the work of a project with many tasks is spread over the workers, rather than pinned to a single one.
+ */
 class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParallelTaskPlanExecutor.class);
 
-    private final List<Thread> executorThreads = new ArrayList<Thread>();
     private final TaskArtifactStateCacheAccess stateCacheAccess;
+    private final ExecutorFactory executorFactory;
+    private final TaskDurationHistory durationHistory;
+    private final TaskSchedulingListener schedulingListener;
     private final int executorCount;
 
-    public ParallelTaskPlanExecutor(TaskArtifactStateCacheAccess cacheAccess, int numberOfParallelExecutors) {
+    public ParallelTaskPlanExecutor(TaskArtifactStateCacheAccess cacheAccess, ExecutorFactory executorFactory, int numberOfParallelExecutors,
+                                    TaskDurationHistory durationHistory, TaskSchedulingListener schedulingListener) {
         if (numberOfParallelExecutors < 1) {
             throw new IllegalArgumentException("Not a valid number of parallel executors: " + numberOfParallelExecutors);
         }
@@ -44,61 +54,61 @@ class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
         LOGGER.info("Using {} parallel executor threads", numberOfParallelExecutors);
 
         this.stateCacheAccess = cacheAccess;
+        this.executorFactory = executorFactory;
+        this.durationHistory = durationHistory;
+        this.schedulingListener = schedulingListener;
         this.executorCount = numberOfParallelExecutors;
     }
 
     public void process(final TaskExecutionPlan taskExecutionPlan, final TaskExecutionListener taskListener) {
+        stateCacheAccess.useCache("Prioritising tasks", new Runnable() {
+            public void run() {
+                taskExecutionPlan.prioritiseCriticalPath(durationHistory);
+            }
+        });
         stateCacheAccess.longRunningOperation("Executing all tasks", new Runnable() {
             public void run() {
                 doProcess(taskExecutionPlan, taskListener);
-                // TODO This needs to wait until all tasks have been executed, not just started....
-                taskExecutionPlan.awaitCompletion();
             }
         });
     }
 
     private void doProcess(TaskExecutionPlan taskExecutionPlan, TaskExecutionListener taskListener) {
-        List<Project> projects = getAllProjects(taskExecutionPlan);
-        int numExecutors = Math.min(executorCount, projects.size());
+        // Only one task of a project executes at a time, so there is no point in having more workers than projects
+        int numExecutors = Math.min(executorCount, countProjects(taskExecutionPlan));
 
-        for (int i = 0; i < numExecutors; i++) {
-            TaskExecutorWorker worker = new TaskExecutorWorker(taskExecutionPlan, taskListener);
-
-            for (int j = i; j < projects.size(); j += numExecutors) {
-                worker.addProject(projects.get(j));
+        StoppableExecutor executor = executorFactory.create("Task worker");
+        try {
+            for (int i = 0; i < numExecutors; i++) {
+                executor.execute(new TaskExecutorWorker(taskExecutionPlan, taskListener));
             }
-
-            executorThreads.add(new Thread(worker));
-        }
-
-        for (Thread executorThread : executorThreads) {
-            // TODO A bunch more stuff to contextualise the thread
-            executorThread.start();
+            taskExecutionPlan.awaitCompletion();
+        } finally {
+            executor.stop();
         }
     }
 
-    private List<Project> getAllProjects(TaskExecutionPlan taskExecutionPlan) {
-        final Set<Project> uniqueProjects = new LinkedHashSet<Project>();
+    private int countProjects(TaskExecutionPlan taskExecutionPlan) {
+        final Set<Project> uniqueProjects = new HashSet<Project>();
         for (Task task : taskExecutionPlan.getTasks()) {
             uniqueProjects.add(task.getProject());
         }
-        return new ArrayList<Project>(uniqueProjects);
+        return uniqueProjects.size();
     }
 
     private class TaskExecutorWorker implements Runnable {
         private final TaskExecutionPlan taskExecutionPlan;
         private final TaskExecutionListener taskListener;
 
-        private final List<Project> projects = new ArrayList<Project>();
-
         private TaskExecutorWorker(TaskExecutionPlan taskExecutionPlan, TaskExecutionListener taskListener) {
             this.taskExecutionPlan = taskExecutionPlan;
             this.taskListener = taskListener;
         }
 
         public void run() {
+            Spec<TaskInfo> anyTask = Specs.satisfyAll();
             TaskInfo taskInfo;
-            while ((taskInfo = taskExecutionPlan.getTaskToExecute(getTaskSpec())) != null) {
+            while ((taskInfo = taskExecutionPlan.getTaskToExecute(anyTask)) != null) {
                 executeTaskWithCacheLock(taskInfo);
             }
 
@@ -108,24 +118,23 @@ class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
         private void executeTaskWithCacheLock(final TaskInfo taskInfo) {
             final String taskPath = taskInfo.getTask().getPath();
             LOGGER.info(taskPath + " (" + Thread.currentThread() + " - start");
-            stateCacheAccess.useCache("Executing " + taskPath, new Runnable() {
+            schedulingListener.taskScheduled(taskInfo.getTask(), taskInfo.getEstimatedCriticalPath());
+            stateCacheAccess.useCacheConcurrently("Executing " + taskPath, new Runnable() {
                 public void run() {
+                    Clock clock = new Clock();
                     processTask(taskInfo, taskExecutionPlan, taskListener);
+                    recordDuration(taskInfo, clock.getTimeInMs());
                 }
             });
             LOGGER.info(taskPath + " (" + Thread.currentThread() + ") - complete");
         }
 
-        public void addProject(Project project) {
-            projects.add(project);
-        }
-
-        private Spec<TaskInfo> getTaskSpec() {
-            return new Spec<TaskInfo>() {
-                public boolean isSatisfiedBy(TaskInfo element) {
-                    return projects.contains(element.getTask().getProject());
-                }
-            };
+        private void recordDuration(TaskInfo taskInfo, long duration) {
+            // Only a task which did its work gives a useful estimate for next time
+            TaskState state = taskInfo.getTask().getState();
+            if (!state.getSkipped() && !taskInfo.isFailed()) {
+                durationHistory.recordDuration(taskInfo.getTask(), duration);
+            }
         }
     }
 }
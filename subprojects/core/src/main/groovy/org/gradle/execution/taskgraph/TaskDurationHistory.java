@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Task;
+
+/**
+ * Provides the durations of previous task executions, which are used to estimate how long a task will take to execute.
+ */
+public interface TaskDurationHistory {
+    /**
+     * Returns the duration in milliseconds of the most recent execution of the given task, or null when the task has not executed before.
+     */
+    Long getPreviousDuration(Task task);
+
+    /**
+     * Records the duration in milliseconds of an execution of the given task.
+     */
+    void recordDuration(Task task, long duration);
+}
@@ -28,12 +28,20 @@ public interface TaskExecutionPlan {
     /**
      * Provides a ready-to-execute task that matches the specified criteria. A task is ready-to-execute if all of it's dependencies have been completed successfully.
      * If the next matching task is not ready-to-execute, this method will block until it is ready.
+     * A task is not provided while another task of the same project is executing.
      * If no tasks remain that match the criteria, null will be returned.
      * @param criteria Only tasks matching this Spec will be returned.
      * @return The next matching task, or null if no matching tasks remain.
      */
     TaskInfo getTaskToExecute(Spec<TaskInfo> criteria);
 
+    /**
+     * Estimates the critical path of each task from the previous durations of the task and the tasks which depend on it. Tasks which are ready to execute
+     * are then provided in order of the longest critical path first, rather than in plan order.
+     * @param durations The durations of previous task executions.
+     */
+    void prioritiseCriticalPath(TaskDurationHistory durations);
+
     /**
      * Signals to the plan that execution of this task has completed. Execution is complete if the task succeeds, fails, or an exception is thrown during execution.
      * @param task the completed task.
@@ -18,6 +18,8 @@ package org.gradle.execution.taskgraph;
 
 import org.gradle.api.internal.TaskInternal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 class TaskInfo {
@@ -28,13 +30,24 @@ class TaskInfo {
 
     private final TaskInternal task;
     private final Set<TaskInfo> dependencies;
+    private final List<TaskInfo> dependents = new ArrayList<TaskInfo>();
+    private final int ordinal;
+    private int incompleteDependencies;
+    private long estimatedCriticalPath;
     private TaskExecutionState state;
     private Throwable executionFailure;
 
-    public TaskInfo(TaskInternal task, Set<TaskInfo> dependencies) {
+    public TaskInfo(TaskInternal task, Set<TaskInfo> dependencies, int ordinal) {
         this.task = task;
         this.dependencies = dependencies;
+        this.ordinal = ordinal;
         this.state = TaskExecutionState.READY;
+        for (TaskInfo dependency : dependencies) {
+            dependency.dependents.add(this);
+            if (!dependency.isComplete()) {
+                incompleteDependencies++;
+            }
+        }
     }
 
     public TaskInternal getTask() {
@@ -45,6 +58,20 @@ class TaskInfo {
         return dependencies;
     }
 
+    /**
+     * Returns the tasks which depend on this task.
+     */
+    public List<TaskInfo> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * Returns the position of this task in the execution plan.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     public boolean isReady() {
         return state == TaskExecutionState.READY;
     }
@@ -89,13 +116,31 @@ class TaskInfo {
         return this.getTask().getState().getFailure();
     }
 
+    /**
+     * Returns the estimated time in milliseconds to execute this task plus the longest chain of tasks which depend on it. Tasks with a longer
+     * critical path are started first. Defaults to 0, so that tasks execute in plan order.
+     */
+    public long getEstimatedCriticalPath() {
+        return estimatedCriticalPath;
+    }
+
+    public void setEstimatedCriticalPath(long estimatedCriticalPath) {
+        this.estimatedCriticalPath = estimatedCriticalPath;
+    }
+
+    /**
+     * Signals that one of the dependencies of this task has completed.
+     *
+     * @return true if all dependencies of this task are now complete.
+     */
+    public boolean dependencyComplete() {
+        assert incompleteDependencies > 0;
+        incompleteDependencies--;
+        return incompleteDependencies == 0;
+    }
+
     public boolean allDependenciesComplete() {
-        for (TaskInfo dependency : getDependencies()) {
-            if (!dependency.isComplete()) {
-                return false;
-            }
-        }
-        return true;
+        return incompleteDependencies == 0;
     }
 
     public boolean allDependenciesSuccessful() {
@@ -19,6 +19,7 @@ package org.gradle.execution.taskgraph;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,13 +28,18 @@ public class TaskPlanExecutorFactory implements Factory<TaskPlanExecutor> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskPlanExecutorFactory.class);
 
     private final TaskArtifactStateCacheAccess taskArtifactStateCacheAccess;
+    private final ExecutorFactory executorFactory;
     private final int parallelThreads;
     private final DocumentationRegistry documentationRegistry;
+    private final TaskSchedulingListener schedulingListener;
 
-    public TaskPlanExecutorFactory(TaskArtifactStateCacheAccess taskArtifactStateCacheAccess, int parallelThreads, DocumentationRegistry documentationRegistry) {
+    public TaskPlanExecutorFactory(TaskArtifactStateCacheAccess taskArtifactStateCacheAccess, ExecutorFactory executorFactory, int parallelThreads,
+                                   DocumentationRegistry documentationRegistry, TaskSchedulingListener schedulingListener) {
         this.taskArtifactStateCacheAccess = taskArtifactStateCacheAccess;
+        this.executorFactory = executorFactory;
         this.parallelThreads = parallelThreads;
         this.documentationRegistry = documentationRegistry;
+        this.schedulingListener = schedulingListener;
     }
 
     public TaskPlanExecutor create() {
@@ -44,7 +50,8 @@ public class TaskPlanExecutorFactory implements Factory<TaskPlanExecutor> {
                     documentationRegistry.getFeatureLifecycle()
             );
             LOGGER.warn(parallelWarningMessage);
-            return new ParallelTaskPlanExecutor(taskArtifactStateCacheAccess, options.numberOfParallelThreads());
+            return new ParallelTaskPlanExecutor(taskArtifactStateCacheAccess, executorFactory, options.numberOfParallelThreads(),
+                    new CacheBackedTaskDurationHistory(taskArtifactStateCacheAccess), schedulingListener);
         }
         return new DefaultTaskPlanExecutor();
 
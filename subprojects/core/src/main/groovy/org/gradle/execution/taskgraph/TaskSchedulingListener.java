@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Task;
+
+/**
+ * Receives the decisions made when scheduling tasks for parallel execution.
+ */
+public interface TaskSchedulingListener {
+    /**
+     * Called when a task is picked for execution.
+     *
+     * @param task The task.
+     * @param estimatedCriticalPath The estimated time in milliseconds to execute the task plus the longest chain of tasks which depend on it.
+     */
+    void taskScheduled(Task task, long estimatedCriticalPath);
+}
@@ -28,6 +28,8 @@ import org.gradle.cli.CommandLineConverter;
 import org.gradle.configuration.BuildConfigurer;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.initialization.layout.BuildLayoutFactory;
+import org.gradle.internal.CompositeStoppable;
+import org.gradle.internal.Stoppable;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.invocation.DefaultGradle;
@@ -35,6 +37,7 @@ import org.gradle.listener.ListenerManager;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.logging.StyledTextOutputFactory;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ReportGeneratingProfileListener;
 
@@ -43,10 +46,11 @@ import java.util.Arrays;
 /**
  * @author Hans Dockter
  */
-public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
+public class DefaultGradleLauncherFactory implements GradleLauncherFactory, Stoppable {
     private final ServiceRegistry sharedServices;
     private final NestedBuildTracker tracker;
     private CommandLineConverter<StartParameter> commandLineConverter;
+    private boolean reuseWorkersBetweenBuilds;
 
     public DefaultGradleLauncherFactory(ServiceRegistry loggingServices) {
         this(new GlobalServicesRegistry(loggingServices));
@@ -116,7 +120,11 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             listenerManager.useLogger(new BuildLogger(Logging.getLogger(BuildLogger.class), serviceRegistry.get(StyledTextOutputFactory.class), startParameter, requestMetaData));
         }
         listenerManager.addListener(tracker);
-        listenerManager.addListener(new BuildCleanupListener(serviceRegistry));
+        if (tracker.getCurrentBuild() == null && !reuseWorkersBetweenBuilds) {
+            listenerManager.addListener(new BuildCleanupListener(CompositeStoppable.stoppable(serviceRegistry, sharedServices.get(WorkerProcessPool.class))));
+        } else {
+            listenerManager.addListener(new BuildCleanupListener(CompositeStoppable.stoppable(serviceRegistry)));
+        }
 
         listenerManager.addListener(serviceRegistry.get(ProfileEventAdapter.class));
         if (startParameter.isProfile()) {
@@ -150,16 +158,35 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         this.commandLineConverter = commandLineConverter;
     }
 
+    /**
+     * Specifies whether the worker processes kept for reuse by a build outlive that build, so that later builds run by this factory can use
+     * them. When false, which is the default, these processes are stopped when each top-level build finishes.
+     */
+    public boolean isReuseWorkersBetweenBuilds() {
+        return reuseWorkersBetweenBuilds;
+    }
+
+    public void setReuseWorkersBetweenBuilds(boolean reuseWorkersBetweenBuilds) {
+        this.reuseWorkersBetweenBuilds = reuseWorkersBetweenBuilds;
+    }
+
+    /**
+     * Stops the worker processes kept for reuse by builds run by this factory.
+     */
+    public void stop() {
+        sharedServices.get(WorkerProcessPool.class).stop();
+    }
+
     private static class BuildCleanupListener extends BuildAdapter {
-        private final TopLevelBuildServiceRegistry services;
+        private final Stoppable services;
 
-        private BuildCleanupListener(TopLevelBuildServiceRegistry services) {
+        private BuildCleanupListener(Stoppable services) {
             this.services = services;
         }
 
         @Override
         public void buildFinished(BuildResult result) {
-            services.close();
+            services.stop();
         }
     }
 
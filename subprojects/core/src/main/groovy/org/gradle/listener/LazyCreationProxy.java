@@ -42,14 +42,18 @@ public class LazyCreationProxy<T> {
         }
 
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            if (target == null) {
-                target = factory.create();
-            }
             try {
-                return method.invoke(target, args);
+                return method.invoke(getTarget(), args);
             } catch (InvocationTargetException e) {
                 throw e.getCause();
             }
         }
+
+        private synchronized Object getTarget() {
+            if (target == null) {
+                target = factory.create();
+            }
+            return target;
+        }
     }
 }
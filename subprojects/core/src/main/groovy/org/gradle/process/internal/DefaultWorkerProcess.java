@@ -24,7 +24,9 @@ import org.gradle.messaging.remote.ConnectionAcceptor;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.ExecResult;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -38,6 +40,8 @@ public class DefaultWorkerProcess implements WorkerProcess {
     private ConnectionAcceptor acceptor;
     private ExecHandle execHandle;
     private boolean running;
+    private boolean stopped;
+    private final List<Runnable> stopListeners = new ArrayList<Runnable>();
     private Throwable processFailure;
     private final long connectTimeout;
 
@@ -83,6 +87,7 @@ public class DefaultWorkerProcess implements WorkerProcess {
     }
 
     private void onProcessStop(ExecResult execResult) {
+        List<Runnable> listeners;
         lock.lock();
         try {
             try {
@@ -91,10 +96,29 @@ public class DefaultWorkerProcess implements WorkerProcess {
                 processFailure = e;
             }
             running = false;
+            stopped = true;
             condition.signalAll();
+            listeners = new ArrayList<Runnable>(stopListeners);
+            stopListeners.clear();
         } finally {
             lock.unlock();
         }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    public void addStopListener(Runnable listener) {
+        lock.lock();
+        try {
+            if (!stopped) {
+                stopListeners.add(listener);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        listener.run();
     }
 
     @Override
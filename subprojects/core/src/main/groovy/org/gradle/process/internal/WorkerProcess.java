@@ -29,4 +29,10 @@ public interface WorkerProcess {
     void start();
 
     ExecResult waitForStop();
+
+    /**
+     * Adds an action to run when the worker process stops, whether it stops normally or fails. The action is run immediately if the process has
+     * already stopped.
+     */
+    void addStopListener(Runnable listener);
 }
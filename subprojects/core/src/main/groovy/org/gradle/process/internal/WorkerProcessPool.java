@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Stoppable;
+import org.gradle.internal.TimeProvider;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps reusable worker processes which are not in use, so that a later task, in the same build or in a later build run by the same
+ * process, can use them instead of starting new worker processes. A worker is only handed out for a key equal to the key it was released with,
+ * so the key should identify the kind of worker as well as the options it was started with.
+ *
+ * <p>At most {@code maxIdleWorkers} workers are kept, and a worker is stopped once it has been idle for longer than {@code maxIdleTimeMillis}.
+ * Each worker also stops itself after twice this time, in case this process goes away without stopping it.</p>
+ *
+ * <p>This pool is one of the global services. It is stopped when the daemon stops, or at the end of each build when the build is not run by
+ * the daemon.</p>
+ */
+@ThreadSafe
+public class WorkerProcessPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WorkerProcessPool.class);
+    public static final long DEFAULT_MAX_IDLE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final int maxIdleWorkers;
+    private final long maxIdleTimeMillis;
+    private final TimeProvider timeProvider;
+    private final LinkedList<IdleWorker> idleWorkers = new LinkedList<IdleWorker>();
+
+    public WorkerProcessPool(int maxIdleWorkers, long maxIdleTimeMillis, TimeProvider timeProvider) {
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+        this.timeProvider = timeProvider;
+    }
+
+    /**
+     * Returns the time after which an idle worker process from this pool should stop itself.
+     */
+    public long getWorkerMaxIdleTimeMillis() {
+        // Longer than this pool keeps a worker, so that a worker does not stop just as it is handed out
+        return 2 * maxIdleTimeMillis;
+    }
+
+    /**
+     * Takes an idle worker which was released with the given key out of the pool.
+     *
+     * @return The worker, or null if there is no such worker.
+     */
+    @Nullable
+    public Worker acquire(Object key) {
+        List<Worker> expired = new ArrayList<Worker>();
+        Worker worker = null;
+        synchronized (this) {
+            long now = timeProvider.getCurrentTime();
+            for (Iterator<IdleWorker> iterator = idleWorkers.iterator(); iterator.hasNext();) {
+                IdleWorker idleWorker = iterator.next();
+                if (now - idleWorker.idleSince > maxIdleTimeMillis || !idleWorker.worker.isRunning()) {
+                    iterator.remove();
+                    expired.add(idleWorker.worker);
+                } else if (worker == null && idleWorker.key.equals(key)) {
+                    iterator.remove();
+                    worker = idleWorker.worker;
+                }
+            }
+        }
+        stop(expired);
+        if (worker != null) {
+            LOGGER.info("Reusing worker process.");
+        }
+        return worker;
+    }
+
+    /**
+     * Returns a worker which is no longer in use to the pool. Stops the longest idle worker when the pool is full.
+     */
+    public void release(Object key, Worker worker) {
+        List<Worker> evicted = new ArrayList<Worker>();
+        synchronized (this) {
+            idleWorkers.addLast(new IdleWorker(key, worker, timeProvider.getCurrentTime()));
+            while (idleWorkers.size() > maxIdleWorkers) {
+                evicted.add(idleWorkers.removeFirst().worker);
+            }
+        }
+        stop(evicted);
+    }
+
+    public void stop() {
+        List<Worker> workers = new ArrayList<Worker>();
+        synchronized (this) {
+            for (IdleWorker idleWorker : idleWorkers) {
+                workers.add(idleWorker.worker);
+            }
+            idleWorkers.clear();
+        }
+        stop(workers);
+    }
+
+    private void stop(List<Worker> workers) {
+        for (Worker worker : workers) {
+            try {
+                worker.stop();
+            } catch (Exception e) {
+                // The worker is no longer needed, so don't fail the build
+                LOGGER.info("Could not stop idle worker process.", e);
+            }
+        }
+    }
+
+    /**
+     * A worker process which can be kept by this pool.
+     */
+    public interface Worker extends Stoppable {
+        /**
+         * Returns true if the worker process is still running and can be used.
+         */
+        boolean isRunning();
+    }
+
+    private static class IdleWorker {
+        private final Object key;
+        private final Worker worker;
+        private final long idleSince;
+
+        private IdleWorker(Object key, Worker worker, long idleSince) {
+            this.key = key;
+            this.worker = worker;
+            this.idleSince = idleSince;
+        }
+    }
+}
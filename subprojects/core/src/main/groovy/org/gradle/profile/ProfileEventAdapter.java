@@ -27,13 +27,14 @@ import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.execution.taskgraph.TaskSchedulingListener;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.internal.TimeProvider;
 
 /**
  * Adapts various events to build a {@link BuildProfile} model, and then notifies a {@link ReportGeneratingProfileListener} when the model is ready.
  */
-public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, DependencyResolutionListener {
+public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, TaskSchedulingListener, DependencyResolutionListener {
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
@@ -100,6 +101,12 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         taskExecution.setState(state);
     }
 
+    // TaskSchedulingListener
+    public void taskScheduled(Task task, long estimatedCriticalPath) {
+        ProjectProfile projectProfile = buildProfile.getProjectProfile(task.getProject());
+        projectProfile.getTaskProfile(task).setEstimatedCriticalPath(estimatedCriticalPath);
+    }
+
     // DependencyResolutionListener
     public void beforeResolve(ResolvableDependencies dependencies) {
         DependencyResolveProfile profile = buildProfile.getDependencySetProfile(dependencies);
@@ -170,11 +170,14 @@ public class ProfileReportRenderer {
                                         .startElement("th").characters("Task").endElement()
                                         .startElement("th").attribute("class", "numeric").characters("Duration").endElement()
                                         .startElement("th").characters("Result").endElement()
+                                        .startElement("th").attribute("class", "numeric").characters("Estimated Critical Path").endElement()
                                     .endElement()
                                 .endElement();
                                 htmlWriter.startElement("tr")
                                     .startElement("td").characters("All dependencies").endElement()
                                     .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(model.getDependencySets().getElapsedTime())).endElement()
+                                    .startElement("td").endElement()
+                                    .startElement("td").endElement()
                                 .endElement();
                                 final List<ProjectProfile> projects = model.getProjects();
                                 CollectionUtils.sort(projects, new Comparator<ProjectProfile>() {
@@ -187,6 +190,7 @@ public class ProfileReportRenderer {
                                         .startElement("td").characters(project.getPath()).endElement()
                                         .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(project.getTasks().getElapsedTime())).endElement()
                                         .startElement("td").characters("(total)").endElement()
+                                        .startElement("td").endElement()
                                     .endElement();
                                     final List<TaskExecution> taskExecutions  = project.getTasks().getOperations();
                                     CollectionUtils.sort(taskExecutions, new Comparator<TaskExecution>() {
@@ -199,6 +203,7 @@ public class ProfileReportRenderer {
                                             .startElement("td").attribute("class", "identPath").characters(taskExecution.getPath()).endElement()
                                             .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(taskExecution.getElapsedTime())).endElement()
                                             .startElement("td").characters(taskExecution.getState().getSkipped() ? taskExecution.getState().getSkipMessage() : (taskExecution.getState().getDidWork()) ? "" : "Did No Work").endElement()
+                                            .startElement("td").attribute("class", "numeric").characters(taskExecution.getEstimatedCriticalPath() == null ? "" : DURATION_FORMAT.format(taskExecution.getEstimatedCriticalPath())).endElement()
                                         .endElement();
                                     }
                                 }
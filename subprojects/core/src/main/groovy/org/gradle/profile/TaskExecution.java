@@ -25,6 +25,7 @@ import org.gradle.api.tasks.TaskState;
 public class TaskExecution extends ContinuousOperation {
     private final Task task;
     private TaskState state;
+    private Long estimatedCriticalPath;
 
     public TaskExecution(Task task) {
         this.task = task;
@@ -45,4 +46,16 @@ public class TaskExecution extends ContinuousOperation {
     public void setState(TaskState state) {
         this.state = state;
     }
+
+    /**
+     * Gets the critical path estimated for this task when it was scheduled, in milliseconds.
+     * @return The estimate, or null if the task was not scheduled for parallel execution.
+     */
+    public Long getEstimatedCriticalPath() {
+        return estimatedCriticalPath;
+    }
+
+    public void setEstimatedCriticalPath(Long estimatedCriticalPath) {
+        this.estimatedCriticalPath = estimatedCriticalPath;
+    }
 }
@@ -103,6 +103,14 @@ public class InMemoryCacheFactory implements CacheFactory {
             action.run();
         }
 
+        public <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action) {
+            return action.create();
+        }
+
+        public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+            action.run();
+        }
+
         public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
             return action.create();
         }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads content through a buffer which is reused by each thread. Files are read through their {@link FileChannel}.
+ */
+abstract class AbstractContentHasher implements ContentHasher {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>();
+
+    public HashValue hash(File file) {
+        try {
+            FileInputStream instr = new FileInputStream(file);
+            ByteBuffer buffer = takeBuffer();
+            try {
+                FileChannel channel = instr.getChannel();
+                Digest digest = startDigest();
+                while (true) {
+                    buffer.clear();
+                    int nread = channel.read(buffer);
+                    if (nread < 0) {
+                        break;
+                    }
+                    digest.update(buffer.array(), 0, nread);
+                }
+                return digest.finish();
+            } finally {
+                BUFFER.set(buffer);
+                instr.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public HashValue hash(InputStream instr) {
+        ByteBuffer buffer = takeBuffer();
+        try {
+            try {
+                Digest digest = startDigest();
+                while (true) {
+                    int nread = instr.read(buffer.array());
+                    if (nread < 0) {
+                        break;
+                    }
+                    digest.update(buffer.array(), 0, nread);
+                }
+                return digest.finish();
+            } finally {
+                BUFFER.set(buffer);
+                instr.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Takes the buffer of the current thread. The buffer is handed back when hashing is complete, so a nested call allocates a buffer of its own.
+     */
+    private static ByteBuffer takeBuffer() {
+        ByteBuffer buffer = BUFFER.get();
+        if (buffer == null) {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        BUFFER.set(null);
+        return buffer;
+    }
+
+    /**
+     * Starts a new digest. The digest is used by the calling thread only.
+     */
+    protected abstract Digest startDigest();
+
+    protected interface Digest {
+        void update(byte[] bytes, int offset, int length);
+
+        HashValue finish();
+    }
+}
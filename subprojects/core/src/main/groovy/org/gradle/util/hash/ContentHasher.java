@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Calculates the hash of some content using a particular algorithm. Implementations are thread-safe.
+ */
+public interface ContentHasher {
+    /**
+     * Returns the name of the algorithm used by this hasher.
+     */
+    String getAlgorithm();
+
+    HashValue hash(File file);
+
+    /**
+     * Calculates the hash of the content of the given stream. Closes the stream.
+     */
+    HashValue hash(InputStream instr);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides the {@link ContentHasher} for a given algorithm. Supports the {@link java.security.MessageDigest} algorithms, such as "MD5" and "SHA1",
+ * plus the non-cryptographic "MURMUR3" algorithm.
+ */
+public class ContentHashers {
+    private static final ConcurrentMap<String, ContentHasher> HASHERS = new ConcurrentHashMap<String, ContentHasher>();
+
+    public static ContentHasher forAlgorithm(String algorithm) {
+        // Algorithm names are not case sensitive, and are used as a cache key by callers
+        String name = algorithm.toUpperCase(Locale.US);
+        ContentHasher hasher = HASHERS.get(name);
+        if (hasher == null) {
+            if (name.equals(Murmur3ContentHasher.ALGORITHM)) {
+                hasher = new Murmur3ContentHasher();
+            } else {
+                hasher = new MessageDigestContentHasher(name);
+            }
+            ContentHasher existing = HASHERS.putIfAbsent(name, hasher);
+            if (existing != null) {
+                hasher = existing;
+            }
+        }
+        return hasher;
+    }
+}
@@ -15,12 +15,10 @@
  */
 package org.gradle.util.hash;
 
-import org.gradle.api.UncheckedIOException;
-import org.gradle.internal.UncheckedException;
-
-import java.io.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 public class HashUtil {
     public static HashValue createHash(String scriptText, String algorithm) {
@@ -30,40 +28,15 @@ public class HashUtil {
     }
 
     public static HashValue createHash(File file, String algorithm) {
-        try {
-            return createHash(new FileInputStream(file), algorithm);
-        } catch (FileNotFoundException e) {
-            throw new UncheckedIOException(e);
-        }
+        return ContentHashers.forAlgorithm(algorithm).hash(file);
     }
 
     public static HashValue createHash(InputStream instr, String algorithm) {
-        MessageDigest messageDigest = createMessageDigest(algorithm);
-        try {
-            byte[] buffer = new byte[4096];
-            try {
-                while (true) {
-                    int nread = instr.read(buffer);
-                    if (nread < 0) {
-                        break;
-                    }
-                    messageDigest.update(buffer, 0, nread);
-                }
-            } finally {
-                instr.close();
-            }
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-        return new HashValue(messageDigest.digest());
+        return ContentHashers.forAlgorithm(algorithm).hash(instr);
     }
 
     private static MessageDigest createMessageDigest(String algorithm) {
-        try {
-            return MessageDigest.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        }
+        return MessageDigestContentHasher.createMessageDigest(algorithm);
     }
 
     public static String createCompactMD5(String scriptText) {
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash;
+
+import org.gradle.internal.UncheckedException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A {@link ContentHasher} which uses a {@link MessageDigest}, such as MD5 or SHA1. Each thread reuses its own digest instance.
+ */
+class MessageDigestContentHasher extends AbstractContentHasher {
+    private final String algorithm;
+    private final ThreadLocal<MessageDigestDigest> digests = new ThreadLocal<MessageDigestDigest>();
+
+    MessageDigestContentHasher(String algorithm) {
+        this.algorithm = algorithm;
+        // Fail early for an unknown algorithm
+        createMessageDigest(algorithm);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    protected Digest startDigest() {
+        // Take the digest of the current thread, so that a nested or failed hash operation does not share it
+        MessageDigestDigest digest = digests.get();
+        if (digest == null) {
+            return new MessageDigestDigest(createMessageDigest(algorithm));
+        }
+        digests.set(null);
+        return digest;
+    }
+
+    static MessageDigest createMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private class MessageDigestDigest implements Digest {
+        private final MessageDigest messageDigest;
+
+        private MessageDigestDigest(MessageDigest messageDigest) {
+            this.messageDigest = messageDigest;
+        }
+
+        public void update(byte[] bytes, int offset, int length) {
+            messageDigest.update(bytes, offset, length);
+        }
+
+        public HashValue finish() {
+            // digest() also resets the digest, so it can be handed back for reuse
+            HashValue hash = new HashValue(messageDigest.digest());
+            digests.set(this);
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * A {@link ContentHasher} which uses the 128 bit variant of the non-cryptographic MurmurHash3 function. This is considerably faster than MD5 or
+ * SHA1 and is suitable for detecting changes, but must not be used to verify content received from an untrusted source.
+ */
+class Murmur3ContentHasher extends AbstractContentHasher {
+    static final String ALGORITHM = "MURMUR3";
+    private final HashFunction hashFunction = Hashing.murmur3_128();
+
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    protected Digest startDigest() {
+        final Hasher hasher = hashFunction.newHasher();
+        return new Digest() {
+            public void update(byte[] bytes, int offset, int length) {
+                hasher.putBytes(bytes, offset, length);
+            }
+
+            public HashValue finish() {
+                return new HashValue(hasher.hash().asBytes());
+            }
+        };
+    }
+}
@@ -41,6 +41,7 @@ public class CachingHasherTest {
     private final PersistentIndexedCache<File, CachingHasher.FileInfo> cache = context.mock(
             PersistentIndexedCache.class);
     private final TaskArtifactStateCacheAccess cacheAccess = context.mock(TaskArtifactStateCacheAccess.class);
+    private final InMemoryFileHashCache inMemoryCache = new InMemoryFileHashCache(10);
     private final byte[] hash = "hash".getBytes();
     private final File file = tmpDir.createFile("testfile").write("content");
     private CachingHasher hasher;
@@ -50,8 +51,9 @@ public class CachingHasherTest {
         context.checking(new Expectations(){{
             one(cacheAccess).createCache(with(equalTo("fileHashes")), with(equalTo(File.class)), with(notNullValue(Class.class)), with(notNullValue(Serializer.class)));
             will(returnValue(cache));
+            one(cacheAccess).addUnitOfWorkParticipant(with(notNullValue(CachingHasher.class)));
         }});
-        hasher = new CachingHasher(delegate, cacheAccess);
+        hasher = new CachingHasher(delegate, "MD5", cacheAccess, inMemoryCache);
     }
 
     @Test
@@ -66,6 +68,7 @@ public class CachingHasherTest {
         }});
 
         assertThat(hasher.hash(file), sameInstance(hash));
+        hasher.onEndWork();
     }
 
     @Test
@@ -80,6 +83,7 @@ public class CachingHasherTest {
         }});
 
         assertThat(hasher.hash(file), sameInstance(hash));
+        hasher.onEndWork();
     }
 
     @Test
@@ -94,6 +98,7 @@ public class CachingHasherTest {
         }});
 
         assertThat(hasher.hash(file), sameInstance(hash));
+        hasher.onEndWork();
     }
 
     @Test
@@ -105,4 +110,46 @@ public class CachingHasherTest {
 
         assertThat(hasher.hash(file), sameInstance(hash));
     }
+
+    @Test
+    public void writesNewHashesToPersistentCacheAtEndOfUnitOfWork() {
+        context.checking(new Expectations() {{
+            one(cache).get(file);
+            will(returnValue(null));
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        assertThat(hasher.hash(file), sameInstance(hash));
+        assertThat(hasher.hash(file), sameInstance(hash));
+
+        context.checking(new Expectations() {{
+            one(cache).put(with(equalTo(file)), with(reflectionEquals(new CachingHasher.FileInfo(hash, file.length(),
+                    file.lastModified()))));
+        }});
+
+        hasher.onEndWork();
+        hasher.onEndWork();
+    }
+
+    @Test
+    public void usesHashesFromInMemoryCacheWithoutReadingPersistentCache() {
+        inMemoryCache.put("MD5", file, new CachingHasher.FileInfo(hash, file.length(), file.lastModified()));
+
+        assertThat(hasher.hash(file), sameInstance(hash));
+    }
+
+    @Test
+    public void doesNotUseHashesFromInMemoryCacheForAnotherAlgorithm() {
+        inMemoryCache.put("SHA1", file, new CachingHasher.FileInfo("other".getBytes(), file.length(), file.lastModified()));
+
+        context.checking(new Expectations() {{
+            one(cache).get(file);
+            will(returnValue(null));
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        assertThat(hasher.hash(file), sameInstance(hash));
+    }
 }
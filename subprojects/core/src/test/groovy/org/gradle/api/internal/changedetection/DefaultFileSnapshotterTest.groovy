@@ -17,6 +17,8 @@ package org.gradle.api.internal.changedetection
 
 import org.gradle.api.file.FileCollection
 import org.gradle.api.file.FileTree
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.messaging.serialize.DefaultSerializer
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ChangeListener
@@ -316,6 +318,113 @@ public class DefaultFileSnapshotterTest {
         target.changesSince(snapshotter.emptySnapshot(), listener)
     }
 
+    @Test
+    public void findFirstChangeNotifiesListenerOfFirstChangeOnly() {
+        TestFile file1 = tmpDir.createFile('file1')
+        TestFile file2 = tmpDir.createFile('file2')
+        TestFile file3 = tmpDir.createFile('file3')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file1, file2, file3))
+
+        snapshotter.findFirstChange(files(file3, file1, file2), snapshot, listener)
+
+        file1.write('new content')
+        file2.delete()
+        file2.createDir()
+
+        context.checking {
+            one(listener).changed(file2)
+        }
+        snapshotter.findFirstChange(files(file1, file2, file3), snapshot, listener)
+    }
+
+    @Test
+    public void findFirstChangeNotifiesListenerWhenFileAddedOrRemoved() {
+        TestFile file1 = tmpDir.createFile('file1')
+        TestFile file2 = tmpDir.createFile('file2')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file1))
+
+        context.checking {
+            one(listener).added(file2)
+        }
+        snapshotter.findFirstChange(files(file1, file2), snapshot, listener)
+
+        context.checking {
+            one(listener).removed(file1)
+        }
+        snapshotter.findFirstChange(files(), snapshot, listener)
+    }
+
+    @Test
+    public void snapshotCanBeSerialized() {
+        TestFile dir = tmpDir.createDir('dir')
+        TestFile file1 = dir.createFile('file1')
+        TestFile file2 = dir.createFile('file2')
+        TestFile noExist = dir.file('file3')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(dir, file1, file2, noExist))
+
+        ByteArrayOutputStream outstr = new ByteArrayOutputStream()
+        new ObjectOutputStream(outstr).withStream { it.writeObject(snapshot) }
+        FileCollectionSnapshot copy = new ObjectInputStream(new ByteArrayInputStream(outstr.toByteArray())).readObject()
+
+        assertThat(copy.files.files as List, equalTo([file1, file2]))
+        snapshotter.snapshot(files(dir, file1, file2, noExist)).changesSince(copy, listener)
+
+        file2.write('new content')
+
+        context.checking {
+            one(listener).changed(file2)
+        }
+        snapshotter.snapshot(files(dir, file1, file2, noExist)).changesSince(copy, listener)
+    }
+
+    @Test
+    public void hashesNewAndChangedFilesUsingWorkerThreads() {
+        DefaultFileSnapshotter parallelSnapshotter = parallelSnapshotter()
+        List<TestFile> inputs = (1..20).collect { tmpDir.createFile("file$it").write("content $it") }
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(inputs as File[]))
+
+        parallelSnapshotter.snapshot(files(inputs as File[])).changesSince(snapshot, listener)
+
+        inputs[3].write('new content')
+
+        context.checking {
+            one(listener).changed(inputs[3])
+        }
+        parallelSnapshotter.snapshot(files(inputs as File[])).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void findFirstChangeHashesFilesUsingWorkerThreads() {
+        DefaultFileSnapshotter parallelSnapshotter = parallelSnapshotter()
+        List<TestFile> inputs = (1..20).collect { tmpDir.createFile("file$it").write("content $it") }
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(inputs as File[]))
+
+        parallelSnapshotter.findFirstChange(files(inputs as File[]), snapshot, listener)
+
+        inputs[7].write('new content')
+        inputs[1].write('new content')
+
+        context.checking {
+            one(listener).changed(inputs[1])
+        }
+        parallelSnapshotter.findFirstChange(files(inputs as File[]), snapshot, listener)
+    }
+
+    private DefaultFileSnapshotter parallelSnapshotter() {
+        TaskArtifactStateCacheAccess cacheAccess = context.mock(TaskArtifactStateCacheAccess.class)
+        context.checking {
+            allowing(cacheAccess).createCache(withParam(equalTo('fileHashes')), withParam(equalTo(File)), withParam(notNullValue()), withParam(notNullValue()))
+            will(returnValue(new InMemoryIndexedCache(new DefaultSerializer())))
+            allowing(cacheAccess).addUnitOfWorkParticipant(withParam(notNullValue()))
+        }
+        return new DefaultFileSnapshotter(new CachingHasher(hasher, "MD5", cacheAccess, new InMemoryFileHashCache(100)), new DefaultExecutorFactory(), 4)
+    }
+
     private FileCollection files(File... files) {
         FileTree collection = context.mock(FileTree.class)
         context.checking {
@@ -302,6 +302,18 @@ public class DefaultTaskArtifactStateRepositoryTest {
         assertFalse(state.isUpToDate());
     }
 
+    @Test
+    public void artifactsAreNotUpToDateWhenInputFilesWereNotSnapshottedBeforeTaskExecuted() {
+        TaskInternal task = task();
+        TaskArtifactState state = repository.getStateFor(task);
+        assertFalse(state.isUpToDate());
+        task.execute();
+        state.afterTask();
+
+        state = repository.getStateFor(task());
+        assertFalse(state.isUpToDate());
+    }
+
     @Test
     public void artifactsAreNotUpToDateWhenOutputDirWhichUsedToExistHasBeenDeleted() {
         // Output dir already exists before first execution of task
@@ -452,6 +464,7 @@ public class DefaultTaskArtifactStateRepositoryTest {
 
         TaskArtifactState state = repository.getStateFor(task());
         assertFalse(state.isUpToDate());
+        state.beforeTask();
         state.afterTask();
 
         outputDirFile.write("ignore me");
@@ -520,6 +533,7 @@ public class DefaultTaskArtifactStateRepositoryTest {
         for (TaskInternal task : tasks) {
             TaskArtifactState state = repository.getStateFor(task);
             state.isUpToDate();
+            state.beforeTask();
             task.execute();
             state.afterTask();
         }
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.project;
 
 import org.gradle.api.internal.*;
+import org.gradle.api.internal.changedetection.InMemoryFileHashCache;
 import org.gradle.api.internal.classpath.DefaultModuleRegistry;
 import org.gradle.api.internal.classpath.DefaultPluginModuleRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
@@ -38,6 +39,7 @@ import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.logging.internal.DefaultLoggingManagerFactory;
 import org.gradle.logging.internal.DefaultProgressLoggerFactory;
 import org.gradle.messaging.remote.MessagingServer;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.util.ClassLoaderFactory;
 import org.gradle.util.DefaultClassLoaderFactory;
 import org.junit.Test;
@@ -125,6 +127,11 @@ public class GlobalServicesRegistryTest {
         assertThat(registry.get(FileLockManager.class), instanceOf(DefaultFileLockManager.class));
     }
 
+    @Test
+    public void providesAnInMemoryFileHashCache() {
+        assertThat(registry.get(InMemoryFileHashCache.class), notNullValue());
+    }
+
     @Test
     public void providesAProcessEnvironment() {
         assertThat(registry.get(ProcessEnvironment.class), notNullValue());
@@ -139,4 +146,9 @@ public class GlobalServicesRegistryTest {
     public void providesADocumentationRegistry() throws Exception {
         assertThat(registry.get(DocumentationRegistry.class), instanceOf(DocumentationRegistry.class));
     }
+
+    @Test
+    public void providesAWorkerProcessPool() {
+        assertThat(registry.get(WorkerProcessPool.class), instanceOf(WorkerProcessPool.class));
+    }
 }
@@ -44,6 +44,7 @@ class TaskExecutionServicesTest extends Specification {
         _ * cacheRepository.cache(!null) >> cacheBuilder
         _ * cacheBuilder.forObject(gradle) >> cacheBuilder
         _ * cacheBuilder.withDisplayName(!null) >> cacheBuilder
+        _ * cacheBuilder.withProperties(!null) >> cacheBuilder
         _ * cacheBuilder.withLockMode(!null) >> cacheBuilder
         _ * cacheBuilder.open() >> cache
 
@@ -22,6 +22,8 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+
 import static org.gradle.cache.internal.FileLockManager.LockMode.*
 
 class DefaultCacheAccessTest extends Specification {
@@ -376,6 +378,89 @@ class DefaultCacheAccessTest extends Specification {
         0 * _._
     }
 
+    def "concurrent cache actions share the lock and release it when the last action completes"() {
+        def bothStarted = new CountDownLatch(2)
+
+        given:
+        manager.open(None)
+        def cache = manager.newCache(targetFile, String, Integer)
+
+        when:
+        def other = Thread.start {
+            manager.useCacheConcurrently("other operation", {
+                bothStarted.countDown()
+                bothStarted.await()
+                canAccess cache
+            } as Runnable)
+        }
+        manager.useCacheConcurrently("some operation", {
+            bothStarted.countDown()
+            bothStarted.await()
+            canAccess cache
+        } as Runnable)
+        other.join()
+
+        then:
+        1 * lockManager.lock(lockFile, Exclusive, "<display-name>", _) >> lock
+        _ * lock.readFile(_)
+        _ * lock.writeFile(_)
+        1 * lock.close()
+        0 * _._
+    }
+
+    def "cache action from within concurrent cache action does not reacquire lock"() {
+        Factory<String> action = Mock()
+        Factory<String> nestedAction = Mock()
+
+        given:
+        manager.open(None)
+        def cache = manager.newCache(targetFile, String, Integer)
+
+        when:
+        manager.useCacheConcurrently("some operation", action)
+
+        then:
+        1 * action.create() >> {
+            manager.useCache("nested operation", nestedAction)
+            canAccess cache
+        }
+        1 * nestedAction.create() >> {
+            canAccess cache
+        }
+        1 * lockManager.lock(lockFile, Exclusive, "<display-name>", "some operation") >> lock
+        _ * lock.readFile(_)
+        _ * lock.writeFile(_)
+        1 * lock.close()
+        0 * _._
+    }
+
+    def "releases lock before long running operation within concurrent cache action and reacquires after"() {
+        Factory<String> action = Mock()
+        Factory<String> longRunningAction = Mock()
+
+        given:
+        manager.open(None)
+        def cache = manager.newCache(targetFile, String, Integer)
+
+        when:
+        manager.useCacheConcurrently("some operation", action)
+
+        then:
+        1 * action.create() >> {
+            canAccess cache
+            manager.longRunningOperation("nested", longRunningAction)
+            canAccess cache
+        }
+        1 * longRunningAction.create() >> {
+            cannotAccess cache
+        }
+        2 * lockManager.lock(lockFile, Exclusive, "<display-name>", "some operation") >> lock
+        _ * lock.readFile(_)
+        _ * lock.writeFile(_)
+        2 * lock.close()
+        0 * _._
+    }
+
     def "closes caches at the end of the cache action when initial lock mode is none"() {
         Factory<String> action = Mock()
 
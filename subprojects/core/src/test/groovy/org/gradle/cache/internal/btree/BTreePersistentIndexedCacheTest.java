@@ -258,6 +258,90 @@ public class BTreePersistentIndexedCacheTest {
         assertThat(cache.get(key2), equalTo(2));
     }
 
+    @Test
+    public void canUseMemoryMappedStore() {
+        cache.close();
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer, (short) 4, 100);
+
+        checkAdds(3, 2, 11, 5, 7, 1, 10, 8, 9, 4, 6, 0);
+        checkAddsAndRemoves(1, 2, 3, 4, 5);
+        cache.verify();
+    }
+
+    @Test
+    public void memoryMappedStoreTruncatesFileToContentOnClose() {
+        cache.close();
+        BTreePersistentIndexedCache<String, Integer> fileBacked = new BTreePersistentIndexedCache<String, Integer>(tmpDir.file("file-backed.bin"), stringSerializer, integerSerializer, (short) 4, 100);
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer, (short) 4, 100);
+
+        for (int i = 0; i < 100; i++) {
+            fileBacked.put(String.format("key_%d", i), i);
+            cache.put(String.format("key_%d", i), i);
+        }
+        fileBacked.close();
+        cache.close();
+
+        assertThat(cacheFile.length(), equalTo(tmpDir.file("file-backed.bin").length()));
+    }
+
+    @Test
+    public void memoryMappedStoreCanReadFileWrittenByFileBackedStore() {
+        checkAdds(3, 2, 11, 5, 7, 1, 10, 8, 9, 4, 6, 0);
+        cache.close();
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer, (short) 4, 100);
+        for (int i = 0; i <= 11; i++) {
+            assertThat(cache.get(String.format("key_%d", i)), equalTo(i));
+        }
+        checkAdds(12, 13, 14);
+        cache.close();
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, (short) 4, 100);
+        for (int i = 0; i <= 14; i++) {
+            assertThat(cache.get(String.format("key_%d", i)), equalTo(i));
+        }
+        cache.verify();
+    }
+
+    @Test
+    public void memoryMappedStoreHandlesBadlyFormedCacheFile() throws IOException {
+        cache.close();
+        cacheFile.write("some junk");
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer);
+
+        assertNull(cache.get("key_1"));
+        cache.put("key_1", 99);
+        cache.close();
+
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        file.setLength(file.length() - 10);
+        file.close();
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer);
+
+        assertNull(cache.get("key_1"));
+        cache.verify();
+    }
+
+    @Test
+    public void memoryMappedStoreTruncatesFileWhenCleared() {
+        cache.close();
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MemoryMappedBlockStore(cacheFile), stringSerializer, integerSerializer, (short) 4, 100);
+        checkAdds(1, 2, 3);
+        cache.close();
+
+        MemoryMappedBlockStore store = new MemoryMappedBlockStore(cacheFile);
+        store.open(new Runnable() {
+            public void run() {
+            }
+        }, null);
+        store.clear();
+        assertThat(cacheFile.length(), equalTo(0L));
+        store.close();
+        assertThat(cacheFile.length(), equalTo(0L));
+    }
+
     private void checkAdds(Integer... values) {
         checkAdds(Arrays.asList(values));
     }
@@ -27,6 +27,7 @@ import org.gradle.api.specs.Specs
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.api.tasks.TaskState
 import org.gradle.cache.PersistentIndexedCache
+import org.gradle.cache.internal.UnitOfWorkParticipant
 import org.gradle.execution.TaskFailureHandler
 import org.gradle.internal.Factory
 import org.gradle.messaging.serialize.Serializer
@@ -34,6 +35,7 @@ import org.hamcrest.Description
 import org.jmock.api.Invocation
 import spock.lang.Specification
 
+import static org.gradle.util.HelperUtil.createChildProject
 import static org.gradle.util.HelperUtil.createRootProject
 import static org.gradle.util.WrapUtil.toList
 import static org.gradle.util.WrapUtil.toSet
@@ -364,6 +366,122 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         executedTasks == [c]
     }
 
+    def "returns null when no remaining task matches criteria"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", a)
+        executionPlan.addToTaskGraph([b])
+
+        expect:
+        executionPlan.getTaskToExecute({ it.task.name == "c" } as Spec<TaskInfo>) == null
+    }
+
+    def "blocks until a matching task becomes ready to execute"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", a)
+        executionPlan.addToTaskGraph([b])
+        TaskInfo taskInfoB = null
+        def worker = new Thread({
+            taskInfoB = executionPlan.getTaskToExecute({ it.task == b } as Spec<TaskInfo>)
+        })
+
+        when:
+        worker.start()
+        def taskInfoA = executionPlan.getTaskToExecute(anyTask)
+        executionPlan.taskComplete(taskInfoA)
+        worker.join(5000)
+
+        then:
+        taskInfoA.task == a
+        taskInfoB.task == b
+    }
+
+    def "does not return a task while another task of the same project is executing"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        executionPlan.addToTaskGraph([a, b])
+        TaskInfo taskInfoB = null
+        def worker = new Thread({
+            taskInfoB = executionPlan.getTaskToExecute(anyTask)
+        })
+
+        when:
+        def taskInfoA = executionPlan.getTaskToExecute(anyTask)
+        worker.start()
+        worker.join(200)
+
+        then:
+        worker.alive
+
+        when:
+        executionPlan.taskComplete(taskInfoA)
+        worker.join(5000)
+
+        then:
+        taskInfoB.task == b
+    }
+
+    def "returns a task of another project while the tasks of a busy project wait"() {
+        given:
+        def child = createChildProject(root, "child")
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task(child, "c")
+        executionPlan.addToTaskGraph([a, b, c])
+
+        when:
+        def taskInfoA = executionPlan.getTaskToExecute(anyTask)
+        def taskInfoC = executionPlan.getTaskToExecute(anyTask)
+        executionPlan.taskComplete(taskInfoA)
+        def taskInfoB = executionPlan.getTaskToExecute(anyTask)
+        executionPlan.taskComplete(taskInfoB)
+        executionPlan.taskComplete(taskInfoC)
+
+        then:
+        taskInfoA.task == a
+        taskInfoC.task == c
+        taskInfoB.task == b
+        executionPlan.getTaskToExecute(anyTask) == null
+    }
+
+    def "returns the first ready task which matches the criteria"() {
+        given:
+        def child = createChildProject(root, "child")
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task(child, "c")
+        executionPlan.addToTaskGraph([a, b, c])
+
+        when:
+        def taskInfoB = executionPlan.getTaskToExecute({ it.task != a } as Spec<TaskInfo>)
+        def taskInfoC = executionPlan.getTaskToExecute({ it.task != a } as Spec<TaskInfo>)
+        executionPlan.taskComplete(taskInfoB)
+        executionPlan.taskComplete(taskInfoC)
+
+        then:
+        taskInfoB.task == b
+        taskInfoC.task == c
+        executedTasks == [a]
+    }
+
+    def "returns tasks with the longest estimated critical path first once prioritised"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", b)
+        executionPlan.addToTaskGraph([a, c])
+        TaskDurationHistory durations = Mock()
+        durations.getPreviousDuration(c) >> 100L
+
+        when:
+        executionPlan.prioritiseCriticalPath(durations)
+
+        then:
+        executedTasks == [b, c, a]
+    }
+
     private void dependsOn(TaskInternal task, final Task... dependsOnTasks) {
         TaskDependency taskDependency = Mock()
         task.getTaskDependencies() >> taskDependency
@@ -386,10 +504,17 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         return task;
     }
     
-    private TaskInternal createTask(final String name) {
+    private TaskInternal task(final ProjectInternal project, final String name) {
+        def task = createTask(name, project);
+        dependsOn(task);
+        task.state.getFailure() >> null
+        return task;
+    }
+
+    private TaskInternal createTask(final String name, final ProjectInternal project = root) {
         TaskInternal task = Mock()
         TaskState state = Mock()
-        task.getProject() >> root
+        task.getProject() >> project
         task.name >> name
         task.path >> ':' + name
         task.state >> state
@@ -426,6 +551,10 @@ public class DefaultTaskExecutionPlanTest extends Specification {
             action.run();
         }
 
+        public void addUnitOfWorkParticipant(UnitOfWorkParticipant participant) {
+            throw new UnsupportedOperationException();
+        }
+
         public <K, V> PersistentIndexedCache createCache(String cacheName, Class<K> keyType, Class<V> valueType) {
             throw new UnsupportedOperationException();
         }
@@ -434,6 +563,14 @@ public class DefaultTaskExecutionPlanTest extends Specification {
             throw new UnsupportedOperationException();
         }
 
+        public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+            action.run();
+        }
+
+        public <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action) {
+            throw new UnsupportedOperationException();
+        }
+
         public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Class<K> keyType, Class<V> valueType, Serializer<V> valueSerializer) {
             throw new UnsupportedOperationException();
         }
@@ -29,6 +29,7 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskDependency;
 import org.gradle.api.tasks.TaskState;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.UnitOfWorkParticipant;
 import org.gradle.execution.TaskFailureHandler;
 import org.gradle.internal.Factory;
 import org.gradle.listener.ListenerBroadcast;
@@ -565,6 +566,10 @@ public class DefaultTaskGraphExecuterTest {
             action.run();
         }
 
+        public void addUnitOfWorkParticipant(UnitOfWorkParticipant participant) {
+            throw new UnsupportedOperationException();
+        }
+
         public <K, V> PersistentIndexedCache createCache(String cacheName, Class<K> keyType, Class<V> valueType) {
             throw new UnsupportedOperationException();
         }
@@ -573,6 +578,14 @@ public class DefaultTaskGraphExecuterTest {
             throw new UnsupportedOperationException();
         }
 
+        public void useCacheConcurrently(String operationDisplayName, Runnable action) {
+            action.run();
+        }
+
+        public <T> T useCacheConcurrently(String operationDisplayName, Factory<? extends T> action) {
+            throw new UnsupportedOperationException();
+        }
+
         public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Class<K> keyType, Class<V> valueType, Serializer<V> valueSerializer) {
             throw new UnsupportedOperationException();
         }
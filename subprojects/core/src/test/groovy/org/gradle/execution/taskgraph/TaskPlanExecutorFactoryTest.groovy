@@ -18,16 +18,19 @@ package org.gradle.execution.taskgraph;
 
 
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess
+import org.gradle.internal.concurrent.ExecutorFactory
 import spock.lang.Specification
 import org.gradle.api.internal.DocumentationRegistry
 
 public class TaskPlanExecutorFactoryTest extends Specification {
     final TaskArtifactStateCacheAccess cache = Mock()
+    final ExecutorFactory executorFactory = Mock()
     final DocumentationRegistry documentationRegistry = Mock()
+    final TaskSchedulingListener schedulingListener = Mock()
 
     def "creates a default executor"() {
         when:
-        def factory = new TaskPlanExecutorFactory(cache, 0, documentationRegistry)
+        def factory = new TaskPlanExecutorFactory(cache, executorFactory, 0, documentationRegistry, schedulingListener)
 
         then:
         factory.create().class == DefaultTaskPlanExecutor
@@ -35,7 +38,7 @@ public class TaskPlanExecutorFactoryTest extends Specification {
 
     def "creates a parallel executor"() {
         when:
-        def factory = new TaskPlanExecutorFactory(cache, parallelExecuterCount, documentationRegistry)
+        def factory = new TaskPlanExecutorFactory(cache, executorFactory, parallelExecuterCount, documentationRegistry, schedulingListener)
 
         then:
         factory.create().class == ParallelTaskPlanExecutor
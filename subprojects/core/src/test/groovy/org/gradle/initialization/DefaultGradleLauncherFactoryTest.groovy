@@ -15,9 +15,11 @@
  */
 package org.gradle.initialization
 
+import org.gradle.BuildResult
 import org.gradle.GradleLauncher
 import org.gradle.StartParameter
 import org.gradle.cli.CommandLineConverter
+import org.gradle.process.internal.WorkerProcessPool
 import spock.lang.Specification
 
 class DefaultGradleLauncherFactoryTest extends Specification {
@@ -90,4 +92,36 @@ class DefaultGradleLauncherFactoryTest extends Specification {
         1 * parameterConverter.convert(['a']) >> startParameter
     }
 
+    def stopsWorkerProcessesKeptForReuseWhenTopLevelBuildFinishes() {
+        WorkerProcessPool.Worker worker = Mock()
+        _ * worker.running >> true
+        DefaultGradleLauncher launcher = factory.newInstance(new StartParameter())
+        launcher.gradle.services.get(WorkerProcessPool).release("key", worker)
+
+        when:
+        launcher.buildListener.buildFinished(new BuildResult(launcher.gradle, null))
+
+        then:
+        1 * worker.stop()
+    }
+
+    def keepsWorkerProcessesBetweenBuildsUntilStoppedWhenRequested() {
+        WorkerProcessPool.Worker worker = Mock()
+        _ * worker.running >> true
+        factory.reuseWorkersBetweenBuilds = true
+        DefaultGradleLauncher launcher = factory.newInstance(new StartParameter())
+        launcher.gradle.services.get(WorkerProcessPool).release("key", worker)
+
+        when:
+        launcher.buildListener.buildFinished(new BuildResult(launcher.gradle, null))
+
+        then:
+        0 * worker.stop()
+
+        when:
+        factory.stop()
+
+        then:
+        1 * worker.stop()
+    }
 }
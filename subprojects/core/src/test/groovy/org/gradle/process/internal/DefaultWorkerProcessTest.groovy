@@ -181,6 +181,32 @@ class DefaultWorkerProcessTest extends MultithreadedTestCase {
         workerProcess.waitForStop()
     }
 
+    @Test
+    public void notifiesStopListenersWhenProcessStops() {
+        def listener = expectAttachesListener()
+        ExecResult execResult = context.mock(ExecResult.class)
+        Runnable stopListener1 = context.mock(Runnable.class, "listener1")
+        Runnable stopListener2 = context.mock(Runnable.class, "listener2")
+
+        workerProcess.addStopListener(stopListener1)
+
+        context.checking {
+            allowing(execResult).rethrowFailure()
+            will(returnValue(execResult))
+            allowing(execResult).assertNormalExitValue()
+            will(returnValue(execResult))
+            one(stopListener1).run()
+        }
+
+        listener.executionFinished(execHandle, execResult)
+
+        context.checking {
+            one(stopListener2).run()
+        }
+
+        workerProcess.addStopListener(stopListener2)
+    }
+
     private ExecHandleListener expectAttachesListener() {
         ExecHandleListener listener
         context.checking {
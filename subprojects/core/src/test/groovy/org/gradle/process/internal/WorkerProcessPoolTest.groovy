@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal
+
+import org.gradle.internal.TimeProvider
+import spock.lang.Specification
+
+class WorkerProcessPoolTest extends Specification {
+    final TimeProvider timeProvider = Mock()
+    final WorkerProcessPool pool = new WorkerProcessPool(2, 1000, timeProvider)
+
+    def "hands out released worker for equal key"() {
+        def worker = worker()
+
+        given:
+        _ * timeProvider.currentTime >> 100
+        pool.release(["key"], worker)
+
+        expect:
+        pool.acquire(["other"]) == null
+        pool.acquire(["key"]) == worker
+        pool.acquire(["key"]) == null
+    }
+
+    def "stops worker which has been idle for too long"() {
+        def worker = worker()
+
+        given:
+        1 * timeProvider.currentTime >> 100
+        pool.release("key", worker)
+
+        when:
+        def result = pool.acquire("key")
+
+        then:
+        result == null
+        1 * timeProvider.currentTime >> 1101
+        1 * worker.stop()
+    }
+
+    def "discards worker which has stopped"() {
+        def worker = Mock(WorkerProcessPool.Worker)
+
+        given:
+        _ * timeProvider.currentTime >> 100
+        _ * worker.running >> false
+        pool.release("key", worker)
+
+        when:
+        def result = pool.acquire("key")
+
+        then:
+        result == null
+    }
+
+    def "stops longest idle worker when pool is full"() {
+        def worker1 = worker()
+        def worker2 = worker()
+        def worker3 = worker()
+
+        given:
+        _ * timeProvider.currentTime >> 100
+        pool.release("key", worker1)
+        pool.release("key", worker2)
+
+        when:
+        pool.release("key", worker3)
+
+        then:
+        1 * worker1.stop()
+        0 * worker2.stop()
+        0 * worker3.stop()
+
+        and:
+        pool.acquire("key") == worker2
+        pool.acquire("key") == worker3
+    }
+
+    def "stops idle workers when stopped"() {
+        def worker1 = worker()
+        def worker2 = worker()
+
+        given:
+        _ * timeProvider.currentTime >> 100
+        pool.release("key1", worker1)
+        pool.release("key2", worker2)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * worker1.stop()
+        1 * worker2.stop()
+
+        and:
+        pool.acquire("key1") == null
+    }
+
+    def "ignores failure to stop worker"() {
+        def worker = worker()
+
+        given:
+        _ * timeProvider.currentTime >> 100
+        pool.release("key", worker)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * worker.stop() >> { throw new RuntimeException("broken") }
+        noExceptionThrown()
+    }
+
+    def worker() {
+        WorkerProcessPool.Worker worker = Mock()
+        _ * worker.running >> true
+        return worker
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.util.hash
+package org.gradle.util.hash
+
+import com.google.common.hash.Hashing
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ContentHashersTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "hashes file and stream content using message digest"() {
+        given:
+        def file = tmpDir.file("file")
+        file.text = "hello"
+        def hasher = ContentHashers.forAlgorithm(algorithm)
+
+        expect:
+        hasher.algorithm == algorithm
+        hasher.hash(file).asHexString() == hash
+        hasher.hash(new ByteArrayInputStream("hello".bytes)).asHexString() == hash
+
+        where:
+        algorithm | hash
+        "MD5"     | "5d41402abc4b2a76b9719d911017c592"
+        "SHA1"    | "aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d"
+    }
+
+    def "hashes file and stream content using murmur3"() {
+        given:
+        def content = new byte[200 * 1024]
+        new Random(1).nextBytes(content)
+        def file = tmpDir.file("file")
+        file.bytes = content
+        def expected = new HashValue(Hashing.murmur3_128().hashBytes(content).asBytes())
+        def hasher = ContentHashers.forAlgorithm("MURMUR3")
+
+        expect:
+        hasher.hash(file) == expected
+        hasher.hash(new ByteArrayInputStream(content)) == expected
+    }
+
+    def "reuses hasher for algorithm"() {
+        expect:
+        ContentHashers.forAlgorithm("MD5").is(ContentHashers.forAlgorithm("MD5"))
+    }
+
+    def "ignores case of algorithm name"() {
+        expect:
+        ContentHashers.forAlgorithm("md5").is(ContentHashers.forAlgorithm("MD5"))
+        ContentHashers.forAlgorithm("md5").algorithm == "MD5"
+        ContentHashers.forAlgorithm("murmur3").is(ContentHashers.forAlgorithm("MURMUR3"))
+    }
+
+    def "fails for unknown algorithm"() {
+        when:
+        ContentHashers.forAlgorithm("UNKNOWN")
+
+        then:
+        thrown(Exception)
+    }
+}
@@ -101,7 +101,9 @@ public class DefaultGradleDistribution implements GradleDistribution {
     }
 
     public int getArtifactCacheLayoutVersion() {
-        if (isSameOrNewer("1.4-rc-1")) {
+        if (isSameOrNewer("1.5-rc-1")) {
+            return 24;
+        } else if (isSameOrNewer("1.4-rc-1")) {
             return 23;
         } else if (isSameOrNewer("1.3")) {
             return 15;
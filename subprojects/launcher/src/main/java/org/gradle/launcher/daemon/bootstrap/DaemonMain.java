@@ -19,6 +19,8 @@ import com.google.common.io.Files;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.initialization.DefaultGradleLauncherFactory;
+import org.gradle.internal.CompositeStoppable;
 import org.gradle.launcher.bootstrap.EntryPoint;
 import org.gradle.launcher.bootstrap.ExecutionListener;
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
@@ -117,7 +119,7 @@ public class DaemonMain extends EntryPoint {
             daemon.requestStopOnIdleTimeout(configuration.getIdleTimeout(), TimeUnit.MILLISECONDS);
             LOGGER.info("Daemon hit idle timeout (" + configuration.getIdleTimeout() + "ms), stopping...");
         } finally {
-            daemon.stop();
+            CompositeStoppable.stoppable(daemon, daemonServices.get(DefaultGradleLauncherFactory.class)).stop();
         }
     }
 
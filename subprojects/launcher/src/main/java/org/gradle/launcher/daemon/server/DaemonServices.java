@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.DefaultGradleLauncherFactory;
+import org.gradle.initialization.GradleLauncherFactory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeplatform.ProcessEnvironment;
@@ -79,6 +80,13 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
+    protected DefaultGradleLauncherFactory createGradleLauncherFactory() {
+        DefaultGradleLauncherFactory gradleLauncherFactory = new DefaultGradleLauncherFactory(loggingServices);
+        // The daemon runs many builds, so keeps worker processes for later builds until it stops
+        gradleLauncherFactory.setReuseWorkersBetweenBuilds(true);
+        return gradleLauncherFactory;
+    }
+
     protected Daemon createDaemon() {
         return new Daemon(
                 new DaemonTcpServerConnector(),
@@ -86,7 +94,7 @@ public class DaemonServices extends DefaultServiceRegistry {
                 get(DaemonContext.class),
                 "password",
                 new DefaultDaemonCommandExecuter(
-                        new DefaultGradleLauncherFactory(loggingServices),
+                        get(GradleLauncherFactory.class),
                         get(ProcessEnvironment.class),
                         loggingManager,
                         getDaemonLogFile()),
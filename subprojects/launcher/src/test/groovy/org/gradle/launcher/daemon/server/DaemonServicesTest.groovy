@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server
 
+import org.gradle.initialization.DefaultGradleLauncherFactory
 import org.gradle.internal.nativeplatform.ProcessEnvironment
 import org.gradle.launcher.daemon.configuration.DefaultDaemonServerConfiguration
 import org.gradle.launcher.daemon.registry.DaemonDir
@@ -46,4 +47,9 @@ class DaemonServicesTest extends Specification {
         expect:
         services.get(Daemon.class) != null
     }
+
+    def "makes a GradleLauncherFactory available which keeps worker processes between builds"() {
+        expect:
+        services.get(DefaultGradleLauncherFactory.class).reuseWorkersBetweenBuilds
+    }
 }
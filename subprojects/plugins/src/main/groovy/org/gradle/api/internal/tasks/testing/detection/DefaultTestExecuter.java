@@ -30,6 +30,9 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
+
+import java.util.Map;
 
 /**
  * The default test class scanner factory.
@@ -39,19 +42,24 @@ import org.gradle.process.internal.WorkerProcessBuilder;
 public class DefaultTestExecuter implements TestExecuter {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final WorkerProcessPool workerProcessPool;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, WorkerProcessPool workerProcessPool) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.workerProcessPool = workerProcessPool;
     }
 
-    public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
+    public void execute(final Test testTask, TestResultProcessor testResultProcessor, Map<String, Long> previousDurations) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        // Worker processes which are restarted or debugged are not shared with other Test tasks
+        final WorkerProcessPool workerPool = testTask.isReuseForks() && testTask.getForkEvery() == 0 && !testTask.getDebug()
+                ? workerProcessPool : null;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
+                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), workerPool);
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -61,7 +69,7 @@ public class DefaultTestExecuter implements TestExecuter {
         };
 
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
-                reforkingProcessorFactory, actorFactor);
+                reforkingProcessorFactory, actorFactor, previousDurations);
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -19,9 +19,14 @@ package org.gradle.api.internal.tasks.testing.detection;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.tasks.testing.Test;
 
+import java.util.Map;
+
 /**
  * @author Tom Eyckmans
  */
 public interface TestExecuter {
-    void execute(Test testTask, TestResultProcessor testResultProcessor);
+    /**
+     * @param previousDurations The duration of each test class in the previous run of the task, keyed by test class name.
+     */
+    void execute(Test testTask, TestResultProcessor testResultProcessor, Map<String, Long> previousDurations);
 }
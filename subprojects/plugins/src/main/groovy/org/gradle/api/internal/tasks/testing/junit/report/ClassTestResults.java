@@ -60,6 +60,13 @@ public class ClassTestResults extends CompositeTestResults {
         return results;
     }
 
+    /**
+     * Discards the results of the individual tests, once they are no longer needed. The test count, duration and failures are kept.
+     */
+    public void discardTestResults() {
+        results.clear();
+    }
+
     public TestResult addTest(String testName, long duration) {
         TestResult test = new TestResult(testName, duration, this);
         results.add(test);
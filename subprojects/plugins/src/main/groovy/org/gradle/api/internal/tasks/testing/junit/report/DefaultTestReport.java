@@ -22,6 +22,9 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.BoundedExecutor;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.util.Clock;
 
@@ -30,11 +33,25 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
 
+/**
+ * Generates the HTML test report. The page for each test class is rendered as soon as the results of the class have been read, by a number
+ * of worker threads. Only the test counts, durations and failures are kept in memory to render the overview and package pages afterwards.
+ */
 public class DefaultTestReport implements TestReporter {
     private final HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
+    // Copies no resources, so that class pages can be rendered concurrently. The resources are copied when the overview page is rendered
+    private final HtmlReportRenderer classPageHtmlRenderer = new HtmlReportRenderer();
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
+    private final ExecutorFactory executorFactory;
+    private final int maxConcurrentPages;
 
     public DefaultTestReport() {
+        this(new DefaultExecutorFactory(), Runtime.getRuntime().availableProcessors());
+    }
+
+    DefaultTestReport(ExecutorFactory executorFactory, int maxConcurrentPages) {
+        this.executorFactory = executorFactory;
+        this.maxConcurrentPages = Math.max(1, maxConcurrentPages);
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/report.js"));
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/base-style.css"));
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/css3-pie-1.0beta3.htc"));
@@ -45,33 +62,55 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Clock clock = new Clock();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        AllTestResults model = generateClassPages(resultsProvider, reportDir);
+        generateFiles(model, reportDir);
         LOG.info("Finished generating test html results (" + clock.getTime() + ")");
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
+    private AllTestResults generateClassPages(final TestResultsProvider resultsProvider, final File reportDir) {
         final AllTestResults model = new AllTestResults();
-        resultsProvider.visitClasses(new Action<TestClassResult>() {
-            public void execute(TestClassResult classResult) {
-                model.addTestClass(classResult.getClassName());
-                List<TestMethodResult> collectedResults = classResult.getResults();
-                for (TestMethodResult collectedResult : collectedResults) {
-                    final TestResult testResult = model.addTest(classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
-                    if (collectedResult.getResultType() == org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED) {
-                        testResult.ignored();
-                    } else {
-                        List<Throwable> failures = collectedResult.getExceptions();
-                        for (Throwable throwable : failures) {
-                            testResult.addFailure(throwable.getMessage(), stackTrace(throwable));
+        // Limits the number of class pages which are waiting to be rendered or being rendered, and so the number of classes whose test
+        // results are held by the model
+        final BoundedExecutor executor = new BoundedExecutor(executorFactory.create("Test report"), maxConcurrentPages);
+        try {
+            resultsProvider.visitClasses(new Action<TestClassResult>() {
+                public void execute(TestClassResult classResult) {
+                    final ClassTestResults classResults = addClass(model, classResult);
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            try {
+                                generatePage(classResults, new ClassPageRenderer(classResults.getName(), resultsProvider), new File(reportDir, classResults.getName() + ".html"), classPageHtmlRenderer);
+                                classResults.discardTestResults();
+                            } catch (Exception e) {
+                                throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
+                            }
                         }
-                    }
+                    });
                 }
-            }
-        });
+            });
+        } finally {
+            executor.stop();
+        }
         return model;
     }
 
+    private ClassTestResults addClass(AllTestResults model, TestClassResult classResult) {
+        ClassTestResults classResults = model.addTestClass(classResult.getClassName());
+        List<TestMethodResult> collectedResults = classResult.getResults();
+        for (TestMethodResult collectedResult : collectedResults) {
+            final TestResult testResult = model.addTest(classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
+            if (collectedResult.getResultType() == org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED) {
+                testResult.ignored();
+            } else {
+                List<Throwable> failures = collectedResult.getExceptions();
+                for (Throwable throwable : failures) {
+                    testResult.addFailure(throwable.getMessage(), stackTrace(throwable));
+                }
+            }
+        }
+        return classResults;
+    }
+
     private String stackTrace(Throwable throwable) {
         try {
             StringWriter stringWriter = new StringWriter();
@@ -88,21 +127,18 @@ public class DefaultTestReport implements TestReporter {
         }
     }
 
-    private void generateFiles(AllTestResults model, TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, File reportDir) {
         try {
-            generatePage(model, new OverviewPageRenderer(), new File(reportDir, "index.html"));
+            generatePage(model, new OverviewPageRenderer(), new File(reportDir, "index.html"), htmlRenderer);
             for (PackageTestResults packageResults : model.getPackages()) {
-                generatePage(packageResults, new PackagePageRenderer(), new File(reportDir, packageResults.getName() + ".html"));
-                for (ClassTestResults classResults : packageResults.getClasses()) {
-                    generatePage(classResults, new ClassPageRenderer(classResults.getName(), resultsProvider), new File(reportDir, classResults.getName() + ".html"));
-                }
+                generatePage(packageResults, new PackagePageRenderer(), new File(reportDir, packageResults.getName() + ".html"), htmlRenderer);
             }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
 
-    private <T extends CompositeTestResults> void generatePage(T model, PageRenderer<T> renderer, File outputFile) throws Exception {
+    private <T extends CompositeTestResults> void generatePage(T model, PageRenderer<T> renderer, File outputFile, HtmlReportRenderer htmlRenderer) throws Exception {
         htmlRenderer.renderer(renderer).writeTo(model, outputFile);
     }
 }
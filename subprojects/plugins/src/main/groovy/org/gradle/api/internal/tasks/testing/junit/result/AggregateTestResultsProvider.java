@@ -23,12 +23,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.Writer;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.gradle.internal.CompositeStoppable.stoppable;
 
 public class AggregateTestResultsProvider implements TestResultsProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(AggregateTestResultsProvider.class);
     private final Iterable<File> binaryResultDirs;
+    private final List<TestResultsProvider> providers = new ArrayList<TestResultsProvider>();
     private Map<String, TestResultsProvider> classOutputProviders;
 
     public AggregateTestResultsProvider(Iterable<File> binaryResultDirs) {
@@ -36,9 +41,11 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
     }
 
     public void visitClasses(final Action<? super TestClassResult> visitor) {
-        classOutputProviders = new HashMap<String, TestResultsProvider>();
+        // Read by the threads rendering the report while the classes are visited
+        classOutputProviders = new ConcurrentHashMap<String, TestResultsProvider>();
         for (File dir : binaryResultDirs) {
             final BinaryResultBackedTestResultsProvider provider = new BinaryResultBackedTestResultsProvider(dir);
+            providers.add(provider);
             provider.visitClasses(new Action<TestClassResult>() {
                 public void execute(TestClassResult classResult) {
                     if (classOutputProviders.containsKey(classResult.getClassName())) {
@@ -59,4 +66,12 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
     public void writeOutputs(String className, TestOutputEvent.Destination destination, Writer writer) {
         classOutputProviders.get(className).writeOutputs(className, destination, writer);
     }
+
+    public void close() {
+        try {
+            stoppable(providers).stop();
+        } finally {
+            providers.clear();
+        }
+    }
 }
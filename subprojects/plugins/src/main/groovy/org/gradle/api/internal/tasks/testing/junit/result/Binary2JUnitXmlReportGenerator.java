@@ -21,6 +21,9 @@ import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.BoundedExecutor;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.util.Clock;
 
 import java.io.BufferedOutputStream;
@@ -30,39 +33,64 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 
+/**
+ * Writes a JUnit XML file for each test class. The files are written by a number of worker threads, as the results of each class are read.
+ */
 public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
+    private final ExecutorFactory executorFactory;
+    private final int maxConcurrentFiles;
     JUnitXmlResultWriter saxWriter;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
 
     public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider) {
+        this(testResultsDir, testResultsProvider, new DefaultExecutorFactory(), Runtime.getRuntime().availableProcessors());
+    }
+
+    Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, ExecutorFactory executorFactory, int maxConcurrentFiles) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
+        this.executorFactory = executorFactory;
+        this.maxConcurrentFiles = Math.max(1, maxConcurrentFiles);
         this.saxWriter = new JUnitXmlResultWriter(getHostname(), testResultsProvider);
     }
 
     public void generate() {
         Clock clock = new Clock();
-        testResultsProvider.visitClasses(new Action<TestClassResult>() {
-            public void execute(TestClassResult result) {
-                File file = new File(testResultsDir, "TEST-" + result.getClassName() + ".xml");
-                OutputStream output = null;
-                try {
-                    output = new BufferedOutputStream(new FileOutputStream(file));
-                    saxWriter.write(result, output);
-                    output.close();
-                } catch (Exception e) {
-                    throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), file), e);
-                } finally {
-                    IOUtils.closeQuietly(output);
+        // Limits the number of files which are waiting to be written or being written
+        final BoundedExecutor executor = new BoundedExecutor(executorFactory.create("JUnit XML test results"), maxConcurrentFiles);
+        try {
+            testResultsProvider.visitClasses(new Action<TestClassResult>() {
+                public void execute(final TestClassResult result) {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            write(result);
+                        }
+                    });
                 }
-            }
-        });
+            });
+        } finally {
+            executor.stop();
+        }
         LOG.info("Finished generating test XML results (" + clock.getTime() + ")");
     }
 
+    private void write(TestClassResult result) {
+        File file = new File(testResultsDir, "TEST-" + result.getClassName() + ".xml");
+        OutputStream output = null;
+        try {
+            output = new BufferedOutputStream(new FileOutputStream(file));
+            saxWriter.write(result, output);
+            output.close();
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), file), e);
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+    }
+
     private static String getHostname() {
         try {
             return InetAddress.getLocalHost().getHostName();
@@ -70,4 +98,4 @@ public class Binary2JUnitXmlReportGenerator {
             return "localhost";
         }
     }
-}
\ No newline at end of file
+}
@@ -21,11 +21,15 @@ import org.gradle.api.tasks.testing.TestOutputEvent;
 
 import java.io.File;
 import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BinaryResultBackedTestResultsProvider implements TestResultsProvider {
     private final File resultsDir;
     private final TestOutputSerializer outputSerializer;
     private final TestResultSerializer resultSerializer = new TestResultSerializer();
+    private final Map<String, OutputRegions> stdOutRegions = new ConcurrentHashMap<String, OutputRegions>();
+    private final Map<String, OutputRegions> stdErrRegions = new ConcurrentHashMap<String, OutputRegions>();
 
     public BinaryResultBackedTestResultsProvider(File resultsDir) {
         this.resultsDir = resultsDir;
@@ -33,14 +37,33 @@ public class BinaryResultBackedTestResultsProvider implements TestResultsProvide
     }
 
     public boolean hasOutput(String className, TestOutputEvent.Destination destination) {
-        return outputSerializer.hasOutput(className, destination);
+        OutputRegions regions = outputRegions(destination).get(className);
+        return regions != null && !regions.isEmpty();
     }
 
     public void writeOutputs(String className, TestOutputEvent.Destination destination, Writer writer) {
-        outputSerializer.writeOutputs(className, destination, writer);
+        OutputRegions regions = outputRegions(destination).get(className);
+        if (regions != null) {
+            outputSerializer.writeOutputs(regions, writer);
+        }
     }
 
     public void visitClasses(final Action<? super TestClassResult> visitor) {
-        resultSerializer.read(resultsDir, visitor);
+        resultSerializer.read(resultsDir, new Action<TestClassResult>() {
+            public void execute(TestClassResult classResult) {
+                // Keep only where the output is, not the whole result
+                stdOutRegions.put(classResult.getClassName(), classResult.getOutput(TestOutputEvent.Destination.StdOut));
+                stdErrRegions.put(classResult.getClassName(), classResult.getOutput(TestOutputEvent.Destination.StdErr));
+                visitor.execute(classResult);
+            }
+        });
+    }
+
+    public void close() {
+        outputSerializer.close();
+    }
+
+    private Map<String, OutputRegions> outputRegions(TestOutputEvent.Destination destination) {
+        return destination == TestOutputEvent.Destination.StdOut ? stdOutRegions : stdErrRegions;
     }
 }
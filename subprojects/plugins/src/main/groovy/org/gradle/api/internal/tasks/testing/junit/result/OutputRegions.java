@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+/**
+ * The regions of the test output file which hold the output of a test class to one destination, in the order the output was written.
+ * Adjacent regions are merged.
+ */
+public class OutputRegions {
+    private long[] offsets = new long[1];
+    private long[] lengths = new long[1];
+    private int count;
+
+    public void add(long offset, long length) {
+        if (count > 0 && offsets[count - 1] + lengths[count - 1] == offset) {
+            lengths[count - 1] += length;
+            return;
+        }
+        if (count == offsets.length) {
+            offsets = copyOf(offsets, 2 * count);
+            lengths = copyOf(lengths, 2 * count);
+        }
+        offsets[count] = offset;
+        lengths[count] = length;
+        count++;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getOffset(int index) {
+        return offsets[index];
+    }
+
+    public long getLength(int index) {
+        return lengths[index];
+    }
+
+    private static long[] copyOf(long[] values, int length) {
+        long[] copy = new long[length];
+        System.arraycopy(values, 0, copy, 0, values.length);
+        return copy;
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.api.tasks.testing.TestResult;
 
 import java.util.ArrayList;
@@ -28,6 +29,8 @@ public class TestClassResult {
     private final List<TestMethodResult> methodResults = new ArrayList<TestMethodResult>();
     private final String className;
     private final long startTime;
+    private final OutputRegions stdOut = new OutputRegions();
+    private final OutputRegions stdErr = new OutputRegions();
     private int failuresCount;
 
     public TestClassResult(String className, long startTime) {
@@ -51,6 +54,13 @@ public class TestClassResult {
         return methodResults;
     }
 
+    /**
+     * Returns where the output of this test class to the given destination is held in the test output file.
+     */
+    public OutputRegions getOutput(TestOutputEvent.Destination destination) {
+        return destination == TestOutputEvent.Destination.StdOut ? stdOut : stdErr;
+    }
+
     public long getStartTime() {
         return startTime;
     }
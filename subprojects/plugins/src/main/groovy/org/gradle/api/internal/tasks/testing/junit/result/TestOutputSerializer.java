@@ -20,71 +20,155 @@ import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
- * Assembles test results. Keeps a copy of the results in memory to provide them later and spools test output to file.
+ * Spools the test output of all test classes to a single file, appending each message as it is received. Where the output of each test class
+ * is held in the file is recorded in its {@link TestClassResult}, so that the output can be read back later by seeking to these regions.
+ *
+ * <p>Output is written from one thread at a time. Once output has finished, it can be read concurrently from several threads.</p>
  *
  * by Szczepan Faber, created at: 11/13/12
  */
-public class TestOutputSerializer {
-    private final File resultsDir;
-    private final CachingFileWriter cachingFileWriter;
+public class TestOutputSerializer implements Closeable {
+    static final String OUTPUT_FILE_NAME = "output.bin";
+    private final File outputFile;
+    private OutputStream outputStream;
+    private long length;
+    private FileChannel inputChannel;
 
     public TestOutputSerializer(File resultsDir) {
-        //TODO SF calculate number of open files based on parallel forks
-        this(resultsDir, new CachingFileWriter(10));
-    }
-
-    private TestOutputSerializer(File resultsDir, CachingFileWriter cachingFileWriter) {
-        this.resultsDir = resultsDir;
-        this.cachingFileWriter = cachingFileWriter;
-    }
-
-    private File outputsFile(String className, TestOutputEvent.Destination destination) {
-        return destination == TestOutputEvent.Destination.StdOut ? standardOutputFile(className) : standardErrorFile(className);
+        this.outputFile = new File(resultsDir, OUTPUT_FILE_NAME);
     }
 
-    private File standardErrorFile(String className) {
-        return new File(resultsDir, className + ".stderr");
-    }
-
-    private File standardOutputFile(String className) {
-        return new File(resultsDir, className + ".stdout");
+    public synchronized void onOutput(TestClassResult classResult, TestOutputEvent.Destination destination, String message) {
+        try {
+            if (outputStream == null) {
+                outputStream = new BufferedOutputStream(new FileOutputStream(outputFile, true));
+                length = outputFile.length();
+            }
+            byte[] bytes = message.getBytes("UTF-8");
+            outputStream.write(bytes);
+            classResult.getOutput(destination).add(length, bytes.length);
+            length += bytes.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not write test output to %s.", outputFile), e);
+        }
     }
 
-    public boolean hasOutput(String className, TestOutputEvent.Destination destination){
-        return outputsFile(className, destination).exists();
+    public synchronized void finishOutputs() {
+        if (outputStream == null) {
+            return;
+        }
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not write test output to %s.", outputFile), e);
+        } finally {
+            outputStream = null;
+        }
     }
 
-    public void writeOutputs(String className, TestOutputEvent.Destination destination, Writer writer) {
-        final File file = outputsFile(className, destination);
-        if (!file.exists()) {
+    /**
+     * Writes the output held in the given regions to the given writer.
+     */
+    public void writeOutputs(OutputRegions regions, Writer writer) {
+        if (regions.isEmpty()) {
             return;
         }
         try {
-            Reader reader = new InputStreamReader(new BufferedInputStream(new FileInputStream(file)), "UTF-8");
-            try {
-                char[] buffer = new char[2048];
+            FileChannel channel = getInputChannel();
+            char[] buffer = new char[2048];
+            for (int i = 0; i < regions.getCount(); i++) {
+                // Each region holds complete messages, so can be decoded on its own
+                Reader reader = new InputStreamReader(new RegionInputStream(channel, regions.getOffset(i), regions.getLength(i)), "UTF-8");
                 while (true) {
                     int read = reader.read(buffer);
                     if (read < 0) {
-                        return;
+                        break;
                     }
                     writer.write(buffer, 0, read);
                 }
-            } finally {
-                reader.close();
             }
         } catch (IOException e) {
-            throw new UncheckedIOException(e);
+            throw new UncheckedIOException(String.format("Could not read test output from %s.", outputFile), e);
         }
     }
 
-    public void finishOutputs() {
-        cachingFileWriter.closeAll();
+    private synchronized FileChannel getInputChannel() throws IOException {
+        if (inputChannel == null) {
+            inputChannel = new RandomAccessFile(outputFile, "r").getChannel();
+        }
+        return inputChannel;
     }
 
-    public void onOutput(String className, TestOutputEvent.Destination destination, String message) {
-        cachingFileWriter.write(outputsFile(className, destination), message);
+    public synchronized void close() {
+        try {
+            finishOutputs();
+            if (inputChannel != null) {
+                inputChannel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not close %s.", outputFile), e);
+        } finally {
+            inputChannel = null;
+        }
+    }
+
+    /**
+     * Reads a region of a file using positional reads, so that several regions can be read from the same channel concurrently.
+     */
+    private static class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        private long position;
+        private long remaining;
+
+        private RegionInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = length;
+            buffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            while (!buffer.hasRemaining()) {
+                if (remaining == 0) {
+                    return false;
+                }
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of test output file.");
+                }
+                buffer.flip();
+                position += read;
+                remaining -= read;
+            }
+            return true;
+        }
     }
-}
\ No newline at end of file
+}
@@ -25,7 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Assembles test results. Keeps a copy of the results in memory to provide them later and spools test output to file.
+ * Assembles test results. Keeps a copy of the results in memory to provide them later and spools test output to a single file.
  *
  * by Szczepan Faber, created at: 11/13/12
  */
@@ -87,7 +87,7 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
             classResult = new TestClassResult(className, 0);
             results.put(className, classResult);
         }
-        outputSerializer.onOutput(className, outputEvent.getDestination(), outputEvent.getMessage());
+        outputSerializer.onOutput(classResult, outputEvent.getDestination(), outputEvent.getMessage());
     }
 
     public void visitClasses(Action<? super TestClassResult> visitor) {
@@ -97,10 +97,18 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
     }
 
     public boolean hasOutput(String className, TestOutputEvent.Destination destination) {
-        return outputSerializer.hasOutput(className, destination);
+        TestClassResult classResult = results.get(className);
+        return classResult != null && !classResult.getOutput(destination).isEmpty();
     }
 
     public void writeOutputs(String className, TestOutputEvent.Destination destination, Writer writer) {
-        outputSerializer.writeOutputs(className, destination, writer);
+        TestClassResult classResult = results.get(className);
+        if (classResult != null) {
+            outputSerializer.writeOutputs(classResult.getOutput(destination), writer);
+        }
+    }
+
+    public void close() {
+        outputSerializer.close();
     }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.gradle.api.Action;
 import org.gradle.api.UncheckedIOException;
+import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.remote.internal.Message;
@@ -27,10 +28,12 @@ import org.gradle.messaging.remote.internal.Message;
 import java.io.*;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TestResultSerializer {
-    private static final int RESULT_VERSION = 1;
+    private static final int RESULT_VERSION = 2;
     private static final String RESULTS_FILE_NAME = "results.bin";
 
     public void write(Collection<TestClassResult> results, File outputDir) {
@@ -63,6 +66,16 @@ public class TestResultSerializer {
         for (TestMethodResult methodResult : classResult.getResults()) {
             write(methodResult, output);
         }
+        write(classResult.getOutput(TestOutputEvent.Destination.StdOut), output);
+        write(classResult.getOutput(TestOutputEvent.Destination.StdErr), output);
+    }
+
+    private void write(OutputRegions regions, Output output) {
+        output.writeInt(regions.getCount(), true);
+        for (int i = 0; i < regions.getCount(); i++) {
+            output.writeLong(regions.getOffset(i), true);
+            output.writeLong(regions.getLength(i), true);
+        }
     }
 
     private void write(TestMethodResult methodResult, Output output) throws IOException {
@@ -80,7 +93,7 @@ public class TestResultSerializer {
 
     public void read(File inputDir, Action<? super TestClassResult> visitor) {
         try {
-            InputStream inputStream = new FileInputStream(new File(inputDir, "results.bin"));
+            InputStream inputStream = new FileInputStream(new File(inputDir, RESULTS_FILE_NAME));
             try {
                 Input input = new Input(inputStream);
                 int version = input.readInt(true);
@@ -96,6 +109,28 @@ public class TestResultSerializer {
         }
     }
 
+    /**
+     * Returns the duration of each test class in the results in the given directory, keyed by class name. Returns an empty map when there are
+     * no results, or they cannot be read.
+     */
+    public Map<String, Long> readDurations(File inputDir) {
+        if (!new File(inputDir, RESULTS_FILE_NAME).isFile()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Long> durations = new HashMap<String, Long>();
+        try {
+            read(inputDir, new Action<TestClassResult>() {
+                public void execute(TestClassResult classResult) {
+                    durations.put(classResult.getClassName(), classResult.getDuration());
+                }
+            });
+        } catch (Exception e) {
+            // Written by a different version, or damaged. The durations are only used to schedule the test classes
+            return Collections.emptyMap();
+        }
+        return durations;
+    }
+
     private void readResults(Input input, Action<? super TestClassResult> visitor) throws ClassNotFoundException, IOException {
         int classCount = input.readInt(true);
         for (int i = 0; i < classCount; i++) {
@@ -113,9 +148,20 @@ public class TestResultSerializer {
             TestMethodResult methodResult = readMethodResult(input);
             result.add(methodResult);
         }
+        readOutputRegions(input, result.getOutput(TestOutputEvent.Destination.StdOut));
+        readOutputRegions(input, result.getOutput(TestOutputEvent.Destination.StdErr));
         return result;
     }
 
+    private void readOutputRegions(Input input, OutputRegions regions) {
+        int count = input.readInt(true);
+        for (int i = 0; i < count; i++) {
+            long offset = input.readLong(true);
+            long length = input.readLong(true);
+            regions.add(offset, length);
+        }
+    }
+
     private TestMethodResult readMethodResult(Input input) throws ClassNotFoundException, IOException {
         String name = input.readString();
         TestResult.ResultType resultType = TestResult.ResultType.values()[input.readInt(true)];
@@ -19,12 +19,15 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 import org.gradle.api.Action;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 
+import java.io.Closeable;
 import java.io.Writer;
 
 /**
+ * Provides the results of a test run. Should be closed once the results are no longer needed.
+ *
  * by Szczepan Faber, created at: 11/16/12
  */
-public interface TestResultsProvider {
+public interface TestResultsProvider extends Closeable {
     /**
      * Writes the output of the given test to the given writer. This method must be called only after {@link #visitClasses(org.gradle.api.Action)}.
      */
@@ -36,4 +39,9 @@ public interface TestResultsProvider {
     void visitClasses(Action<? super TestClassResult> visitor);
 
     boolean hasOutput(String className, TestOutputEvent.Destination destination);
+
+    /**
+     * Releases the files held open to read the test output.
+     */
+    void close();
 }
@@ -26,27 +26,47 @@ import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.dispatch.DispatchException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Test classes are queued, and each processor takes the next test class from the queue once it
+ * has finished with its current test class. The queue hands out the test classes which took the longest in a previous run first, so that the
+ * long running test classes do not end up running on their own at the end. Test classes with no previous duration are handed out before
+ * these, in the order they are received.
+ *
+ * <p>A processor is started when a test class is queued and there is no idle processor to take it, until there are {@code maxProcessors}
+ * processors.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> expectedDurations;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Queue<QueuedTestClass> queue = new PriorityQueue<QueuedTestClass>();
+    private long received;
+    private int idleProcessors;
+    private boolean stopping;
     private TestResultProcessor resultProcessor;
-    private int pos;
-    private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * @param expectedDurations The duration of each test class in a previous run, keyed by test class name.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> expectedDurations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.expectedDurations = expectedDurations;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
@@ -55,26 +75,120 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
-        TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
+        Long expectedDuration = expectedDurations.get(testClass.getTestClassName());
+        boolean startProcessor;
+        lock.lock();
+        try {
+            queue.add(new QueuedTestClass(testClass, expectedDuration, received++));
+            startProcessor = queue.size() > idleProcessors && actors.size() < maxProcessors;
+            if (startProcessor) {
+                idleProcessors++;
+            }
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (startProcessor) {
+            Actor actor = actorFactory.createActor(new QueueConsumer(factory.create()));
             actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
-        } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            actor.getProxy(Runnable.class).run();
         }
-        processor.processTestClass(testClass);
     }
 
     public void stop() {
+        lock.lock();
+        try {
+            stopping = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
         try {
-            CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
+            // Each processor stops once the queue is empty
+            CompositeStoppable.stoppable(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
     }
+
+    /**
+     * Returns the next test class to process, blocking until one is queued. Returns null when there are no more test classes.
+     */
+    private TestClassRunInfo takeNext() {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !stopping) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (queue.isEmpty()) {
+                return null;
+            }
+            idleProcessors--;
+            return queue.remove().testClass;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void idle() {
+        lock.lock();
+        try {
+            idleProcessors++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class QueueConsumer implements Runnable {
+        private final TestClassProcessor processor;
+
+        private QueueConsumer(TestClassProcessor processor) {
+            this.processor = processor;
+        }
+
+        public void run() {
+            processor.startProcessing(resultProcessor);
+            try {
+                TestClassRunInfo testClass;
+                while ((testClass = takeNext()) != null) {
+                    processor.processTestClass(testClass);
+                    idle();
+                }
+            } finally {
+                processor.stop();
+            }
+        }
+    }
+
+    private static class QueuedTestClass implements Comparable<QueuedTestClass> {
+        private final TestClassRunInfo testClass;
+        private final Long expectedDuration;
+        private final long sequence;
+
+        private QueuedTestClass(TestClassRunInfo testClass, Long expectedDuration, long sequence) {
+            this.testClass = testClass;
+            this.expectedDuration = expectedDuration;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(QueuedTestClass other) {
+            if (expectedDuration == null || other.expectedDuration == null) {
+                if (expectedDuration != null) {
+                    return 1;
+                }
+                if (other.expectedDuration != null) {
+                    return -1;
+                }
+            } else if (!expectedDuration.equals(other.expectedDuration)) {
+                return expectedDuration > other.expectedDuration ? -1 : 1;
+            }
+            return sequence == other.sequence ? 0 : sequence < other.sequence ? -1 : 1;
+        }
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessPool;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The build process end of a test worker process. The test results from the worker are forwarded to the result processor of the Test task which
+ * is currently using the worker. A reusable worker can be used by one Test task after another.
+ */
+public class ForkedTestWorker implements WorkerProcessPool.Worker {
+    private final WorkerProcess workerProcess;
+    private final boolean reusable;
+    private final RemoteTestClassProcessor remoteProcessor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private TestResultProcessor resultProcessor;
+    private Object workerSuiteId;
+    private boolean processing;
+    private int outstanding;
+    private boolean workerStopped;
+
+    /**
+     * Starts the given worker process, which should run a {@link TestWorker}.
+     */
+    public ForkedTestWorker(WorkerProcess workerProcess, boolean reusable) {
+        this.workerProcess = workerProcess;
+        this.reusable = reusable;
+
+        workerProcess.addStopListener(new Runnable() {
+            public void run() {
+                onWorkerStop();
+            }
+        });
+        workerProcess.start();
+
+        workerProcess.getConnection().addIncoming(TestResultProcessor.class, new ForwardingResultProcessor());
+        workerProcess.getConnection().addIncoming(TestClassProcessedListener.class, new TestClassProcessedListener() {
+            public void testClassProcessed() {
+                onTestClassProcessed();
+            }
+        });
+        remoteProcessor = workerProcess.getConnection().addOutgoing(RemoteTestClassProcessor.class);
+    }
+
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return !workerStopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts processing test classes for a Test task.
+     *
+     * @param classPath The classpath to load test classes from, in addition to the worker's application classpath.
+     */
+    public void startProcessing(TestResultProcessor resultProcessor, WorkerTestClassProcessorFactory processorFactory, List<File> classPath) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            workerSuiteId = null;
+            processing = true;
+            outstanding = 0;
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.startProcessing(processorFactory, classPath);
+    }
+
+    /**
+     * Runs the given test class in the worker process. Blocks until the worker has finished with the test class.
+     */
+    public void processTestClass(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            outstanding++;
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.processTestClass(testClass);
+
+        lock.lock();
+        try {
+            while (outstanding > 0 && !workerStopped) {
+                await();
+            }
+            if (outstanding > 0) {
+                throw new ExecException(String.format("Test worker process stopped before it finished with test class %s.", testClass.getTestClassName()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops processing test classes for the current Test task. Blocks until all the results of the Test task have been received. A single use
+     * worker process is stopped.
+     */
+    public void stopProcessing() {
+        if (isRunning()) {
+            remoteProcessor.stop();
+        }
+        if (!reusable) {
+            workerProcess.waitForStop();
+            return;
+        }
+
+        lock.lock();
+        try {
+            while (processing && !workerStopped) {
+                await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!isRunning()) {
+            workerProcess.waitForStop();
+        }
+    }
+
+    /**
+     * Stops the worker process. Blocks until the worker process has stopped.
+     */
+    public void stop() {
+        if (isRunning()) {
+            remoteProcessor.stopWorker();
+        }
+        workerProcess.waitForStop();
+    }
+
+    private void await() {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void onTestClassProcessed() {
+        lock.lock();
+        try {
+            outstanding--;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onWorkerStop() {
+        lock.lock();
+        try {
+            workerStopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TestResultProcessor getResultProcessor() {
+        lock.lock();
+        try {
+            return resultProcessor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class ForwardingResultProcessor implements TestResultProcessor {
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            TestResultProcessor target;
+            lock.lock();
+            try {
+                // The first test started for a Test task is the suite for the worker process, which is completed once the worker is done
+                if (workerSuiteId == null) {
+                    workerSuiteId = test.getId();
+                }
+                target = resultProcessor;
+            } finally {
+                lock.unlock();
+            }
+            target.started(test, event);
+        }
+
+        public void completed(Object testId, TestCompleteEvent event) {
+            getResultProcessor().completed(testId, event);
+            lock.lock();
+            try {
+                if (testId.equals(workerSuiteId)) {
+                    processing = false;
+                    condition.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void output(Object testId, TestOutputEvent event) {
+            getResultProcessor().output(testId, event);
+        }
+
+        public void failure(Object testId, Throwable result) {
+            getResultProcessor().failure(testId, result);
+        }
+    }
+}
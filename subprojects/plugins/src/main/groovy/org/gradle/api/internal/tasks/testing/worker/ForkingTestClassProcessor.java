@@ -17,33 +17,53 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.internal.Factory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.process.JavaForkOptions;
-import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Runs test classes in a worker process. {@link #processTestClass(org.gradle.api.internal.tasks.testing.TestClassRunInfo)} blocks until the
+ * worker process has finished with the test class, so that the caller can decide which test class this processor should run next.
+ *
+ * <p>When a {@link WorkerProcessPool} is given, a worker process is taken from the pool if there is one with matching options, and is returned to
+ * the pool once processing has stopped. Such a worker has the jars of the test runtime classpath on its application classpath, and loads the
+ * directories of the classpath in a new ClassLoader each time it is used, so that it sees the current content of these directories.</p>
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
-    private RemoteTestClassProcessor remoteProcessor;
-    private WorkerProcess workerProcess;
+    private final WorkerProcessPool workerPool;
+    private ForkedTestWorker worker;
+    private Object workerKey;
     private TestResultProcessor resultProcessor;
 
     public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, null);
+    }
+
+    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction,
+                                     @Nullable WorkerProcessPool workerPool) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
+        this.workerPool = workerPool;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
@@ -51,30 +71,74 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
-        if (remoteProcessor == null) {
-            WorkerProcessBuilder builder = workerFactory.create();
-            builder.applicationClasspath(classPath);
-            builder.setLoadApplicationInSystemClassLoader(true);
-            builder.worker(new TestWorker(processorFactory));
-            options.copyTo(builder.getJavaCommand());
-            buildConfigAction.execute(builder);
-            
-            workerProcess = builder.build();
-            workerProcess.start();
+        if (worker == null) {
+            List<File> sessionClassPath;
+            if (workerPool == null) {
+                WorkerProcessBuilder builder = createBuilder(classPath, new TestWorker());
+                worker = new ForkedTestWorker(builder.build(), false);
+                sessionClassPath = Collections.emptyList();
+            } else {
+                List<File> libraries = new ArrayList<File>();
+                List<File> directories = new ArrayList<File>();
+                for (File file : classPath) {
+                    if (file.isDirectory()) {
+                        directories.add(file);
+                    } else {
+                        libraries.add(file);
+                    }
+                }
+                WorkerProcessBuilder builder = createBuilder(libraries, TestWorker.reusable(workerPool.getWorkerMaxIdleTimeMillis()));
+                workerKey = workerKey(builder, libraries);
+                worker = (ForkedTestWorker) workerPool.acquire(workerKey);
+                if (worker == null) {
+                    worker = new ForkedTestWorker(builder.build(), true);
+                }
+                sessionClassPath = directories;
+            }
+            worker.startProcessing(resultProcessor, processorFactory, sessionClassPath);
+        }
 
-            workerProcess.getConnection().addIncoming(TestResultProcessor.class, resultProcessor);
-            remoteProcessor = workerProcess.getConnection().addOutgoing(RemoteTestClassProcessor.class);
+        worker.processTestClass(testClass);
+    }
 
-            remoteProcessor.startProcessing();
-        }
+    private WorkerProcessBuilder createBuilder(Iterable<File> applicationClassPath, TestWorker testWorker) {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.applicationClasspath(applicationClassPath);
+        builder.setLoadApplicationInSystemClassLoader(true);
+        builder.worker(testWorker);
+        options.copyTo(builder.getJavaCommand());
+        buildConfigAction.execute(builder);
+        return builder;
+    }
 
-        remoteProcessor.processTestClass(testClass);
+    /**
+     * Returns a key which is equal for test worker processes which would be started with the same options, and with unchanged jars.
+     */
+    private Object workerKey(WorkerProcessBuilder builder, List<File> libraries) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        List<Object> key = new ArrayList<Object>();
+        key.add(ForkedTestWorker.class.getName());
+        key.add(processorFactory.getClass().getName());
+        key.add(builder.getSharedPackages());
+        key.add(builder.getLogLevel());
+        key.add(javaCommand.getExecutable());
+        key.add(javaCommand.getAllJvmArgs());
+        key.add(javaCommand.getActualEnvironment());
+        key.add(javaCommand.getWorkingDir());
+        for (File library : libraries) {
+            key.add(library);
+            key.add(library.length());
+            key.add(library.lastModified());
+        }
+        return key;
     }
 
     public void stop() {
-        if (remoteProcessor != null) {
-            remoteProcessor.stop();
-            workerProcess.waitForStop();
+        if (worker != null) {
+            worker.stopProcessing();
+            if (workerPool != null && worker.isRunning()) {
+                workerPool.release(workerKey, worker);
+            }
         }
     }
 }
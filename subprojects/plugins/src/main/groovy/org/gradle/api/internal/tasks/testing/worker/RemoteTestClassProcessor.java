@@ -17,15 +17,20 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
 
 /**
  * @see org.gradle.api.internal.tasks.testing.TestClassProcessor
  */
 public interface RemoteTestClassProcessor {
     /**
-     * Does not block.
+     * Starts processing test classes using a processor created by the given factory. The test classes are loaded from the given classpath
+     * in addition to the worker's application classpath. Does not block.
      */
-    void startProcessing();
+    void startProcessing(WorkerTestClassProcessorFactory factory, List<File> classPath);
 
     /**
      * Does not block.
@@ -33,7 +38,12 @@ public interface RemoteTestClassProcessor {
     void processTestClass(TestClassRunInfo testClass);
 
     /**
-     * Does not block.
+     * Stops processing test classes. A single use worker exits afterwards. Does not block.
      */
     void stop();
+
+    /**
+     * Stops a reusable worker, once it has stopped processing test classes. Does not block.
+     */
+    void stopWorker();
 }
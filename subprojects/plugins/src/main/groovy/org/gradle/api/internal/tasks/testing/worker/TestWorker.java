@@ -28,8 +28,8 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.id.RandomLongIdGenerator;
 import org.gradle.internal.service.DefaultServiceRegistry;
-import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.listener.ContextClassLoaderProxy;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.actor.internal.DefaultActorFactory;
@@ -38,37 +38,74 @@ import org.gradle.process.internal.WorkerProcessContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.Serializable;
-import java.util.concurrent.CountDownLatch;
-
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs test classes in a worker process. A single use worker exits once it has finished processing. A reusable worker processes test classes for
+ * one Test task after another, and exits when asked to, or when it has not been used for some time.
+ */
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
-    private final WorkerTestClassProcessorFactory factory;
-    private CountDownLatch completed;
-    private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private final boolean reusable;
+    private final long maxIdleTimeMillis;
+    private transient Lock lock;
+    private transient Condition condition;
+    private transient boolean processing;
+    private transient boolean stopped;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient DefaultServiceRegistry testServices;
+    private transient TestClassProcessor processor;
+    private transient TestResultProcessor resultProcessor;
+    private transient TestClassProcessedListener processedListener;
+
+    /**
+     * Creates a single use worker.
+     */
+    public TestWorker() {
+        this(false, 0);
+    }
 
-    public TestWorker(WorkerTestClassProcessorFactory factory) {
-        this.factory = factory;
+    private TestWorker(boolean reusable, long maxIdleTimeMillis) {
+        this.reusable = reusable;
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+    }
+
+    /**
+     * Creates a reusable worker, which exits after it has been idle for the given time.
+     */
+    public static TestWorker reusable(long maxIdleTimeMillis) {
+        return new TestWorker(true, maxIdleTimeMillis);
     }
 
     public void execute(final WorkerProcessContext workerProcessContext) {
         LOGGER.info("{} executing tests.", workerProcessContext.getDisplayName());
 
-        completed = new CountDownLatch(1);
+        this.workerProcessContext = workerProcessContext;
+        lock = new ReentrantLock();
+        condition = lock.newCondition();
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
-        DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
-        startReceivingTests(workerProcessContext, testServices);
+        Object idScope = workerProcessContext.getWorkerId();
+        if (reusable) {
+            // Worker ids are only unique within a build, and this worker may be used by later builds
+            idScope = new CompositeIdGenerator(idScope, new RandomLongIdGenerator()).generateId();
+        }
+        testServices = new TestFrameworkServiceRegistry(idScope);
+        startReceivingTests(workerProcessContext);
 
         try {
-            try {
-                completed.await();
-            } catch (InterruptedException e) {
-                throw new UncheckedException(e);
-            }
+            waitUntilStopped();
         } finally {
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
             // Clean out any security manager the tests might have installed
@@ -77,26 +114,66 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
-        TestClassProcessor targetProcessor = factory.create(testServices);
-        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
-
-        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
-                workerProcessContext.getDisplayName(), new TrueTimeProvider());
-        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-                TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
+    private void waitUntilStopped() {
+        lock.lock();
+        try {
+            while (!stopped) {
+                try {
+                    if (!reusable || processing) {
+                        condition.await();
+                    } else if (!condition.await(maxIdleTimeMillis, TimeUnit.MILLISECONDS) && !processing && !stopped) {
+                        LOGGER.info("{} has been idle for {} ms, stopping.", workerProcessContext.getDisplayName(), maxIdleTimeMillis);
+                        stopped = true;
+                    }
+                } catch (InterruptedException e) {
+                    throw new UncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    private void startReceivingTests(WorkerProcessContext workerProcessContext) {
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.processedListener = serverConnection.addOutgoing(TestClassProcessedListener.class);
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
     }
 
-    public void startProcessing() {
+    public void startProcessing(WorkerTestClassProcessorFactory factory, List<File> classPath) {
         Thread.currentThread().setName("Test worker");
+        setProcessing(true);
+
+        ClassLoader applicationClassLoader = workerProcessContext.getApplicationClassLoader();
+        if (!classPath.isEmpty()) {
+            // Load these classes again for each Test task, so that a reusable worker sees their current content
+            applicationClassLoader = new URLClassLoader(toUrls(classPath), applicationClassLoader);
+        }
+
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<?> idGenerator = testServices.get(IdGenerator.class);
+
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), new TrueTimeProvider());
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        processor = proxy.getSource();
         processor.startProcessing(resultProcessor);
     }
 
+    private URL[] toUrls(List<File> classPath) {
+        URL[] urls = new URL[classPath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = classPath.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+
     public void processTestClass(final TestClassRunInfo testClass) {
         Thread.currentThread().setName("Test worker");
         try {
@@ -104,6 +181,8 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            // Ask for the next test class
+            processedListener.testClassProcessed();
         }
     }
 
@@ -112,19 +191,46 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         try {
             processor.stop();
         } finally {
-            completed.countDown();
+            processor = null;
+            if (reusable) {
+                // Clean out any security manager the tests might have installed, before the next Test task uses this worker
+                System.setSecurityManager(null);
+                setProcessing(false);
+            } else {
+                stopWorker();
+            }
+        }
+    }
+
+    public void stopWorker() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setProcessing(boolean processing) {
+        lock.lock();
+        try {
+            this.processing = processing;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
-        private final WorkerProcessContext workerProcessContext;
+        private final Object idScope;
 
-        public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
-            this.workerProcessContext = workerProcessContext;
+        public TestFrameworkServiceRegistry(Object idScope) {
+            this.idScope = idScope;
         }
 
         protected IdGenerator<Object> createIdGenerator() {
-            return new CompositeIdGenerator(workerProcessContext.getWorkerId(), new LongIdGenerator());
+            return new CompositeIdGenerator(idScope, new LongIdGenerator());
         }
 
         protected ExecutorFactory createExecutorFactory() {
@@ -33,6 +33,7 @@ import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.Binary2JUnitXmlReportGenerator;
 import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.logging.*;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
@@ -56,6 +57,7 @@ import org.gradle.process.JavaForkOptions;
 import org.gradle.process.ProcessForkOptions;
 import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.util.ConfigureUtil;
 
 import javax.inject.Inject;
@@ -132,19 +134,20 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private boolean reuseForks;
     private TestReporter testReporter;
 
     @Inject
     public Test(ListenerManager listenerManager, StyledTextOutputFactory textOutputFactory, FileResolver fileResolver,
                 Factory<WorkerProcessBuilder> processBuilderFactory, ActorFactory actorFactory, Instantiator instantiator,
-                ProgressLoggerFactory progressLoggerFactory) {
+                ProgressLoggerFactory progressLoggerFactory, WorkerProcessPool workerProcessPool) {
         this.progressLoggerFactory = progressLoggerFactory;
         testListenerBroadcaster = listenerManager.createAnonymousBroadcaster(TestListener.class);
         testOutputListenerBroadcaster = listenerManager.createAnonymousBroadcaster(TestOutputListener.class);
         this.textOutputFactory = textOutputFactory;
         options = new DefaultJavaForkOptions(fileResolver);
         options.setEnableAssertions(true);
-        testExecuter = new DefaultTestExecuter(processBuilderFactory, actorFactory);
+        testExecuter = new DefaultTestExecuter(processBuilderFactory, actorFactory, workerProcessPool);
         testLogging = instantiator.newInstance(DefaultTestLoggingContainer.class, instantiator);
         testReporter = new DefaultTestReport();
     }
@@ -431,6 +434,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         addTestOutputListener(eventLogger);
 
         File binaryResultsDir = getBinResultsDir();
+        Map<String, Long> previousDurations = new TestResultSerializer().readDurations(binaryResultsDir);
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -445,19 +449,23 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 getTestListenerBroadcaster().getSource(), testOutputListenerBroadcaster.getSource());
 
         try {
-            testExecuter.execute(this, resultProcessor);
+            testExecuter.execute(this, resultProcessor, previousDurations);
         } finally {
             testListenerBroadcaster.removeAll(asList(eventLogger, testReportDataCollector, testCountLogger));
             testOutputListenerBroadcaster.removeAll(asList(eventLogger, testReportDataCollector));
         }
 
-        Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(getTestResultsDir(), testReportDataCollector);
-        binary2JUnitXmlReportGenerator.generate();
+        try {
+            Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(getTestResultsDir(), testReportDataCollector);
+            binary2JUnitXmlReportGenerator.generate();
 
-        if (!isTestReport()) {
-            getLogger().info("Test report disabled, omitting generation of the HTML test report.");
-        } else {
-            testReporter.generateReport(testReportDataCollector, getTestReportDir());
+            if (!isTestReport()) {
+                getLogger().info("Test report disabled, omitting generation of the HTML test report.");
+            } else {
+                testReporter.generateReport(testReportDataCollector, getTestReportDir());
+            }
+        } finally {
+            testReportDataCollector.close();
         }
 
         testFramework = null;
@@ -955,6 +963,35 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Specifies whether the forked test processes may be reused by other test tasks, in this build and in later builds run by the same Gradle
+     * daemon. A forked test process is only reused by a test task which uses the same JVM options, environment, working directory and test
+     * framework, and the same jars on its classpath. The directories on the classpath, such as the compiled test classes, are loaded again
+     * each time the process is reused, but static state held by classes from jars and changes made to system properties are carried over.
+     * Ignored when {@link #getForkEvery()} is not 0 or debugging is enabled. The default value is false.
+     *
+     * <p>When reuse is enabled, the directories on the classpath are loaded by a child ClassLoader of the system ClassLoader, rather than by the
+     * system ClassLoader itself. Code in the jars on the classpath which looks up classes or resources through the system ClassLoader, or
+     * through {@code Class.forName()} from one of its own classes, cannot see the classes and resources in these directories. Tests which rely on
+     * this behave differently to when reuse is disabled.</p>
+     *
+     * @return true if the forked test processes may be reused.
+     */
+    @Incubating
+    public boolean isReuseForks() {
+        return reuseForks;
+    }
+
+    /**
+     * Sets whether the forked test processes may be reused by other test tasks.
+     *
+     * @param reuseForks true if the forked test processes may be reused.
+     */
+    @Incubating
+    public void setReuseForks(boolean reuseForks) {
+        this.reuseForks = reuseForks;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -118,7 +118,11 @@ public class TestReport extends DefaultTask {
     @TaskAction
     void generateReport() {
         TestResultsProvider resultsProvider = new AggregateTestResultsProvider(getTestResultDirs().getFiles());
-        DefaultTestReport testReport = new DefaultTestReport();
-        testReport.generateReport(resultsProvider, getDestinationDir());
+        try {
+            DefaultTestReport testReport = new DefaultTestReport();
+            testReport.generateReport(resultsProvider, getDestinationDir());
+        } finally {
+            resultsProvider.close();
+        }
     }
 }
@@ -23,6 +23,7 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.tasks.testing.Test
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
+import org.gradle.process.internal.WorkerProcessPool
 import spock.lang.Specification
 
 class DefaultTestExecuterTest extends Specification {
@@ -38,7 +39,7 @@ class DefaultTestExecuterTest extends Specification {
     File testClassesDir = Mock()
     FileCollection testClasspath = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory)
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, Mock(WorkerProcessPool))
 
     def setup() {
         _ * testTask.testFramework >> testFramework
@@ -51,7 +52,7 @@ class DefaultTestExecuterTest extends Specification {
 
     def "testClassDirectory for testclassdetector is configured before executing"() {
         when:
-        executer.execute(testTask, testResultProcessor);
+        executer.execute(testTask, testResultProcessor, [:]);
         then:
         1 * testFramework.getDetector() >> testFrameworkTestDetector
         1 * testTask.getTestClassesDir() >> testClassesDir
@@ -60,7 +61,7 @@ class DefaultTestExecuterTest extends Specification {
 
     def "testClasspath for testclassdetector is configured before executing"() {
         when:
-        executer.execute(testTask, testResultProcessor);
+        executer.execute(testTask, testResultProcessor, [:]);
         then:
         1 * testTask.getClasspath() >> testClasspath
         1 * testFrameworkTestDetector.setTestClasspath(testClasspath)
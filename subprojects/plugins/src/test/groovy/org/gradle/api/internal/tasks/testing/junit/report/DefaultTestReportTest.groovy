@@ -16,12 +16,14 @@
 package org.gradle.api.internal.tasks.testing.junit.report
 
 import org.gradle.api.Action
+import org.gradle.api.GradleException
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
 import org.gradle.api.internal.tasks.testing.logging.SimpleTestResult
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ConfigureUtil
@@ -30,6 +32,10 @@ import org.jsoup.nodes.Document
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
 class DefaultTestReportTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -268,6 +274,52 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def generatesPageForEachClassUsingLimitedNumberOfThreads() {
+        given:
+        def report = new DefaultTestReport(new DefaultExecutorFactory(), 2)
+        def testTestResults = new ConcurrencyTrackingResultsProvider(2, buildResults {
+            (1..20).each { index ->
+                testClassResult("org.gradle.Test${index}") {
+                    testcase("test") {
+                        duration = 10
+                    }
+                    stdout = "output ${index}"
+                }
+            }
+        })
+
+        when:
+        report.generateReport(testTestResults, reportDir)
+
+        then:
+        testTestResults.maxWriting == 2
+
+        def index = results(indexFile)
+        index.assertHasTests(20)
+        index.assertHasDuration("0.200s")
+
+        (1..20).each {
+            def testClassFile = results(reportDir.file("org.gradle.Test${it}.html"))
+            testClassFile.assertHasTests(1)
+            testClassFile.assertHasStandardOutput("output ${it}")
+        }
+    }
+
+    def reportsFailureToGenerateClassPage() {
+        given:
+        def failure = new RuntimeException("broken")
+        _ * testResultProvider.visitClasses(_) >> { Action visitor -> visitor.execute(new TestClassResult("org.gradle.Test", 0)) }
+        _ * testResultProvider.hasOutput(_, _) >> true
+        _ * testResultProvider.writeOutputs(_, _, _) >> { throw failure }
+
+        when:
+        report.generateReport(testResultProvider, reportDir)
+
+        then:
+        GradleException e = thrown()
+        e.message == "Could not generate test report to '${reportDir}'."
+    }
+
     def results(TestFile file) {
         return new TestResultsFixture(file)
     }
@@ -277,6 +329,53 @@ class DefaultTestReportTest extends Specification {
     }
 }
 
+class ConcurrencyTrackingResultsProvider implements TestResultsProvider {
+    private final TestResultsProvider delegate
+    private final CountDownLatch started
+    private final AtomicInteger writing = new AtomicInteger()
+    private final AtomicInteger maxWriting = new AtomicInteger()
+
+    ConcurrencyTrackingResultsProvider(int expectedConcurrency, TestResultsProvider delegate) {
+        this.delegate = delegate
+        started = new CountDownLatch(expectedConcurrency)
+    }
+
+    int getMaxWriting() {
+        return maxWriting.get()
+    }
+
+    void writeOutputs(String className, TestOutputEvent.Destination destination, Writer writer) {
+        int current = writing.incrementAndGet()
+        while (true) {
+            int max = maxWriting.get()
+            if (current <= max || maxWriting.compareAndSet(max, current)) {
+                break
+            }
+        }
+        try {
+            // Waits until the expected number of pages are being rendered at the same time
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            Thread.sleep(10)
+            delegate.writeOutputs(className, destination, writer)
+        } finally {
+            writing.decrementAndGet()
+        }
+    }
+
+    void visitClasses(Action<? super TestClassResult> visitor) {
+        delegate.visitClasses(visitor)
+    }
+
+    boolean hasOutput(String className, TestOutputEvent.Destination destination) {
+        return delegate.hasOutput(className, destination)
+    }
+
+    void close() {
+        delegate.close()
+    }
+}
+
 class TestResultsBuilder implements TestResultsProvider {
     def testClasses = [:]
 
@@ -309,6 +408,9 @@ class TestResultsBuilder implements TestResultsProvider {
         }
     }
 
+    void close() {
+    }
+
     private static class BuildableTestClassResult extends TestClassResult {
         String stderr;
         String stdout;
@@ -22,6 +22,11 @@ import org.junit.Rule
 import spock.lang.Specification
 import org.gradle.api.GradleException
 import org.gradle.api.Action
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * by Szczepan Faber, created at: 11/19/12
@@ -58,6 +63,36 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         0 * generator.saxWriter._
     }
 
+    def "writes results for several classes concurrently, up to the maximum number of files at a time"() {
+        def generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, new DefaultExecutorFactory(), 2)
+        generator.saxWriter = Mock(JUnitXmlResultWriter)
+        def classes = (1..6).collect { new TestClassResult("Test${it}", 100) }
+        def started = new CountDownLatch(2)
+        def writing = new AtomicInteger()
+        def maxWriting = new AtomicInteger()
+
+        resultsProvider.visitClasses(_) >> { Action action ->
+            classes.each { action.execute(it) }
+        }
+
+        when:
+        generator.generate()
+
+        then:
+        6 * generator.saxWriter.write(_, _) >> {
+            updateMax(maxWriting, writing.incrementAndGet())
+            // The first two files are written at the same time
+            started.countDown()
+            assert started.await(20, TimeUnit.SECONDS)
+            Thread.sleep(10)
+            writing.decrementAndGet()
+        }
+        maxWriting.get() == 2
+        classes.each {
+            temp.testDirectory.file("TEST-${it.className}.xml").assertIsFile()
+        }
+    }
+
     def "adds context information to the failure if something goes wrong"() {
         def fooTest = new TestClassResult('FooTest', 100)
                 .add(new TestMethodResult("foo", Mock(TestResult)))
@@ -75,4 +110,13 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         ex.message.startsWith('Could not write XML test results for FooTest')
         ex.cause.message == "Boo!"
     }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        while (true) {
+            int current = max.get()
+            if (value <= current || max.compareAndSet(current, value)) {
+                return
+            }
+        }
+    }
 }
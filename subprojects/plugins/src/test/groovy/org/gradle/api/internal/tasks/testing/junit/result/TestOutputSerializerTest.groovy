@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.junit.result
 
+import org.gradle.api.Action
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -30,43 +31,97 @@ class TestOutputSerializerTest extends Specification {
     @Rule
     private TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     private serializer = new TestOutputSerializer(temp.testDirectory)
+    private class1 = new TestClassResult("Class1", 0)
+    private class2 = new TestClassResult("Class2", 0)
+
+    def cleanup() {
+        serializer.close()
+    }
 
     def "flushes all output when output finishes"() {
         when:
-        serializer.onOutput("Class1", StdOut, "[out]")
-        serializer.onOutput("Class2", StdErr, "[err]")
-        serializer.onOutput("Class1", StdErr, "[err]")
-        serializer.onOutput("Class1", StdOut, "[out2]")
+        serializer.onOutput(class1, StdOut, "[out]")
+        serializer.onOutput(class2, StdErr, "[err]")
+        serializer.onOutput(class1, StdErr, "[err]")
+        serializer.onOutput(class1, StdOut, "[out2]")
+        serializer.finishOutputs()
+
+        then:
+        collectOutput(class1, StdOut) == "[out][out2]"
+        collectOutput(class1, StdErr) == "[err]"
+        collectOutput(class2, StdErr) == "[err]"
+        collectOutput(class2, StdOut) == ""
+    }
+
+    def "writes all output to a single file"() {
+        when:
+        serializer.onOutput(class1, StdOut, "[out]")
+        serializer.onOutput(class2, StdErr, "[err]")
+        serializer.finishOutputs()
+
+        then:
+        temp.testDirectory.list() as List == [TestOutputSerializer.OUTPUT_FILE_NAME]
+    }
+
+    def "records where the output of a test class is held"() {
+        when:
+        serializer.onOutput(class1, StdOut, "[out]")
+        serializer.onOutput(class1, StdOut, "[out2]")
+        serializer.onOutput(class2, StdOut, "[other]")
+        serializer.onOutput(class1, StdOut, "[out3]")
         serializer.finishOutputs()
 
         then:
-        collectOutput("Class1", StdOut) == "[out][out2]"
-        collectOutput("Class1", StdErr) == "[err]"
-        collectOutput("Class2", StdErr) == "[err]"
+        def regions = class1.getOutput(StdOut)
+        regions.count == 2
+        regions.getOffset(0) == 0
+        regions.getLength(0) == 11
+        regions.getOffset(1) == 18
+        regions.getLength(1) == 6
+        class1.getOutput(StdErr).empty
     }
 
-    def "writes nothing for unknown test class"() {
+    def "reads back output containing non-ascii characters"() {
+        def message = "ż" * 5000
+
+        when:
+        serializer.onOutput(class1, StdOut, message)
+        serializer.onOutput(class2, StdOut, "[other]")
+        serializer.onOutput(class1, StdOut, "ą")
+        serializer.finishOutputs()
+
+        then:
+        collectOutput(class1, StdOut) == message + "ą"
+        collectOutput(class2, StdOut) == "[other]"
+    }
+
+    def "can read output using regions read from results file"() {
+        def resultSerializer = new TestResultSerializer()
+
         when:
+        serializer.onOutput(class1, StdOut, "[out]")
+        serializer.onOutput(class2, StdErr, "[err]")
         serializer.finishOutputs()
+        resultSerializer.write([class1, class2], temp.testDirectory)
+        def read = []
+        resultSerializer.read(temp.testDirectory, { read << it } as Action)
 
         then:
-        collectOutput("Unknown", StdErr) == ""
+        collectOutput(read[0], StdOut) == "[out]"
+        collectOutput(read[1], StdErr) == "[err]"
     }
 
-    def "can query whether output is available for a test class"() {
+    def "writes nothing for test class without output"() {
         when:
-        serializer.onOutput("Class1", StdOut, "[out]")
         serializer.finishOutputs()
 
         then:
-        serializer.hasOutput("Class1", StdOut)
-        !serializer.hasOutput("Class1", StdErr)
-        !serializer.hasOutput("Unknown", StdErr)
+        collectOutput(class1, StdErr) == ""
     }
 
-    String collectOutput(String className, TestOutputEvent.Destination destination) {
+    String collectOutput(TestClassResult classResult, TestOutputEvent.Destination destination) {
         def writer = new StringWriter()
-        serializer.writeOutputs(className, destination, writer)
+        serializer.writeOutputs(classResult.getOutput(destination), writer)
         return writer.toString()
     }
 }
@@ -126,18 +126,41 @@ class TestReportDataCollectorSpec extends Specification {
         collector.onOutput(test2, new DefaultTestOutputEvent(StdOut, "out"))
 
         then:
-        1 * outputSerializer.onOutput("FooTest", StdErr, "err")
-        1 * outputSerializer.onOutput("FooTest", StdOut, "out")
+        1 * outputSerializer.onOutput({ it.className == "FooTest" }, StdErr, "err")
+        1 * outputSerializer.onOutput({ it.className == "FooTest" }, StdOut, "out")
         0 * outputSerializer._
     }
 
     def "provides outputs"() {
+        def test = new DefaultTestDescriptor("1.1.1", "TestClass", "testMethod")
         def writer = new StringWriter()
+        collector.onOutput(test, new DefaultTestOutputEvent(StdErr, "err"))
 
         when:
         collector.writeOutputs("TestClass", StdErr, writer)
 
         then:
-        1 * outputSerializer.writeOutputs("TestClass", StdErr, writer)
+        1 * outputSerializer.writeOutputs(_, writer) >> { OutputRegions regions, Writer target -> target.write("err") }
+        writer.toString() == "err"
+    }
+
+    def "provides no outputs for unknown test class"() {
+        def writer = new StringWriter()
+
+        when:
+        collector.writeOutputs("Unknown", StdErr, writer)
+
+        then:
+        0 * outputSerializer._
+        writer.toString() == ""
+        !collector.hasOutput("Unknown", StdErr)
+    }
+
+    def "closes output when closed"() {
+        when:
+        collector.close()
+
+        then:
+        1 * outputSerializer.close()
     }
 }
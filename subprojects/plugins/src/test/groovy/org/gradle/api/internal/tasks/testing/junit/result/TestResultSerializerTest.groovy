@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junit.result
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
+import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
 import org.gradle.messaging.remote.internal.PlaceholderException
 import org.gradle.api.Action
@@ -93,6 +94,56 @@ class TestResultSerializerTest extends Specification {
         readMethod1.exceptions[0].stackTrace == failure.stackTrace
     }
 
+    def "can write and read where the output of each test class is held"() {
+        def class1 = new TestClassResult('Class1', 1234)
+        class1.getOutput(TestOutputEvent.Destination.StdOut).add(0, 10)
+        class1.getOutput(TestOutputEvent.Destination.StdOut).add(25, 5)
+        class1.getOutput(TestOutputEvent.Destination.StdErr).add(10, 15)
+        def class2 = new TestClassResult('Class2', 5678)
+
+        when:
+        def read = serialize([class1, class2])
+
+        then:
+        def stdOut = read[0].getOutput(TestOutputEvent.Destination.StdOut)
+        stdOut.count == 2
+        stdOut.getOffset(0) == 0
+        stdOut.getLength(0) == 10
+        stdOut.getOffset(1) == 25
+        stdOut.getLength(1) == 5
+        def stdErr = read[0].getOutput(TestOutputEvent.Destination.StdErr)
+        stdErr.count == 1
+        stdErr.getOffset(0) == 10
+        stdErr.getLength(0) == 15
+        read[1].getOutput(TestOutputEvent.Destination.StdOut).empty
+        read[1].getOutput(TestOutputEvent.Destination.StdErr).empty
+    }
+
+    def "can read the duration of each test class"() {
+        def class1 = new TestClassResult('Class1', 1000)
+        class1.add(new TestMethodResult("method1", TestResult.ResultType.SUCCESS, 100, 1100, []))
+        class1.add(new TestMethodResult("method2", TestResult.ResultType.SUCCESS, 200, 1400, []))
+        def class2 = new TestClassResult('Class2', 5678)
+        def dir = tmp.createDir("results")
+        serializer.write([class1, class2], dir)
+
+        expect:
+        serializer.readDurations(dir) == [Class1: 400L, Class2: 0L]
+    }
+
+    def "reads no durations when there are no results or they cannot be read"() {
+        def dir = tmp.createDir("results")
+
+        expect:
+        serializer.readDurations(dir).isEmpty()
+
+        when:
+        dir.file("results.bin").text = "broken"
+
+        then:
+        serializer.readDurations(dir).isEmpty()
+    }
+
     List<TestClassResult> serialize(Collection<TestClassResult> results) {
         def dir = tmp.createDir("results")
         serializer.write(results, dir)
@@ -21,9 +21,14 @@ import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
+import org.gradle.messaging.actor.internal.DefaultActorFactory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 import org.gradle.internal.Factory
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class MaxNParallelTestClassProcessorTest extends Specification {
     private final Factory<TestClassProcessor> factory = Mock()
     private final TestResultProcessor resultProcessor = Mock()
@@ -31,6 +36,13 @@ class MaxNParallelTestClassProcessorTest extends Specification {
     private final Actor resultProcessorActor = Mock()
     private final ActorFactory actorFactory = Mock()
     private final MaxNParallelTestClassProcessor processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory)
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+    private final DefaultActorFactory realActorFactory = new DefaultActorFactory(executorFactory)
+
+    def cleanup() {
+        realActorFactory.stop()
+        executorFactory.stop()
+    }
 
     def createsThreadSafeWrapperForResultProcessorOnStart() {
         when:
@@ -58,113 +70,116 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         processor.startProcessing(resultProcessor)
     }
 
-    def startsProcessorsOnDemandAndStopsAtEnd() {
-        TestClassRunInfo test = Mock()
+    def startsProcessorOnDemandAndStopsAtEnd() {
+        def test = testClass("Test")
         TestClassProcessor processor1 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        Actor actor1 = Mock()
-
-        startProcessor()
+        def processor = new MaxNParallelTestClassProcessor(2, factory, realActorFactory)
 
         when:
+        processor.startProcessing(resultProcessor)
         processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
         processor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * actor1.stop()
-        1 * resultProcessorActor.stop()
+        1 * factory.create() >> processor1
+        1 * processor1.startProcessing(!null)
+        1 * processor1.processTestClass(test)
+        1 * processor1.stop()
+        0 * factory._
     }
 
-    def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
-        TestClassRunInfo test = Mock()
+    def handsOutTestClassesWithNoPreviousDurationFirstThenLongestFirst() {
+        def first = testClass("First")
+        def short1 = testClass("Short1")
+        def new1 = testClass("New1")
+        def long1 = testClass("Long1")
+        def new2 = testClass("New2")
+        def short2 = testClass("Short2")
+        def queued = new CountDownLatch(1)
+        def processed = [].asSynchronized()
         TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
-
-        startProcessor()
+        def processor = new MaxNParallelTestClassProcessor(1, factory, realActorFactory, [Short1: 10L, Short2: 10L, Long1: 2000L])
 
         when:
-        processor.processTestClass(test)
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(first)
+        [short1, new1, long1, new2, short2].each { processor.processTestClass(it) }
+        queued.countDown()
+        processor.stop()
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
+        _ * processor1.processTestClass(_) >> { TestClassRunInfo test ->
+            if (test == first) {
+                assert queued.await(20, TimeUnit.SECONDS)
+            }
+            processed << test
+        }
+
+        and:
+        processed == [first, new1, new2, long1, short1, short2]
+    }
 
-        then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+    def handsNextTestClassToProcessorWhichIsFree() {
+        def slow = testClass("Slow")
+        def tests = [testClass("Test1"), testClass("Test2"), testClass("Test3")]
+        def finished = new CountDownLatch(1)
+        def processed = [:].asSynchronized()
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        def processor = new MaxNParallelTestClassProcessor(2, factory, realActorFactory)
 
         when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(slow)
+        tests.each { processor.processTestClass(it) }
         processor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * asyncProcessor2.stop()
+        2 * factory.create() >>> [processor1, processor2]
+        _ * processor1.processTestClass(_) >> { TestClassRunInfo test -> process(processor1, test, processed, slow, tests.last(), finished) }
+        _ * processor2.processTestClass(_) >> { TestClassRunInfo test -> process(processor2, test, processed, slow, tests.last(), finished) }
+
+        and:
+        def slowProcessor = processed.find { it.value.contains(slow) }.key
+        processed[slowProcessor] == [slow]
+        processed.find { it.key != slowProcessor }.value == tests
     }
 
-    def roundRobinsTestClassesToProcessors() {
-        TestClassRunInfo test = Mock()
+    def rethrowsFailureToProcessTestClassOnStop() {
+        def test = testClass("Test")
+        def failure = new RuntimeException("broken")
         TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
-
-        startProcessor()
+        def processor = new MaxNParallelTestClassProcessor(2, factory, realActorFactory)
 
         when:
+        processor.startProcessing(resultProcessor)
         processor.processTestClass(test)
+        processor.stop()
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
-
-        then:
-        1 * asyncProcessor1.processTestClass(test)
+        1 * processor1.processTestClass(test) >> { throw failure }
+        1 * processor1.stop()
+        RuntimeException e = thrown()
+        e == failure
+    }
 
-        when:
-        processor.processTestClass(test)
+    def process(TestClassProcessor target, TestClassRunInfo test, Map processed, TestClassRunInfo slow, TestClassRunInfo last, CountDownLatch finished) {
+        synchronized (processed) {
+            processed.get(target, []) << test
+        }
+        if (test == slow) {
+            // Hold on to the slow test class until the other processor has taken all the others
+            assert finished.await(20, TimeUnit.SECONDS)
+        } else if (test == last) {
+            finished.countDown()
+        }
+    }
 
-        then:
-        1 * asyncProcessor2.processTestClass(test)
+    def testClass(String name) {
+        TestClassRunInfo test = Stub()
+        _ * test.testClassName >> name
+        return test
     }
 }
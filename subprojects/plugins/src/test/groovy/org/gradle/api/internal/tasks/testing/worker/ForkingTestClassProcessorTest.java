@@ -18,26 +18,33 @@ package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.Action;
 import org.gradle.internal.Factory;
-import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
-import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.internal.TrueTimeProvider;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.util.JUnit4GroovyMockery;
 import org.jmock.Expectations;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(JMock.class)
 public class ForkingTestClassProcessorTest {
@@ -55,12 +62,16 @@ public class ForkingTestClassProcessorTest {
     @SuppressWarnings("unchecked")
     private final Action<WorkerProcessBuilder> action = context.mock(Action.class);
     private final ForkingTestClassProcessor processor = new ForkingTestClassProcessor(workerFactory, processorFactory, options, appClassPath, action);
+    private TestClassProcessedListener processedListener;
+    private TestResultProcessor remoteResultProcessor;
+    private Runnable stopListener;
 
     @Test
     public void onFirstTestCaseStartsWorkerProcess() {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(testClassProcessed());
         }});
 
         processor.startProcessing(resultProcessor);
@@ -72,7 +83,9 @@ public class ForkingTestClassProcessorTest {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(testClassProcessed());
             one(worker).processTestClass(test2);
+            will(testClassProcessed());
         }});
 
         processor.startProcessing(resultProcessor);
@@ -85,6 +98,7 @@ public class ForkingTestClassProcessorTest {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(testClassProcessed());
             one(worker).stop();
             one(workerProcess).waitForStop();
         }});
@@ -94,6 +108,80 @@ public class ForkingTestClassProcessorTest {
         processor.stop();
     }
 
+    @Test
+    public void failsWhenWorkerProcessStopsBeforeFinishingWithTestClass() {
+        expectWorkerProcessStarted();
+        context.checking(new Expectations() {{
+            allowing(test1).getTestClassName();
+            will(returnValue("SomeTest"));
+            one(worker).processTestClass(test1);
+            will(new CustomAction("stop worker process") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    stopListener.run();
+                    return null;
+                }
+            });
+        }});
+
+        processor.startProcessing(resultProcessor);
+        try {
+            processor.processTestClass(test1);
+            fail();
+        } catch (ExecException e) {
+            assertThat(e.getMessage(), equalTo("Test worker process stopped before it finished with test class SomeTest."));
+        }
+
+        context.checking(new Expectations() {{
+            one(workerProcess).waitForStop();
+        }});
+
+        processor.stop();
+    }
+
+    @Test
+    public void reusesWorkerProcessFromPool() {
+        WorkerProcessPool pool = new WorkerProcessPool(2, 60000, new TrueTimeProvider());
+        final TestResultProcessor resultProcessor2 = context.mock(TestResultProcessor.class, "resultProcessor2");
+        expectReusableWorkerProcessStarted();
+        expectSessionRuns(resultProcessor, test1, "suite1");
+
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(workerFactory, processorFactory, options, appClassPath, action, pool);
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+        processor.stop();
+
+        context.checking(new Expectations() {{
+            WorkerProcessBuilder builder = context.mock(WorkerProcessBuilder.class, "secondBuilder");
+            JavaExecHandleBuilder javaCommandBuilder = context.mock(JavaExecHandleBuilder.class, "secondJavaCommand");
+
+            one(workerFactory).create();
+            will(returnValue(builder));
+            ignoring(builder).worker(with(notNullValue(TestWorker.class)));
+            ignoring(builder).applicationClasspath(appClassPath);
+            ignoring(builder).setLoadApplicationInSystemClassLoader(true);
+            ignoring(action).execute(builder);
+            allowing(builder).getJavaCommand();
+            will(returnValue(javaCommandBuilder));
+            ignoring(options).copyTo(javaCommandBuilder);
+            ignoring(builder).getSharedPackages();
+            ignoring(builder).getLogLevel();
+            ignoring(javaCommandBuilder);
+        }});
+        expectSessionRuns(resultProcessor2, test2, "suite2");
+
+        ForkingTestClassProcessor processor2 = new ForkingTestClassProcessor(workerFactory, processorFactory, options, appClassPath, action, pool);
+        processor2.startProcessing(resultProcessor2);
+        processor2.processTestClass(test2);
+        processor2.stop();
+
+        context.checking(new Expectations() {{
+            one(worker).stopWorker();
+            one(workerProcess).waitForStop();
+        }});
+
+        pool.stop();
+    }
+
     @Test
     public void onEndProcessingDoesNothingIfNoTestsProcessed() {
         processor.startProcessing(resultProcessor);
@@ -125,17 +213,126 @@ public class ForkingTestClassProcessorTest {
             one(builder).build();
             will(returnValue(workerProcess));
 
+            one(workerProcess).addStopListener(with(notNullValue(Runnable.class)));
+            will(new CustomAction("capture stop listener") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    stopListener = (Runnable) invocation.getParameter(0);
+                    return null;
+                }
+            });
+
             allowing(workerProcess).getConnection();
             will(returnValue(connection));
 
-            one(connection).addIncoming(TestResultProcessor.class, resultProcessor);
-            
+            one(connection).addIncoming(with(equalTo(TestResultProcessor.class)), with(notNullValue(TestResultProcessor.class)));
+            will(new CustomAction("capture result processor") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    remoteResultProcessor = (TestResultProcessor) invocation.getParameter(1);
+                    return null;
+                }
+            });
+
+            one(connection).addIncoming(with(equalTo(TestClassProcessedListener.class)), with(notNullValue(TestClassProcessedListener.class)));
+            will(new CustomAction("capture processed listener") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    processedListener = (TestClassProcessedListener) invocation.getParameter(1);
+                    return null;
+                }
+            });
+
             one(connection).addOutgoing(RemoteTestClassProcessor.class);
             will(returnValue(worker));
 
             one(workerProcess).start();
 
-            one(worker).startProcessing();
+            one(worker).startProcessing(processorFactory, Collections.<File>emptyList());
         }});
     }
+
+    private void expectReusableWorkerProcessStarted() {
+        context.checking(new Expectations() {{
+            WorkerProcessBuilder builder = context.mock(WorkerProcessBuilder.class, "reusableBuilder");
+            ObjectConnection connection = context.mock(ObjectConnection.class, "reusableConnection");
+            JavaExecHandleBuilder javaCommandBuilder = context.mock(JavaExecHandleBuilder.class, "reusableJavaCommand");
+
+            one(workerFactory).create();
+            will(returnValue(builder));
+
+            one(builder).worker(with(notNullValue(TestWorker.class)));
+            one(builder).applicationClasspath(appClassPath);
+            one(builder).setLoadApplicationInSystemClassLoader(true);
+            one(action).execute(builder);
+            allowing(builder).getJavaCommand();
+            will(returnValue(javaCommandBuilder));
+            one(options).copyTo(javaCommandBuilder);
+            ignoring(builder).getSharedPackages();
+            ignoring(builder).getLogLevel();
+            ignoring(javaCommandBuilder);
+
+            one(builder).build();
+            will(returnValue(workerProcess));
+
+            one(workerProcess).addStopListener(with(notNullValue(Runnable.class)));
+            one(workerProcess).start();
+            allowing(workerProcess).getConnection();
+            will(returnValue(connection));
+            one(connection).addIncoming(with(equalTo(TestResultProcessor.class)), with(notNullValue(TestResultProcessor.class)));
+            will(new CustomAction("capture result processor") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    remoteResultProcessor = (TestResultProcessor) invocation.getParameter(1);
+                    return null;
+                }
+            });
+            one(connection).addIncoming(with(equalTo(TestClassProcessedListener.class)), with(notNullValue(TestClassProcessedListener.class)));
+            will(new CustomAction("capture processed listener") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    processedListener = (TestClassProcessedListener) invocation.getParameter(1);
+                    return null;
+                }
+            });
+            one(connection).addOutgoing(RemoteTestClassProcessor.class);
+            will(returnValue(worker));
+        }});
+    }
+
+    private void expectSessionRuns(final TestResultProcessor resultProcessor, final TestClassRunInfo test, final String suiteId) {
+        context.checking(new Expectations() {{
+            final TestDescriptorInternal suite = context.mock(TestDescriptorInternal.class, suiteId);
+            final TestStartEvent startEvent = new TestStartEvent(0);
+            final TestCompleteEvent completeEvent = new TestCompleteEvent(0);
+
+            allowing(suite).getId();
+            will(returnValue(suiteId));
+
+            one(worker).startProcessing(processorFactory, Collections.<File>emptyList());
+            will(new CustomAction("start worker suite") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    remoteResultProcessor.started(suite, startEvent);
+                    return null;
+                }
+            });
+            one(resultProcessor).started(suite, startEvent);
+
+            one(worker).processTestClass(test);
+            will(testClassProcessed());
+
+            one(worker).stop();
+            will(new CustomAction("complete worker suite") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    remoteResultProcessor.completed(suiteId, completeEvent);
+                    return null;
+                }
+            });
+            one(resultProcessor).completed(suiteId, completeEvent);
+        }});
+    }
+
+    private CustomAction testClassProcessed() {
+        return new CustomAction("test class processed") {
+            public Object invoke(Invocation invocation) throws Throwable {
+                processedListener.testClassProcessed();
+                return null;
+            }
+        };
+    }
 }
@@ -44,7 +44,8 @@ public class TestWorkerTest extends MultithreadedTestCase {
     private final TestClassProcessor processor = context.mock(TestClassProcessor.class)
     private final TestClassRunInfo test = context.mock(TestClassRunInfo.class)
     private final TestResultProcessor resultProcessor = context.mock(TestResultProcessor.class)
-    private final TestWorker worker = new TestWorker(factory)
+    private final TestClassProcessedListener processedListener = context.mock(TestClassProcessedListener.class)
+    private final TestWorker worker = new TestWorker()
 
     @Before
     public void setup() {
@@ -70,10 +71,13 @@ public class TestWorkerTest extends MultithreadedTestCase {
             one(connection).addOutgoing(TestResultProcessor.class)
             will(returnValue(resultProcessor))
 
+            one(connection).addOutgoing(TestClassProcessedListener.class)
+            will(returnValue(processedListener))
+
             one(connection).addIncoming(RemoteTestClassProcessor.class, worker)
             will {
                 start {
-                    worker.startProcessing()
+                    worker.startProcessing(factory, [])
                     worker.processTestClass(test)
                     syncAt(1)
                     worker.stop()
@@ -84,6 +88,7 @@ public class TestWorkerTest extends MultithreadedTestCase {
 
             one(processor).startProcessing(withParam(notNullValue()))
             one(processor).processTestClass(test)
+            one(processedListener).testClassProcessed()
             one(processor).stop()
         }
 
@@ -95,4 +100,67 @@ public class TestWorkerTest extends MultithreadedTestCase {
 
         assertThat(System.properties['org.gradle.test.worker'], equalTo('<worker-id>'))
     }
+
+    @Test
+    public void reusableWorkerProcessesTestsForEachSessionAndBlocksUntilStopped() {
+        TestWorker worker = TestWorker.reusable(60000)
+        TestClassProcessor processor2 = context.mock(TestClassProcessor.class, 'processor2')
+
+        context.checking {
+            one(connection).addOutgoing(TestResultProcessor.class)
+            will(returnValue(resultProcessor))
+
+            one(connection).addOutgoing(TestClassProcessedListener.class)
+            will(returnValue(processedListener))
+
+            one(connection).addIncoming(RemoteTestClassProcessor.class, worker)
+            will {
+                start {
+                    worker.startProcessing(factory, [])
+                    worker.processTestClass(test)
+                    worker.stop()
+                    worker.startProcessing(factory, [])
+                    worker.processTestClass(test)
+                    worker.stop()
+                    syncAt(1)
+                    worker.stopWorker()
+                }
+            }
+
+            ignoring(resultProcessor)
+
+            one(factory).create(withParam(notNullValue()))
+            will(returnValue(processor))
+            one(processor).startProcessing(withParam(notNullValue()))
+            one(processor).processTestClass(test)
+            one(processedListener).testClassProcessed()
+            one(processor).stop()
+
+            one(factory).create(withParam(notNullValue()))
+            will(returnValue(processor2))
+            one(processor2).startProcessing(withParam(notNullValue()))
+            one(processor2).processTestClass(test)
+            one(processedListener).testClassProcessed()
+            one(processor2).stop()
+        }
+
+        run {
+            expectBlocksUntil(1) {
+                worker.execute(workerContext)
+            }
+        }
+    }
+
+    @Test
+    public void reusableWorkerStopsWhenIdleForTooLong() {
+        TestWorker worker = TestWorker.reusable(100)
+
+        context.checking {
+            one(connection).addOutgoing(TestResultProcessor.class)
+            one(connection).addOutgoing(TestClassProcessedListener.class)
+            one(connection).addIncoming(RemoteTestClassProcessor.class, worker)
+        }
+
+        worker.execute(workerContext)
+    }
 }
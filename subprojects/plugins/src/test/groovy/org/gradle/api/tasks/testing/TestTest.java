@@ -53,6 +53,7 @@ import java.io.File;
 import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.util.Matchers.isEmpty;
@@ -190,7 +191,7 @@ public class TestTest extends AbstractConventionTaskTest {
             }
         });
         context.checking(new Expectations() {{
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Map.class)));
         }});
 
         WeakReference<TestFramework> weakRef = new WeakReference<TestFramework>(test.getTestFramework());
@@ -324,7 +325,7 @@ public class TestTest extends AbstractConventionTaskTest {
     private void expectTestsExecuted() {
         expectOptionsBuilt();
         context.checking(new Expectations() {{
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Map.class)));
         }});
     }
 
@@ -347,7 +348,7 @@ public class TestTest extends AbstractConventionTaskTest {
 
             ignoring(testDescriptor);
 
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Map.class)));
             will(new Action() {
                 public void describeTo(Description description) {
                     description.appendText("fail tests");